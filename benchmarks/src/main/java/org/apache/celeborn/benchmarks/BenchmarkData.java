@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/** Generates the data of the benchmarks. */
+final class BenchmarkData {
+  private static final String[] WORDS = new String[1000];
+
+  static {
+    Random random = new Random(42);
+    for (int i = 0; i < WORDS.length; i++) {
+      char[] word = new char[2 + random.nextInt(10)];
+      for (int j = 0; j < word.length; j++) {
+        word[j] = (char) ('a' + random.nextInt(26));
+      }
+      WORDS[i] = new String(word);
+    }
+  }
+
+  private BenchmarkData() {}
+
+  /** Text of random words, which compresses like typical shuffle data. */
+  static byte[] textBytes(int size) {
+    return textBytes(new Random(size), size);
+  }
+
+  private static byte[] textBytes(Random random, int size) {
+    StringBuilder builder = new StringBuilder(size + 16);
+    while (builder.length() < size) {
+      builder.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+    }
+    return Arrays.copyOf(builder.toString().getBytes(StandardCharsets.UTF_8), size);
+  }
+
+  /** Text records of the given size. */
+  static byte[][] textRecords(int numRecords, int recordSize) {
+    Random random = new Random(recordSize);
+    byte[][] records = new byte[numRecords][];
+    for (int i = 0; i < numRecords; i++) {
+      records[i] = textBytes(random, recordSize);
+    }
+    return records;
+  }
+}
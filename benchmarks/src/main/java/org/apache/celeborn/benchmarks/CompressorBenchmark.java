@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.apache.celeborn.client.compress.Compressor;
+import org.apache.celeborn.client.compress.Decompressor;
+import org.apache.celeborn.common.CelebornConf;
+
+/**
+ * Compresses and decompresses the batches pushed by a shuffle writer, one batch per operation.
+ *
+ * <p>To run this benchmark:
+ *
+ * <pre>
+ *   build/sbt "celeborn-benchmarks/Jmh/run -rf json CompressorBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressorBenchmark {
+
+  @Param({"LZ4", "ZSTD"})
+  public String codec;
+
+  @Param({"4096", "65536", "1048576"})
+  public int batchSize;
+
+  private byte[] data;
+  private byte[] compressed;
+  private byte[] decompressed;
+  private Compressor compressor;
+  private Decompressor decompressor;
+
+  @Setup
+  public void setup() {
+    CelebornConf conf =
+        new CelebornConf()
+            .set(CelebornConf.SHUFFLE_COMPRESSION_CODEC().key(), codec)
+            .set(CelebornConf.CLIENT_PUSH_BUFFER_MAX_SIZE().key(), String.valueOf(batchSize));
+    compressor = Compressor.getCompressor(conf);
+    decompressor = Decompressor.getDecompressor(conf);
+    data = BenchmarkData.textBytes(batchSize);
+    compressor.compress(data, 0, batchSize);
+    compressed =
+        Arrays.copyOf(compressor.getCompressedBuffer(), compressor.getCompressedTotalSize());
+    decompressed = new byte[batchSize];
+  }
+
+  @Benchmark
+  public void compress(Blackhole blackhole) {
+    compressor.compress(data, 0, batchSize);
+    blackhole.consume(compressor.getCompressedTotalSize());
+  }
+
+  @Benchmark
+  public int decompress() {
+    return decompressor.decompress(compressed, decompressed, 0);
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import scala.collection.JavaConverters;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.celeborn.common.util.FileChannelUtils;
+import org.apache.celeborn.service.deploy.worker.storage.FlushNotifier;
+import org.apache.celeborn.service.deploy.worker.storage.LocalFlushTask;
+
+/**
+ * Flushes 256 tasks of 256 KiB of one writer per operation, comparing per-component writes with
+ * gathering writes of single and coalesced tasks. The tasks are split into components of
+ * different sizes, and the write syscalls of each operation are reported as the writeSyscalls
+ * counter. Set the directory of the file with {@code -jvmArgs -Djava.io.tmpdir=<dir>} to flush to
+ * a given disk.
+ *
+ * <p>To run this benchmark:
+ *
+ * <pre>
+ *   build/sbt "celeborn-benchmarks/Jmh/run -rf json LocalFlushBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocalFlushBenchmark {
+  private static final int NUM_TASKS = 256;
+  private static final int TASK_SIZE = 256 * 1024;
+
+  @Param({"256", "64", "4"})
+  public int componentsPerTask;
+
+  private File file;
+  private FileChannel channel;
+  private final List<LocalFlushTask> tasks = new ArrayList<>();
+  // groups of consecutive tasks whose buffers fit in one gathering write, like the flusher
+  // coalesces them
+  private final List<scala.collection.immutable.List<LocalFlushTask>> coalescedTasks =
+      new ArrayList<>();
+
+  /** Write syscalls of the operations. */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Syscalls {
+    public long writeSyscalls;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      writeSyscalls = 0;
+    }
+  }
+
+  @Setup
+  public void setup() throws IOException {
+    file = File.createTempFile("flush-benchmark", ".data");
+    channel = FileChannelUtils.createWritableFileChannel(file.getPath());
+    PooledByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+    int componentSize = TASK_SIZE / componentsPerTask;
+    byte[] data = new byte[componentSize];
+    for (int i = 0; i < NUM_TASKS; i++) {
+      CompositeByteBuf buffer = allocator.compositeDirectBuffer(componentsPerTask);
+      for (int j = 0; j < componentsPerTask; j++) {
+        ByteBuf component = allocator.directBuffer(componentSize);
+        component.writeBytes(data);
+        buffer.addComponent(true, component);
+      }
+      tasks.add(new LocalFlushTask(buffer, channel, new FlushNotifier(), true));
+    }
+    List<LocalFlushTask> group = new ArrayList<>();
+    int numBuffers = 0;
+    for (LocalFlushTask task : tasks) {
+      int taskBuffers = task.buffer().nioBufferCount();
+      if (!group.isEmpty() && numBuffers + taskBuffers > LocalFlushTask.MAX_GATHER_BUFFERS()) {
+        coalescedTasks.add(toScala(group));
+        group = new ArrayList<>();
+        numBuffers = 0;
+      }
+      group.add(task);
+      numBuffers += taskBuffers;
+    }
+    coalescedTasks.add(toScala(group));
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    for (LocalFlushTask task : tasks) {
+      task.buffer().release();
+    }
+    channel.close();
+    file.delete();
+  }
+
+  @Setup(Level.Invocation)
+  public void truncate() throws IOException {
+    channel.truncate(0);
+  }
+
+  private static scala.collection.immutable.List<LocalFlushTask> toScala(
+      List<LocalFlushTask> tasks) {
+    return JavaConverters.asScalaBufferConverter(tasks).asScala().toList();
+  }
+
+  @Benchmark
+  public void writePerComponent(Syscalls syscalls) throws IOException {
+    for (LocalFlushTask task : tasks) {
+      task.flush();
+      syscalls.writeSyscalls += task.buffer().nioBufferCount();
+    }
+  }
+
+  @Benchmark
+  public void gatheringWrite(Syscalls syscalls) {
+    for (LocalFlushTask task : tasks) {
+      syscalls.writeSyscalls +=
+          LocalFlushTask.gatherFlush(toScala(Collections.singletonList(task)));
+    }
+  }
+
+  @Benchmark
+  public void gatheringWriteCoalescedTasks(Syscalls syscalls) {
+    for (scala.collection.immutable.List<LocalFlushTask> group : coalescedTasks) {
+      syscalls.writeSyscalls += LocalFlushTask.gatherFlush(group);
+    }
+  }
+}
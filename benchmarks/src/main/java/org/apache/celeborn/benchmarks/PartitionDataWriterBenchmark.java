@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.celeborn.common.CelebornConf;
+import org.apache.celeborn.common.identity.UserIdentifier;
+import org.apache.celeborn.common.protocol.PartitionLocation;
+import org.apache.celeborn.common.protocol.PartitionSplitMode;
+import org.apache.celeborn.common.protocol.PartitionType;
+import org.apache.celeborn.common.protocol.StorageInfo;
+import org.apache.celeborn.common.util.ThreadUtils;
+import org.apache.celeborn.service.deploy.worker.WorkerSource;
+import org.apache.celeborn.service.deploy.worker.memory.MemoryManager;
+import org.apache.celeborn.service.deploy.worker.storage.DeviceMonitor$;
+import org.apache.celeborn.service.deploy.worker.storage.LocalFlusher;
+import org.apache.celeborn.service.deploy.worker.storage.PartitionDataWriter;
+import org.apache.celeborn.service.deploy.worker.storage.PartitionDataWriterContext;
+import org.apache.celeborn.service.deploy.worker.storage.PartitionDataWriterSuiteUtils;
+import org.apache.celeborn.service.deploy.worker.storage.ReducePartitionDataWriter;
+import org.apache.celeborn.service.deploy.worker.storage.StorageManager;
+
+/**
+ * Writes 64k batches of 1 KiB to one hot partition per operation, comparing writes under the flush
+ * lock with combined appends while the pushing threads scale up. Set the directory of the file
+ * with {@code -jvmArgs -Djava.io.tmpdir=<dir>} to write to a given disk.
+ *
+ * <p>To run this benchmark:
+ *
+ * <pre>
+ *   build/sbt "celeborn-benchmarks/Jmh/run -rf json PartitionDataWriterBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartitionDataWriterBenchmark {
+  private static final UserIdentifier USER = new UserIdentifier("benchmark", "benchmark");
+  private static final int NUM_BATCHES = 64 * 1024;
+  private static final int BATCH_SIZE = 1024;
+
+  @Param({"1", "2", "4", "8", "16", "32", "64"})
+  public int threads;
+
+  @Param({"false", "true"})
+  public boolean combineAppends;
+
+  private final File dir = new File(System.getProperty("java.io.tmpdir"));
+  private CelebornConf conf;
+  private WorkerSource source;
+  private LocalFlusher flusher;
+  private ByteBuf[][] batches;
+  private ThreadPoolExecutor pool;
+  private PartitionDataWriter writer;
+
+  @Setup
+  public void setup() {
+    conf =
+        new CelebornConf()
+            .set(
+                CelebornConf.WORKER_WRITER_COMBINE_APPENDS_ENABLED().key(),
+                String.valueOf(combineAppends));
+    MemoryManager.initialize(conf);
+    source = new WorkerSource(conf);
+    PooledByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+    flusher =
+        new LocalFlusher(
+            source,
+            DeviceMonitor$.MODULE$.EmptyMonitor(),
+            1,
+            allocator,
+            256,
+            "disk",
+            StorageInfo.Type.SSD,
+            null,
+            false,
+            false);
+    // batches of random maps with the data header layout (mapId, attemptId, nextBatchId, length)
+    batches = new ByteBuf[threads][NUM_BATCHES / threads];
+    for (int thread = 0; thread < threads; thread++) {
+      for (int i = 0; i < batches[thread].length; i++) {
+        ByteBuf batch = allocator.directBuffer(BATCH_SIZE);
+        batch.writeIntLE(thread * 100 + i % 100);
+        batch.writeIntLE(0);
+        batch.writeIntLE(i);
+        batch.writeIntLE(BATCH_SIZE - 16);
+        batch.writerIndex(BATCH_SIZE);
+        batches[thread][i] = batch;
+      }
+    }
+    pool = ThreadUtils.newDaemonFixedThreadPool(threads, "writer-benchmark");
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+    flusher.stopFlag().set(true);
+    for (ByteBuf[] threadBatches : batches) {
+      for (ByteBuf batch : threadBatches) {
+        batch.release();
+      }
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void createWriter() throws IOException {
+    StorageManager storageManager =
+        PartitionDataWriterSuiteUtils.prepareDiskFileTestEnvironment(
+            dir, USER, flusher, true, conf);
+    writer =
+        new ReducePartitionDataWriter(
+            storageManager,
+            source,
+            conf,
+            DeviceMonitor$.MODULE$.EmptyMonitor(),
+            new PartitionDataWriterContext(
+                Long.MAX_VALUE,
+                PartitionSplitMode.HARD,
+                true,
+                new PartitionLocation(
+                    0, 0, "host", 1, 2, 3, 4, PartitionLocation.Mode.PRIMARY, null),
+                "benchmark-1",
+                1,
+                USER,
+                PartitionType.REDUCE,
+                false));
+  }
+
+  @TearDown(Level.Invocation)
+  public void deleteFile() {
+    writer.getFile().delete();
+  }
+
+  @Benchmark
+  public void write() throws IOException, InterruptedException {
+    CountDownLatch done = new CountDownLatch(threads);
+    for (ByteBuf[] threadBatches : batches) {
+      pool.submit(
+          () -> {
+            try {
+              for (ByteBuf batch : threadBatches) {
+                writer.incrementPendingWrites();
+                writer.write(batch);
+              }
+            } catch (IOException e) {
+              throw new RuntimeException(e);
+            } finally {
+              done.countDown();
+            }
+          });
+    }
+    done.await(10, TimeUnit.MINUTES);
+    writer.close();
+  }
+}
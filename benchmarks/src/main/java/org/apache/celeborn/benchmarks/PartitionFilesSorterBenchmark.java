@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.celeborn.common.CelebornConf;
+import org.apache.celeborn.common.identity.UserIdentifier;
+import org.apache.celeborn.common.meta.DiskFileInfo;
+import org.apache.celeborn.common.meta.FileInfo;
+import org.apache.celeborn.common.unsafe.Platform;
+import org.apache.celeborn.common.util.CelebornExitKind;
+import org.apache.celeborn.common.util.FileChannelUtils;
+import org.apache.celeborn.common.util.Utils;
+import org.apache.celeborn.service.deploy.worker.WorkerSource;
+import org.apache.celeborn.service.deploy.worker.memory.MemoryManager;
+import org.apache.celeborn.service.deploy.worker.storage.PartitionFilesSorter;
+
+/**
+ * Sorts a shuffle file of batches of 1000 random maps per operation, comparing the single threaded
+ * sort with parallel sorts. Set the directory of the file with {@code -jvmArgs
+ * -Djava.io.tmpdir=<dir>} to sort on a given disk.
+ *
+ * <p>To run this benchmark:
+ *
+ * <pre>
+ *   build/sbt "celeborn-benchmarks/Jmh/run -rf json PartitionFilesSorterBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PartitionFilesSorterBenchmark {
+  private static final UserIdentifier USER = new UserIdentifier("benchmark", "benchmark");
+  private static final int NUM_MAPS = 1000;
+  private static final int BATCH_SIZE = 64 * 1024;
+  private static final long CHUNK_SIZE = 8 * 1024 * 1024L;
+
+  @Param({"1", "2", "4", "8"})
+  public int parallelism;
+
+  @Param({"1024"})
+  public int fileSizeMb;
+
+  private CelebornConf conf;
+  private File file;
+  private final List<Long> chunkOffsets = new ArrayList<>();
+  private int nextId = 0;
+
+  @Setup
+  public void setup() throws IOException {
+    conf =
+        new CelebornConf()
+            .set(CelebornConf.SHUFFLE_CHUNK_SIZE().key(), String.valueOf(CHUNK_SIZE))
+            .set(CelebornConf.WORKER_PARTITION_SORTER_PREFETCH_ENABLED().key(), "false")
+            .set(CelebornConf.WORKER_PARTITION_SORTER_THREADS().key(), String.valueOf(parallelism))
+            .set(
+                CelebornConf.WORKER_PARTITION_SORTER_PARALLELISM().key(),
+                String.valueOf(parallelism))
+            .set(CelebornConf.WORKER_PARTITION_SORTER_PARALLEL_MIN_FILE_SIZE().key(), "0");
+    MemoryManager.initialize(conf);
+    file = File.createTempFile("sort-benchmark", ".data");
+    createShuffleFile(fileSizeMb * 1024L * 1024L);
+  }
+
+  @TearDown
+  public void tearDown() {
+    file.delete();
+    new File(Utils.getSortedFilePath(file.getAbsolutePath())).delete();
+    new File(Utils.getIndexFilePath(file.getAbsolutePath())).delete();
+  }
+
+  // writes batches of random maps, recording a chunk offset at every chunk size like a flush does
+  private void createShuffleFile(long fileSize) throws IOException {
+    Random random = new Random(42);
+    ByteBuffer batch = ByteBuffer.allocate(16 + BATCH_SIZE);
+    random.nextBytes(batch.array());
+    long written = 0;
+    long lastChunkOffset = 0;
+    try (FileChannel channel = FileChannelUtils.createWritableFileChannel(file.getPath())) {
+      while (written < fileSize) {
+        Platform.putInt(batch.array(), Platform.BYTE_ARRAY_OFFSET, random.nextInt(NUM_MAPS));
+        Platform.putInt(batch.array(), Platform.BYTE_ARRAY_OFFSET + 12, BATCH_SIZE);
+        batch.clear();
+        while (batch.hasRemaining()) {
+          channel.write(batch);
+        }
+        written += batch.capacity();
+        if (written - lastChunkOffset >= CHUNK_SIZE || written >= fileSize) {
+          chunkOffsets.add(written);
+          lastChunkOffset = written;
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public FileInfo sort() throws IOException {
+    DiskFileInfo fileInfo = new DiskFileInfo(file, USER, conf);
+    fileInfo.getReduceFileMeta().getChunkOffsets().addAll(chunkOffsets);
+    fileInfo.updateBytesFlushed(file.length());
+    // an open stream keeps the cleaner from deleting the origin file after sorting
+    fileInfo.addStream(0);
+    PartitionFilesSorter sorter =
+        new PartitionFilesSorter(MemoryManager.instance(), conf, new WorkerSource(conf));
+    try {
+      return sorter.getSortedFileInfo(
+          "benchmark-" + nextId++, file.getName(), fileInfo, 0, Integer.MAX_VALUE);
+    } finally {
+      sorter.close(CelebornExitKind.EXIT_IMMEDIATELY());
+    }
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.celeborn.client.LifecycleManager;
+import org.apache.celeborn.client.ShuffleClientImpl;
+import org.apache.celeborn.client.read.MetricsCallback;
+import org.apache.celeborn.common.CelebornConf;
+import org.apache.celeborn.common.identity.UserIdentifier;
+
+/**
+ * End to end shuffle on an in-process mini cluster, so that the push, flush, sort and fetch paths
+ * of the client and the worker are driven over loopback connections. Every operation shuffles 64
+ * MiB written by 4 mappers. The map range fetch reads half of the mappers, which makes the worker
+ * sort the files of a new shuffle in every operation.
+ *
+ * <p>To run this benchmark:
+ *
+ * <pre>
+ *   build/sbt "celeborn-benchmarks/Jmh/run -rf json ShuffleBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ShuffleBenchmark {
+  private static final String APP = "benchmark-app";
+  private static final int NUM_MAPPERS = 4;
+  private static final int BYTES_PER_MAPPER = 16 * 1024 * 1024;
+  private static final int PUSH_BUFFER_SIZE = 64 * 1024;
+
+  private static final MetricsCallback METRICS_CALLBACK =
+      new MetricsCallback() {
+        @Override
+        public void incBytesRead(long bytesRead) {}
+
+        @Override
+        public void incReadTime(long time) {}
+      };
+
+  @Param({"LZ4", "ZSTD", "NONE"})
+  public String codec;
+
+  @Param({"100", "10240"})
+  public int recordSize;
+
+  @Param({"10", "1000"})
+  public int numPartitions;
+
+  private BenchmarkCluster cluster;
+  private LifecycleManager lifecycleManager;
+  private ShuffleClientImpl client;
+  private byte[][] records;
+  private int lastShuffleId = 0;
+  private int writtenShuffleId;
+  private final List<Integer> pushedShuffleIds = new ArrayList<>();
+
+  @Setup
+  public void setup() throws IOException {
+    cluster = new BenchmarkCluster();
+    cluster.start(1, Collections.emptyMap());
+    CelebornConf conf =
+        new CelebornConf()
+            .set(CelebornConf.MASTER_ENDPOINTS().key(), cluster.getMasterEndpoints())
+            .set(CelebornConf.SHUFFLE_COMPRESSION_CODEC().key(), codec)
+            .set(
+                CelebornConf.CLIENT_PUSH_BUFFER_MAX_SIZE().key(),
+                String.valueOf(PUSH_BUFFER_SIZE));
+    lifecycleManager = new LifecycleManager(APP, conf);
+    client = new ShuffleClientImpl(APP, conf, new UserIdentifier("benchmark", "benchmark"));
+    client.setupLifecycleManagerRef(lifecycleManager.self());
+    records = BenchmarkData.textRecords(1024, recordSize);
+    writtenShuffleId = write();
+  }
+
+  @TearDown
+  public void tearDown() {
+    cleanup(writtenShuffleId);
+    client.shutdown();
+    lifecycleManager.stop();
+    cluster.stop();
+  }
+
+  // the shuffles pushed by an iteration are kept until it ends, to not time their cleanup
+  @TearDown(Level.Iteration)
+  public void cleanupPushed() {
+    for (int shuffleId : pushedShuffleIds) {
+      cleanup(shuffleId);
+    }
+    pushedShuffleIds.clear();
+  }
+
+  @Benchmark
+  public void push() throws IOException {
+    pushedShuffleIds.add(write());
+  }
+
+  @Benchmark
+  public long fetch() throws IOException {
+    return read(writtenShuffleId, Integer.MAX_VALUE);
+  }
+
+  @Benchmark
+  public long fetchMapRange(UnsortedShuffle shuffle) throws IOException {
+    return read(shuffle.shuffleId, NUM_MAPPERS / 2);
+  }
+
+  /** A new shuffle for every map range fetch, whose files have not been sorted. */
+  @State(Scope.Thread)
+  public static class UnsortedShuffle {
+    int shuffleId;
+
+    @Setup(Level.Invocation)
+    public void setup(ShuffleBenchmark benchmark) throws IOException {
+      shuffleId = benchmark.write();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown(ShuffleBenchmark benchmark) {
+      benchmark.cleanup(shuffleId);
+    }
+  }
+
+  // writes the records of every mapper into push buffers of their partitions like a shuffle
+  // writer does, returns the shuffle id
+  int write() throws IOException {
+    int shuffleId = ++lastShuffleId;
+    byte[][] buffers = new byte[numPartitions][PUSH_BUFFER_SIZE];
+    int[] lengths = new int[numPartitions];
+    for (int mapId = 0; mapId < NUM_MAPPERS; mapId++) {
+      long written = 0;
+      for (int i = 0; written < BYTES_PER_MAPPER; i++) {
+        byte[] record = records[i % records.length];
+        int partitionId = (i * 31 + mapId) % numPartitions;
+        if (lengths[partitionId] + record.length > PUSH_BUFFER_SIZE) {
+          push(shuffleId, mapId, partitionId, buffers[partitionId], lengths[partitionId]);
+          lengths[partitionId] = 0;
+        }
+        System.arraycopy(record, 0, buffers[partitionId], lengths[partitionId], record.length);
+        lengths[partitionId] += record.length;
+        written += record.length;
+      }
+      for (int partitionId = 0; partitionId < numPartitions; partitionId++) {
+        if (lengths[partitionId] > 0) {
+          push(shuffleId, mapId, partitionId, buffers[partitionId], lengths[partitionId]);
+          lengths[partitionId] = 0;
+        }
+      }
+      client.pushMergedData(shuffleId, mapId, 0);
+      client.mapperEnd(shuffleId, mapId, 0, NUM_MAPPERS);
+    }
+    return shuffleId;
+  }
+
+  private void push(int shuffleId, int mapId, int partitionId, byte[] buffer, int length)
+      throws IOException {
+    client.mergeData(
+        shuffleId, mapId, 0, partitionId, buffer, 0, length, NUM_MAPPERS, numPartitions);
+  }
+
+  private long read(int shuffleId, int endMapIndex) throws IOException {
+    byte[] buffer = new byte[64 * 1024];
+    long bytesRead = 0;
+    for (int partitionId = 0; partitionId < numPartitions; partitionId++) {
+      try (InputStream in =
+          client.readPartition(shuffleId, partitionId, 0, 0, endMapIndex, METRICS_CALLBACK)) {
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+          bytesRead += n;
+        }
+      }
+    }
+    return bytesRead;
+  }
+
+  void cleanup(int shuffleId) {
+    lifecycleManager.unregisterShuffle(shuffleId);
+    client.cleanupShuffle(shuffleId);
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.celeborn.common.network.protocol.Message;
+import org.apache.celeborn.common.network.protocol.PushData;
+import org.apache.celeborn.common.network.util.FrameDecoder;
+import org.apache.celeborn.common.network.util.TransportFrameDecoder;
+
+/**
+ * Decodes 64 MiB of push data frames from socket reads of different sizes per operation, so
+ * that frames are split across reads or several frames come in one read. Run it with {@code -prof
+ * gc} to see the heap allocated by decoding.
+ *
+ * <p>To run this benchmark:
+ *
+ * <pre>
+ *   build/sbt "celeborn-benchmarks/Jmh/run -rf json -prof gc TransportFrameDecoderBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransportFrameDecoderBenchmark {
+  private static final int TOTAL_BYTES = 64 * 1024 * 1024;
+
+  @Param({"1024", "65536", "1048576"})
+  public int bodySize;
+
+  @Param({"8192", "65536", "1048576"})
+  public int readSize;
+
+  private ByteBuf frames;
+  private int numFrames;
+
+  // push data frames as encoded by MessageEncoder, one after another
+  @Setup
+  public void setup() {
+    PushData header = new PushData((byte) 0, "application_1-0", "0-0", null);
+    numFrames = TOTAL_BYTES / bodySize;
+    frames =
+        PooledByteBufAllocator.DEFAULT.directBuffer(
+            numFrames * (FrameDecoder.HEADER_SIZE + header.encodedLength() + bodySize));
+    byte[] body = new byte[bodySize];
+    for (int i = 0; i < numFrames; i++) {
+      header.requestId = i;
+      frames.writeInt(header.encodedLength());
+      header.type().encode(frames);
+      frames.writeInt(bodySize);
+      header.encode(frames);
+      frames.writeBytes(body);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    frames.release();
+  }
+
+  @Benchmark
+  public long decode() {
+    ReleaseHandler handler = new ReleaseHandler();
+    EmbeddedChannel channel = new EmbeddedChannel(new TransportFrameDecoder(), handler);
+    int offset = 0;
+    while (offset < frames.writerIndex()) {
+      int length = Math.min(readSize, frames.writerIndex() - offset);
+      channel.writeInbound(frames.retainedSlice(offset, length));
+      offset += length;
+    }
+    channel.finishAndReleaseAll();
+    if (handler.numMessages != numFrames) {
+      throw new IllegalStateException(
+          "Decoded " + handler.numMessages + " frames, expected " + numFrames);
+    }
+    return handler.numMessages;
+  }
+
+  private static class ReleaseHandler extends ChannelInboundHandlerAdapter {
+    long numMessages = 0;
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+      Message message = (Message) msg;
+      if (message.body() != null) {
+        message.body().release();
+      }
+      numMessages++;
+    }
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.benchmarks
+
+import scala.collection.JavaConverters._
+
+import org.apache.celeborn.service.deploy.MiniClusterFeature
+
+/**
+ * An in-process mini cluster of a master and workers, for the benchmarks to push to and fetch
+ * from over loopback connections.
+ */
+class BenchmarkCluster extends MiniClusterFeature {
+
+  private var masterEndpoints: String = _
+
+  def start(workerNum: Int, workerConf: java.util.Map[String, String]): Unit = {
+    val (master, _) = setupMiniClusterWithRandomPorts(
+      workerConf = workerConf.asScala.toMap,
+      workerNum = workerNum)
+    masterEndpoints = s"localhost:${master.conf.masterPort}"
+  }
+
+  def getMasterEndpoints: String = masterEndpoints
+
+  def stop(): Unit = shutdownMiniCluster()
+}
@@ -119,8 +119,7 @@ class CelebornShuffleReader[K, C](
     val localFetchEnabled = conf.enableReadLocalShuffleFile
     val localHostAddress = Utils.localHostName(conf)
     val shuffleKey = Utils.makeShuffleKey(handle.appUniqueId, shuffleId)
-    // startPartition is irrelevant
-    val fileGroups = shuffleClient.updateFileGroup(shuffleId, startPartition)
+    val fileGroups = shuffleClient.updateFileGroup(shuffleId, startPartition, endPartition)
     // host-port -> (TransportClient, PartitionLocation Array, PbOpenStreamList)
     val workerRequestMap = new util.HashMap[
       String,
@@ -151,6 +150,7 @@ class CelebornShuffleReader[K, C](
             .addEndIndex(endMapIndex)
           pbOpenStreamListBuilder.addReadLocalShuffle(
             localFetchEnabled && location.getHost.equals(localHostAddress))
+          pbOpenStreamListBuilder.addRequireChunkOffsets(conf.clientFetchConcurrentReaders > 1)
         }
       }
     }
@@ -204,6 +204,12 @@ public abstract class ShuffleClient {
   public abstract ShuffleClientImpl.ReduceFileGroups updateFileGroup(int shuffleId, int partitionId)
       throws CelebornIOException;
 
+  // Get the file groups of the partitions in [startPartition, endPartition) of a reducer
+  public ShuffleClientImpl.ReduceFileGroups updateFileGroup(
+      int shuffleId, int startPartition, int endPartition) throws CelebornIOException {
+    return updateFileGroup(shuffleId, startPartition);
+  }
+
   // Reduce side read partition which is deduplicated by mapperId+mapperAttemptNum+batchId, batchId
   // is a self-incrementing variable hidden in the implementation when sending data.
   /**
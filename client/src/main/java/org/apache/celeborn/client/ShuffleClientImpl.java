@@ -19,6 +19,7 @@ package org.apache.celeborn.client;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
@@ -30,8 +31,11 @@ import scala.reflect.ClassTag$;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
@@ -54,6 +58,7 @@ import org.apache.celeborn.common.network.protocol.PushMergedData;
 import org.apache.celeborn.common.network.sasl.SaslClientBootstrap;
 import org.apache.celeborn.common.network.sasl.SaslCredentials;
 import org.apache.celeborn.common.network.server.BaseMessageHandler;
+import org.apache.celeborn.common.network.util.NettyUtils;
 import org.apache.celeborn.common.network.util.TransportConf;
 import org.apache.celeborn.common.protocol.*;
 import org.apache.celeborn.common.protocol.message.ControlMessages.*;
@@ -125,6 +130,8 @@ public class ShuffleClientImpl extends ShuffleClient {
   protected final String appUniqueId;
   private final boolean authEnabled;
   private final TransportConf dataTransportConf;
+  // allocator of the bodies of pushed batches, null if they are built in heap arrays
+  private final ByteBufAllocator pushBufferAllocator;
 
   private final ThreadLocal<Compressor> compressorThreadLocal =
       new ThreadLocal<Compressor>() {
@@ -167,6 +174,11 @@ public class ShuffleClientImpl extends ShuffleClient {
   protected final Map<Integer, Tuple2<ReduceFileGroups, String>> reduceFileGroupsMap =
       JavaUtils.newConcurrentHashMap();
 
+  // key: shuffleId, value: shard index -> file groups of the partitions in the shard
+  private final Map<Integer, Map<Integer, Tuple2<ReduceFileGroups, String>>>
+      reduceFileGroupShardsMap = JavaUtils.newConcurrentHashMap();
+  private final int fileGroupShardSize;
+
   public ShuffleClientImpl(String appUniqueId, CelebornConf conf, UserIdentifier userIdentifier) {
     super();
     this.appUniqueId = appUniqueId;
@@ -185,6 +197,7 @@ public class ShuffleClientImpl extends ShuffleClient {
       pushDataTimeout = conf.pushDataTimeoutMs();
     }
     authEnabled = conf.authEnabledOnClient();
+    fileGroupShardSize = conf.clientRpcGetReducerFileGroupShardSize();
 
     // init rpc env
     rpcEnv =
@@ -200,6 +213,12 @@ public class ShuffleClientImpl extends ShuffleClient {
     dataTransportConf =
         Utils.fromCelebornConf(conf, module, conf.getInt("celeborn." + module + ".io.threads", 8));
     initDataClientFactoryIfNeeded();
+    if (conf.clientPushPooledDirectBufferEnabled()) {
+      // bodies are released by netty and retry threads, so thread caches would not be reused
+      pushBufferAllocator = NettyUtils.getPooledByteBufAllocator(dataTransportConf, null, false);
+    } else {
+      pushBufferAllocator = null;
+    }
     int pushDataRetryThreads = conf.clientPushRetryThreads();
     pushDataRetryPool =
         ThreadUtils.newDaemonCachedThreadPool("celeborn-retry-sender", pushDataRetryThreads, 60);
@@ -257,7 +276,7 @@ public class ShuffleClientImpl extends ShuffleClient {
 
   private void submitRetryPushData(
       int shuffleId,
-      byte[] body,
+      PushBody body,
       int batchId,
       PushDataRpcResponseCallback pushDataRpcResponseCallback,
       PushState pushState,
@@ -292,6 +311,7 @@ public class ShuffleClientImpl extends ShuffleClient {
           batchId,
           loc);
       pushState.removeBatch(batchId, loc.hostAndPushPort());
+      body.release();
     } else if (request.reviveStatus != StatusCode.SUCCESS.getValue()) {
       pushDataRpcResponseCallback.onFailure(
           new CelebornIOException(
@@ -322,11 +342,10 @@ public class ShuffleClientImpl extends ShuffleClient {
             assert dataClientFactory != null;
             TransportClient client =
                 dataClientFactory.createClient(newLoc.getHost(), newLoc.getPushPort(), partitionId);
-            NettyManagedBuffer newBuffer = new NettyManagedBuffer(Unpooled.wrappedBuffer(body));
             String shuffleKey = Utils.makeShuffleKey(appUniqueId, shuffleId);
             PushData newPushData =
-                new PushData(PRIMARY_MODE, shuffleKey, newLoc.getUniqueId(), newBuffer);
-            client.pushData(newPushData, pushDataTimeout, pushDataRpcResponseCallback);
+                new PushData(PRIMARY_MODE, shuffleKey, newLoc.getUniqueId(), body.newBuffer());
+            body.sent(client.pushData(newPushData, pushDataTimeout, pushDataRpcResponseCallback));
           } else {
             throw new RuntimeException(
                 "Mock push data submit retry failed. remainReviveTimes = "
@@ -834,6 +853,98 @@ public class ShuffleClientImpl extends ShuffleClient {
     }
   }
 
+  // With a compressor, which is only given for a pooled direct body, the data is compressed into
+  // the body.
+  private PushBody newPushBody(
+      int mapId,
+      int attemptId,
+      int batchId,
+      byte[] data,
+      int offset,
+      int length,
+      Compressor compressor) {
+    ByteBuf buf;
+    if (pushBufferAllocator != null) {
+      int maxLength = compressor == null ? length : compressor.maxCompressedTotalSize(length);
+      buf = pushBufferAllocator.directBuffer(BATCH_HEADER_SIZE + maxLength);
+      try {
+        buf.writerIndex(BATCH_HEADER_SIZE);
+        if (compressor == null) {
+          buf.writeBytes(data, offset, length);
+        } else {
+          compressor.compress(data, offset, length, buf);
+        }
+      } catch (Throwable t) {
+        buf.release();
+        throw t;
+      }
+      int bodyLength = buf.writerIndex() - BATCH_HEADER_SIZE;
+      // the header is read by the worker in native byte order, as Platform.putInt writes it
+      if (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN) {
+        buf.setIntLE(0, mapId).setIntLE(4, attemptId).setIntLE(8, batchId).setIntLE(12, bodyLength);
+      } else {
+        buf.setInt(0, mapId).setInt(4, attemptId).setInt(8, batchId).setInt(12, bodyLength);
+      }
+    } else {
+      byte[] body = new byte[BATCH_HEADER_SIZE + length];
+      Platform.putInt(body, Platform.BYTE_ARRAY_OFFSET, mapId);
+      Platform.putInt(body, Platform.BYTE_ARRAY_OFFSET + 4, attemptId);
+      Platform.putInt(body, Platform.BYTE_ARRAY_OFFSET + 8, batchId);
+      Platform.putInt(body, Platform.BYTE_ARRAY_OFFSET + 12, length);
+      System.arraycopy(data, offset, body, BATCH_HEADER_SIZE, length);
+      buf = Unpooled.wrappedBuffer(body);
+    }
+    return new PushBody(buf);
+  }
+
+  /**
+   * Body of a pushed batch, shared by the first push and its retries. Every push sends a view of
+   * the body which does not own it, as the transport releases the message body after sending and
+   * again on some failures. The body itself is released once the batch is done and no write of it
+   * is pending, since a timed out push may still be queued in the channel.
+   */
+  private static class PushBody {
+    private final ByteBuf buf;
+    private int pendingWrites = 0;
+    private boolean done = false;
+    private boolean freed = false;
+
+    PushBody(ByteBuf buf) {
+      this.buf = buf;
+    }
+
+    int size() {
+      return buf.readableBytes();
+    }
+
+    NettyManagedBuffer newBuffer() {
+      return new NettyManagedBuffer(Unpooled.wrappedBuffer(buf.nioBuffer()));
+    }
+
+    synchronized void sent(ChannelFuture future) {
+      pendingWrites++;
+      future.addListener(f -> writeCompleted());
+    }
+
+    private synchronized void writeCompleted() {
+      pendingWrites--;
+      freeIfUnused();
+    }
+
+    synchronized void release() {
+      done = true;
+      freeIfUnused();
+    }
+
+    // a response may arrive before the write is registered, the write has completed then
+    private void freeIfUnused() {
+      if (done && pendingWrites == 0 && !freed) {
+        freed = true;
+        buf.release();
+      }
+    }
+  }
+
   private interface PushDataRpcResponseCallback extends RpcResponseCallback {
     default void updateLatestPartition(PartitionLocation latest) {}
   }
@@ -917,9 +1028,11 @@ public class ShuffleClientImpl extends ShuffleClient {
     // increment batchId
     final int nextBatchId = pushState.nextBatchId();
 
-    if (shuffleCompressionEnabled) {
+    final Compressor compressor = shuffleCompressionEnabled ? compressorThreadLocal.get() : null;
+    // a pooled direct body is compressed into, so the compressed data is not copied into it
+    final boolean compressIntoBody = compressor != null && doPush && pushBufferAllocator != null;
+    if (compressor != null && !compressIntoBody) {
       // compress data
-      final Compressor compressor = compressorThreadLocal.get();
       compressor.compress(data, offset, length);
 
       data = compressor.getCompressedBuffer();
@@ -927,30 +1040,37 @@ public class ShuffleClientImpl extends ShuffleClient {
       length = compressor.getCompressedTotalSize();
     }
 
-    final byte[] body = new byte[BATCH_HEADER_SIZE + length];
-    Platform.putInt(body, Platform.BYTE_ARRAY_OFFSET, mapId);
-    Platform.putInt(body, Platform.BYTE_ARRAY_OFFSET + 4, attemptId);
-    Platform.putInt(body, Platform.BYTE_ARRAY_OFFSET + 8, nextBatchId);
-    Platform.putInt(body, Platform.BYTE_ARRAY_OFFSET + 12, length);
-    System.arraycopy(data, offset, body, BATCH_HEADER_SIZE, length);
-
+    int bodySize = BATCH_HEADER_SIZE + length;
     if (doPush) {
       // check limit
       limitMaxInFlight(mapKey, pushState, loc.hostAndPushPort());
 
+      // allocated once the limit is passed, since nothing releases the body if the check throws
+      final PushBody body =
+          newPushBody(
+              mapId,
+              attemptId,
+              nextBatchId,
+              data,
+              offset,
+              length,
+              compressIntoBody ? compressor : null);
+      bodySize = body.size();
+
       // add inFlight requests
       pushState.addBatch(nextBatchId, loc.hostAndPushPort());
 
       // build PushData request
-      NettyManagedBuffer buffer = new NettyManagedBuffer(Unpooled.wrappedBuffer(body));
       final String shuffleKey = Utils.makeShuffleKey(appUniqueId, shuffleId);
-      PushData pushData = new PushData(PRIMARY_MODE, shuffleKey, loc.getUniqueId(), buffer);
+      PushData pushData =
+          new PushData(PRIMARY_MODE, shuffleKey, loc.getUniqueId(), body.newBuffer());
 
       // build callback
       RpcResponseCallback callback =
           new RpcResponseCallback() {
             @Override
             public void onSuccess(ByteBuffer response) {
+              body.release();
               if (response.remaining() > 0 && response.get() == StatusCode.MAP_ENDED.getValue()) {
                 mapperEndMap
                     .computeIfAbsent(shuffleId, (id) -> ConcurrentHashMap.newKeySet())
@@ -968,6 +1088,7 @@ public class ShuffleClientImpl extends ShuffleClient {
 
             @Override
             public void onFailure(Throwable e) {
+              body.release();
               String errorMsg =
                   String.format(
                       "Push data to %s failed for shuffle %d map %d attempt %d partition %d batch %d.",
@@ -1093,6 +1214,7 @@ public class ShuffleClientImpl extends ShuffleClient {
             @Override
             public void onFailure(Throwable e) {
               if (pushState.exception.get() != null) {
+                body.release();
                 return;
               }
               StatusCode cause = getPushDataFailCause(e.getMessage());
@@ -1138,6 +1260,7 @@ public class ShuffleClientImpl extends ShuffleClient {
                             dueTime));
               } else {
                 pushState.removeBatch(nextBatchId, latest.hostAndPushPort());
+                body.release();
                 logger.info(
                     "Push data to {} failed but mapper already ended for shuffle {} map {} attempt {} partition {} batch {}, remain revive times {}.",
                     latest.hostAndPushPort(),
@@ -1158,7 +1281,7 @@ public class ShuffleClientImpl extends ShuffleClient {
             assert dataClientFactory != null;
             TransportClient client =
                 dataClientFactory.createClient(loc.getHost(), loc.getPushPort(), partitionId);
-            client.pushData(pushData, pushDataTimeout, wrappedCallback);
+            body.sent(client.pushData(pushData, pushDataTimeout, wrappedCallback));
           } else {
             wrappedCallback.onFailure(
                 new CelebornIOException(
@@ -1180,6 +1303,13 @@ public class ShuffleClientImpl extends ShuffleClient {
             new CelebornIOException(StatusCode.PUSH_DATA_CREATE_CONNECTION_FAIL_PRIMARY, e));
       }
     } else {
+      final byte[] body = new byte[bodySize];
+      Platform.putInt(body, Platform.BYTE_ARRAY_OFFSET, mapId);
+      Platform.putInt(body, Platform.BYTE_ARRAY_OFFSET + 4, attemptId);
+      Platform.putInt(body, Platform.BYTE_ARRAY_OFFSET + 8, nextBatchId);
+      Platform.putInt(body, Platform.BYTE_ARRAY_OFFSET + 12, length);
+      System.arraycopy(data, offset, body, BATCH_HEADER_SIZE, length);
+
       // add batch data
       logger.debug("Merge batch {}.", nextBatchId);
       Pair<String, String> addressPair = genAddressPair(loc);
@@ -1196,9 +1326,25 @@ public class ShuffleClientImpl extends ShuffleClient {
             pushState,
             maxReviveTimes);
       }
+      // the merged data of other workers is pushed once its oldest batch waited the max linger,
+      // even if no more batch is merged for them
+      for (Pair<String, String> lingeredPair : pushState.lingeredAddressPairs()) {
+        limitMaxInFlight(mapKey, pushState, lingeredPair.getLeft());
+        DataBatches dataBatches = pushState.takeDataBatches(lingeredPair);
+        if (dataBatches != null) {
+          doPushMergedData(
+              lingeredPair,
+              shuffleId,
+              mapId,
+              attemptId,
+              dataBatches.requireBatches(),
+              pushState,
+              maxReviveTimes);
+        }
+      }
     }
 
-    return body.length;
+    return bodySize;
   }
 
   @Override
@@ -1273,7 +1419,9 @@ public class ShuffleClientImpl extends ShuffleClient {
       Map.Entry<Pair<String, String>, DataBatches> entry =
           batchesArr.get(RND.nextInt(batchesArr.size()));
       limitMaxInFlight(mapKey, pushState, entry.getKey().getLeft());
-      ArrayList<DataBatches.DataBatch> batches = entry.getValue().requireBatches(pushBufferMaxSize);
+      int pushSize =
+          (int) Math.min(pushState.mergedPushSize(entry.getKey().getLeft()), Integer.MAX_VALUE);
+      ArrayList<DataBatches.DataBatch> batches = entry.getValue().requireBatches(pushSize);
       if (entry.getValue().getTotalSize() == 0) {
         batchesArr.remove(entry);
       }
@@ -1294,6 +1442,7 @@ public class ShuffleClientImpl extends ShuffleClient {
     String[] hostPortArr = Utils.parseColonSeparatedHostPorts(hostPort, 1);
     final String host = hostPortArr[0];
     final int port = Integer.parseInt(hostPortArr[1]);
+    final long pushStartTime = System.nanoTime();
 
     int groupedBatchId = pushState.nextBatchId();
     pushState.addBatch(groupedBatchId, hostPort);
@@ -1333,6 +1482,7 @@ public class ShuffleClientImpl extends ShuffleClient {
                 groupedBatchId,
                 Arrays.toString(batchIds));
             pushState.removeBatch(groupedBatchId, hostPort);
+            pushState.onMergedPushSuccess(hostPort, System.nanoTime() - pushStartTime);
             if (response.remaining() > 0 && response.get() == StatusCode.MAP_ENDED.getValue()) {
               mapperEndMap
                   .computeIfAbsent(shuffleId, (id) -> ConcurrentHashMap.newKeySet())
@@ -1581,6 +1731,7 @@ public class ShuffleClientImpl extends ShuffleClient {
     // clear status
     reducePartitionMap.remove(shuffleId);
     reduceFileGroupsMap.remove(shuffleId);
+    reduceFileGroupShardsMap.remove(shuffleId);
     mapperEndMap.remove(shuffleId);
     stageEndShuffleSet.remove(shuffleId);
     splitting.remove(shuffleId);
@@ -1590,6 +1741,13 @@ public class ShuffleClientImpl extends ShuffleClient {
   }
 
   protected Tuple2<ReduceFileGroups, String> loadFileGroupInternal(int shuffleId) {
+    return loadFileGroupInternal(shuffleId, 0, 0);
+  }
+
+  // Loads the file groups of the partitions in [startPartition, endPartition), or of all
+  // partitions if the range is empty.
+  protected Tuple2<ReduceFileGroups, String> loadFileGroupInternal(
+      int shuffleId, int startPartition, int endPartition) {
     {
       long getReducerFileGroupStartTime = System.nanoTime();
       String exceptionMsg = null;
@@ -1598,7 +1756,8 @@ public class ShuffleClientImpl extends ShuffleClient {
           exceptionMsg = "Driver endpoint is null!";
           logger.warn(exceptionMsg);
         } else {
-          GetReducerFileGroup getReducerFileGroup = new GetReducerFileGroup(shuffleId);
+          GetReducerFileGroup getReducerFileGroup =
+              new GetReducerFileGroup(shuffleId, startPartition, endPartition);
 
           GetReducerFileGroupResponse response =
               lifecycleManagerRef.askSync(
@@ -1647,8 +1806,13 @@ public class ShuffleClientImpl extends ShuffleClient {
 
   public ReduceFileGroups updateFileGroup(int shuffleId, int partitionId)
       throws CelebornIOException {
-    Tuple2<ReduceFileGroups, String> fileGroupTuple =
-        reduceFileGroupsMap.computeIfAbsent(shuffleId, (id) -> loadFileGroupInternal(shuffleId));
+    Tuple2<ReduceFileGroups, String> fileGroupTuple;
+    if (fileGroupShardSize > 0) {
+      fileGroupTuple = loadFileGroupShard(shuffleId, partitionId / fileGroupShardSize);
+    } else {
+      fileGroupTuple =
+          reduceFileGroupsMap.computeIfAbsent(shuffleId, (id) -> loadFileGroupInternal(shuffleId));
+    }
     if (fileGroupTuple._1 == null) {
       throw new CelebornIOException(
           loadFileGroupException(shuffleId, partitionId, (fileGroupTuple._2)));
@@ -1657,6 +1821,37 @@ public class ShuffleClientImpl extends ShuffleClient {
     }
   }
 
+  @Override
+  public ReduceFileGroups updateFileGroup(int shuffleId, int startPartition, int endPartition)
+      throws CelebornIOException {
+    if (fileGroupShardSize <= 0
+        || startPartition / fileGroupShardSize == (endPartition - 1) / fileGroupShardSize) {
+      return updateFileGroup(shuffleId, startPartition);
+    }
+    // merge the shards covering the partition range
+    ReduceFileGroups fileGroups = new ReduceFileGroups(new HashMap<>(), null, new HashSet<>());
+    for (int shard = startPartition / fileGroupShardSize;
+        shard <= (endPartition - 1) / fileGroupShardSize;
+        shard++) {
+      int partitionId = Math.max(startPartition, shard * fileGroupShardSize);
+      ReduceFileGroups shardFileGroups = updateFileGroup(shuffleId, partitionId);
+      fileGroups.partitionGroups.putAll(shardFileGroups.partitionGroups);
+      fileGroups.mapAttempts = shardFileGroups.mapAttempts;
+      fileGroups.partitionIds.addAll(shardFileGroups.partitionIds);
+    }
+    return fileGroups;
+  }
+
+  private Tuple2<ReduceFileGroups, String> loadFileGroupShard(int shuffleId, int shard) {
+    return reduceFileGroupShardsMap
+        .computeIfAbsent(shuffleId, (id) -> JavaUtils.newConcurrentHashMap())
+        .computeIfAbsent(
+            shard,
+            (id) ->
+                loadFileGroupInternal(
+                    shuffleId, shard * fileGroupShardSize, (shard + 1) * fileGroupShardSize));
+  }
+
   protected String loadFileGroupException(int shuffleId, int partitionId, String exceptionMsg) {
     return String.format(
         "Failed to load file group of shuffle %d partition %d! %s",
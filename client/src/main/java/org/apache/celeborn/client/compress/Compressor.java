@@ -17,6 +17,8 @@
 
 package org.apache.celeborn.client.compress;
 
+import io.netty.buffer.ByteBuf;
+
 import org.apache.celeborn.common.CelebornConf;
 import org.apache.celeborn.common.protocol.CompressionCodec;
 
@@ -30,6 +32,19 @@ public interface Compressor {
 
   byte[] getCompressedBuffer();
 
+  /** Max compressed total size, header included, of data of the given length. */
+  int maxCompressedTotalSize(int length);
+
+  /**
+   * Compresses the data into dest at its writer index and advances the writer index by the
+   * compressed total size. By default the data is compressed into the compressed buffer and copied
+   * to dest.
+   */
+  default void compress(byte[] data, int offset, int length, ByteBuf dest) {
+    compress(data, offset, length);
+    dest.writeBytes(getCompressedBuffer(), 0, getCompressedTotalSize());
+  }
+
   default void writeIntLE(int i, byte[] buf, int off) {
     buf[off++] = (byte) i;
     buf[off++] = (byte) (i >>> 8);
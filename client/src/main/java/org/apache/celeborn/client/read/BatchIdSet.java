@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.client.read;
+
+import io.netty.util.collection.IntObjectHashMap;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Ids of the batches read of each map, used to skip batches which are read more than once. Batch
+ * ids of a map attempt are increasing, but shared by all partitions the map writes to, so the ids
+ * seen by one reducer are sparse and kept in a bitmap per map.
+ */
+class BatchIdSet {
+  private final IntObjectHashMap<RoaringBitmap> batchIds = new IntObjectHashMap<>();
+  // batches of a map mostly come one after another, especially from sorted files
+  private int lastMapId = -1;
+  private RoaringBitmap lastBatchIds;
+
+  /** Adds the batch of the map, returns false if it has been added before. */
+  boolean add(int mapId, int batchId) {
+    if (mapId != lastMapId) {
+      RoaringBitmap ids = batchIds.get(mapId);
+      if (ids == null) {
+        ids = new RoaringBitmap();
+        batchIds.put(mapId, ids);
+      }
+      lastMapId = mapId;
+      lastBatchIds = ids;
+    }
+    return lastBatchIds.checkedAdd(batchId);
+  }
+}
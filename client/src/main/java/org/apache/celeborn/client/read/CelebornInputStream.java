@@ -131,7 +131,7 @@ public abstract class CelebornInputStream extends InputStream {
     private final int startMapIndex;
     private final int endMapIndex;
 
-    private Map<Integer, Set<Integer>> batchesRead = new HashMap<>();
+    private BatchIdSet batchesRead = new BatchIdSet();
 
     private byte[] compressedBuf;
     private byte[] rawDataBuf;
@@ -163,6 +163,12 @@ public abstract class CelebornInputStream extends InputStream {
     private long fetchExcludedWorkerExpireTimeout;
     private ConcurrentHashMap<String, Long> fetchExcludedWorkers;
 
+    // readers opened ahead of the current reader, which fetch chunks before they are read
+    private final int concurrentReaders;
+    private final long readAheadMaxBytes;
+    private final LinkedList<ReaderAhead> readersAhead = new LinkedList<>();
+    private long bytesReadAhead = 0;
+
     private boolean containLocalRead = false;
     private ShuffleClient shuffleClient;
     private int appShuffleId;
@@ -216,6 +222,8 @@ public abstract class CelebornInputStream extends InputStream {
         fetchChunkMaxRetry = conf.clientFetchMaxRetriesForEachReplica();
       }
       this.retryWaitMs = conf.networkIoRetryWaitMs(TransportModuleConstants.DATA_MODULE);
+      this.concurrentReaders = conf.clientFetchConcurrentReaders();
+      this.readAheadMaxBytes = conf.clientFetchConcurrentReadersMaxBytesInFlight();
       this.callback = metricsCallback;
       this.exceptionMaker = exceptionMaker;
       this.partitionId = partitionId;
@@ -226,6 +234,23 @@ public abstract class CelebornInputStream extends InputStream {
       moveToNextReader(false);
     }
 
+    private static class ReaderAhead {
+      final PartitionReader reader;
+      // index of the location of the reader
+      final int locationIndex;
+      // retry count of creating the reader, which counts for its fetch retries
+      final int fetchChunkRetryCnt;
+      final long bytesFetched;
+
+      ReaderAhead(
+          PartitionReader reader, int locationIndex, int fetchChunkRetryCnt, long bytesFetched) {
+        this.reader = reader;
+        this.locationIndex = locationIndex;
+        this.fetchChunkRetryCnt = fetchChunkRetryCnt;
+        this.bytesFetched = bytesFetched;
+      }
+    }
+
     private boolean skipLocation(int startMapIndex, int endMapIndex, PartitionLocation location) {
       if (!rangeReadFilter) {
         return false;
@@ -271,27 +296,73 @@ public abstract class CelebornInputStream extends InputStream {
         currentReader.close();
         currentReader = null;
       }
-      Tuple2<PartitionLocation, PbStreamHandler> currentLocation = nextReadableLocation();
-      if (currentLocation == null) {
-        return;
-      }
-      currentReader = createReaderWithRetry(currentLocation._1, currentLocation._2);
-      fileIndex++;
-      while (!currentReader.hasNext()) {
+      currentReader = nextReader();
+      while (currentReader != null && !currentReader.hasNext()) {
         currentReader.close();
-        currentReader = null;
-        currentLocation = nextReadableLocation();
-        if (currentLocation == null) {
-          return;
-        }
-        currentReader = createReaderWithRetry(currentLocation._1, currentLocation._2);
-        fileIndex++;
+        currentReader = nextReader();
+      }
+      if (currentReader == null) {
+        return;
       }
+      openReadersAhead();
       if (fetchChunk) {
         currentChunk = getNextChunk();
       }
     }
 
+    private PartitionReader nextReader() throws IOException {
+      ReaderAhead readerAhead = readersAhead.pollFirst();
+      if (readerAhead != null) {
+        bytesReadAhead -= readerAhead.bytesFetched;
+        fetchChunkRetryCnt = readerAhead.fetchChunkRetryCnt;
+        return readerAhead.reader;
+      }
+      Tuple2<PartitionLocation, PbStreamHandler> location = nextReadableLocation();
+      if (location == null) {
+        return null;
+      }
+      PartitionReader reader = createReaderWithRetry(location._1, location._2);
+      fileIndex++;
+      return reader;
+    }
+
+    /**
+     * Opens the readers of the next locations while the current reader is read, so that a partition
+     * split to many workers is fetched from them concurrently. Readers ahead fetch chunks as long
+     * as the fetched bytes of all readers ahead fit in the limit.
+     */
+    private void openReadersAhead() throws IOException {
+      int currentRetryCnt = fetchChunkRetryCnt;
+      try {
+        while (readersAhead.size() < concurrentReaders - 1 && bytesReadAhead < readAheadMaxBytes) {
+          Tuple2<PartitionLocation, PbStreamHandler> location = nextReadableLocation();
+          if (location == null) {
+            return;
+          }
+          PartitionReader reader = createReaderWithRetry(location._1, location._2);
+          int locationIndex = fileIndex++;
+          long bytesFetched = 0;
+          if (reader instanceof WorkerPartitionReader) {
+            try {
+              bytesFetched =
+                  ((WorkerPartitionReader) reader).prefetch(readAheadMaxBytes - bytesReadAhead);
+            } catch (Exception e) {
+              // the reader fetches again and handles the failure when it is read
+              logger.warn("Prefetch chunks failed for location {}", reader.getLocation(), e);
+              if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+              }
+            }
+          }
+          bytesReadAhead += bytesFetched;
+          readersAhead.add(
+              new ReaderAhead(reader, locationIndex, fetchChunkRetryCnt, bytesFetched));
+        }
+      } finally {
+        fetchChunkRetryCnt = currentRetryCnt;
+      }
+    }
+
     private void excludeFailedLocation(PartitionLocation location, Exception e) {
       if (pushReplicateEnabled && fetchExcludeWorkerOnFailureEnabled && isCriticalCause(e)) {
         fetchExcludedWorkers.put(location.hostAndFetchPort(), System.currentTimeMillis());
@@ -544,6 +615,10 @@ public abstract class CelebornInputStream extends InputStream {
           currentReader.close();
           currentReader = null;
         }
+        for (ReaderAhead readerAhead : readersAhead) {
+          readerAhead.reader.close();
+        }
+        readersAhead.clear();
         if (containLocalRead) {
           ShuffleClient.printReadStats(logger);
         }
@@ -568,7 +643,7 @@ public abstract class CelebornInputStream extends InputStream {
       if (currentReader.hasNext()) {
         currentChunk = getNextChunk();
         return true;
-      } else if (fileIndex < locations.size()) {
+      } else if (fileIndex < locations.size() || !readersAhead.isEmpty()) {
         moveToNextReader(true);
         return currentReader != null;
       }
@@ -627,13 +702,7 @@ public abstract class CelebornInputStream extends InputStream {
 
           // de-duplicate
           if (attemptId == attempts[mapId]) {
-            if (!batchesRead.containsKey(mapId)) {
-              Set<Integer> batchSet = new HashSet<>();
-              batchesRead.put(mapId, batchSet);
-            }
-            Set<Integer> batchSet = batchesRead.get(mapId);
-            if (!batchSet.contains(batchId)) {
-              batchSet.add(batchId);
+            if (batchesRead.add(mapId, batchId)) {
               callback.incBytesRead(BATCH_HEADER_SIZE + size);
               if (shuffleCompressionEnabled) {
                 // decompress data
@@ -685,7 +754,9 @@ public abstract class CelebornInputStream extends InputStream {
 
     @Override
     public int partitionsRead() {
-      return fileIndex;
+      // the locations of the readers opened ahead are not read yet
+      ReaderAhead readerAhead = readersAhead.peekFirst();
+      return readerAhead == null ? fileIndex : readerAhead.locationIndex;
     }
   }
 }
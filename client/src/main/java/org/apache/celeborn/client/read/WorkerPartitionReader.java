@@ -63,6 +63,7 @@ public class WorkerPartitionReader implements PartitionReader {
   private final String shuffleKey;
   private final int fetchMaxReqsInFlight;
   private final long fetchTimeoutMs;
+  private final long defaultChunkSize;
   private boolean closed = false;
 
   // for test
@@ -86,6 +87,7 @@ public class WorkerPartitionReader implements PartitionReader {
     fetchMaxReqsInFlight = conf.clientFetchMaxReqsInFlight();
     results = new LinkedBlockingQueue<>();
     fetchTimeoutMs = conf.clientFetchTimeoutMs();
+    defaultChunkSize = conf.shuffleChunkSize();
     this.metricsCallback = metricsCallback;
     // only add the buffer to results queue if this reader is not closed.
     callback =
@@ -126,6 +128,8 @@ public class WorkerPartitionReader implements PartitionReader {
                   .setFileName(location.getFileName())
                   .setStartIndex(startMapIndex)
                   .setEndIndex(endMapIndex)
+                  // only readers opened ahead size the chunks they prefetch
+                  .setRequireChunkOffsets(conf.clientFetchConcurrentReaders() > 1)
                   .build()
                   .toByteArray());
       ByteBuffer response = client.sendRpcSync(openStreamMsg.toByteBuffer(), fetchTimeoutMs);
@@ -201,35 +205,69 @@ public class WorkerPartitionReader implements PartitionReader {
     return location;
   }
 
+  /**
+   * Fetches chunks before the reader is read, as long as the requested chunks fit in the given
+   * bytes. Returns the bytes of the requested chunks.
+   */
+  long prefetch(long maxBytes) throws IOException, InterruptedException {
+    final int toFetch =
+        Math.min(
+            fetchMaxReqsInFlight - (chunkIndex - returnedChunks),
+            streamHandler.getNumChunks() - chunkIndex);
+    long bytes = 0;
+    for (int i = 0; i < toFetch; i++) {
+      long chunkBytes = chunkSize(chunkIndex);
+      if (bytes + chunkBytes > maxBytes) {
+        break;
+      }
+      bytes += chunkBytes;
+      fetchChunk();
+    }
+    return bytes;
+  }
+
+  // streams opened on older workers come without chunk offsets, their chunks are taken to be of
+  // the chunk size
+  private long chunkSize(int index) {
+    if (streamHandler.getChunkOffsetsCount() > index + 1) {
+      return streamHandler.getChunkOffsets(index + 1) - streamHandler.getChunkOffsets(index);
+    }
+    return defaultChunkSize;
+  }
+
   private void fetchChunks() throws IOException, InterruptedException {
     final int inFlight = chunkIndex - returnedChunks;
     if (inFlight < fetchMaxReqsInFlight) {
       final int toFetch =
           Math.min(fetchMaxReqsInFlight - inFlight + 1, streamHandler.getNumChunks() - chunkIndex);
       for (int i = 0; i < toFetch; i++) {
-        if (testFetch && fetchChunkRetryCnt < fetchChunkMaxRetry - 1 && chunkIndex == 3) {
-          callback.onFailure(chunkIndex, new CelebornIOException("Test fetch chunk failure"));
-        } else {
-          if (!client.isActive()) {
-            try {
-              client = clientFactory.createClient(location.getHost(), location.getFetchPort());
-            } catch (IOException e) {
-              logger.error(
-                  "FetchChunk for shuffleKey: {}, streamId: {}, chunkIndex: {} failed.",
-                  shuffleKey,
-                  streamHandler.getStreamId(),
-                  chunkIndex,
-                  e);
-              ExceptionUtils.wrapAndThrowIOException(e);
-            } catch (InterruptedException e) {
-              logger.error("PartitionReader thread interrupted while fetching chunks.");
-              throw e;
-            }
-          }
-          client.fetchChunk(streamHandler.getStreamId(), chunkIndex, fetchTimeoutMs, callback);
-          chunkIndex++;
+        fetchChunk();
+      }
+    }
+  }
+
+  private void fetchChunk() throws IOException, InterruptedException {
+    if (testFetch && fetchChunkRetryCnt < fetchChunkMaxRetry - 1 && chunkIndex == 3) {
+      callback.onFailure(chunkIndex, new CelebornIOException("Test fetch chunk failure"));
+    } else {
+      if (!client.isActive()) {
+        try {
+          client = clientFactory.createClient(location.getHost(), location.getFetchPort());
+        } catch (IOException e) {
+          logger.error(
+              "FetchChunk for shuffleKey: {}, streamId: {}, chunkIndex: {} failed.",
+              shuffleKey,
+              streamHandler.getStreamId(),
+              chunkIndex,
+              e);
+          ExceptionUtils.wrapAndThrowIOException(e);
+        } catch (InterruptedException e) {
+          logger.error("PartitionReader thread interrupted while fetching chunks.");
+          throw e;
         }
       }
+      client.fetchChunk(streamHandler.getStreamId(), chunkIndex, fetchTimeoutMs, callback);
+      chunkIndex++;
     }
   }
 
@@ -262,8 +262,16 @@ class CommitManager(appUniqueId: String, val conf: CelebornConf, lifecycleManage
     getCommitHandler(shuffleId).waitStageEnd(shuffleId)
   }
 
-  def handleGetReducerFileGroup(context: RpcCallContext, shuffleId: Int): Unit = {
-    getCommitHandler(shuffleId).handleGetReducerFileGroup(context, shuffleId)
+  def handleGetReducerFileGroup(
+      context: RpcCallContext,
+      shuffleId: Int,
+      startPartition: Int,
+      endPartition: Int): Unit = {
+    getCommitHandler(shuffleId).handleGetReducerFileGroup(
+      context,
+      shuffleId,
+      startPartition,
+      endPartition)
   }
 
   // exposed for test
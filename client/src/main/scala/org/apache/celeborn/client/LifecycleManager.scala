@@ -400,9 +400,10 @@ class LifecycleManager(val appUniqueId: String, val conf: CelebornConf) extends
           throw new UnsupportedOperationException(s"Not support $partitionType yet")
       }
 
-    case GetReducerFileGroup(shuffleId: Int) =>
-      logDebug(s"Received GetShuffleFileGroup request for shuffleId $shuffleId.")
-      handleGetReducerFileGroup(context, shuffleId)
+    case GetReducerFileGroup(shuffleId: Int, startPartition: Int, endPartition: Int) =>
+      logDebug(s"Received GetShuffleFileGroup request for shuffleId $shuffleId, " +
+        s"partitions [$startPartition, $endPartition).")
+      handleGetReducerFileGroup(context, shuffleId, startPartition, endPartition)
 
     case pb: PbGetShuffleId =>
       val appShuffleId = pb.getAppShuffleId
@@ -774,7 +775,9 @@ class LifecycleManager(val appUniqueId: String, val conf: CelebornConf) extends
 
   private def handleGetReducerFileGroup(
       context: RpcCallContext,
-      shuffleId: Int): Unit = {
+      shuffleId: Int,
+      startPartition: Int,
+      endPartition: Int): Unit = {
     if (!registeredShuffle.contains(shuffleId)) {
       logWarning(s"[handleGetReducerFileGroup] shuffle $shuffleId not registered, maybe no shuffle data within this stage.")
       context.reply(GetReducerFileGroupResponse(
@@ -783,7 +786,7 @@ class LifecycleManager(val appUniqueId: String, val conf: CelebornConf) extends
         Array.empty))
       return
     }
-    commitManager.handleGetReducerFileGroup(context, shuffleId)
+    commitManager.handleGetReducerFileGroup(context, shuffleId, startPartition, endPartition)
   }
 
   private def handleGetShuffleIdForApp(
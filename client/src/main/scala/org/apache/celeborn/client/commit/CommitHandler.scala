@@ -18,6 +18,7 @@
 package org.apache.celeborn.client.commit
 
 import java.util
+import java.util.Collections
 import java.util.concurrent.{ConcurrentHashMap, LinkedBlockingQueue, ThreadPoolExecutor, TimeUnit}
 import java.util.concurrent.atomic.{AtomicLong, LongAdder}
 
@@ -69,6 +70,7 @@ abstract class CommitHandler(
 
   private val pushReplicateEnabled = conf.clientPushReplicateEnabled
   private val clientRpcCommitFilesAskTimeout = conf.clientRpcCommitFilesAskTimeout
+  private val commitFilesMaxPartitionsPerRequest = conf.clientCommitFilesMaxPartitionsPerRequest
 
   private val commitEpoch = new AtomicLong()
   private val totalWritten = new LongAdder
@@ -173,8 +175,14 @@ abstract class CommitHandler(
    * Only Reduce partition mode supports cache all file groups for reducer. Map partition doesn't guarantee that all
    * partitions are complete by the time the method is called, as downstream tasks may start early before all tasks
    * are completed.So map partition may need refresh reducer file group if needed.
+   * Reducers of reduce partitions can get the file groups of a partition range, see
+   * [[GetReducerFileGroup]].
    */
-  def handleGetReducerFileGroup(context: RpcCallContext, shuffleId: Int): Unit
+  def handleGetReducerFileGroup(
+      context: RpcCallContext,
+      shuffleId: Int,
+      startPartition: Int,
+      endPartition: Int): Unit
 
   def removeExpiredShuffle(shuffleId: Int): Unit = {
     reducerFileGroupsMap.remove(shuffleId)
@@ -269,9 +277,14 @@ abstract class CommitHandler(
     val futures = new LinkedBlockingQueue[CommitFutureWithStatus]()
 
     val startTime = System.currentTimeMillis()
-    val outFutures = params.filter(param =>
+    // the requests of a worker are pipelined, and the response of each request is processed as
+    // soon as it finishes
+    val batchedParams = params.filter(param =>
       !CollectionUtils.isEmpty(param.primaryIds) ||
-        !CollectionUtils.isEmpty(param.replicaIds)) map { param =>
+        !CollectionUtils.isEmpty(param.replicaIds)).flatMap { param =>
+      CommitHandler.splitCommitFilesParam(param, commitFilesMaxPartitionsPerRequest)
+    }
+    val outFutures = batchedParams map { param =>
       Future {
         val msg = CommitFiles(
           appUniqueId,
@@ -549,3 +562,26 @@ abstract class CommitHandler(
     }
   }
 }
+
+object CommitHandler {
+
+  /**
+   * Splits the partitions of the worker into params of at most maxPartitions partitions, so that
+   * the partitions are committed by pipelined requests. The param is not split if maxPartitions
+   * is not positive.
+   */
+  def splitCommitFilesParam(param: CommitFilesParam, maxPartitions: Int): Seq[CommitFilesParam] = {
+    val primaryIds = Option(param.primaryIds).getOrElse(Collections.emptyList[String]())
+    val replicaIds = Option(param.replicaIds).getOrElse(Collections.emptyList[String]())
+    if (maxPartitions <= 0 || primaryIds.size() + replicaIds.size() <= maxPartitions) {
+      Seq(param)
+    } else {
+      val empty = Collections.emptyList[String]()
+      primaryIds.asScala.grouped(maxPartitions).map { ids =>
+        CommitFilesParam(param.worker, new util.ArrayList[String](ids.asJava), empty)
+      }.toSeq ++ replicaIds.asScala.grouped(maxPartitions).map { ids =>
+        CommitFilesParam(param.worker, empty, new util.ArrayList[String](ids.asJava))
+      }.toSeq
+    }
+  }
+}
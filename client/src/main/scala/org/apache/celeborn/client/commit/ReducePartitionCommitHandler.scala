@@ -61,8 +61,9 @@ class ReducePartitionCommitHandler(
     sharedRpcPool)
   with Logging {
 
+  // pending requests of unfinished stages, with their partition ranges
   private val getReducerFileGroupRequest =
-    JavaUtils.newConcurrentHashMap[Int, util.Set[RpcCallContext]]()
+    JavaUtils.newConcurrentHashMap[Int, util.Set[(RpcCallContext, Int, Int)]]()
   private val dataLostShuffleSet = ConcurrentHashMap.newKeySet[Int]()
   private val stageEndShuffleSet = ConcurrentHashMap.newKeySet[Int]()
   private val inProcessStageEndShuffleSet = ConcurrentHashMap.newKeySet[Int]()
@@ -73,12 +74,14 @@ class ReducePartitionCommitHandler(
   private val rpcCacheConcurrencyLevel = conf.clientRpcCacheConcurrencyLevel
   private val rpcCacheExpireTime = conf.clientRpcCacheExpireTime
 
+  // serialized responses keyed by (shuffleId, startPartition, endPartition)
   // noinspection UnstableApiUsage
-  private val getReducerFileGroupRpcCache: Cache[Int, ByteBuffer] = CacheBuilder.newBuilder()
-    .concurrencyLevel(rpcCacheConcurrencyLevel)
-    .expireAfterWrite(rpcCacheExpireTime, TimeUnit.MILLISECONDS)
-    .maximumSize(rpcCacheSize)
-    .build().asInstanceOf[Cache[Int, ByteBuffer]]
+  private val getReducerFileGroupRpcCache: Cache[(Int, Int, Int), ByteBuffer] =
+    CacheBuilder.newBuilder()
+      .concurrencyLevel(rpcCacheConcurrencyLevel)
+      .expireAfterWrite(rpcCacheExpireTime, TimeUnit.MILLISECONDS)
+      .maximumSize(rpcCacheSize)
+      .build().asInstanceOf[Cache[(Int, Int, Int), ByteBuffer]]
 
   override def getPartitionType(): PartitionType = {
     PartitionType.REDUCE
@@ -111,7 +114,9 @@ class ReducePartitionCommitHandler(
     // In case of stage with no shuffle data, register shuffle will not be called,
     // so here we still need to check null.
     if (requests != null && !requests.isEmpty) {
-      requests.asScala.foreach(replyGetReducerFileGroup(_, shuffleId))
+      requests.asScala.foreach { case (context, startPartition, endPartition) =>
+        replyGetReducerFileGroup(context, shuffleId, startPartition, endPartition)
+      }
     }
   }
 
@@ -255,7 +260,7 @@ class ReducePartitionCommitHandler(
 
   override def registerShuffle(shuffleId: Int, numMappers: Int): Unit = {
     super.registerShuffle(shuffleId, numMappers)
-    getReducerFileGroupRequest.put(shuffleId, new util.HashSet[RpcCallContext]())
+    getReducerFileGroupRequest.put(shuffleId, new util.HashSet[(RpcCallContext, Int, Int)]())
     initMapperAttempts(shuffleId, numMappers)
   }
 
@@ -269,7 +274,35 @@ class ReducePartitionCommitHandler(
     }
   }
 
-  private def replyGetReducerFileGroup(context: RpcCallContext, shuffleId: Int): Unit = {
+  // file groups of the partitions in [startPartition, endPartition), or of all partitions if
+  // the range is empty
+  private def getFileGroups(
+      shuffleId: Int,
+      startPartition: Int,
+      endPartition: Int): util.Map[Integer, util.Set[PartitionLocation]] = {
+    val fileGroups =
+      reducerFileGroupsMap.getOrDefault(shuffleId, JavaUtils.newConcurrentHashMap())
+    if (endPartition <= startPartition) {
+      fileGroups
+    } else {
+      val rangeFileGroups = new util.HashMap[Integer, util.Set[PartitionLocation]]()
+      var partitionId = startPartition
+      while (partitionId < endPartition) {
+        val locations = fileGroups.get(partitionId)
+        if (locations != null) {
+          rangeFileGroups.put(partitionId, locations)
+        }
+        partitionId += 1
+      }
+      rangeFileGroups
+    }
+  }
+
+  private def replyGetReducerFileGroup(
+      context: RpcCallContext,
+      shuffleId: Int,
+      startPartition: Int,
+      endPartition: Int): Unit = {
     if (isStageDataLost(shuffleId)) {
       context.reply(
         GetReducerFileGroupResponse(
@@ -282,16 +315,16 @@ class ReducePartitionCommitHandler(
       if (context.isInstanceOf[LocalNettyRpcCallContext]) {
         context.reply(GetReducerFileGroupResponse(
           StatusCode.SUCCESS,
-          reducerFileGroupsMap.getOrDefault(shuffleId, JavaUtils.newConcurrentHashMap()),
+          getFileGroups(shuffleId, startPartition, endPartition),
           getMapperAttempts(shuffleId)))
       } else {
         val cachedMsg = getReducerFileGroupRpcCache.get(
-          shuffleId,
+          (shuffleId, startPartition, endPartition),
           new Callable[ByteBuffer]() {
             override def call(): ByteBuffer = {
               val returnedMsg = GetReducerFileGroupResponse(
                 StatusCode.SUCCESS,
-                reducerFileGroupsMap.getOrDefault(shuffleId, JavaUtils.newConcurrentHashMap()),
+                getFileGroups(shuffleId, startPartition, endPartition),
                 getMapperAttempts(shuffleId))
               context.asInstanceOf[RemoteNettyRpcCallContext].nettyEnv.serialize(returnedMsg)
             }
@@ -301,17 +334,21 @@ class ReducePartitionCommitHandler(
     }
   }
 
-  override def handleGetReducerFileGroup(context: RpcCallContext, shuffleId: Int): Unit = {
+  override def handleGetReducerFileGroup(
+      context: RpcCallContext,
+      shuffleId: Int,
+      startPartition: Int,
+      endPartition: Int): Unit = {
     // Quick return for ended stage, avoid occupy sync lock.
     if (isStageEnd(shuffleId)) {
-      replyGetReducerFileGroup(context, shuffleId)
+      replyGetReducerFileGroup(context, shuffleId, startPartition, endPartition)
     } else {
       getReducerFileGroupRequest.synchronized {
         // If setStageEnd() called after isStageEnd and before got lock, should reply here.
         if (isStageEnd(shuffleId)) {
-          replyGetReducerFileGroup(context, shuffleId)
+          replyGetReducerFileGroup(context, shuffleId, startPartition, endPartition)
         } else {
-          getReducerFileGroupRequest.get(shuffleId).add(context)
+          getReducerFileGroupRequest.get(shuffleId).add((context, startPartition, endPartition))
         }
       }
     }
@@ -17,10 +17,13 @@
 
 package org.apache.celeborn.client;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
@@ -33,17 +36,21 @@ import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import org.apache.celeborn.client.compress.Compressor;
+import org.apache.celeborn.client.compress.Decompressor;
 import org.apache.celeborn.common.CelebornConf;
 import org.apache.celeborn.common.identity.UserIdentifier;
 import org.apache.celeborn.common.network.client.TransportClient;
 import org.apache.celeborn.common.network.client.TransportClientFactory;
+import org.apache.celeborn.common.network.protocol.PushData;
 import org.apache.celeborn.common.protocol.CompressionCodec;
 import org.apache.celeborn.common.protocol.PartitionLocation;
 import org.apache.celeborn.common.protocol.message.ControlMessages.*;
 import org.apache.celeborn.common.protocol.message.StatusCode;
 import org.apache.celeborn.common.rpc.RpcEndpointRef;
+import org.apache.celeborn.common.unsafe.Platform;
 
 public class ShuffleClientSuiteJ {
 
@@ -117,6 +124,70 @@ public class ShuffleClientSuiteJ {
     }
   }
 
+  @Test
+  public void testPushDataWithPooledDirectBuffer() throws IOException, InterruptedException {
+    setupEnv(CompressionCodec.NONE, true);
+
+    int pushDataLen =
+        shuffleClient.pushData(
+            TEST_SHUFFLE_ID,
+            TEST_ATTEMPT_ID,
+            TEST_ATTEMPT_ID,
+            TEST_REDUCRE_ID,
+            TEST_BUF1,
+            0,
+            TEST_BUF1.length,
+            1,
+            1);
+    assertEquals(TEST_BUF1.length + BATCH_HEADER_SIZE, pushDataLen);
+
+    ArgumentCaptor<PushData> pushData = ArgumentCaptor.forClass(PushData.class);
+    verify(client).pushData(pushData.capture(), anyLong(), any());
+    byte[] body = new byte[pushDataLen];
+    pushData.getValue().body().nioByteBuffer().get(body);
+    assertEquals(TEST_ATTEMPT_ID, Platform.getInt(body, Platform.BYTE_ARRAY_OFFSET));
+    assertEquals(TEST_BUF1.length, Platform.getInt(body, Platform.BYTE_ARRAY_OFFSET + 12));
+    byte[] data = new byte[TEST_BUF1.length];
+    System.arraycopy(body, BATCH_HEADER_SIZE, data, 0, data.length);
+    assertArrayEquals(TEST_BUF1, data);
+  }
+
+  @Test
+  public void testPushCompressedDataWithPooledDirectBuffer()
+      throws IOException, InterruptedException {
+    for (CompressionCodec codec : CompressionCodec.values()) {
+      if (codec.equals(CompressionCodec.NONE)) {
+        continue;
+      }
+      CelebornConf conf = setupEnv(codec, true);
+
+      int pushDataLen =
+          shuffleClient.pushData(
+              TEST_SHUFFLE_ID,
+              TEST_ATTEMPT_ID,
+              TEST_ATTEMPT_ID,
+              TEST_REDUCRE_ID,
+              TEST_BUF1,
+              0,
+              TEST_BUF1.length,
+              1,
+              1);
+
+      ArgumentCaptor<PushData> pushData = ArgumentCaptor.forClass(PushData.class);
+      verify(client, atLeastOnce()).pushData(pushData.capture(), anyLong(), any());
+      byte[] body = new byte[pushDataLen];
+      pushData.getValue().body().nioByteBuffer().get(body);
+      assertEquals(
+          pushDataLen - BATCH_HEADER_SIZE, Platform.getInt(body, Platform.BYTE_ARRAY_OFFSET + 12));
+      byte[] compressed = new byte[pushDataLen - BATCH_HEADER_SIZE];
+      System.arraycopy(body, BATCH_HEADER_SIZE, compressed, 0, compressed.length);
+      byte[] data = new byte[TEST_BUF1.length];
+      assertEquals(
+          TEST_BUF1.length, Decompressor.getDecompressor(conf).decompress(compressed, data, 0));
+      assertArrayEquals(TEST_BUF1, data);
+    }
+  }
+
   @Test
   public void testMergeData() throws IOException, InterruptedException {
     for (CompressionCodec codec : CompressionCodec.values()) {
@@ -168,7 +239,15 @@ public class ShuffleClientSuiteJ {
   }
 
   private CelebornConf setupEnv(CompressionCodec codec) throws IOException, InterruptedException {
+    return setupEnv(codec, false);
+  }
+
+  private CelebornConf setupEnv(CompressionCodec codec, boolean pooledDirectBuffer)
+      throws IOException, InterruptedException {
     CelebornConf conf = new CelebornConf();
+    conf.set(
+        CelebornConf.CLIENT_PUSH_POOLED_DIRECT_BUFFER_ENABLED().key(),
+        String.valueOf(pooledDirectBuffer));
     conf.set(CelebornConf.SHUFFLE_COMPRESSION_CODEC().key(), codec.name());
     conf.set(CelebornConf.CLIENT_PUSH_RETRY_THREADS().key(), "1");
     conf.set(CelebornConf.CLIENT_PUSH_BUFFER_MAX_SIZE().key(), "1K");
@@ -18,9 +18,13 @@
 package org.apache.celeborn.client.compress;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
 
 import scala.Option;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.Assert;
 import org.junit.Test;
@@ -46,6 +50,33 @@ public class CodecSuiteJ {
     Assert.assertArrayEquals(data, dst);
   }
 
+  @Test
+  public void testLz4CompressIntoDirectBuffer() {
+    int blockSize = new CelebornConf().clientPushBufferMaxSize();
+    Lz4Compressor lz4Compressor = new Lz4Compressor(blockSize);
+    Lz4Decompressor lz4Decompressor = new Lz4Decompressor(Option.empty());
+    byte[] compressible = RandomStringUtils.random(1024, "ab").getBytes(StandardCharsets.UTF_8);
+    // random bytes are stored raw, as they don't compress
+    byte[] incompressible = new byte[1024];
+    new Random().nextBytes(incompressible);
+    for (byte[] data : Arrays.asList(compressible, incompressible)) {
+      ByteBuf dest = Unpooled.directBuffer(4);
+      try {
+        dest.writeInt(42);
+        lz4Compressor.compress(data, 0, data.length, dest);
+        Assert.assertEquals(4 + lz4Compressor.getCompressedTotalSize(), dest.writerIndex());
+        Assert.assertEquals(42, dest.readInt());
+        byte[] compressed = new byte[dest.readableBytes()];
+        dest.readBytes(compressed);
+        byte[] dst = new byte[data.length];
+        Assert.assertEquals(data.length, lz4Decompressor.decompress(compressed, dst, 0));
+        Assert.assertArrayEquals(data, dst);
+      } finally {
+        dest.release();
+      }
+    }
+  }
+
   @Test
   public void testZstdCodec() {
     for (int level = -5; level <= 22; level++) {
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.client.read;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class BatchIdSetSuiteJ {
+
+  @Test
+  public void testAdd() {
+    BatchIdSet batchIds = new BatchIdSet();
+    assertTrue(batchIds.add(0, 1));
+    assertTrue(batchIds.add(0, 2));
+    assertFalse(batchIds.add(0, 1));
+    assertTrue(batchIds.add(1, 1));
+    assertFalse(batchIds.add(0, 2));
+    assertFalse(batchIds.add(1, 1));
+    assertTrue(batchIds.add(1, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testSameAsHashSet() {
+    Random random = new Random();
+    BatchIdSet batchIds = new BatchIdSet();
+    Set<Long> expected = new HashSet<>();
+    for (int i = 0; i < 100000; i++) {
+      int mapId = random.nextInt(100);
+      int batchId = random.nextInt(10000);
+      assertEquals(expected.add(((long) mapId << 32) | batchId), batchIds.add(mapId, batchId));
+    }
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.client.commit
+
+import scala.collection.JavaConverters._
+
+import org.apache.celeborn.CelebornFunSuite
+import org.apache.celeborn.common.meta.WorkerInfo
+
+class CommitHandlerSuite extends CelebornFunSuite {
+
+  private val worker = new WorkerInfo("host1", 1, 2, 3, 4)
+
+  private def ids(prefix: String, num: Int): java.util.List[String] =
+    (0 until num).map(i => s"$i-$prefix").asJava
+
+  test("split the partitions of a worker into pipelined requests") {
+    val param = CommitFilesParam(worker, ids("0", 5), ids("1", 3))
+    assert(CommitHandler.splitCommitFilesParam(param, 8) == Seq(param))
+    // not split by default
+    assert(CommitHandler.splitCommitFilesParam(param, 0) == Seq(param))
+
+    val params = CommitHandler.splitCommitFilesParam(param, 2)
+    assert(params.size == 5)
+    assert(params.forall(_.worker == worker))
+    assert(params.map(p => p.primaryIds.size() + p.replicaIds.size()) == Seq(2, 2, 1, 2, 1))
+    assert(params.flatMap(_.primaryIds.asScala) == param.primaryIds.asScala)
+    assert(params.flatMap(_.replicaIds.asScala) == param.replicaIds.asScala)
+  }
+
+  test("split the partitions with null ids") {
+    val params = CommitHandler.splitCommitFilesParam(CommitFilesParam(worker, ids("0", 3), null), 2)
+    assert(params.size == 2)
+    assert(params.flatMap(_.primaryIds.asScala) == Seq("0-0", "1-0", "2-0"))
+    assert(params.forall(_.replicaIds.isEmpty))
+  }
+}
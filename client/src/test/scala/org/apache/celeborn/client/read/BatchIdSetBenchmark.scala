@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.client.read
+
+import java.util.{HashMap => JHashMap, HashSet => JHashSet, Map => JMap, Set => JSet}
+
+import scala.util.Random
+
+import org.apache.celeborn.benchmark.{Benchmark, BenchmarkBase}
+
+/**
+ * Batch de-duplication benchmark, comparing boxed hash sets with [[BatchIdSet]].
+ * Every map pushes batches to all partitions with one batch id sequence, so a reducer sees batch
+ * ids of a map with a stride of the partition count.
+ * To run this benchmark:
+ * {{{
+ *   1. build/sbt "celeborn-client/test:runMain <this class>"
+ *   2. generate result:
+ *      CELEBORN_GENERATE_BENCHMARK_FILES=1 build/sbt "celeborn-client/test:runMain <this class>"
+ *      Results will be written to "benchmarks/BatchIdSetBenchmark-results.txt".
+ * }}}
+ */
+object BatchIdSetBenchmark extends BenchmarkBase {
+
+  private val numMaps = 2000
+  private val batchesPerMap = 500
+  private val numPartitions = 1000
+
+  // batches of a map, in push order
+  private def batchesOfMap(mapId: Int): Array[Long] = {
+    val partitionOffset = Random.nextInt(numPartitions)
+    Array.tabulate(batchesPerMap) { i =>
+      (mapId.toLong << 32) | (i * numPartitions + partitionOffset)
+    }
+  }
+
+  private def sortedFile(): Array[Long] = {
+    (0 until numMaps).flatMap(batchesOfMap).toArray
+  }
+
+  private def unsortedFile(): Array[Long] = {
+    val maps = (0 until numMaps).map(batchesOfMap)
+    // maps run concurrently, so their batches are interleaved
+    (0 until batchesPerMap).flatMap(i => maps.map(_(i))).toArray
+  }
+
+  private def withDuplicates(batches: Array[Long], ratio: Double): Array[Long] = {
+    batches.flatMap { batch =>
+      if (Random.nextDouble() < ratio) Array(batch, batch) else Array(batch)
+    }
+  }
+
+  private def test(name: String, batches: Array[Long]): Unit = {
+    runBenchmark(name) {
+      val benchmark = new Benchmark(
+        name,
+        batches.length,
+        output = output,
+        resultOutput = resultOutput)
+      benchmark.addCase("HashMap of HashSets") { _: Int =>
+        val batchesRead: JMap[Integer, JSet[Integer]] = new JHashMap[Integer, JSet[Integer]]()
+        var i = 0
+        while (i < batches.length) {
+          val mapId = (batches(i) >>> 32).toInt
+          val batchId = batches(i).toInt
+          if (!batchesRead.containsKey(mapId)) {
+            batchesRead.put(mapId, new JHashSet[Integer]())
+          }
+          val batchSet = batchesRead.get(mapId)
+          if (!batchSet.contains(batchId)) {
+            batchSet.add(batchId)
+          }
+          i += 1
+        }
+      }
+
+      benchmark.addCase("BatchIdSet") { _: Int =>
+        val batchesRead = new BatchIdSet
+        var i = 0
+        while (i < batches.length) {
+          batchesRead.add((batches(i) >>> 32).toInt, batches(i).toInt)
+          i += 1
+        }
+      }
+      benchmark.run()
+    }
+  }
+
+  override def runBenchmarkSuite(mainArgs: Array[String]): Unit = {
+    test("sorted file", sortedFile())
+    test("unsorted file", unsortedFile())
+    test("unsorted file with 5% duplicated batches", withDuplicates(unsortedFile(), 0.05))
+  }
+}
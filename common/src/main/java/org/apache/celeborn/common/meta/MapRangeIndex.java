@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.common.meta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index of the map ids of a reduce partition file, built while the file is written. Batches are
+ * appended to the file back to back, so the index is a list of runs, each run being consecutive
+ * batches of one map. A run grows up to the chunk size, unless it is a single larger batch, so that
+ * a run boundary can always serve as a chunk boundary. The index is dropped once it would hold more
+ * than the max number of runs, so that reads of a file whose maps interleave too finely fall back
+ * to the sorter instead of holding a large index in memory for the life of the file.
+ */
+public class MapRangeIndex {
+  private final long chunkSize;
+  private final int maxRuns;
+  private int[] mapIds = new int[16];
+  private long[] runOffsets = new long[16];
+  private int numRuns = 0;
+  private long length = 0;
+  private boolean dropped = false;
+
+  public MapRangeIndex(long chunkSize, int maxRuns) {
+    this.chunkSize = chunkSize;
+    this.maxRuns = maxRuns;
+  }
+
+  /**
+   * Appends a batch of the map, which is written right after the previous batch.
+   *
+   * @return false if the index is dropped, because the batch would exceed the max number of runs.
+   */
+  public synchronized boolean addBatch(int mapId, long batchLength) {
+    if (dropped) {
+      return false;
+    }
+    if (numRuns == 0
+        || mapIds[numRuns - 1] != mapId
+        || length - runOffsets[numRuns - 1] + batchLength > chunkSize) {
+      if (numRuns == maxRuns) {
+        dropped = true;
+        mapIds = null;
+        runOffsets = null;
+        return false;
+      }
+      if (numRuns == mapIds.length) {
+        int capacity = Math.min(numRuns * 2, maxRuns);
+        mapIds = Arrays.copyOf(mapIds, capacity);
+        runOffsets = Arrays.copyOf(runOffsets, capacity);
+      }
+      mapIds[numRuns] = mapId;
+      runOffsets[numRuns] = length;
+      numRuns++;
+    }
+    length += batchLength;
+    return true;
+  }
+
+  public synchronized boolean isDropped() {
+    return dropped;
+  }
+
+  public synchronized int getNumRuns() {
+    return numRuns;
+  }
+
+  public synchronized long getLength() {
+    return length;
+  }
+
+  /**
+   * Selects the batches of maps in [startMapIndex, endMapIndex) in file order. Adjacent batches are
+   * merged into one file segment, and the selected data is split into chunks of about the chunk
+   * size at run boundaries. Must not be called on a dropped index.
+   */
+  public synchronized Selection select(int startMapIndex, int endMapIndex) {
+    if (dropped) {
+      throw new IllegalStateException("Map range index is dropped");
+    }
+    List<Long> chunkOffsets = new ArrayList<>();
+    chunkOffsets.add(0L);
+    long[] segmentOffsets = new long[16];
+    long[] segmentLengths = new long[16];
+    int numSegments = 0;
+    long selectedLength = 0;
+    long chunkStart = 0;
+    for (int i = 0; i < numRuns; i++) {
+      if (mapIds[i] < startMapIndex || mapIds[i] >= endMapIndex) {
+        continue;
+      }
+      long runOffset = runOffsets[i];
+      long runLength = (i + 1 < numRuns ? runOffsets[i + 1] : length) - runOffset;
+      if (selectedLength > chunkStart && selectedLength - chunkStart + runLength > chunkSize) {
+        chunkOffsets.add(selectedLength);
+        chunkStart = selectedLength;
+      }
+      if (numSegments > 0
+          && segmentOffsets[numSegments - 1] + segmentLengths[numSegments - 1] == runOffset) {
+        segmentLengths[numSegments - 1] += runLength;
+      } else {
+        if (numSegments == segmentOffsets.length) {
+          segmentOffsets = Arrays.copyOf(segmentOffsets, numSegments * 2);
+          segmentLengths = Arrays.copyOf(segmentLengths, numSegments * 2);
+        }
+        segmentOffsets[numSegments] = runOffset;
+        segmentLengths[numSegments] = runLength;
+        numSegments++;
+      }
+      selectedLength += runLength;
+    }
+    if (selectedLength > chunkStart) {
+      chunkOffsets.add(selectedLength);
+    }
+    return new Selection(
+        new ReduceFileMeta(chunkOffsets, chunkSize),
+        Arrays.copyOf(segmentOffsets, numSegments),
+        Arrays.copyOf(segmentLengths, numSegments));
+  }
+
+  /**
+   * Selected data of a map range. Chunk offsets of the file meta are offsets in the selected data,
+   * which is the concatenation of the file segments.
+   */
+  public static class Selection {
+    private final ReduceFileMeta fileMeta;
+    private final long[] segmentOffsets;
+    private final long[] segmentLengths;
+
+    Selection(ReduceFileMeta fileMeta, long[] segmentOffsets, long[] segmentLengths) {
+      this.fileMeta = fileMeta;
+      this.segmentOffsets = segmentOffsets;
+      this.segmentLengths = segmentLengths;
+    }
+
+    public ReduceFileMeta getFileMeta() {
+      return fileMeta;
+    }
+
+    public long[] getSegmentOffsets() {
+      return segmentOffsets;
+    }
+
+    public long[] getSegmentLengths() {
+      return segmentLengths;
+    }
+  }
+}
@@ -26,6 +26,8 @@ public class ReduceFileMeta implements FileMeta {
   private final List<Long> chunkOffsets;
   private long chunkSize;
   private long nextBoundary;
+  // built by the writer if enabled, absent for recovered files
+  private volatile MapRangeIndex mapRangeIndex;
 
   public ReduceFileMeta(long chunkSize) {
     this.chunkOffsets = new ArrayList<>();
@@ -85,4 +87,12 @@ public class ReduceFileMeta implements FileMeta {
   public AtomicBoolean getSorted() {
     return sorted;
   }
+
+  public MapRangeIndex getMapRangeIndex() {
+    return mapRangeIndex;
+  }
+
+  public void setMapRangeIndex(MapRangeIndex mapRangeIndex) {
+    this.mapRangeIndex = mapRangeIndex;
+  }
 }
@@ -17,6 +17,7 @@
 
 package org.apache.celeborn.common.network.buffer;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import scala.Tuple2;
@@ -54,5 +55,28 @@ public abstract class ChunkBuffers {
     return new Tuple2<>(chunkOffset + offset, length);
   }
 
+  /** Offsets of the chunks followed by the end of the last chunk, empty if there is no chunk. */
+  public List<Long> chunkOffsets() {
+    List<Long> chunkOffsets = new ArrayList<>(numChunks + 1);
+    if (numChunks > 0) {
+      for (long offset : offsets) {
+        chunkOffsets.add(offset);
+      }
+    }
+    return chunkOffsets;
+  }
+
   public abstract ManagedBuffer chunk(int chunkIndex, int offset, int len);
+
+  /** Reads the chunks from fromChunk until toChunk ahead of fetching them, if it helps. */
+  public void readAhead(int fromChunk, int toChunk) {}
+
+  /**
+   * Releases the resources held for fetching the chunks if no chunk is fetched for idleTimeMs, they
+   * are held again by the next chunk fetched.
+   */
+  public void closeIfIdle(long idleTimeMs) {}
+
+  /** Releases the resources held for fetching the chunks, when the stream ends. */
+  public void close() {}
 }
@@ -17,26 +17,96 @@
 
 package org.apache.celeborn.common.network.buffer;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 
 import scala.Tuple2;
 
+import com.google.common.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import org.apache.celeborn.common.meta.DiskFileInfo;
 import org.apache.celeborn.common.network.util.TransportConf;
 
 public class FileChunkBuffers extends ChunkBuffers {
-  private final File file;
+  private static final Logger logger = LoggerFactory.getLogger(FileChunkBuffers.class);
+
+  private static final int READ_AHEAD_BUFFER_SIZE = 256 * 1024;
+  private static final ThreadLocal<ByteBuffer> READ_AHEAD_BUFFER =
+      ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(READ_AHEAD_BUFFER_SIZE));
+
+  private final SharedFileChannel channel;
   private final TransportConf conf;
 
   public FileChunkBuffers(DiskFileInfo fileInfo, TransportConf conf) {
     super(fileInfo.getReduceFileMeta());
-    file = fileInfo.getFile();
+    channel = new SharedFileChannel(fileInfo.getFile());
     this.conf = conf;
   }
 
   @Override
   public ManagedBuffer chunk(int chunkIndex, int offset, int len) {
     Tuple2<Long, Long> offsetLen = getChunkOffsetLength(chunkIndex, offset, len);
-    return new FileSegmentManagedBuffer(conf, file, offsetLen._1, offsetLen._2);
+    // the stream holds the channel from the chunk fetched until it is closed
+    channel.hold();
+    return new FileSegmentManagedBuffer(conf, channel, offsetLen._1, offsetLen._2);
+  }
+
+  /**
+   * Reads the chunks into the page cache, so that transferring them does not wait for the disk.
+   * The channel is opened if the chunk being fetched has not opened it yet, and nothing is read if
+   * the stream has been closed since.
+   */
+  @Override
+  public void readAhead(int fromChunk, int toChunk) {
+    FileChannel fileChannel;
+    try {
+      fileChannel = channel.retain();
+    } catch (ClosedChannelException e) {
+      logger.debug("Skip reading ahead chunks of {} as its stream is closed.", channel.getFile());
+      return;
+    } catch (IOException e) {
+      logger.debug("Failed to open {} to read ahead chunks.", channel.getFile(), e);
+      return;
+    }
+    try {
+      ByteBuffer buffer = READ_AHEAD_BUFFER.get();
+      long position = offsets[fromChunk];
+      long end = offsets[toChunk];
+      while (position < end) {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), end - position));
+        int read = fileChannel.read(buffer, position);
+        if (read < 0) {
+          break;
+        }
+        position += read;
+      }
+    } catch (IOException e) {
+      logger.debug(
+          "Failed to read ahead chunks [{}, {}) of {}.", fromChunk, toChunk, channel.getFile(), e);
+    } finally {
+      channel.release();
+    }
+  }
+
+  @Override
+  public void closeIfIdle(long idleTimeMs) {
+    if (channel.closeIfIdle(idleTimeMs)) {
+      logger.debug("Closed {} not fetched for {} ms.", channel.getFile(), idleTimeMs);
+    }
+  }
+
+  @Override
+  public void close() {
+    channel.close();
+  }
+
+  @VisibleForTesting
+  SharedFileChannel channel() {
+    return channel;
   }
 }
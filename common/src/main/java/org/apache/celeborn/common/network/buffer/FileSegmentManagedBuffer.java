@@ -38,10 +38,23 @@ public final class FileSegmentManagedBuffer extends ManagedBuffer {
   private final File file;
   private final long offset;
   private final long length;
+  // the channel of the file shared with other segments, if any
+  private final SharedFileChannel sharedChannel;
 
   public FileSegmentManagedBuffer(TransportConf conf, File file, long offset, long length) {
+    this(conf, file, null, offset, length);
+  }
+
+  public FileSegmentManagedBuffer(
+      TransportConf conf, SharedFileChannel sharedChannel, long offset, long length) {
+    this(conf, sharedChannel.getFile(), sharedChannel, offset, length);
+  }
+
+  private FileSegmentManagedBuffer(
+      TransportConf conf, File file, SharedFileChannel sharedChannel, long offset, long length) {
     this.conf = conf;
     this.file = file;
+    this.sharedChannel = sharedChannel;
     this.offset = offset;
     this.length = length;
   }
@@ -125,7 +138,9 @@ public final class FileSegmentManagedBuffer extends ManagedBuffer {
 
   @Override
   public Object convertToNetty() throws IOException {
-    if (conf.lazyFileDescriptor()) {
+    if (sharedChannel != null) {
+      return sharedChannel.region(offset, length);
+    } else if (conf.lazyFileDescriptor()) {
       return new DefaultFileRegion(file, offset, length);
     } else {
       FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
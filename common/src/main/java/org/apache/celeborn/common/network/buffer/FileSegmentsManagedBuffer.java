@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.common.network.buffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.netty.handler.stream.ChunkedStream;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import org.apache.celeborn.common.network.util.AbstractFileRegion;
+import org.apache.celeborn.common.network.util.TransportConf;
+import org.apache.celeborn.common.util.JavaUtils;
+
+/** A {@link ManagedBuffer} backed by the concatenation of several segments of a file. */
+public final class FileSegmentsManagedBuffer extends ManagedBuffer {
+  private final TransportConf conf;
+  private final File file;
+  private final long[] offsets;
+  private final long[] lengths;
+  private final long size;
+
+  public FileSegmentsManagedBuffer(TransportConf conf, File file, long[] offsets, long[] lengths) {
+    this.conf = conf;
+    this.file = file;
+    this.offsets = offsets;
+    this.lengths = lengths;
+    long size = 0;
+    for (long length : lengths) {
+      size += length;
+    }
+    this.size = size;
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public ByteBuffer nioByteBuffer() throws IOException {
+    ByteBuffer buf = ByteBuffer.allocate(Math.toIntExact(size));
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      for (int i = 0; i < offsets.length; i++) {
+        long position = offsets[i];
+        buf.limit(buf.position() + (int) lengths[i]);
+        while (buf.hasRemaining()) {
+          int read = channel.read(buf, position);
+          if (read == -1) {
+            throw new IOException("Reached EOF before filling buffer, reading " + this);
+          }
+          position += read;
+        }
+      }
+    }
+    buf.flip();
+    return buf;
+  }
+
+  @Override
+  public InputStream createInputStream() throws IOException {
+    List<InputStream> streams = new ArrayList<>(offsets.length);
+    try {
+      for (int i = 0; i < offsets.length; i++) {
+        streams.add(
+            new FileSegmentManagedBuffer(conf, file, offsets[i], lengths[i]).createInputStream());
+      }
+    } catch (IOException e) {
+      for (InputStream stream : streams) {
+        JavaUtils.closeQuietly(stream);
+      }
+      throw e;
+    }
+    return new SequenceInputStream(Collections.enumeration(streams));
+  }
+
+  @Override
+  public ManagedBuffer retain() {
+    return this;
+  }
+
+  @Override
+  public ManagedBuffer release() {
+    return this;
+  }
+
+  @Override
+  public Object convertToNetty() throws IOException {
+    return new FileSegmentsRegion();
+  }
+
+  @Override
+  public Object convertToNettyForSsl() throws IOException {
+    // Cannot use zero-copy with SSL
+    return new ChunkedStream(createInputStream(), conf.maxSslEncryptedBlockSize());
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+        .append("file", file)
+        .append("segments", offsets.length)
+        .append("size", size)
+        .toString();
+  }
+
+  /** Transfers the segments one after another, opening the file on the first transfer. */
+  private class FileSegmentsRegion extends AbstractFileRegion {
+    private FileChannel channel;
+    private long transferred;
+
+    @Override
+    public long position() {
+      return 0;
+    }
+
+    @Override
+    public long transferred() {
+      return transferred;
+    }
+
+    @Override
+    public long count() {
+      return size;
+    }
+
+    @Override
+    public long transferTo(WritableByteChannel target, long position) throws IOException {
+      if (channel == null) {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+      }
+      long written = 0;
+      long segmentPosition = position;
+      for (int i = 0; i < offsets.length; i++) {
+        if (segmentPosition >= lengths[i]) {
+          segmentPosition -= lengths[i];
+          continue;
+        }
+        long toWrite = lengths[i] - segmentPosition;
+        long n = channel.transferTo(offsets[i] + segmentPosition, toWrite, target);
+        written += n;
+        if (n < toWrite) {
+          break;
+        }
+        segmentPosition = 0;
+      }
+      transferred += written;
+      return written;
+    }
+
+    @Override
+    protected void deallocate() {
+      JavaUtils.closeQuietly(channel);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.common.network.buffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.netty.channel.DefaultFileRegion;
+
+import org.apache.celeborn.common.util.JavaUtils;
+
+/**
+ * A read only {@link FileChannel} of a file shared by the chunks of a stream, so that the chunks
+ * transferred do not open and close the file each.
+ *
+ * <p>The channel is reference counted. The stream holds a reference from {@link #hold()} until
+ * {@link #close()}, and every use of the channel, a chunk being transferred or a read ahead, holds
+ * one from {@link #retain()} until it is released. The channel is opened by the first use while the
+ * stream holds it, and is closed when all the references are released. A use after the stream has
+ * released its reference fails instead of opening the file again, so nothing keeps the file open
+ * after the stream is closed. The stream holds the channel again by the next {@link #hold()}, as a
+ * stream could be reused after it is ended, or after it released the channel by {@link
+ * #closeIfIdle(long)}.
+ */
+public class SharedFileChannel {
+  private final File file;
+  private FileChannel channel;
+  private int refCnt;
+  // whether the stream holds a reference
+  private boolean held;
+  private long lastRetainTime;
+
+  public SharedFileChannel(File file) {
+    this.file = file;
+  }
+
+  /** Holds a reference for the stream until {@link #close()}, if the stream does not hold one. */
+  public synchronized void hold() {
+    if (!held) {
+      held = true;
+      refCnt++;
+      lastRetainTime = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * Retains the channel for a use, opens it if it is not open.
+   *
+   * @throws ClosedChannelException if the stream does not hold the channel
+   */
+  public synchronized FileChannel retain() throws IOException {
+    if (!held) {
+      throw new ClosedChannelException();
+    }
+    if (channel == null) {
+      channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    }
+    refCnt++;
+    lastRetainTime = System.currentTimeMillis();
+    return channel;
+  }
+
+  public synchronized void release() {
+    if (--refCnt == 0) {
+      JavaUtils.closeQuietly(channel);
+      channel = null;
+    }
+  }
+
+  /** Releases the reference of the stream. */
+  public synchronized void close() {
+    if (held) {
+      held = false;
+      release();
+    }
+  }
+
+  /**
+   * Releases the reference of the stream if only the stream holds the channel and it is not retained
+   * for idleTimeMs, so that the file is not kept open by a stream not fetched.
+   */
+  public synchronized boolean closeIfIdle(long idleTimeMs) {
+    if (held && refCnt == 1 && System.currentTimeMillis() - lastRetainTime >= idleTimeMs) {
+      close();
+      return true;
+    }
+    return false;
+  }
+
+  /** A file region of the channel which releases the channel instead of closing it. */
+  public DefaultFileRegion region(long position, long count) throws IOException {
+    return new DefaultFileRegion(retain(), position, count) {
+      @Override
+      protected void deallocate() {
+        SharedFileChannel.this.release();
+      }
+    };
+  }
+
+  @VisibleForTesting
+  public synchronized boolean isOpen() {
+    return channel != null;
+  }
+
+  public File getFile() {
+    return file;
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.common.network.buffer;
+
+import java.io.File;
+import java.util.Arrays;
+
+import scala.Tuple2;
+
+import org.apache.celeborn.common.meta.MapRangeIndex;
+import org.apache.celeborn.common.network.util.TransportConf;
+
+/**
+ * Chunks of a map range served from an unsorted file. Chunk offsets are offsets in the
+ * concatenation of the selected file segments, and a chunk is read from the segments it spans.
+ */
+public class SparseFileChunkBuffers extends ChunkBuffers {
+  private final File file;
+  private final TransportConf conf;
+  private final long[] segmentOffsets;
+  private final long[] segmentLengths;
+  // offset of each segment in the concatenation of the segments
+  private final long[] segmentStarts;
+
+  public SparseFileChunkBuffers(File file, MapRangeIndex.Selection selection, TransportConf conf) {
+    super(selection.getFileMeta());
+    this.file = file;
+    this.conf = conf;
+    this.segmentOffsets = selection.getSegmentOffsets();
+    this.segmentLengths = selection.getSegmentLengths();
+    this.segmentStarts = new long[segmentOffsets.length];
+    for (int i = 1; i < segmentOffsets.length; i++) {
+      segmentStarts[i] = segmentStarts[i - 1] + segmentLengths[i - 1];
+    }
+  }
+
+  @Override
+  public ManagedBuffer chunk(int chunkIndex, int offset, int len) {
+    Tuple2<Long, Long> offsetLen = getChunkOffsetLength(chunkIndex, offset, len);
+    long start = offsetLen._1;
+    long end = start + offsetLen._2;
+    int first = Arrays.binarySearch(segmentStarts, start);
+    if (first < 0) {
+      first = -first - 2;
+    }
+    int last = first;
+    while (last + 1 < segmentStarts.length && segmentStarts[last + 1] < end) {
+      last++;
+    }
+    long[] offsets = new long[last - first + 1];
+    long[] lengths = new long[offsets.length];
+    for (int i = first; i <= last; i++) {
+      long from = Math.max(start, segmentStarts[i]);
+      long to = Math.min(end, segmentStarts[i] + segmentLengths[i]);
+      offsets[i - first] = segmentOffsets[i] + from - segmentStarts[i];
+      lengths[i - first] = to - from;
+    }
+    if (offsets.length == 1) {
+      return new FileSegmentManagedBuffer(conf, file, offsets[0], lengths[0]);
+    }
+    return new FileSegmentsManagedBuffer(conf, file, offsets, lengths);
+  }
+}
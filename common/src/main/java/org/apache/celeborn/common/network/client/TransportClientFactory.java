@@ -33,6 +33,7 @@ import com.google.common.collect.Lists;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.*;
+import io.netty.channel.epoll.EpollChannelOption;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.util.concurrent.Future;
@@ -89,6 +90,9 @@ public class TransportClientFactory implements Closeable {
   private final int receiveBuf;
 
   private final int sendBuf;
+  private final IOMode ioMode;
+  private final int busyPollSocketMicros;
+  private final boolean tcpQuickAck;
   private final Class<? extends Channel> socketChannelClass;
   private EventLoopGroup workerGroup;
   protected ByteBufAllocator pooledAllocator;
@@ -106,11 +110,15 @@ public class TransportClientFactory implements Closeable {
     this.sendBuf = conf.sendBuf();
     this.rand = new Random();
 
-    IOMode ioMode = IOMode.valueOf(conf.ioMode());
+    this.busyPollSocketMicros = conf.busyPollSocketMicros();
+    this.tcpQuickAck = conf.tcpQuickAck();
+
+    this.ioMode = NettyUtils.resolveIOMode(IOMode.valueOf(conf.ioMode()));
     this.socketChannelClass = NettyUtils.getClientChannelClass(ioMode);
     logger.info("mode " + ioMode + " threads " + conf.clientThreads());
     this.workerGroup =
-        NettyUtils.createEventLoop(ioMode, conf.clientThreads(), conf.getModuleName() + "-client");
+        NettyUtils.createEventLoop(
+            ioMode, conf.clientThreads(), conf.getModuleName() + "-client", conf.busyPollEnabled());
     this.pooledAllocator =
         NettyUtils.getPooledByteBufAllocator(conf, null, false, conf.clientThreads());
   }
@@ -238,6 +246,15 @@ public class TransportClientFactory implements Closeable {
       bootstrap.option(ChannelOption.SO_SNDBUF, sendBuf);
     }
 
+    if (ioMode == IOMode.EPOLL) {
+      if (busyPollSocketMicros > 0) {
+        bootstrap.option(EpollChannelOption.SO_BUSY_POLL, busyPollSocketMicros);
+      }
+      if (tcpQuickAck) {
+        bootstrap.option(EpollChannelOption.TCP_QUICKACK, true);
+      }
+    }
+
     final AtomicReference<TransportClient> clientRef = new AtomicReference<>();
     final AtomicReference<Channel> channelRef = new AtomicReference<>();
 
@@ -30,6 +30,7 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.EpollChannelOption;
 import io.netty.channel.socket.SocketChannel;
 import org.apache.commons.lang3.SystemUtils;
 import org.slf4j.Logger;
@@ -87,11 +88,12 @@ public class TransportServer implements Closeable {
 
   private void init(String hostToBind, int portToBind) {
 
-    IOMode ioMode = IOMode.valueOf(conf.ioMode());
+    IOMode ioMode = NettyUtils.resolveIOMode(IOMode.valueOf(conf.ioMode()));
     EventLoopGroup bossGroup =
         NettyUtils.createEventLoop(ioMode, 1, conf.getModuleName() + "-boss");
     EventLoopGroup workerGroup =
-        NettyUtils.createEventLoop(ioMode, conf.serverThreads(), conf.getModuleName() + "-server");
+        NettyUtils.createEventLoop(
+            ioMode, conf.serverThreads(), conf.getModuleName() + "-server", conf.busyPollEnabled());
 
     PooledByteBufAllocator allocator =
         NettyUtils.getPooledByteBufAllocator(conf, source, true, conf.serverThreads());
@@ -118,6 +120,15 @@ public class TransportServer implements Closeable {
       bootstrap.childOption(ChannelOption.SO_SNDBUF, conf.sendBuf());
     }
 
+    if (ioMode == IOMode.EPOLL) {
+      if (conf.busyPollSocketMicros() > 0) {
+        bootstrap.childOption(EpollChannelOption.SO_BUSY_POLL, conf.busyPollSocketMicros());
+      }
+      if (conf.tcpQuickAck()) {
+        bootstrap.childOption(EpollChannelOption.TCP_QUICKACK, true);
+      }
+    }
+
     initializeChannel(bootstrap);
 
     InetSocketAddress address =
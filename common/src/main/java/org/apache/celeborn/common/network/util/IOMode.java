@@ -19,9 +19,12 @@ package org.apache.celeborn.common.network.util;
 
 /**
  * Selector for which form of low-level IO we should use. NIO is always available, while EPOLL is
- * only available on Linux. AUTO is used to select EPOLL if it's available, or NIO otherwise.
+ * only available on Linux. IO_URING is only available on Linux with io_uring support and the
+ * netty-incubator-transport-native-io_uring jar on the classpath, otherwise it falls back to EPOLL,
+ * or NIO if EPOLL is unavailable too.
  */
 public enum IOMode {
   NIO,
-  EPOLL
+  EPOLL,
+  IO_URING
 }
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.common.network.util;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ThreadFactory;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The io_uring transport of netty-incubator-transport-native-io_uring, which is loaded by
+ * reflection, so it is only required on the classpath when {@link IOMode#IO_URING} is used.
+ */
+final class IOUringTransport {
+  private static final Logger logger = LoggerFactory.getLogger(IOUringTransport.class);
+
+  private static final String PACKAGE = "io.netty.incubator.channel.uring.";
+
+  private static final Constructor<? extends EventLoopGroup> eventLoopGroupConstructor;
+  private static final Class<? extends Channel> socketChannelClass;
+  private static final Class<? extends ServerChannel> serverSocketChannelClass;
+  private static final Throwable unavailabilityCause;
+
+  static {
+    Constructor<? extends EventLoopGroup> constructor = null;
+    Class<? extends Channel> socketClass = null;
+    Class<? extends ServerChannel> serverSocketClass = null;
+    Throwable cause = null;
+    try {
+      Class<?> ioUring = Class.forName(PACKAGE + "IOUring");
+      if ((boolean) ioUring.getMethod("isAvailable").invoke(null)) {
+        constructor =
+            Class.forName(PACKAGE + "IOUringEventLoopGroup")
+                .asSubclass(EventLoopGroup.class)
+                .getConstructor(int.class, ThreadFactory.class);
+        socketClass = Class.forName(PACKAGE + "IOUringSocketChannel").asSubclass(Channel.class);
+        serverSocketClass =
+            Class.forName(PACKAGE + "IOUringServerSocketChannel").asSubclass(ServerChannel.class);
+      } else {
+        cause = (Throwable) ioUring.getMethod("unavailabilityCause").invoke(null);
+      }
+    } catch (ReflectiveOperationException | LinkageError e) {
+      cause = e;
+    }
+    if (cause != null) {
+      constructor = null;
+      socketClass = null;
+      serverSocketClass = null;
+      logger.debug("io_uring transport is unavailable.", cause);
+    }
+    eventLoopGroupConstructor = constructor;
+    socketChannelClass = socketClass;
+    serverSocketChannelClass = serverSocketClass;
+    unavailabilityCause = cause;
+  }
+
+  private IOUringTransport() {}
+
+  static boolean isAvailable() {
+    return unavailabilityCause == null;
+  }
+
+  static Throwable unavailabilityCause() {
+    return unavailabilityCause;
+  }
+
+  static EventLoopGroup createEventLoopGroup(int numThreads, ThreadFactory threadFactory) {
+    ensureAvailability();
+    try {
+      return eventLoopGroupConstructor.newInstance(numThreads, threadFactory);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Failed to create io_uring event loop group.", e);
+    }
+  }
+
+  static Class<? extends Channel> socketChannelClass() {
+    ensureAvailability();
+    return socketChannelClass;
+  }
+
+  static Class<? extends ServerChannel> serverSocketChannelClass() {
+    ensureAvailability();
+    return serverSocketChannelClass;
+  }
+
+  private static void ensureAvailability() {
+    if (unavailabilityCause != null) {
+      throw new UnsupportedOperationException(
+          "io_uring transport is unavailable.", unavailabilityCause);
+    }
+  }
+}
@@ -26,7 +26,10 @@ import java.util.concurrent.ThreadFactory;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SelectStrategy;
+import io.netty.channel.SelectStrategyFactory;
 import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.epoll.EpollSocketChannel;
@@ -35,6 +38,8 @@ import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import io.netty.util.internal.PlatformDependent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import org.apache.celeborn.common.CelebornConf;
 import org.apache.celeborn.common.metrics.source.AbstractSource;
@@ -42,6 +47,13 @@ import org.apache.celeborn.common.util.JavaUtils;
 
 /** Utilities for creating various Netty constructs based on whether we're using EPOLL or NIO. */
 public class NettyUtils {
+  private static final Logger logger = LoggerFactory.getLogger(NettyUtils.class);
+
+  // busy-waits for events when there is no task, instead of blocking in epoll_wait
+  private static final SelectStrategyFactory BUSY_WAIT_SELECT_STRATEGY_FACTORY =
+      () ->
+          (selectSupplier, hasTasks) -> hasTasks ? selectSupplier.get() : SelectStrategy.BUSY_WAIT;
+
   private static final PooledByteBufAllocator[] _sharedPooledByteBufAllocator =
       new PooledByteBufAllocator[2];
   private static ConcurrentHashMap<String, Integer> allocatorsIndex =
@@ -51,15 +63,46 @@ public class NettyUtils {
     return new DefaultThreadFactory(threadPoolPrefix, true);
   }
 
+  /**
+   * Returns the IOMode to use for the configured one, which falls back from IO_URING to EPOLL, or
+   * NIO if EPOLL is unavailable too, when io_uring is unavailable.
+   */
+  public static IOMode resolveIOMode(IOMode mode) {
+    if (mode == IOMode.IO_URING && !IOUringTransport.isAvailable()) {
+      IOMode fallback = Epoll.isAvailable() ? IOMode.EPOLL : IOMode.NIO;
+      logger.warn(
+          "io_uring transport is unavailable, fall back to {}: {}",
+          fallback,
+          IOUringTransport.unavailabilityCause().toString());
+      return fallback;
+    }
+    return mode;
+  }
+
   /** Creates a Netty EventLoopGroup based on the IOMode. */
   public static EventLoopGroup createEventLoop(IOMode mode, int numThreads, String threadPrefix) {
+    return createEventLoop(mode, numThreads, threadPrefix, false);
+  }
+
+  /**
+   * Creates a Netty EventLoopGroup based on the IOMode. With busyPoll, the event loops of EPOLL
+   * busy-wait for events, which keeps a core busy per thread, and the other modes ignore it.
+   */
+  public static EventLoopGroup createEventLoop(
+      IOMode mode, int numThreads, String threadPrefix, boolean busyPoll) {
     ThreadFactory threadFactory = createThreadFactory(threadPrefix);
 
     switch (mode) {
       case NIO:
         return new NioEventLoopGroup(numThreads, threadFactory);
       case EPOLL:
+        if (busyPoll) {
+          return new EpollEventLoopGroup(
+              numThreads, threadFactory, BUSY_WAIT_SELECT_STRATEGY_FACTORY);
+        }
         return new EpollEventLoopGroup(numThreads, threadFactory);
+      case IO_URING:
+        return IOUringTransport.createEventLoopGroup(numThreads, threadFactory);
       default:
         throw new IllegalArgumentException("Unknown io mode: " + mode);
     }
@@ -72,6 +115,8 @@ public class NettyUtils {
         return NioSocketChannel.class;
       case EPOLL:
         return EpollSocketChannel.class;
+      case IO_URING:
+        return IOUringTransport.socketChannelClass();
       default:
         throw new IllegalArgumentException("Unknown io mode: " + mode);
     }
@@ -84,6 +129,8 @@ public class NettyUtils {
         return NioServerSocketChannel.class;
       case EPOLL:
         return EpollServerSocketChannel.class;
+      case IO_URING:
+        return IOUringTransport.serverSocketChannelClass();
       default:
         throw new IllegalArgumentException("Unknown io mode: " + mode);
     }
@@ -43,11 +43,26 @@ public class TransportConf {
     return module;
   }
 
-  /** IO mode: nio or epoll */
+  /** IO mode: nio, epoll or io_uring */
   public String ioMode() {
     return celebornConf.networkIoMode(module);
   }
 
+  /** Whether the event loops of epoll busy-wait for events. */
+  public boolean busyPollEnabled() {
+    return celebornConf.networkIoBusyPollEnabled(module);
+  }
+
+  /** SO_BUSY_POLL of the sockets of epoll in microseconds. Default 0 for disabled. */
+  public int busyPollSocketMicros() {
+    return celebornConf.networkIoBusyPollSocketMicros(module);
+  }
+
+  /** Whether to enable TCP_QUICKACK on the sockets of epoll. */
+  public boolean tcpQuickAck() {
+    return celebornConf.networkIoTcpQuickAck(module);
+  }
+
   /** If true, we will prefer allocating off-heap byte buffers within Netty. */
   public boolean preferDirectBufs() {
     return celebornConf.networkIoPreferDirectBufs(module);
@@ -17,7 +17,8 @@
 
 package org.apache.celeborn.common.network.util;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.Iterator;
 
 import com.google.common.base.Preconditions;
 import io.netty.buffer.ByteBuf;
@@ -42,6 +43,10 @@ import org.apache.celeborn.common.network.protocol.Message;
  * interceptor. When the interceptor indicates that it doesn't need to read any more data, framing
  * resumes. Interceptors should not hold references to the data buffers provided to their handle()
  * method.
+ *
+ * <p>The buffers read are queued in an array backed ring, which does not allocate per read. A frame
+ * within one buffer is a retained slice of it, which is recycled for pooled buffers, and a frame
+ * across buffers is a composite buffer sized to the number of buffers it spans.
  */
 public class TransportFrameDecoder extends ChannelInboundHandlerAdapter implements FrameDecoder {
   private int msgSize = -1;
@@ -51,7 +56,7 @@ public class TransportFrameDecoder extends ChannelInboundHandlerAdapter implemen
   private static final int MAX_FRAME_SIZE = Integer.MAX_VALUE;
   private static final int UNKNOWN_FRAME_SIZE = -1;
 
-  private final LinkedList<ByteBuf> buffers = new LinkedList<>();
+  private final ArrayDeque<ByteBuf> buffers = new ArrayDeque<>();
 
   private long totalSize = 0;
   private long nextFrameSize = UNKNOWN_FRAME_SIZE;
@@ -139,17 +144,28 @@ public class TransportFrameDecoder extends ChannelInboundHandlerAdapter implemen
       return nextBufferForFrame(remaining);
     }
 
-    // Otherwise, create a composite buffer.
-    CompositeByteBuf frame = buffers.getFirst().alloc().compositeBuffer(Integer.MAX_VALUE);
+    // Otherwise, create a composite buffer, sized to not grow or consolidate its components.
+    CompositeByteBuf frame =
+        buffers.getFirst().alloc().compositeBuffer(numBuffersForFrame(remaining));
     while (remaining > 0) {
       ByteBuf next = nextBufferForFrame(remaining);
       remaining -= next.readableBytes();
-      frame.addComponent(next).writerIndex(frame.writerIndex() + next.readableBytes());
+      frame.addComponent(true, next);
     }
     assert remaining == 0;
     return frame;
   }
 
+  private int numBuffersForFrame(int frameSize) {
+    int numBuffers = 0;
+    Iterator<ByteBuf> iterator = buffers.iterator();
+    while (frameSize > 0) {
+      frameSize -= iterator.next().readableBytes();
+      numBuffers++;
+    }
+    return numBuffers;
+  }
+
   /**
    * Takes the first buffer in the internal list, and either adjust it to fit in the frame (by
    * taking a slice out of it) or remove it from the internal list.
@@ -159,7 +175,8 @@ public class TransportFrameDecoder extends ChannelInboundHandlerAdapter implemen
     ByteBuf frame;
 
     if (buf.readableBytes() > bytesToRead) {
-      frame = buf.retain().readSlice(bytesToRead);
+      // a retained slice of a pooled buffer is recycled when released
+      frame = buf.readRetainedSlice(bytesToRead);
       totalSize -= bytesToRead;
     } else {
       frame = buf;
@@ -18,12 +18,15 @@
 package org.apache.celeborn.common.write;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.celeborn.common.protocol.PartitionLocation;
 
 public class DataBatches {
   private int totalSize = 0;
   private ArrayList<DataBatch> batches = new ArrayList<>();
+  // time the oldest batch was added, in nanoseconds
+  private long firstBatchTime = 0;
 
   public static class DataBatch {
     public final PartitionLocation loc;
@@ -39,6 +42,9 @@ public class DataBatches {
 
   public synchronized void addDataBatch(PartitionLocation loc, int batchId, byte[] body) {
     DataBatch dataBatch = new DataBatch(loc, batchId, body);
+    if (batches.isEmpty()) {
+      firstBatchTime = System.nanoTime();
+    }
     batches.add(dataBatch);
     totalSize += body.length;
   }
@@ -47,6 +53,10 @@ public class DataBatches {
     return totalSize;
   }
 
+  public long getFirstBatchTime() {
+    return firstBatchTime;
+  }
+
   public ArrayList<DataBatch> requireBatches() {
     totalSize = 0;
     ArrayList<DataBatch> allBatches = batches;
@@ -59,14 +69,16 @@ public class DataBatches {
       totalSize = 0;
       return batches;
     }
-    ArrayList<DataBatch> retBatches = new ArrayList<>();
     int currentSize = 0;
+    int numBatches = 0;
     while (currentSize < requestSize) {
-      DataBatch elem = batches.remove(0);
-      retBatches.add(elem);
-      currentSize += elem.body.length;
-      totalSize -= elem.body.length;
+      currentSize += batches.get(numBatches++).body.length;
     }
+    List<DataBatch> required = batches.subList(0, numBatches);
+    ArrayList<DataBatch> retBatches = new ArrayList<>(required);
+    // removes the batches at once rather than shifting the rest for every batch
+    required.clear();
+    totalSize -= currentSize;
     return retBatches;
   }
 }
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.common.write;
+
+/**
+ * Size target of the merged pushes to one worker. The data merged for the worker during a round
+ * trip is divided among the requests allowed in flight, so that a merged push is as full as
+ * possible while the pushes in flight still keep the worker busy. The target stays between the push
+ * buffer size and the max merge size.
+ */
+class MergeTarget {
+  // weight of a new sample in the moving averages
+  private static final double ALPHA = 0.25;
+  private static final long RATE_WINDOW_NANOS = 10_000_000L;
+
+  private final long minSize;
+  private final long maxSize;
+  private final int maxReqsInFlight;
+
+  private double rttNanos = 0;
+  private double bytesPerNano = 0;
+  private long windowStartNanos = -1;
+  private long windowBytes = 0;
+
+  MergeTarget(long minSize, long maxSize, int maxReqsInFlight) {
+    this.minSize = minSize;
+    this.maxSize = Math.max(minSize, maxSize);
+    this.maxReqsInFlight = Math.max(1, maxReqsInFlight);
+  }
+
+  synchronized void onMerge(long bytes, long nowNanos) {
+    if (windowStartNanos < 0) {
+      windowStartNanos = nowNanos;
+    }
+    windowBytes += bytes;
+    long elapsed = nowNanos - windowStartNanos;
+    if (elapsed >= RATE_WINDOW_NANOS) {
+      bytesPerNano = average(bytesPerNano, (double) windowBytes / elapsed);
+      windowStartNanos = nowNanos;
+      windowBytes = 0;
+    }
+  }
+
+  synchronized void onPushed(long rttNanos) {
+    this.rttNanos = average(this.rttNanos, rttNanos);
+  }
+
+  synchronized long targetSize() {
+    long size = (long) (bytesPerNano * rttNanos / maxReqsInFlight);
+    return Math.min(maxSize, Math.max(minSize, size));
+  }
+
+  private static double average(double average, double sample) {
+    return average == 0 ? sample : average + ALPHA * (sample - average);
+  }
+}
@@ -18,7 +18,12 @@
 package org.apache.celeborn.common.write;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.tuple.Pair;
@@ -33,9 +38,23 @@ public class PushState {
   public AtomicReference<IOException> exception = new AtomicReference<>();
   private final InFlightRequestTracker inFlightRequestTracker;
 
+  private final boolean adaptiveMerge;
+  private final long mergeMaxSize;
+  private final long mergeMaxLingerNanos;
+  private final int maxReqsInFlightPerWorker;
+  // key: primary hostAndPushPort
+  private final ConcurrentHashMap<String, MergeTarget> mergeTargets =
+      JavaUtils.newConcurrentHashMap();
+  // earliest time the oldest merged batch of a worker passes the max linger, in nanoseconds
+  private volatile long nextLingerDeadline = Long.MAX_VALUE;
+
   public PushState(CelebornConf conf) {
     pushBufferMaxSize = conf.clientPushBufferMaxSize();
     inFlightRequestTracker = new InFlightRequestTracker(conf, this);
+    adaptiveMerge = conf.clientPushMergeAdaptiveEnabled();
+    mergeMaxSize = conf.clientPushMergeAdaptiveMaxSize();
+    mergeMaxLingerNanos = TimeUnit.MILLISECONDS.toNanos(conf.clientPushMergeAdaptiveMaxLingerMs());
+    maxReqsInFlightPerWorker = conf.clientPushMaxReqsInFlightPerWorker();
   }
 
   public void cleanup() {
@@ -49,8 +68,74 @@ public class PushState {
   public boolean addBatchData(
       Pair<String, String> addressPair, PartitionLocation loc, int batchId, byte[] body) {
     DataBatches batches = batchesMap.computeIfAbsent(addressPair, (s) -> new DataBatches());
+    boolean firstBatch = batches.getTotalSize() == 0;
     batches.addDataBatch(loc, batchId, body);
-    return batches.getTotalSize() > pushBufferMaxSize;
+    if (!adaptiveMerge) {
+      return batches.getTotalSize() > pushBufferMaxSize;
+    }
+    long now = System.nanoTime();
+    if (firstBatch) {
+      long deadline = batches.getFirstBatchTime() + mergeMaxLingerNanos;
+      if (nextLingerDeadline == Long.MAX_VALUE || deadline - nextLingerDeadline < 0) {
+        nextLingerDeadline = deadline;
+      }
+    }
+    MergeTarget target = getMergeTarget(addressPair.getLeft());
+    target.onMerge(body.length, now);
+    return batches.getTotalSize() > target.targetSize()
+        || now - batches.getFirstBatchTime() >= mergeMaxLingerNanos;
+  }
+
+  /**
+   * Address pairs whose oldest merged batch waited the max linger. Called by the pushing thread
+   * for every merged batch, so that the merged data of a worker is pushed in time even if no more
+   * batch is merged for the worker. The merged batches are only scanned once a deadline is passed.
+   */
+  public List<Pair<String, String>> lingeredAddressPairs() {
+    if (!adaptiveMerge || nextLingerDeadline == Long.MAX_VALUE) {
+      return Collections.emptyList();
+    }
+    long now = System.nanoTime();
+    if (now - nextLingerDeadline < 0) {
+      return Collections.emptyList();
+    }
+    List<Pair<String, String>> lingered = new ArrayList<>();
+    long next = Long.MAX_VALUE;
+    for (Map.Entry<Pair<String, String>, DataBatches> entry : batchesMap.entrySet()) {
+      DataBatches batches = entry.getValue();
+      if (batches.getTotalSize() == 0) {
+        continue;
+      }
+      long deadline = batches.getFirstBatchTime() + mergeMaxLingerNanos;
+      if (now - deadline >= 0) {
+        lingered.add(entry.getKey());
+      } else if (next == Long.MAX_VALUE || deadline - next < 0) {
+        next = deadline;
+      }
+    }
+    nextLingerDeadline = next;
+    return lingered;
+  }
+
+  /** Size of the merged pushes to the worker, see {@link MergeTarget}. */
+  public long mergedPushSize(String hostAndPushPort) {
+    if (!adaptiveMerge) {
+      return pushBufferMaxSize;
+    }
+    return getMergeTarget(hostAndPushPort).targetSize();
+  }
+
+  /** Records the round trip time of a merged push to the worker. */
+  public void onMergedPushSuccess(String hostAndPushPort, long rttNanos) {
+    if (adaptiveMerge) {
+      getMergeTarget(hostAndPushPort).onPushed(rttNanos);
+    }
+  }
+
+  private MergeTarget getMergeTarget(String hostAndPushPort) {
+    return mergeTargets.computeIfAbsent(
+        hostAndPushPort,
+        (s) -> new MergeTarget(pushBufferMaxSize, mergeMaxSize, maxReqsInFlightPerWorker));
   }
 
   public DataBatches takeDataBatches(Pair<String, String> addressPair) {
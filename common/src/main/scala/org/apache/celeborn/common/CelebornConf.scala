@@ -533,6 +533,18 @@ class CelebornConf(loadDefaults: Boolean) extends Cloneable with Logging with Se
     getTransportConf(module, NETWORK_IO_MODE)
   }
 
+  def networkIoBusyPollEnabled(module: String): Boolean = {
+    getTransportConfBoolean(module, NETWORK_IO_BUSY_POLL_ENABLED)
+  }
+
+  def networkIoBusyPollSocketMicros(module: String): Int = {
+    getTransportConfInt(module, NETWORK_IO_BUSY_POLL_SOCKET_MICROS)
+  }
+
+  def networkIoTcpQuickAck(module: String): Boolean = {
+    getTransportConfBoolean(module, NETWORK_IO_TCP_QUICK_ACK)
+  }
+
   def networkIoPreferDirectBufs(module: String): Boolean = {
     getTransportConfBoolean(module, NETWORK_IO_PREFER_DIRECT_BUFS)
   }
@@ -771,6 +783,13 @@ class CelebornConf(loadDefaults: Boolean) extends Cloneable with Logging with Se
   def haMasterRatisSnapshotAutoTriggerThreshold: Long =
     get(HA_MASTER_RATIS_SNAPSHOT_AUTO_TRIGGER_THRESHOLD)
   def haMasterRatisSnapshotRetentionFileNum: Int = get(HA_MASTER_RATIS_SNAPSHOT_RETENTION_FILE_NUM)
+  def haMasterRatisProposalBatchEnabled: Boolean = get(HA_MASTER_RATIS_PROPOSAL_BATCH_ENABLED)
+  def haMasterRatisProposalBatchMaxSize: Int = get(HA_MASTER_RATIS_PROPOSAL_BATCH_MAX_SIZE)
+  def haMasterRatisProposalBatchMaxDelay: Long = get(HA_MASTER_RATIS_PROPOSAL_BATCH_MAX_DELAY)
+  def haMasterRatisSnapshotSectionedEnabled: Boolean =
+    get(HA_MASTER_RATIS_SNAPSHOT_SECTIONED_ENABLED)
+  def haMasterRatisSnapshotSectionMaxEntries: Int =
+    get(HA_MASTER_RATIS_SNAPSHOT_SECTION_MAX_ENTRIES)
   def haRatisCustomConfigs: JMap[String, String] = {
     settings.asScala.filter(_._1.startsWith("celeborn.ratis")).toMap.asJava
   }
@@ -790,6 +809,10 @@ class CelebornConf(loadDefaults: Boolean) extends Cloneable with Logging with Se
   def workerReplicatePort: Int = get(WORKER_REPLICATE_PORT)
   def workerPushIoThreads: Option[Int] = get(WORKER_PUSH_IO_THREADS)
   def workerFetchIoThreads: Option[Int] = get(WORKER_FETCH_IO_THREADS)
+  def workerFetchReadAheadChunks: Int = get(WORKER_FETCH_READ_AHEAD_CHUNKS)
+  def workerFetchReadAheadThreads: Int = get(WORKER_FETCH_READ_AHEAD_THREADS)
+  def workerFetchMaxPendingChunks: Int = get(WORKER_FETCH_MAX_PENDING_CHUNKS)
+  def workerFetchFileIdleTimeout: Long = get(WORKER_FETCH_FILE_IDLE_TIMEOUT)
   def workerReplicateIoThreads: Option[Int] = get(WORKER_REPLICATE_IO_THREADS)
   def registerWorkerTimeout: Long = get(WORKER_REGISTER_TIMEOUT)
   def workerWorkingDir: String = get(WORKER_WORKING_DIR)
@@ -806,6 +829,11 @@ class CelebornConf(loadDefaults: Boolean) extends Cloneable with Logging with Se
   def workerCommitThreads: Int =
     if (hasHDFSStorage) Math.max(128, get(WORKER_COMMIT_THREADS)) else get(WORKER_COMMIT_THREADS)
   def workerCommitFilesWaitThreads: Int = get(WORKER_COMMIT_FILES_WAIT_THREADS)
+  def workerCommitFilesSchedulerEnabled: Boolean = get(WORKER_COMMIT_FILES_SCHEDULER_ENABLED)
+  def workerCommitFilesSchedulerMaxConcurrentCommitsPerDisk: Int =
+    get(WORKER_COMMIT_FILES_SCHEDULER_MAX_CONCURRENT_COMMITS_PER_DISK)
+  def workerCommitFilesSchedulerBatchSize: Int = get(WORKER_COMMIT_FILES_SCHEDULER_BATCH_SIZE)
+  def workerCommitFilesDurableEnabled: Boolean = get(WORKER_COMMIT_FILES_DURABLE_ENABLED)
   def workerCleanThreads: Int = get(WORKER_CLEAN_THREADS)
   def workerShuffleCommitTimeout: Long = get(WORKER_SHUFFLE_COMMIT_TIMEOUT)
   def maxPartitionSizeToEstimate: Long =
@@ -818,6 +846,13 @@ class CelebornConf(loadDefaults: Boolean) extends Cloneable with Logging with Se
     get(WORKER_SHUFFLE_BLOCK_COMPACTION_FACTOR)
   def workerPartitionSorterReservedMemoryPerPartition: Long =
     get(WORKER_PARTITION_SORTER_RESERVED_MEMORY_PER_PARTITION)
+  def workerPartitionSorterParallelism: Int = get(WORKER_PARTITION_SORTER_PARALLELISM)
+  def workerPartitionSorterParallelMinFileSize: Long =
+    get(WORKER_PARTITION_SORTER_PARALLEL_MIN_FILE_SIZE)
+  def workerPartitionSorterMapRangeIndexEnabled: Boolean =
+    get(WORKER_PARTITION_SORTER_MAP_RANGE_INDEX_ENABLED)
+  def workerPartitionSorterMapRangeIndexMaxRuns: Int =
+    get(WORKER_PARTITION_SORTER_MAP_RANGE_INDEX_MAX_RUNS)
   def workerPartitionSorterThreads: Int =
     get(WORKER_PARTITION_SORTER_THREADS).getOrElse(Runtime.getRuntime.availableProcessors)
   def workerPartitionSorterIndexCacheMaxWeight: Long =
@@ -826,6 +861,8 @@ class CelebornConf(loadDefaults: Boolean) extends Cloneable with Logging with Se
   def workerPushHeartbeatEnabled: Boolean = get(WORKER_PUSH_HEARTBEAT_ENABLED)
   def workerPushMaxComponents: Int = get(WORKER_PUSH_COMPOSITEBUFFER_MAXCOMPONENTS)
   def workerFetchHeartbeatEnabled: Boolean = get(WORKER_FETCH_HEARTBEAT_ENABLED)
+  def workerHeartbeatDeltaEnabled: Boolean = get(WORKER_HEARTBEAT_DELTA_ENABLED)
+  def workerHeartbeatDeltaFullSyncInterval: Long = get(WORKER_HEARTBEAT_DELTA_FULL_SYNC_INTERVAL)
   def workerPartitionSplitEnabled: Boolean = get(WORKER_PARTITION_SPLIT_ENABLED)
   def workerActiveConnectionMax: Option[Long] = get(WORKER_ACTIVE_CONNECTION_MAX)
   def workerJvmProfilerEnabled: Boolean = get(WORKER_JVM_PROFILER_ENABLED)
@@ -884,6 +921,8 @@ class CelebornConf(loadDefaults: Boolean) extends Cloneable with Logging with Se
   def clientReserveSlotsRetryWait: Long = get(CLIENT_RESERVE_SLOTS_RETRY_WAIT)
   def clientRequestCommitFilesMaxRetries: Int = get(CLIENT_COMMIT_FILE_REQUEST_MAX_RETRY)
   def clientCommitFilesIgnoreExcludedWorkers: Boolean = get(CLIENT_COMMIT_IGNORE_EXCLUDED_WORKERS)
+  def clientCommitFilesMaxPartitionsPerRequest: Int =
+    get(CLIENT_COMMIT_FILES_MAX_PARTITIONS_PER_REQUEST)
   def appHeartbeatTimeoutMs: Long = get(APPLICATION_HEARTBEAT_TIMEOUT)
   def hdfsExpireDirsTimeoutMS: Long = get(HDFS_EXPIRE_DIRS_TIMEOUT)
   def appHeartbeatIntervalMs: Long = get(APPLICATION_HEARTBEAT_INTERVAL)
@@ -929,6 +968,9 @@ class CelebornConf(loadDefaults: Boolean) extends Cloneable with Logging with Se
       get(CLIENT_RPC_GET_REDUCER_FILE_GROUP_ASK_TIMEOUT).milli,
       CLIENT_RPC_GET_REDUCER_FILE_GROUP_ASK_TIMEOUT.key)
 
+  def clientRpcGetReducerFileGroupShardSize: Int =
+    get(CLIENT_RPC_GET_REDUCER_FILE_GROUP_SHARD_SIZE)
+
   def clientRpcCommitFilesAskTimeout: RpcTimeout =
     new RpcTimeout(
       get(CLIENT_RPC_COMMIT_FILES_ASK_TIMEOUT).milli,
@@ -940,6 +982,9 @@ class CelebornConf(loadDefaults: Boolean) extends Cloneable with Logging with Se
   def clientFetchTimeoutMs: Long = get(CLIENT_FETCH_TIMEOUT)
   def clientFetchBufferSize: Int = get(CLIENT_FETCH_BUFFER_SIZE).toInt
   def clientFetchMaxReqsInFlight: Int = get(CLIENT_FETCH_MAX_REQS_IN_FLIGHT)
+  def clientFetchConcurrentReaders: Int = get(CLIENT_FETCH_CONCURRENT_READERS)
+  def clientFetchConcurrentReadersMaxBytesInFlight: Long =
+    get(CLIENT_FETCH_CONCURRENT_READERS_MAX_BYTES_IN_FLIGHT)
   def clientFetchMaxRetriesForEachReplica: Int = get(CLIENT_FETCH_MAX_RETRIES_FOR_EACH_REPLICA)
   def clientFetchThrowsFetchFailure: Boolean = get(CLIENT_FETCH_THROWS_FETCH_FAILURE)
   def clientFetchExcludeWorkerOnFailureEnabled: Boolean =
@@ -954,6 +999,10 @@ class CelebornConf(loadDefaults: Boolean) extends Cloneable with Logging with Se
   def clientPushBufferInitialSize: Int = get(CLIENT_PUSH_BUFFER_INITIAL_SIZE).toInt
   def clientPushBufferMaxSize: Int = get(CLIENT_PUSH_BUFFER_MAX_SIZE).toInt
   def clientPushQueueCapacity: Int = get(CLIENT_PUSH_QUEUE_CAPACITY)
+  def clientPushMergeAdaptiveEnabled: Boolean = get(CLIENT_PUSH_MERGE_ADAPTIVE_ENABLED)
+  def clientPushMergeAdaptiveMaxSize: Long = get(CLIENT_PUSH_MERGE_ADAPTIVE_MAX_SIZE)
+  def clientPushMergeAdaptiveMaxLingerMs: Long = get(CLIENT_PUSH_MERGE_ADAPTIVE_MAX_LINGER)
+  def clientPushPooledDirectBufferEnabled: Boolean = get(CLIENT_PUSH_POOLED_DIRECT_BUFFER_ENABLED)
   def clientPushExcludeWorkerOnFailureEnabled: Boolean =
     get(CLIENT_PUSH_EXCLUDE_WORKER_ON_FAILURE_ENABLED)
   def clientPushMaxReqsInFlightPerWorker: Int = get(CLIENT_PUSH_MAX_REQS_IN_FLIGHT_PERWORKER)
@@ -1163,9 +1212,17 @@ class CelebornConf(loadDefaults: Boolean) extends Cloneable with Logging with Se
   def workerFlusherBufferSize: Long = get(WORKER_FLUSHER_BUFFER_SIZE)
   def workerHdfsFlusherBufferSize: Long = get(WORKER_HDFS_FLUSHER_BUFFER_SIZE)
   def workerWriterCloseTimeoutMs: Long = get(WORKER_WRITER_CLOSE_TIMEOUT)
+  def workerWriterCombineAppendsEnabled: Boolean = get(WORKER_WRITER_COMBINE_APPENDS_ENABLED)
   def workerHddFlusherThreads: Int = get(WORKER_FLUSHER_HDD_THREADS)
   def workerSsdFlusherThreads: Int = get(WORKER_FLUSHER_SSD_THREADS)
   def workerHdfsFlusherThreads: Int = get(WORKER_FLUSHER_HDFS_THREADS)
+  def workerLocalFlusherGatherWriteEnabled: Boolean =
+    get(WORKER_FLUSHER_LOCAL_GATHER_WRITE_ENABLED)
+  def workerFlusherWorkStealingEnabled: Boolean = get(WORKER_FLUSHER_WORK_STEALING_ENABLED)
+  def workerHdfsFlusherPersistentStreamEnabled: Boolean =
+    get(WORKER_FLUSHER_HDFS_PERSISTENT_STREAM_ENABLED)
+  def workerHdfsFlusherPersistentStreamMaxOpen: Int =
+    get(WORKER_FLUSHER_HDFS_PERSISTENT_STREAM_MAX_OPEN)
   def workerCreateWriterMaxAttempts: Int = get(WORKER_WRITER_CREATE_MAX_ATTEMPTS)
 
   // //////////////////////////////////////////////////////
@@ -1762,12 +1819,67 @@ object CelebornConf extends Logging {
   val NETWORK_IO_MODE: ConfigEntry[String] =
     buildConf("celeborn.<module>.io.mode")
       .categories("network")
-      .doc("Netty EventLoopGroup backend, available options: NIO, EPOLL.")
+      .doc("Netty EventLoopGroup backend, available options: NIO, EPOLL, IO_URING. IO_URING " +
+        "requires the netty-incubator-transport-native-io_uring jar on the classpath and falls " +
+        "back to EPOLL, or NIO if EPOLL is unavailable too, when io_uring is unavailable.")
       .stringConf
       .transform(_.toUpperCase)
-      .checkValues(Set("NIO", "EPOLL"))
+      .checkValues(Set("NIO", "EPOLL", "IO_URING"))
       .createWithDefault("NIO")
 
+  val NETWORK_IO_BUSY_POLL_ENABLED: ConfigEntry[Boolean] =
+    buildConf("celeborn.<module>.io.busyPoll.enabled")
+      .categories("network")
+      .doc("Whether the event loops of the EPOLL backend busy-wait for network events instead " +
+        "of blocking in epoll_wait, which lowers the latency of network IO at the cost of a busy " +
+        "core per event loop thread. " +
+        s"If setting <module> to `${TransportModuleConstants.DATA_MODULE}`, " +
+        s"it works for shuffle client push and fetch data. " +
+        s"If setting <module> to `${TransportModuleConstants.PUSH_MODULE}`, " +
+        s"it works for worker receiving push data. " +
+        s"If setting <module> to `${TransportModuleConstants.REPLICATE_MODULE}`, " +
+        s"it works for replicate server or client of worker replicating data to peer worker. " +
+        s"If setting <module> to `${TransportModuleConstants.FETCH_MODULE}`, " +
+        s"it works for worker fetch server.")
+      .version("0.6.0")
+      .booleanConf
+      .createWithDefault(false)
+
+  val NETWORK_IO_BUSY_POLL_SOCKET_MICROS: ConfigEntry[Int] =
+    buildConf("celeborn.<module>.io.busyPoll.socketMicros")
+      .categories("network")
+      .doc("SO_BUSY_POLL of the sockets of the EPOLL backend, the microseconds for which a " +
+        "read on a socket busy-polls the device queue when there is no data. 0 disables it. " +
+        s"If setting <module> to `${TransportModuleConstants.DATA_MODULE}`, " +
+        s"it works for shuffle client push and fetch data. " +
+        s"If setting <module> to `${TransportModuleConstants.PUSH_MODULE}`, " +
+        s"it works for worker receiving push data. " +
+        s"If setting <module> to `${TransportModuleConstants.REPLICATE_MODULE}`, " +
+        s"it works for replicate server or client of worker replicating data to peer worker. " +
+        s"If setting <module> to `${TransportModuleConstants.FETCH_MODULE}`, " +
+        s"it works for worker fetch server.")
+      .version("0.6.0")
+      .intConf
+      .checkValue(v => v >= 0, "Value must be non-negative.")
+      .createWithDefault(0)
+
+  val NETWORK_IO_TCP_QUICK_ACK: ConfigEntry[Boolean] =
+    buildConf("celeborn.<module>.io.tcpQuickAck")
+      .categories("network")
+      .doc("Whether to enable TCP_QUICKACK on the sockets of the EPOLL backend, which sends " +
+        "the ACKs of received data immediately instead of delaying them. " +
+        s"If setting <module> to `${TransportModuleConstants.DATA_MODULE}`, " +
+        s"it works for shuffle client push and fetch data. " +
+        s"If setting <module> to `${TransportModuleConstants.PUSH_MODULE}`, " +
+        s"it works for worker receiving push data. " +
+        s"If setting <module> to `${TransportModuleConstants.REPLICATE_MODULE}`, " +
+        s"it works for replicate server or client of worker replicating data to peer worker. " +
+        s"If setting <module> to `${TransportModuleConstants.FETCH_MODULE}`, " +
+        s"it works for worker fetch server.")
+      .version("0.6.0")
+      .booleanConf
+      .createWithDefault(false)
+
   val NETWORK_IO_PREFER_DIRECT_BUFS: ConfigEntry[Boolean] =
     buildConf("celeborn.<module>.io.preferDirectBufs")
       .categories("network")
@@ -1986,7 +2098,9 @@ object CelebornConf extends Logging {
     buildConf("celeborn.shuffle.io.maxChunksBeingTransferred")
       .categories("network")
       .doc("The max number of chunks allowed to be transferred at the same time on shuffle service. Note " +
-        "that new incoming connections will be closed when the max number is hit. The client will retry " +
+        "that chunk fetches over the max number are pending until chunks are sent, the applications " +
+        "take turns to fetch their pending chunks. Chunk fetches fail when the pending chunk fetches " +
+        "exceed `celeborn.worker.fetch.maxPendingChunks`. The client will retry " +
         "according to the shuffle retry configs (see `celeborn.<module>.io.maxRetries` and " +
         "`celeborn.<module>.io.retryWait`), if those limits are reached the task will fail with fetch failure.")
       .version("0.2.0")
@@ -2531,6 +2645,58 @@ object CelebornConf extends Logging {
       .intConf
       .createWithDefault(3)
 
+  val HA_MASTER_RATIS_PROPOSAL_BATCH_ENABLED: ConfigEntry[Boolean] =
+    buildConf("celeborn.master.ha.ratis.proposal.batch.enabled")
+      .categories("ha")
+      .doc("Whether to batch the pending worker heartbeat and unregister shuffle requests " +
+        "into one Ratis log entry, and propose the " +
+        "batches without waiting for the previous ones to be applied. Heartbeats of the same " +
+        "worker in one batch are de-duplicated. Enable it only after all masters are upgraded " +
+        "to a version that supports batched requests.")
+      .version("0.6.0")
+      .booleanConf
+      .createWithDefault(false)
+
+  val HA_MASTER_RATIS_PROPOSAL_BATCH_MAX_SIZE: ConfigEntry[Int] =
+    buildConf("celeborn.master.ha.ratis.proposal.batch.maxSize")
+      .categories("ha")
+      .doc("Max number of requests in one batched Ratis log entry, when " +
+        "`celeborn.master.ha.ratis.proposal.batch.enabled` is true.")
+      .version("0.6.0")
+      .intConf
+      .checkValue(_ > 0, "Value must be positive.")
+      .createWithDefault(256)
+
+  val HA_MASTER_RATIS_PROPOSAL_BATCH_MAX_DELAY: ConfigEntry[Long] =
+    buildConf("celeborn.master.ha.ratis.proposal.batch.maxDelay")
+      .categories("ha")
+      .doc("Max time to wait for more requests before proposing a batched Ratis log entry, " +
+        "when `celeborn.master.ha.ratis.proposal.batch.enabled` is true.")
+      .version("0.6.0")
+      .timeConf(TimeUnit.MILLISECONDS)
+      .createWithDefaultString("1ms")
+
+  val HA_MASTER_RATIS_SNAPSHOT_SECTIONED_ENABLED: ConfigEntry[Boolean] =
+    buildConf("celeborn.master.ha.ratis.snapshot.sectioned.enabled")
+      .categories("ha")
+      .doc("Whether to write the snapshot of the master meta as compressed sections with their " +
+        "own checksums, which are written one by one and loaded in parallel. Snapshots of both " +
+        "formats can always be loaded. Enable it only after all masters are upgraded to a " +
+        "version that supports sectioned snapshots.")
+      .version("0.6.0")
+      .booleanConf
+      .createWithDefault(false)
+
+  val HA_MASTER_RATIS_SNAPSHOT_SECTION_MAX_ENTRIES: ConfigEntry[Int] =
+    buildConf("celeborn.master.ha.ratis.snapshot.section.maxEntries")
+      .categories("ha")
+      .doc("Max number of entries of the master meta in one section of the snapshot, when " +
+        "`celeborn.master.ha.ratis.snapshot.sectioned.enabled` is true.")
+      .version("0.6.0")
+      .intConf
+      .checkValue(_ > 0, "Value must be positive.")
+      .createWithDefault(10000)
+
   val MASTER_SLOT_ASSIGN_POLICY: ConfigEntry[String] =
     buildConf("celeborn.master.slot.assign.policy")
       .withAlternative("celeborn.slots.assign.policy")
@@ -2975,6 +3141,49 @@ object CelebornConf extends Logging {
       .intConf
       .createOptional
 
+  val WORKER_FETCH_MAX_PENDING_CHUNKS: ConfigEntry[Int] =
+    buildConf("celeborn.worker.fetch.maxPendingChunks")
+      .categories("worker")
+      .version("0.6.0")
+      .doc("The max number of chunk fetches pending when the chunks being transferred exceed " +
+        "`celeborn.shuffle.io.maxChunksBeingTransferred`, chunk fetches over it fail. " +
+        "0 fails the chunk fetches instead of deferring them.")
+      .intConf
+      .checkValue(_ >= 0, "The max number of pending chunk fetches must not be negative.")
+      .createWithDefault(16384)
+
+  val WORKER_FETCH_READ_AHEAD_CHUNKS: ConfigEntry[Int] =
+    buildConf("celeborn.worker.fetch.readAhead.chunks")
+      .categories("worker")
+      .version("0.6.0")
+      .doc("Number of chunks after the chunk being fetched of a stream that worker reads ahead " +
+        "into the page cache, so that fetching them does not wait for the disk. " +
+        "0 disables reading ahead.")
+      .intConf
+      .checkValue(_ >= 0, "The number of chunks to read ahead must not be negative.")
+      .createWithDefault(0)
+
+  val WORKER_FETCH_READ_AHEAD_THREADS: ConfigEntry[Int] =
+    buildConf("celeborn.worker.fetch.readAhead.threads")
+      .categories("worker")
+      .version("0.6.0")
+      .doc("Thread number of worker to read ahead chunks of streams being fetched, " +
+        "when `celeborn.worker.fetch.readAhead.chunks` is positive.")
+      .intConf
+      .checkValue(_ > 0, "The number of read ahead threads must be positive.")
+      .createWithDefault(4)
+
+  val WORKER_FETCH_FILE_IDLE_TIMEOUT: ConfigEntry[Long] =
+    buildConf("celeborn.worker.fetch.fileIdleTimeout")
+      .categories("worker")
+      .version("0.6.0")
+      .doc("Time after which worker closes the file of a chunk stream when no chunk of it is " +
+        "being fetched, the file is opened again by the next chunk fetched. " +
+        "0 keeps the file open until the stream ends.")
+      .timeConf(TimeUnit.MILLISECONDS)
+      .checkValue(_ >= 0, "The idle timeout of the files being fetched must not be negative.")
+      .createWithDefaultString("60s")
+
   val WORKER_REPLICATE_IO_THREADS: OptionalConfigEntry[Int] =
     buildConf("celeborn.worker.replicate.io.threads")
       .categories("worker")
@@ -3046,6 +3255,49 @@ object CelebornConf extends Logging {
       .intConf
       .createWithDefault(32)
 
+  val WORKER_COMMIT_FILES_SCHEDULER_ENABLED: ConfigEntry[Boolean] =
+    buildConf("celeborn.worker.commitFiles.scheduler.enabled")
+      .categories("worker")
+      .version("0.6.0")
+      .doc("Whether to commit the files of a CommitFiles request by the commit scheduler, which " +
+        "groups the files by disk, submits the final flushes of a batch of files of a disk " +
+        "together and caps the concurrent commits of each disk, so that a disk with many files " +
+        "does not delay the commits of the other disks.")
+      .booleanConf
+      .createWithDefault(false)
+
+  val WORKER_COMMIT_FILES_SCHEDULER_MAX_CONCURRENT_COMMITS_PER_DISK: ConfigEntry[Int] =
+    buildConf("celeborn.worker.commitFiles.scheduler.maxConcurrentCommitsPerDisk")
+      .categories("worker")
+      .version("0.6.0")
+      .doc("Max number of batches of files of one disk committed concurrently by the commit " +
+        "scheduler.")
+      .intConf
+      .checkValue(v => v > 0, "Value must be positive.")
+      .createWithDefault(4)
+
+  val WORKER_COMMIT_FILES_SCHEDULER_BATCH_SIZE: ConfigEntry[Int] =
+    buildConf("celeborn.worker.commitFiles.scheduler.batchSize")
+      .categories("worker")
+      .version("0.6.0")
+      .doc("Max number of files of one disk whose final flushes are submitted together by the " +
+        "commit scheduler.")
+      .intConf
+      .checkValue(v => v > 0, "Value must be positive.")
+      .createWithDefault(32)
+
+  val WORKER_COMMIT_FILES_DURABLE_ENABLED: ConfigEntry[Boolean] =
+    buildConf("celeborn.worker.commitFiles.durable.enabled")
+      .categories("worker")
+      .version("0.6.0")
+      .doc("Whether the commit scheduler forces the files of a local disk to the disk together " +
+        "after all files of the disk in a CommitFiles request are closed, so that the " +
+        "committed files survive a crash of the host. A file fails to commit " +
+        "if forcing it fails. " +
+        "Only takes effect when `celeborn.worker.commitFiles.scheduler.enabled` is true.")
+      .booleanConf
+      .createWithDefault(false)
+
   val WORKER_CLEAN_THREADS: ConfigEntry[Int] =
     buildConf("celeborn.worker.clean.threads")
       .categories("worker")
@@ -3083,6 +3335,48 @@ object CelebornConf extends Logging {
       .intConf
       .createOptional
 
+  val WORKER_PARTITION_SORTER_MAP_RANGE_INDEX_ENABLED: ConfigEntry[Boolean] =
+    buildConf("celeborn.worker.sortPartition.mapRangeIndex.enabled")
+      .categories("worker")
+      .doc("When true, reduce partition writers index the batches of every map while writing, " +
+        "and reads of a map range from a local shuffle file are served from the unsorted file " +
+        "by the index instead of sorting the file. Files without the index, e.g. recovered " +
+        "ones, are still sorted.")
+      .version("0.6.0")
+      .booleanConf
+      .createWithDefault(false)
+
+  val WORKER_PARTITION_SORTER_MAP_RANGE_INDEX_MAX_RUNS: ConfigEntry[Int] =
+    buildConf("celeborn.worker.sortPartition.mapRangeIndex.maxRuns")
+      .categories("worker")
+      .doc("Max number of runs of consecutive batches of one map kept in the map range index of " +
+        "a file, each run taking 12 bytes. The index of a file exceeding it is dropped, and " +
+        "reads of a map range from the file are served by sorting the file.")
+      .version("0.6.0")
+      .intConf
+      .checkValue(_ > 0, "Should be positive.")
+      .createWithDefault(65536)
+
+  val WORKER_PARTITION_SORTER_PARALLELISM: ConfigEntry[Int] =
+    buildConf("celeborn.worker.sortPartition.parallelism")
+      .categories("worker")
+      .doc("Number of segments a shuffle file is split into to be sorted in parallel on the " +
+        "partition sorter threads. Segments are indexed concurrently and the blocks of a local " +
+        "file are transferred by concurrent streams. `1` sorts every file in one thread.")
+      .version("0.6.0")
+      .intConf
+      .checkValue(_ > 0, "Should be positive.")
+      .createWithDefault(1)
+
+  val WORKER_PARTITION_SORTER_PARALLEL_MIN_FILE_SIZE: ConfigEntry[Long] =
+    buildConf("celeborn.worker.sortPartition.parallel.minFileSize")
+      .categories("worker")
+      .doc("Minimum size of a shuffle file to be sorted in parallel when " +
+        s"`${WORKER_PARTITION_SORTER_PARALLELISM.key}` is greater than 1.")
+      .version("0.6.0")
+      .bytesConf(ByteUnit.BYTE)
+      .createWithDefaultString("256mb")
+
   val WORKER_PARTITION_SORTER_INDEX_CACHE_MAX_WEIGHT: ConfigEntry[Long] =
     buildConf("celeborn.worker.sortPartition.indexCache.maxWeight")
       .categories("worker")
@@ -3186,6 +3480,50 @@ object CelebornConf extends Logging {
       .intConf
       .createWithDefault(8)
 
+  val WORKER_FLUSHER_HDFS_PERSISTENT_STREAM_ENABLED: ConfigEntry[Boolean] =
+    buildConf("celeborn.worker.flusher.hdfs.persistentStream.enabled")
+      .categories("worker")
+      .doc("Whether HDFS flushers keep the output stream of a partition file open for the " +
+        "writer's lifetime instead of appending and closing the file on every flush. The " +
+        "stream is closed when the file is committed.")
+      .version("0.6.0")
+      .booleanConf
+      .createWithDefault(false)
+
+  val WORKER_FLUSHER_HDFS_PERSISTENT_STREAM_MAX_OPEN: ConfigEntry[Int] =
+    buildConf("celeborn.worker.flusher.hdfs.persistentStream.maxOpen")
+      .categories("worker")
+      .doc("Max number of HDFS output streams kept open by a worker when " +
+        "`celeborn.worker.flusher.hdfs.persistentStream.enabled` is true. Each open stream owns " +
+        "a DataStreamer thread, the least recently written stream is closed when the cap is " +
+        "exceeded.")
+      .version("0.6.0")
+      .intConf
+      .checkValue(_ > 0, "Should be positive.")
+      .createWithDefault(256)
+
+  val WORKER_FLUSHER_LOCAL_GATHER_WRITE_ENABLED: ConfigEntry[Boolean] =
+    buildConf("celeborn.worker.flusher.local.gatherWrite.enabled")
+      .categories("worker")
+      .doc("Whether local flushers write all components of a flush buffer with one gathering " +
+        "write, and coalesce the queued flush tasks of the same file on one flusher thread " +
+        "into a single submission. This reduces write syscalls when flush buffers consist of " +
+        "many small pushed batches.")
+      .version("0.6.0")
+      .booleanConf
+      .createWithDefault(false)
+
+  val WORKER_FLUSHER_WORK_STEALING_ENABLED: ConfigEntry[Boolean] =
+    buildConf("celeborn.worker.flusher.workStealing.enabled")
+      .categories("worker")
+      .doc("Whether the threads of a local flusher share the flush tasks of its disk instead of " +
+        "each writer being bound to one thread. The tasks of a writer are flushed in order by " +
+        "one thread at a time, and idle threads take ready writers from busy ones, so a slow " +
+        "flush does not hold up the tasks queued behind it.")
+      .version("0.6.0")
+      .booleanConf
+      .createWithDefault(false)
+
   val WORKER_FLUSHER_SHUTDOWN_TIMEOUT: ConfigEntry[Long] =
     buildConf("celeborn.worker.flusher.shutdownTimeout")
       .categories("worker")
@@ -3338,6 +3676,16 @@ object CelebornConf extends Logging {
       .timeConf(TimeUnit.MILLISECONDS)
       .createWithDefaultString("10m")
 
+  val WORKER_WRITER_COMBINE_APPENDS_ENABLED: ConfigEntry[Boolean] =
+    buildConf("celeborn.worker.writer.combineAppends.enabled")
+      .categories("worker")
+      .version("0.6.0")
+      .doc("Whether the threads writing to one partition queue their data, which is appended by " +
+        "one of them at a time, instead of each thread waiting for the flush lock of the " +
+        "partition. This helps hot partitions which are pushed to by many threads.")
+      .booleanConf
+      .createWithDefault(false)
+
   val WORKER_WRITER_CREATE_MAX_ATTEMPTS: ConfigEntry[Int] =
     buildConf("celeborn.worker.writer.create.maxAttempts")
       .categories("worker")
@@ -3634,6 +3982,26 @@ object CelebornConf extends Logging {
       .booleanConf
       .createWithDefault(false)
 
+  val WORKER_HEARTBEAT_DELTA_ENABLED: ConfigEntry[Boolean] =
+    buildConf("celeborn.worker.heartbeat.delta.enabled")
+      .categories("worker")
+      .version("0.6.0")
+      .doc("Whether the worker sends only the disks, user resource consumptions and shuffle keys " +
+        "changed since the last heartbeat acknowledged by master, instead of all of them. " +
+        "Enable it only after all masters support the delta heartbeat.")
+      .booleanConf
+      .createWithDefault(false)
+
+  val WORKER_HEARTBEAT_DELTA_FULL_SYNC_INTERVAL: ConfigEntry[Long] =
+    buildConf("celeborn.worker.heartbeat.delta.fullSyncInterval")
+      .categories("worker")
+      .version("0.6.0")
+      .doc("Interval of the full heartbeat when the delta heartbeat is enabled, which " +
+        "resyncs all disks, user resource consumptions and shuffle keys of the worker to master.")
+      .timeConf(TimeUnit.MILLISECONDS)
+      .checkValue(_ > 0, "Value must be positive.")
+      .createWithDefaultString("5min")
+
   val WORKER_ACTIVE_CONNECTION_MAX: OptionalConfigEntry[Long] =
     buildConf("celeborn.worker.activeConnection.max")
       .categories("worker")
@@ -3838,6 +4206,47 @@ object CelebornConf extends Logging {
       .bytesConf(ByteUnit.BYTE)
       .createWithDefaultString("64k")
 
+  val CLIENT_PUSH_MERGE_ADAPTIVE_MAX_SIZE: ConfigEntry[Long] =
+    buildConf("celeborn.client.push.merge.adaptive.maxSize")
+      .categories("client")
+      .version("0.6.0")
+      .doc("Max size of a merged push when adaptive merging is enabled.")
+      .bytesConf(ByteUnit.BYTE)
+      .createWithDefaultString("1m")
+
+  val CLIENT_PUSH_MERGE_ADAPTIVE_MAX_LINGER: ConfigEntry[Long] =
+    buildConf("celeborn.client.push.merge.adaptive.maxLinger")
+      .categories("client")
+      .version("0.6.0")
+      .doc("Max time a batch waits to be merged when adaptive merging is enabled. The merged " +
+        "data of a worker is pushed once its oldest batch waited so long. The deadline is " +
+        "checked whenever the task merges a batch for any worker, so the data merged before " +
+        "the task stops merging is pushed at the latest at mapper end.")
+      .timeConf(TimeUnit.MILLISECONDS)
+      .createWithDefaultString("50ms")
+
+  val CLIENT_PUSH_MERGE_ADAPTIVE_ENABLED: ConfigEntry[Boolean] =
+    buildConf("celeborn.client.push.merge.adaptive.enabled")
+      .categories("client")
+      .version("0.6.0")
+      .doc("Whether to size the merged pushes to each worker from the observed round trip " +
+        "time and the rate data is merged for the worker, instead of pushing once the merged " +
+        s"data exceeds `${CLIENT_PUSH_BUFFER_MAX_SIZE.key}`. Merged data is also pushed once " +
+        s"its oldest batch waited `${CLIENT_PUSH_MERGE_ADAPTIVE_MAX_LINGER.key}`.")
+      .booleanConf
+      .createWithDefault(false)
+
+  val CLIENT_PUSH_POOLED_DIRECT_BUFFER_ENABLED: ConfigEntry[Boolean] =
+    buildConf("celeborn.client.push.pooledDirectBuffer.enabled")
+      .categories("client")
+      .version("0.6.0")
+      .doc("Whether to build the body of a pushed batch in a pooled direct buffer instead of " +
+        "a new heap array. The compressed data is copied once into the direct buffer, which is " +
+        "written to the channel without another copy and released after the batch is done. " +
+        "Merged pushes are not affected.")
+      .booleanConf
+      .createWithDefault(false)
+
   val CLIENT_PUSH_QUEUE_CAPACITY: ConfigEntry[Int] =
     buildConf("celeborn.client.push.queue.capacity")
       .withAlternative("celeborn.push.queue.capacity")
@@ -4066,6 +4475,27 @@ object CelebornConf extends Logging {
       .bytesConf(ByteUnit.BYTE)
       .createWithDefaultString("64k")
 
+  val CLIENT_FETCH_CONCURRENT_READERS: ConfigEntry[Int] =
+    buildConf("celeborn.client.fetch.concurrentReaders")
+      .categories("client")
+      .version("0.6.0")
+      .doc("Amount of partition readers a shuffle reader keeps open. Besides the reader being " +
+        "read, the readers of the next locations of a split partition are opened ahead and " +
+        "fetch chunks before they are read, so that the locations are fetched concurrently. " +
+        "1 means locations are opened one after another.")
+      .intConf
+      .checkValue(_ > 0, "Value must be positive.")
+      .createWithDefault(1)
+
+  val CLIENT_FETCH_CONCURRENT_READERS_MAX_BYTES_IN_FLIGHT: ConfigEntry[Long] =
+    buildConf("celeborn.client.fetch.concurrentReaders.maxBytesInFlight")
+      .categories("client")
+      .version("0.6.0")
+      .doc("Max bytes of the chunks fetched by the readers opened ahead of the reader being " +
+        s"read, see `${CLIENT_FETCH_CONCURRENT_READERS.key}`.")
+      .bytesConf(ByteUnit.BYTE)
+      .createWithDefaultString("64m")
+
   val CLIENT_FETCH_MAX_REQS_IN_FLIGHT: ConfigEntry[Int] =
     buildConf("celeborn.client.fetch.maxReqsInFlight")
       .withAlternative("celeborn.fetch.maxReqsInFlight")
@@ -4370,6 +4800,19 @@ object CelebornConf extends Logging {
       .booleanConf
       .createWithDefault(false)
 
+  val CLIENT_COMMIT_FILES_MAX_PARTITIONS_PER_REQUEST: ConfigEntry[Int] =
+    buildConf("celeborn.client.commitFiles.maxPartitionsPerRequest")
+      .categories("client")
+      .version("0.6.0")
+      .doc("Max number of partitions committed by one CommitFiles request. When positive, the " +
+        "partitions of a worker are committed by pipelined requests, whose committed " +
+        "partitions are recorded as soon as each request finishes instead of after all " +
+        "partitions of the worker are committed. 0 means all partitions of a worker are " +
+        "committed by one request.")
+      .intConf
+      .checkValue(v => v >= 0, "Value must be non-negative")
+      .createWithDefault(0)
+
   val CLIENT_PUSH_STAGE_END_TIMEOUT: ConfigEntry[Long] =
     buildConf("celeborn.client.push.stageEnd.timeout")
       .withAlternative("celeborn.push.stageEnd.timeout")
@@ -4418,6 +4861,20 @@ object CelebornConf extends Logging {
         s"and 1 times for releasing slots request. User can customize this value according to your setting.")
       .fallbackConf(RPC_ASK_TIMEOUT)
 
+  val CLIENT_RPC_GET_REDUCER_FILE_GROUP_SHARD_SIZE: ConfigEntry[Int] =
+    buildConf("celeborn.client.rpc.getReducerFileGroup.shardSize")
+      .categories("client")
+      .version("0.6.0")
+      .doc("Number of partitions in one shard of the reducer file groups, reducers get and cache " +
+        "only the shards of the partitions they read instead of the file groups of the whole " +
+        "shuffle, which reduces the size of the responses of shuffles with many partitions. " +
+        "LifecycleManager caches the serialized response of every shard, which takes an item " +
+        "of `celeborn.client.rpc.cache.size`. 0 means the file groups of the whole shuffle " +
+        "are got at once.")
+      .intConf
+      .checkValue(v => v >= 0, "Value must be no less than 0.")
+      .createWithDefault(0)
+
   val CLIENT_RPC_COMMIT_FILES_ASK_TIMEOUT: ConfigEntry[Long] =
     buildConf("celeborn.client.rpc.commitFiles.askTimeout")
       .categories("client")
@@ -201,25 +201,7 @@ class WorkerInfo(
       estimatedPartitionSize: Option[Long] = None): util.Map[String, DiskInfo] = this.synchronized {
     import scala.collection.JavaConverters._
     for (newDisk <- newDiskInfos.values().asScala) {
-      val mountPoint: String = newDisk.mountPoint
-      val curDisk = diskInfos.get(mountPoint)
-      if (curDisk != null) {
-        curDisk.actualUsableSpace = newDisk.actualUsableSpace
-        curDisk.totalSpace = newDisk.totalSpace
-        // Update master's diskinfo activeslots to worker's value
-        curDisk.activeSlots = newDisk.activeSlots
-        curDisk.avgFlushTime = newDisk.avgFlushTime
-        curDisk.avgFetchTime = newDisk.avgFetchTime
-        if (estimatedPartitionSize.nonEmpty && curDisk.storageType != StorageInfo.Type.HDFS) {
-          curDisk.maxSlots = curDisk.actualUsableSpace / estimatedPartitionSize.get
-        }
-        curDisk.setStatus(newDisk.status)
-      } else {
-        if (estimatedPartitionSize.nonEmpty && newDisk.storageType != StorageInfo.Type.HDFS) {
-          newDisk.maxSlots = newDisk.actualUsableSpace / estimatedPartitionSize.get
-        }
-        diskInfos.put(mountPoint, newDisk)
-      }
+      updateDiskInfo(newDisk, estimatedPartitionSize)
     }
 
     val nonExistsMountPoints: java.util.Set[String] = new util.HashSet[String]
@@ -233,6 +215,53 @@ class WorkerInfo(
     JavaUtils.newConcurrentHashMap[String, DiskInfo](diskInfos)
   }
 
+  /**
+   * Updates the disks changed since the last heartbeat and removes the removed disks, the other
+   * disks are kept as they are.
+   */
+  def updateDiskInfosDelta(
+      changedDiskInfos: java.util.Map[String, DiskInfo],
+      removedMountPoints: java.util.Set[String],
+      estimatedPartitionSize: Option[Long] = None): Unit = this.synchronized {
+    changedDiskInfos.values().asScala.foreach(updateDiskInfo(_, estimatedPartitionSize))
+    removedMountPoints.asScala.foreach(diskInfos.remove)
+  }
+
+  private def updateDiskInfo(newDisk: DiskInfo, estimatedPartitionSize: Option[Long]): Unit = {
+    val mountPoint: String = newDisk.mountPoint
+    val curDisk = diskInfos.get(mountPoint)
+    if (curDisk != null) {
+      curDisk.actualUsableSpace = newDisk.actualUsableSpace
+      curDisk.totalSpace = newDisk.totalSpace
+      // Update master's diskinfo activeslots to worker's value
+      curDisk.activeSlots = newDisk.activeSlots
+      curDisk.avgFlushTime = newDisk.avgFlushTime
+      curDisk.avgFetchTime = newDisk.avgFetchTime
+      if (estimatedPartitionSize.nonEmpty && curDisk.storageType != StorageInfo.Type.HDFS) {
+        curDisk.maxSlots = curDisk.actualUsableSpace / estimatedPartitionSize.get
+      }
+      curDisk.setStatus(newDisk.status)
+    } else {
+      if (estimatedPartitionSize.nonEmpty && newDisk.storageType != StorageInfo.Type.HDFS) {
+        newDisk.maxSlots = newDisk.actualUsableSpace / estimatedPartitionSize.get
+      }
+      diskInfos.put(mountPoint, newDisk)
+    }
+  }
+
+  /**
+   * Updates the user resource consumptions changed since the last heartbeat, the consumptions of
+   * the removed users are reset to zero like the users missing in a full heartbeat.
+   */
+  def updateUserResourceConsumptionDelta(
+      changedResourceConsumptions: util.Map[UserIdentifier, ResourceConsumption],
+      removedUserIdentifiers: util.Set[UserIdentifier]): Unit = {
+    removedUserIdentifiers.asScala.foreach { identifier =>
+      userResourceConsumption.put(identifier, ResourceConsumption(0, 0, 0, 0))
+    }
+    userResourceConsumption.putAll(changedResourceConsumptions)
+  }
+
   def updateThenGetUserResourceConsumption(resourceConsumptions: util.Map[
     UserIdentifier,
     ResourceConsumption]): util.Map[UserIdentifier, ResourceConsumption] = {
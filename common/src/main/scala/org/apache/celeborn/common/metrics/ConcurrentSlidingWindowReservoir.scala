@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.common.metrics
+
+import java.util.concurrent.atomic.{AtomicLong, AtomicLongArray}
+
+import com.codahale.metrics.{Snapshot, UniformSnapshot}
+
+/**
+ * A [[ResettableReservoir]] of the last size measurements of all threads, kept in a ring whose
+ * slots are claimed by an atomic cursor, so that the threads updating a hot timer don't contend
+ * on a lock. A snapshot taken while a slot is claimed but not written yet may see the old value
+ * of the slot.
+ */
+class ConcurrentSlidingWindowReservoir(size: Int) extends ResettableReservoir {
+  private val measurements = new AtomicLongArray(size)
+  private val cursor = new AtomicLong()
+
+  override def size(): Int = Math.min(cursor.get(), size.toLong).toInt
+
+  override def update(value: Long): Unit = {
+    measurements.set((cursor.getAndIncrement() % size).toInt, value)
+  }
+
+  override def getSnapshot: Snapshot = {
+    val values = new Array[Long](size())
+    0 until values.length foreach (idx => values(idx) = measurements.get(idx))
+    new UniformSnapshot(values)
+  }
+
+  override def reset(): Unit = cursor.set(0)
+}
@@ -21,7 +21,12 @@ import java.util
 
 import com.codahale.metrics.{Reservoir, Snapshot, UniformSnapshot}
 
-class ResettableSlidingWindowReservoir(size: Int) extends Reservoir {
+/** A [[Reservoir]] cleared after its measurements are reported. */
+trait ResettableReservoir extends Reservoir {
+  def reset(): Unit
+}
+
+class ResettableSlidingWindowReservoir(size: Int) extends ResettableReservoir {
   var measurements: Array[Long] = new Array[Long](size)
   var index: Int = 0
   var full = false
@@ -53,7 +58,7 @@ class ResettableSlidingWindowReservoir(size: Int) extends Reservoir {
     new UniformSnapshot(values)
   }
 
-  def reset(): Unit = this.synchronized {
+  override def reset(): Unit = this.synchronized {
     util.Arrays.fill(measurements, 0)
     full = false
     index = 0
@@ -28,7 +28,7 @@ import com.codahale.metrics._
 
 import org.apache.celeborn.common.CelebornConf
 import org.apache.celeborn.common.internal.Logging
-import org.apache.celeborn.common.metrics.{CelebornHistogram, CelebornTimer, MetricLabels, ResettableSlidingWindowReservoir}
+import org.apache.celeborn.common.metrics.{CelebornHistogram, CelebornTimer, ConcurrentSlidingWindowReservoir, MetricLabels, ResettableReservoir}
 import org.apache.celeborn.common.util.{JavaUtils, ThreadUtils, Utils}
 // Can Remove this if celeborn don't support scala211 in future
 import org.apache.celeborn.common.util.FunctionConverter._
@@ -111,9 +111,13 @@ abstract class AbstractSource(conf: CelebornConf, role: String)
 
   def addTimer(name: String): Unit = addTimer(name, Map.empty[String, String])
 
+  // timers without labels by their names, to record timings without building the metric names
+  private val unlabeledTimers: ConcurrentHashMap[String, NamedTimer] =
+    JavaUtils.newConcurrentHashMap[String, NamedTimer]()
+
   def addTimer(name: String, labels: Map[String, String]): Unit = {
     val metricNameWithLabel = metricNameWithCustomizedLabels(name, labels)
-    namedTimers.computeIfAbsent(
+    val (namedTimer, _) = namedTimers.computeIfAbsent(
       metricNameWithLabel,
       (_: String) => {
         val namedTimer = NamedTimer(
@@ -123,6 +127,9 @@ abstract class AbstractSource(conf: CelebornConf, role: String)
         val values = JavaUtils.newConcurrentHashMap[String, Long]()
         (namedTimer, values)
       })
+    if (labels.isEmpty) {
+      unlabeledTimers.putIfAbsent(name, namedTimer)
+    }
   }
 
   protected val namedCounters: ConcurrentHashMap[String, NamedCounter] =
@@ -219,6 +226,47 @@ abstract class AbstractSource(conf: CelebornConf, role: String)
     doStopTimer(metricsName, key, labels)
   }
 
+  /**
+   * Starts timing an event of a timer without labels, without a key to look up its start time.
+   * The caller keeps the returned start time, and passes it to [[stopTiming]] once the event is
+   * done. Returns [[AbstractSource.NOT_SAMPLED]] if the event is not sampled.
+   */
+  override def startTiming(): Long = {
+    if (needSample()) {
+      System.nanoTime()
+    } else {
+      AbstractSource.NOT_SAMPLED
+    }
+  }
+
+  override def stopTiming(metricsName: String, startTime: Long): Unit = {
+    if (startTime != AbstractSource.NOT_SAMPLED) {
+      val namedTimer = unlabeledTimers.get(metricsName)
+      if (namedTimer != null) {
+        updateTimer(namedTimer, System.nanoTime() - startTime)
+      } else {
+        logWarning(s"Metric $metricsName not found!")
+      }
+    }
+  }
+
+  /** Times f by [[startTiming]] and [[stopTiming]], like [[sample]] without a key. */
+  def sampleTiming[T](metricsName: String)(f: => T): T = {
+    val startTime = startTiming()
+    try {
+      f
+    } finally {
+      stopTiming(metricsName, startTime)
+    }
+  }
+
+  private def updateTimer(namedTimer: NamedTimer, durationNanos: Long): Unit = {
+    namedTimer.timer.update(durationNanos, TimeUnit.NANOSECONDS)
+    if (namedTimer.timer.getCount % metricsSlidingWindowSize == 0) {
+      recordTimer(namedTimer)
+    }
+  }
+
   def doStartTimer(metricsName: String, key: String, labels: Map[String, String]): Unit = {
     val metricNameWithLabel = metricNameWithCustomizedLabels(metricsName, labels)
     val pair = namedTimers.get(metricNameWithLabel)
@@ -235,11 +283,7 @@ abstract class AbstractSource(conf: CelebornConf, role: String)
       val (namedTimer, map) = namedTimers.get(metricNameWithLabel)
       val startTime = Option(map.remove(key))
       startTime match {
-        case Some(t) =>
-          namedTimer.timer.update(System.nanoTime() - t, TimeUnit.NANOSECONDS)
-          if (namedTimer.timer.getCount % metricsSlidingWindowSize == 0) {
-            recordTimer(namedTimer)
-          }
+        case Some(t) => updateTimer(namedTimer, System.nanoTime() - t)
         case None =>
       }
     } catch {
@@ -373,12 +417,12 @@ abstract class AbstractSource(conf: CelebornConf, role: String)
       histograms().foreach(h => {
         recordHistogram(h)
         h.asInstanceOf[CelebornHistogram].reservoir
-          .asInstanceOf[ResettableSlidingWindowReservoir].reset()
+          .asInstanceOf[ResettableReservoir].reset()
       })
       timers().foreach(t => {
         recordTimer(t)
         t.timer.asInstanceOf[CelebornTimer].reservoir
-          .asInstanceOf[ResettableSlidingWindowReservoir].reset()
+          .asInstanceOf[ResettableReservoir].reset()
       })
       val sb = new mutable.StringBuilder
       while (!innerMetrics.isEmpty) {
@@ -394,6 +438,7 @@ abstract class AbstractSource(conf: CelebornConf, role: String)
     namedCounters.clear()
     namedGauges.clear()
     namedTimers.clear()
+    unlabeledTimers.clear()
     innerMetrics.clear()
     metricRegistry.removeMatching(new MetricFilter {
       override def matches(s: String, metric: Metric): Boolean = true
@@ -419,10 +464,15 @@ abstract class AbstractSource(conf: CelebornConf, role: String)
   }
 }
 
+object AbstractSource {
+  // the start time of an event not sampled
+  val NOT_SAMPLED: Long = Long.MinValue
+}
+
 class TimerSupplier(val slidingWindowSize: Int)
   extends MetricRegistry.MetricSupplier[Timer] {
   override def newMetric(): Timer = {
-    new CelebornTimer(new ResettableSlidingWindowReservoir(slidingWindowSize))
+    new CelebornTimer(new ConcurrentSlidingWindowReservoir(slidingWindowSize))
   }
 }
 
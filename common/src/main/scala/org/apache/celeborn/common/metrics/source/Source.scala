@@ -25,6 +25,8 @@ trait Source {
   def sample[T](metricsName: String, key: String)(f: => T): T
   def startTimer(metricsName: String, key: String): Unit
   def stopTimer(metricsName: String, key: String): Unit
+  def startTiming(): Long
+  def stopTiming(metricsName: String, startTime: Long): Unit
   def incCounter(metricsName: String, incV: Long): Unit
   def getMetrics: String
   def destroy(): Unit
@@ -121,12 +121,19 @@ object ControlMessages extends Logging {
       estimatedAppDiskUsage: util.HashMap[String, java.lang.Long],
       highWorkload: Boolean,
       workerStatus: WorkerStatus,
+      heartbeatVersion: Long = 0L,
+      delta: Boolean = false,
+      baseHeartbeatVersion: Long = 0L,
+      removedDisks: util.Set[String] = Collections.emptySet[String](),
+      removedUserIdentifiers: util.Set[UserIdentifier] = Collections.emptySet[UserIdentifier](),
+      removedShuffleKeys: util.Set[String] = Collections.emptySet[String](),
       override var requestId: String = ZERO_UUID) extends MasterRequestMessage
 
   case class HeartbeatFromWorkerResponse(
       expiredShuffleKeys: util.HashSet[String],
       registered: Boolean,
-      workerEvent: WorkerEventType = WorkerEventType.None)
+      workerEvent: WorkerEventType = WorkerEventType.None,
+      requireFullHeartbeat: Boolean = false)
     extends MasterMessage
 
   object RegisterShuffle {
@@ -274,7 +281,10 @@ object ControlMessages extends Logging {
 
   case class MapperEndResponse(status: StatusCode) extends MasterMessage
 
-  case class GetReducerFileGroup(shuffleId: Int) extends MasterMessage
+  // file groups of the partition range [startPartition, endPartition),
+  // or all partitions if endPartition is not larger than startPartition
+  case class GetReducerFileGroup(shuffleId: Int, startPartition: Int, endPartition: Int)
+    extends MasterMessage
 
   // util.Set[String] -> util.Set[Path.toString]
   // Path can't be serialized
@@ -542,6 +552,12 @@ object ControlMessages extends Logging {
           estimatedAppDiskUsage,
           highWorkload,
           workerStatus,
+          heartbeatVersion,
+          delta,
+          baseHeartbeatVersion,
+          removedDisks,
+          removedUserIdentifiers,
+          removedShuffleKeys,
           requestId) =>
       val pbDisks = disks.map(PbSerDeUtils.toPbDiskInfo).asJava
       val pbUserResourceConsumption =
@@ -558,15 +574,26 @@ object ControlMessages extends Logging {
         .putAllEstimatedAppDiskUsage(estimatedAppDiskUsage)
         .setHighWorkload(highWorkload)
         .setWorkerStatus(PbSerDeUtils.toPbWorkerStatus(workerStatus))
+        .setHeartbeatVersion(heartbeatVersion)
+        .setDelta(delta)
+        .setBaseHeartbeatVersion(baseHeartbeatVersion)
+        .addAllRemovedDisks(removedDisks)
+        .addAllRemovedUserIdentifiers(removedUserIdentifiers.asScala.map(_.toString).asJava)
+        .addAllRemovedShuffleKeys(removedShuffleKeys)
         .setRequestId(requestId)
         .build().toByteArray
       new TransportMessage(MessageType.HEARTBEAT_FROM_WORKER, payload)
 
-    case HeartbeatFromWorkerResponse(expiredShuffleKeys, registered, workerEventType) =>
+    case HeartbeatFromWorkerResponse(
+          expiredShuffleKeys,
+          registered,
+          workerEventType,
+          requireFullHeartbeat) =>
       val payload = PbHeartbeatFromWorkerResponse.newBuilder()
         .addAllExpiredShuffleKeys(expiredShuffleKeys)
         .setRegistered(registered)
         .setWorkerEventType(workerEventType)
+        .setRequireFullHeartbeat(requireFullHeartbeat)
         .build().toByteArray
       new TransportMessage(MessageType.HEARTBEAT_FROM_WORKER_RESPONSE, payload)
 
@@ -662,9 +689,11 @@ object ControlMessages extends Logging {
         .build().toByteArray
       new TransportMessage(MessageType.MAPPER_END_RESPONSE, payload)
 
-    case GetReducerFileGroup(shuffleId) =>
+    case GetReducerFileGroup(shuffleId, startPartition, endPartition) =>
       val payload = PbGetReducerFileGroup.newBuilder()
         .setShuffleId(shuffleId)
+        .setStartPartition(startPartition)
+        .setEndPartition(endPartition)
         .build().toByteArray
       new TransportMessage(MessageType.GET_REDUCER_FILE_GROUP, payload)
 
@@ -968,6 +997,10 @@ object ControlMessages extends Logging {
         }
 
         val workerStatus = PbSerDeUtils.fromPbWorkerStatus(pbHeartbeatFromWorker.getWorkerStatus)
+        val removedUserIdentifiers = new util.HashSet[UserIdentifier]()
+        pbHeartbeatFromWorker.getRemovedUserIdentifiersList.asScala.foreach { userIdentifier =>
+          removedUserIdentifiers.add(UserIdentifier(userIdentifier))
+        }
 
         HeartbeatFromWorker(
           pbHeartbeatFromWorker.getHost,
@@ -981,6 +1014,12 @@ object ControlMessages extends Logging {
           estimatedAppDiskUsage,
           pbHeartbeatFromWorker.getHighWorkload,
           workerStatus,
+          pbHeartbeatFromWorker.getHeartbeatVersion,
+          pbHeartbeatFromWorker.getDelta,
+          pbHeartbeatFromWorker.getBaseHeartbeatVersion,
+          new util.HashSet[String](pbHeartbeatFromWorker.getRemovedDisksList),
+          removedUserIdentifiers,
+          new util.HashSet[String](pbHeartbeatFromWorker.getRemovedShuffleKeysList),
           pbHeartbeatFromWorker.getRequestId)
 
       case HEARTBEAT_FROM_WORKER_RESPONSE_VALUE =>
@@ -994,7 +1033,8 @@ object ControlMessages extends Logging {
         HeartbeatFromWorkerResponse(
           expiredShuffleKeys,
           pbHeartbeatFromWorkerResponse.getRegistered,
-          pbHeartbeatFromWorkerResponse.getWorkerEventType)
+          pbHeartbeatFromWorkerResponse.getWorkerEventType,
+          pbHeartbeatFromWorkerResponse.getRequireFullHeartbeat)
 
       case REGISTER_SHUFFLE_VALUE =>
         PbRegisterShuffle.parseFrom(message.getPayload)
@@ -1060,7 +1100,9 @@ object ControlMessages extends Logging {
       case GET_REDUCER_FILE_GROUP_VALUE =>
         val pbGetReducerFileGroup = PbGetReducerFileGroup.parseFrom(message.getPayload)
         GetReducerFileGroup(
-          pbGetReducerFileGroup.getShuffleId)
+          pbGetReducerFileGroup.getShuffleId,
+          pbGetReducerFileGroup.getStartPartition,
+          pbGetReducerFileGroup.getEndPartition)
 
       case GET_REDUCER_FILE_GROUP_RESPONSE_VALUE =>
         val pbGetReducerFileGroupResponse = PbGetReducerFileGroupResponse
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.common.meta;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.util.Random;
+
+import io.netty.channel.FileRegion;
+import org.junit.Test;
+
+import org.apache.celeborn.common.CelebornConf;
+import org.apache.celeborn.common.network.buffer.ManagedBuffer;
+import org.apache.celeborn.common.network.buffer.SparseFileChunkBuffers;
+import org.apache.celeborn.common.network.util.TransportConf;
+import org.apache.celeborn.common.unsafe.Platform;
+
+public class MapRangeIndexSuiteJ {
+
+  private final TransportConf transportConf = new TransportConf("shuffle", new CelebornConf());
+
+  @Test
+  public void testMergeRunsUpToChunkSize() {
+    MapRangeIndex index = new MapRangeIndex(100, Integer.MAX_VALUE);
+    index.addBatch(0, 40);
+    index.addBatch(0, 40);
+    // exceeds the chunk size, starts a new run
+    index.addBatch(0, 40);
+    index.addBatch(1, 10);
+    // a single batch larger than the chunk size is a run by itself
+    index.addBatch(2, 300);
+    assertEquals(4, index.getNumRuns());
+    assertEquals(430, index.getLength());
+
+    MapRangeIndex.Selection selection = index.select(0, 2);
+    assertArrayEquals(new long[] {0}, selection.getSegmentOffsets());
+    assertArrayEquals(new long[] {130}, selection.getSegmentLengths());
+    assertEquals(2, selection.getFileMeta().getNumChunks());
+    assertEquals(80L, (long) selection.getFileMeta().getChunkOffsets().get(1));
+
+    assertEquals(0, index.select(3, 5).getFileMeta().getNumChunks());
+  }
+
+  @Test
+  public void testDropAtMaxRuns() {
+    MapRangeIndex index = new MapRangeIndex(100, 3);
+    assertTrue(index.addBatch(0, 10));
+    assertTrue(index.addBatch(1, 10));
+    assertTrue(index.addBatch(2, 10));
+    // merged into the last run
+    assertTrue(index.addBatch(2, 10));
+    assertFalse(index.isDropped());
+    assertEquals(3, index.getNumRuns());
+
+    // a fourth run drops the index
+    assertFalse(index.addBatch(3, 10));
+    assertTrue(index.isDropped());
+    assertFalse(index.addBatch(3, 10));
+    try {
+      index.select(0, 4);
+      fail("A dropped index can not be selected");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testReadSparseChunks() throws IOException {
+    Random random = new Random();
+    File file = File.createTempFile("map-range-index", ".data");
+    ByteArrayOutputStream fileData = new ByteArrayOutputStream();
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    MapRangeIndex index = new MapRangeIndex(4096, Integer.MAX_VALUE);
+    int startMapIndex = 3;
+    int endMapIndex = 6;
+    for (int i = 0; i < 500; i++) {
+      int mapId = random.nextInt(10);
+      byte[] batch = new byte[16 + random.nextInt(1024)];
+      random.nextBytes(batch);
+      Platform.putInt(batch, Platform.BYTE_ARRAY_OFFSET, mapId);
+      Platform.putInt(batch, Platform.BYTE_ARRAY_OFFSET + 12, batch.length - 16);
+      fileData.write(batch);
+      if (mapId >= startMapIndex && mapId < endMapIndex) {
+        expected.write(batch);
+      }
+      index.addBatch(mapId, batch.length);
+    }
+    Files.write(file.toPath(), fileData.toByteArray());
+
+    try {
+      SparseFileChunkBuffers buffers =
+          new SparseFileChunkBuffers(file, index.select(startMapIndex, endMapIndex), transportConf);
+      ByteArrayOutputStream nioRead = new ByteArrayOutputStream();
+      ByteArrayOutputStream transferred = new ByteArrayOutputStream();
+      for (int i = 0; i < buffers.numChunks(); i++) {
+        ManagedBuffer chunk = buffers.chunk(i, 0, Integer.MAX_VALUE);
+        ByteBuffer buffer = chunk.nioByteBuffer();
+        checkBatches(buffer.duplicate(), startMapIndex, endMapIndex);
+        nioRead.write(buffer.array(), buffer.arrayOffset(), buffer.remaining());
+        transfer((FileRegion) chunk.convertToNetty(), transferred);
+      }
+      assertArrayEquals(expected.toByteArray(), nioRead.toByteArray());
+      assertArrayEquals(expected.toByteArray(), transferred.toByteArray());
+
+      // a slice of a chunk spanning several segments
+      ManagedBuffer slice = buffers.chunk(0, 10, 3000);
+      ByteBuffer sliceBuffer = slice.nioByteBuffer();
+      byte[] expectedSlice = new byte[(int) slice.size()];
+      System.arraycopy(expected.toByteArray(), 10, expectedSlice, 0, expectedSlice.length);
+      assertArrayEquals(expectedSlice, sliceBuffer.array());
+    } finally {
+      file.delete();
+    }
+  }
+
+  // every chunk consists of whole batches of maps in the range
+  private void checkBatches(ByteBuffer chunk, int startMapIndex, int endMapIndex) {
+    while (chunk.hasRemaining()) {
+      long headerOffset = Platform.BYTE_ARRAY_OFFSET + chunk.position();
+      int mapId = Platform.getInt(chunk.array(), headerOffset);
+      int size = Platform.getInt(chunk.array(), headerOffset + 12);
+      assertTrue(mapId >= startMapIndex && mapId < endMapIndex);
+      chunk.position(chunk.position() + 16 + size);
+    }
+  }
+
+  private void transfer(FileRegion region, ByteArrayOutputStream out) throws IOException {
+    WritableByteChannel channel = Channels.newChannel(out);
+    while (region.transferred() < region.count()) {
+      region.transferTo(channel, region.transferred());
+    }
+    region.release();
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.common.network.buffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import io.netty.channel.FileRegion;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.celeborn.common.CelebornConf;
+import org.apache.celeborn.common.identity.UserIdentifier;
+import org.apache.celeborn.common.meta.DiskFileInfo;
+import org.apache.celeborn.common.meta.ReduceFileMeta;
+import org.apache.celeborn.common.network.util.TransportConf;
+import org.apache.celeborn.common.util.JavaUtils;
+
+public class FileChunkBuffersSuiteJ {
+  private final TransportConf conf = new TransportConf("shuffle", new CelebornConf());
+  private File file;
+  private FileChunkBuffers buffers;
+
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile("file-chunk-buffers", ".data");
+    Files.write(file.toPath(), "0123456789".getBytes(StandardCharsets.UTF_8));
+    DiskFileInfo fileInfo =
+        new DiskFileInfo(
+            new UserIdentifier("tenant", "user"),
+            new ReduceFileMeta(Arrays.asList(0L, 4L, 10L), 4),
+            file.getAbsolutePath());
+    buffers = new FileChunkBuffers(fileInfo, conf);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    buffers.close();
+    JavaUtils.deleteRecursively(file);
+  }
+
+  @Test
+  public void testReadAheadBeforeChunkTransferred() throws IOException {
+    // read ahead runs before the chunk fetched opens the channel
+    ManagedBuffer chunk = buffers.chunk(0, 0, Integer.MAX_VALUE);
+    buffers.readAhead(1, 2);
+    // the stream keeps the channel opened by the read ahead
+    Assert.assertTrue(buffers.channel().isOpen());
+
+    ((FileRegion) chunk.convertToNetty()).release();
+    buffers.close();
+    Assert.assertFalse(buffers.channel().isOpen());
+  }
+
+  @Test
+  public void testReadAheadAfterStreamEnded() throws IOException {
+    ManagedBuffer chunk = buffers.chunk(0, 0, Integer.MAX_VALUE);
+    // the stream ends before the read ahead and the transfer of the chunk fetched run
+    buffers.close();
+    buffers.readAhead(1, 2);
+    Assert.assertFalse(buffers.channel().isOpen());
+    Assert.assertThrows(ClosedChannelException.class, chunk::convertToNetty);
+    Assert.assertFalse(buffers.channel().isOpen());
+
+    // the stream reused reads ahead again
+    buffers.chunk(0, 0, Integer.MAX_VALUE);
+    buffers.readAhead(1, 2);
+    Assert.assertTrue(buffers.channel().isOpen());
+    buffers.close();
+    Assert.assertFalse(buffers.channel().isOpen());
+  }
+}
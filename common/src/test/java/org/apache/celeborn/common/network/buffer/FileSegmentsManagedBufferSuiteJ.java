@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.common.network.buffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+
+import io.netty.channel.FileRegion;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.celeborn.common.CelebornConf;
+import org.apache.celeborn.common.network.util.TransportConf;
+import org.apache.celeborn.common.util.JavaUtils;
+
+public class FileSegmentsManagedBufferSuiteJ {
+  private final TransportConf conf = new TransportConf("shuffle", new CelebornConf());
+  private File file;
+  private byte[] data;
+
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile("file-segments", ".data");
+    data = new byte[1000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    Files.write(file.toPath(), data);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    JavaUtils.deleteRecursively(file);
+  }
+
+  @Test
+  public void testReadSegments() throws IOException {
+    FileSegmentsManagedBuffer buffer =
+        new FileSegmentsManagedBuffer(
+            conf, file, new long[] {500, 10, 900}, new long[] {100, 50, 100});
+    byte[] expected = expected(new long[] {500, 10, 900}, new long[] {100, 50, 100});
+    Assert.assertEquals(250, buffer.size());
+
+    ByteBuffer nioBuffer = buffer.nioByteBuffer();
+    Assert.assertEquals(250, nioBuffer.remaining());
+    Assert.assertArrayEquals(expected, nioBuffer.array());
+
+    try (InputStream in = buffer.createInputStream()) {
+      Assert.assertArrayEquals(expected, IOUtils.toByteArray(in));
+    }
+  }
+
+  @Test
+  public void testTransferTo() throws IOException {
+    long[] offsets = {0, 200, 600};
+    long[] lengths = {100, 300, 1};
+    FileSegmentsManagedBuffer buffer = new FileSegmentsManagedBuffer(conf, file, offsets, lengths);
+    FileRegion region = (FileRegion) buffer.convertToNetty();
+    Assert.assertEquals(401, region.count());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long written = region.transferTo(new BoundedChannel(out, Integer.MAX_VALUE), 0);
+    Assert.assertEquals(401, written);
+    Assert.assertEquals(401, region.transferred());
+    Assert.assertArrayEquals(expected(offsets, lengths), out.toByteArray());
+    region.release();
+  }
+
+  @Test
+  public void testTransferToResumesAcrossSegments() throws IOException {
+    long[] offsets = {0, 200, 600};
+    long[] lengths = {100, 300, 1};
+    FileSegmentsManagedBuffer buffer = new FileSegmentsManagedBuffer(conf, file, offsets, lengths);
+    FileRegion region = (FileRegion) buffer.convertToNetty();
+
+    // the target takes at most 70 bytes a time, so transfers stop inside the segments
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BoundedChannel target = new BoundedChannel(out, 70);
+    int transfers = 0;
+    while (region.transferred() < region.count()) {
+      long written = region.transferTo(target, region.transferred());
+      Assert.assertTrue(written > 0);
+      transfers++;
+    }
+    Assert.assertTrue(transfers > 1);
+    Assert.assertEquals(401, region.transferred());
+    Assert.assertArrayEquals(expected(offsets, lengths), out.toByteArray());
+    region.release();
+  }
+
+  private byte[] expected(long[] offsets, long[] lengths) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int i = 0; i < offsets.length; i++) {
+      out.write(data, (int) offsets[i], (int) lengths[i]);
+    }
+    return out.toByteArray();
+  }
+
+  /** A channel which accepts at most the given number of bytes per write. */
+  private static class BoundedChannel implements WritableByteChannel {
+    private final ByteArrayOutputStream out;
+    private final int maxBytesPerWrite;
+
+    BoundedChannel(ByteArrayOutputStream out, int maxBytesPerWrite) {
+      this.out = out;
+      this.maxBytesPerWrite = maxBytesPerWrite;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+      int n = Math.min(src.remaining(), maxBytesPerWrite);
+      byte[] bytes = new byte[n];
+      src.get(bytes);
+      out.write(bytes, 0, n);
+      return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
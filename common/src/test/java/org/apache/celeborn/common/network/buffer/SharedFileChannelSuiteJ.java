@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.common.network.buffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import io.netty.channel.DefaultFileRegion;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.celeborn.common.util.JavaUtils;
+
+public class SharedFileChannelSuiteJ {
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile("shared-file-channel", ".data");
+    Files.write(file.toPath(), "0123456789".getBytes(StandardCharsets.UTF_8));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    JavaUtils.deleteRecursively(file);
+  }
+
+  @Test
+  public void testRegionsShareChannel() throws IOException {
+    SharedFileChannel channel = new SharedFileChannel(file);
+    channel.hold();
+    Assert.assertFalse(channel.isOpen());
+
+    DefaultFileRegion region = channel.region(0, 4);
+    DefaultFileRegion region2 = channel.region(4, 6);
+    Assert.assertTrue(channel.isOpen());
+    region.release();
+    region2.release();
+    // the stream still holds the channel
+    Assert.assertTrue(channel.isOpen());
+
+    DefaultFileRegion region3 = channel.region(0, 10);
+    channel.close();
+    // the region being transferred still holds the channel
+    Assert.assertTrue(channel.isOpen());
+    region3.release();
+    Assert.assertFalse(channel.isOpen());
+  }
+
+  @Test
+  public void testRetainAfterClosed() throws IOException {
+    SharedFileChannel channel = new SharedFileChannel(file);
+    // the stream does not hold the channel yet
+    Assert.assertThrows(ClosedChannelException.class, channel::retain);
+    Assert.assertFalse(channel.isOpen());
+
+    channel.hold();
+    FileChannel fileChannel = channel.retain();
+    channel.release();
+    Assert.assertTrue(channel.isOpen());
+    channel.close();
+    Assert.assertFalse(channel.isOpen());
+    Assert.assertFalse(fileChannel.isOpen());
+
+    // a use after the stream is closed does not open the file again
+    Assert.assertThrows(ClosedChannelException.class, channel::retain);
+    Assert.assertThrows(ClosedChannelException.class, () -> channel.region(0, 10));
+    Assert.assertFalse(channel.isOpen());
+
+    // reopened once the stream is reused
+    channel.hold();
+    Assert.assertNotNull(channel.retain());
+    Assert.assertTrue(channel.isOpen());
+    channel.release();
+    channel.close();
+    Assert.assertFalse(channel.isOpen());
+  }
+
+  @Test
+  public void testCloseIfIdle() throws IOException, InterruptedException {
+    SharedFileChannel channel = new SharedFileChannel(file);
+    Assert.assertFalse(channel.closeIfIdle(0));
+
+    channel.hold();
+    DefaultFileRegion region = channel.region(0, 4);
+    // the region being transferred holds the channel
+    Assert.assertFalse(channel.closeIfIdle(0));
+    region.release();
+    Assert.assertFalse(channel.closeIfIdle(60000));
+    Assert.assertTrue(channel.isOpen());
+    Thread.sleep(10);
+    Assert.assertTrue(channel.closeIfIdle(10));
+    Assert.assertFalse(channel.isOpen());
+    Assert.assertThrows(ClosedChannelException.class, channel::retain);
+
+    // the next chunk fetched holds the channel again until the stream ends
+    channel.hold();
+    channel.region(4, 6).release();
+    Assert.assertTrue(channel.isOpen());
+    channel.close();
+    Assert.assertFalse(channel.isOpen());
+    Assert.assertFalse(channel.closeIfIdle(0));
+  }
+}
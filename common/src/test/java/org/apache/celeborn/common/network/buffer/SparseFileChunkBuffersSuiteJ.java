@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.common.network.buffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.celeborn.common.CelebornConf;
+import org.apache.celeborn.common.meta.MapRangeIndex;
+import org.apache.celeborn.common.network.util.TransportConf;
+import org.apache.celeborn.common.util.JavaUtils;
+
+public class SparseFileChunkBuffersSuiteJ {
+  private final TransportConf conf = new TransportConf("shuffle", new CelebornConf());
+  private File file;
+  private byte[] data;
+  private SparseFileChunkBuffers buffers;
+
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile("sparse-file-chunk-buffers", ".data");
+    data = new byte[210];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    Files.write(file.toPath(), data);
+
+    // runs of map 0 at [0, 40), [70, 120) and [140, 200)
+    MapRangeIndex index = new MapRangeIndex(100, Integer.MAX_VALUE);
+    index.addBatch(0, 40);
+    index.addBatch(1, 30);
+    index.addBatch(0, 50);
+    index.addBatch(2, 20);
+    index.addBatch(0, 60);
+    index.addBatch(1, 10);
+    buffers = new SparseFileChunkBuffers(file, index.select(0, 1), conf);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    JavaUtils.deleteRecursively(file);
+  }
+
+  @Test
+  public void testChunks() throws IOException {
+    // the first two runs fit in a chunk of 100 bytes, the third one starts a new chunk
+    Assert.assertEquals(2, buffers.numChunks());
+
+    ManagedBuffer chunk0 = buffers.chunk(0, 0, Integer.MAX_VALUE);
+    Assert.assertTrue(chunk0 instanceof FileSegmentsManagedBuffer);
+    Assert.assertEquals(90, chunk0.size());
+    Assert.assertArrayEquals(bytes(0, 40, 70, 120), read(chunk0));
+
+    ManagedBuffer chunk1 = buffers.chunk(1, 0, Integer.MAX_VALUE);
+    Assert.assertTrue(chunk1 instanceof FileSegmentManagedBuffer);
+    Assert.assertEquals(60, chunk1.size());
+    Assert.assertArrayEquals(bytes(140, 200), read(chunk1));
+  }
+
+  @Test
+  public void testChunkSlices() throws IOException {
+    // a slice spanning the boundary of two segments
+    ManagedBuffer slice = buffers.chunk(0, 30, 20);
+    Assert.assertTrue(slice instanceof FileSegmentsManagedBuffer);
+    Assert.assertArrayEquals(bytes(30, 40, 70, 80), read(slice));
+
+    // a slice starting right at a segment boundary stays in one segment
+    slice = buffers.chunk(0, 40, 20);
+    Assert.assertTrue(slice instanceof FileSegmentManagedBuffer);
+    Assert.assertArrayEquals(bytes(70, 90), read(slice));
+
+    // a slice running past the end of the chunk is cut at the chunk end
+    slice = buffers.chunk(1, 50, 100);
+    Assert.assertArrayEquals(bytes(190, 200), read(slice));
+  }
+
+  private byte[] read(ManagedBuffer buffer) throws IOException {
+    ByteBuffer nioBuffer = buffer.nioByteBuffer();
+    byte[] bytes = new byte[nioBuffer.remaining()];
+    nioBuffer.get(bytes);
+    return bytes;
+  }
+
+  // the file bytes of the given [from, to) ranges
+  private byte[] bytes(int... ranges) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int i = 0; i < ranges.length; i += 2) {
+      out.write(data, ranges[i], ranges[i + 1] - ranges[i]);
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.common.network.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import org.apache.celeborn.common.network.protocol.PushData;
+
+public class TransportFrameDecoderSuiteJ {
+
+  private static final PooledByteBufAllocator ALLOCATOR = PooledByteBufAllocator.DEFAULT;
+
+  private static class PushDataCollector extends ChannelInboundHandlerAdapter {
+    final List<Long> requestIds = new ArrayList<>();
+    final List<byte[]> bodies = new ArrayList<>();
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+      PushData pushData = (PushData) msg;
+      requestIds.add(pushData.requestId);
+      ByteBuffer body = pushData.body().nioByteBuffer();
+      byte[] bytes = new byte[body.remaining()];
+      body.get(bytes);
+      bodies.add(bytes);
+      pushData.body().release();
+    }
+  }
+
+  private static byte[] body(int requestId, int size) {
+    byte[] body = new byte[size];
+    for (int i = 0; i < size; i++) {
+      body[i] = (byte) (requestId + i);
+    }
+    return body;
+  }
+
+  private static ByteBuf encode(int numFrames, int maxBodySize, Random random) {
+    ByteBuf frames = ALLOCATOR.directBuffer();
+    for (int i = 0; i < numFrames; i++) {
+      PushData header = new PushData((byte) 0, "application_1-0", "0-0", null);
+      header.requestId = i;
+      byte[] body = body(i, 1 + random.nextInt(maxBodySize));
+      frames.writeInt(header.encodedLength());
+      header.type().encode(frames);
+      frames.writeInt(body.length);
+      header.encode(frames);
+      frames.writeBytes(body);
+    }
+    return frames;
+  }
+
+  private void checkDecode(int numFrames, int maxBodySize, int maxReadSize) {
+    Random random = new Random(numFrames + maxBodySize + maxReadSize);
+    ByteBuf frames = encode(numFrames, maxBodySize, random);
+    PushDataCollector collector = new PushDataCollector();
+    EmbeddedChannel channel = new EmbeddedChannel(new TransportFrameDecoder(), collector);
+    List<ByteBuf> reads = new ArrayList<>();
+    while (frames.isReadable()) {
+      int length = Math.min(1 + random.nextInt(maxReadSize), frames.readableBytes());
+      ByteBuf read = ALLOCATOR.directBuffer(length);
+      read.writeBytes(frames, length);
+      reads.add(read);
+      channel.writeInbound(read);
+    }
+    channel.finishAndReleaseAll();
+    frames.release();
+
+    assertEquals(numFrames, collector.requestIds.size());
+    for (int i = 0; i < numFrames; i++) {
+      assertEquals(i, collector.requestIds.get(i).longValue());
+      byte[] body = collector.bodies.get(i);
+      assertArrayEquals(body(i, body.length), body);
+    }
+    // the frames of a read and the read itself are released once the messages are handled
+    for (ByteBuf read : reads) {
+      assertEquals(0, read.refCnt());
+    }
+  }
+
+  @Test
+  public void testDecodeFramesInOneRead() {
+    checkDecode(100, 64, 64 * 1024);
+  }
+
+  @Test
+  public void testDecodeFramesAcrossReads() {
+    // headers and bodies split across reads, down to one byte a read
+    checkDecode(100, 256, 7);
+    checkDecode(20, 64 * 1024, 1024);
+  }
+
+  @Test
+  public void testDecodeLargeFrames() {
+    checkDecode(4, 1024 * 1024, 64 * 1024);
+  }
+}
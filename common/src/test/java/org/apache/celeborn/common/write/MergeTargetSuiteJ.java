@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.common.write;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.celeborn.common.CelebornConf;
+
+public class MergeTargetSuiteJ {
+
+  private static final long MS = 1_000_000L;
+
+  @Test
+  public void testTargetSize() {
+    MergeTarget target = new MergeTarget(64 * 1024, 1024 * 1024, 4);
+    // no round trip observed yet
+    Assert.assertEquals(64 * 1024, target.targetSize());
+
+    // 1 MiB merged per ms, 2 ms round trips, 4 requests in flight
+    for (int i = 0; i <= 100; i++) {
+      target.onMerge(1024 * 1024, i * 10 * MS);
+      target.onMerge(9 * 1024 * 1024, i * 10 * MS + MS);
+    }
+    target.onPushed(2 * MS);
+    Assert.assertEquals(512 * 1024, target.targetSize(), 64 * 1024);
+
+    // bounded by the max size
+    for (int i = 0; i < 20; i++) {
+      target.onPushed(100 * MS);
+    }
+    Assert.assertEquals(1024 * 1024, target.targetSize());
+
+    // bounded by the push buffer size
+    for (int i = 0; i < 50; i++) {
+      target.onPushed(1000);
+    }
+    Assert.assertEquals(64 * 1024, target.targetSize());
+  }
+
+  @Test
+  public void testLingeredAddressPairs() throws InterruptedException {
+    CelebornConf conf = new CelebornConf();
+    conf.set(CelebornConf.CLIENT_PUSH_MERGE_ADAPTIVE_ENABLED().key(), "true");
+    conf.set(CelebornConf.CLIENT_PUSH_MERGE_ADAPTIVE_MAX_LINGER().key(), "100ms");
+    PushState pushState = new PushState(conf);
+    Pair<String, String> worker1 = Pair.of("host1:1", "host2:1");
+    Pair<String, String> worker2 = Pair.of("host2:1", "host1:1");
+
+    Assert.assertFalse(pushState.addBatchData(worker1, null, 0, new byte[100]));
+    Assert.assertTrue(pushState.lingeredAddressPairs().isEmpty());
+
+    Thread.sleep(150);
+    // no more batch is merged for worker1, its data is pushed once another batch is merged
+    Assert.assertFalse(pushState.addBatchData(worker2, null, 1, new byte[100]));
+    Assert.assertEquals(Collections.singletonList(worker1), pushState.lingeredAddressPairs());
+    pushState.takeDataBatches(worker1);
+    Assert.assertTrue(pushState.lingeredAddressPairs().isEmpty());
+
+    Thread.sleep(150);
+    Assert.assertEquals(Collections.singletonList(worker2), pushState.lingeredAddressPairs());
+    pushState.cleanup();
+  }
+
+  @Test
+  public void testRequireBatches() {
+    DataBatches batches = new DataBatches();
+    for (int i = 0; i < 10; i++) {
+      batches.addDataBatch(null, i, new byte[100]);
+    }
+    ArrayList<DataBatches.DataBatch> required = batches.requireBatches(250);
+    Assert.assertEquals(3, required.size());
+    Assert.assertEquals(2, required.get(2).batchId);
+    Assert.assertEquals(700, batches.getTotalSize());
+
+    required = batches.requireBatches(1000);
+    Assert.assertEquals(7, required.size());
+    Assert.assertEquals(3, required.get(0).batchId);
+    Assert.assertEquals(0, batches.getTotalSize());
+  }
+}
@@ -18,6 +18,7 @@
 package org.apache.celeborn.benchmark
 
 import java.io.{OutputStream, PrintStream}
+import java.nio.charset.StandardCharsets
 
 import scala.collection.mutable
 import scala.collection.mutable.ArrayBuffer
@@ -46,6 +47,8 @@ import org.apache.celeborn.common.util.Utils
  * @param minTime further iterations will be run for each case until this time is used up.
  * @param outputPerIteration if true, the timing for each run will be printed to stdout.
  * @param output optional output stream to write benchmark results to
+ * @param resultOutput optional output stream to write the result of every case to as a JSON
+ *                     line, so that results can be compared between releases by tools
  */
 private[celeborn] class Benchmark(
     name: String,
@@ -54,7 +57,8 @@ private[celeborn] class Benchmark(
     warmupTime: FiniteDuration = 2.seconds,
     minTime: FiniteDuration = 2.seconds,
     outputPerIteration: Boolean = false,
-    output: Option[OutputStream] = None) {
+    output: Option[OutputStream] = None,
+    resultOutput: Option[OutputStream] = None) {
   import Benchmark._
   val benchmarks = mutable.ArrayBuffer.empty[Benchmark.Case]
 
@@ -136,6 +140,26 @@ private[celeborn] class Benchmark(
     }
     out.println()
     // scalastyle:on
+    resultOutput.foreach { o =>
+      val jvmOSInfo = Benchmark.getJVMOSInfo()
+      val processorName = Benchmark.getProcessorName()
+      results.zip(benchmarks).foreach { case (result, benchmark) =>
+        val fields = Seq(
+          "benchmark" -> toJson(name),
+          "case" -> toJson(benchmark.name),
+          "bestMs" -> result.bestMs,
+          "avgMs" -> result.avgMs,
+          "stdevMs" -> result.stdevMs,
+          "rateMPerSec" -> result.bestRate,
+          "relative" -> firstBest / result.bestMs,
+          "jvm" -> toJson(jvmOSInfo),
+          "processor" -> toJson(processorName))
+        val line = fields.map { case (key, value) => s"${toJson(key)}:$value" }
+          .mkString("{", ",", "}\n")
+        o.write(line.getBytes(StandardCharsets.UTF_8))
+      }
+      o.flush()
+    }
   }
 
   /**
@@ -209,6 +233,10 @@ private[celeborn] object Benchmark {
     }
   }
 
+  private def toJson(s: String): String = {
+    "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\""
+  }
+
   case class Case(name: String, fn: Timer => Unit, numIters: Int)
   case class Result(avgMs: Double, bestRate: Double, bestMs: Double, stdevMs: Double)
 
@@ -22,9 +22,12 @@ import java.io.{File, FileOutputStream, OutputStream}
 /**
  * A base class for generate benchmark results to a file.
  * For JDK9+, JDK major version number is added to the file names to distinguish the results.
+ * The results are also written to a "-results.jsonl" file with one JSON object per case, to
+ * track regressions between releases.
  */
 abstract class BenchmarkBase {
   var output: Option[OutputStream] = None
+  var resultOutput: Option[OutputStream] = None
 
   /**
    * Main process of the whole benchmark.
@@ -47,8 +50,8 @@ abstract class BenchmarkBase {
     if (regenerateBenchmarkFiles) {
       val version = System.getProperty("java.version").split("\\D+")(0).toInt
       val jdkString = if (version > 8) s"-jdk$version" else ""
-      val resultFileName =
-        s"${this.getClass.getSimpleName.replace("$", "")}$jdkString$suffix-results.txt"
+      val resultFilePrefix = s"${this.getClass.getSimpleName.replace("$", "")}$jdkString$suffix"
+      val resultFileName = s"$resultFilePrefix-results.txt"
       val prefix = Benchmarks.currentProjectRoot.map(_ + "/").getOrElse("")
       val dir = new File(s"${prefix}benchmarks/")
       if (!dir.exists()) {
@@ -62,6 +65,8 @@ abstract class BenchmarkBase {
         file.createNewFile()
       }
       output = Some(new FileOutputStream(file))
+      val jsonFile = new File(dir, s"$resultFilePrefix-results.jsonl")
+      resultOutput = Some(new FileOutputStream(jsonFile))
     }
 
     runBenchmarkSuite(args)
@@ -71,6 +76,7 @@ abstract class BenchmarkBase {
         o.close()
       }
     }
+    resultOutput.foreach(_.close())
 
     afterAll()
   }
@@ -40,7 +40,7 @@ object ComputeIfAbsentBenchmark extends BenchmarkBase {
 
   def test(name: String, map: JMap[Int, AtomicInteger], iters: Int): Unit = {
     runBenchmark(name) {
-      val benchmark = new Benchmark(name, iters, output = output)
+      val benchmark = new Benchmark(name, iters, output = output, resultOutput = resultOutput)
       benchmark.addCase("putIfAbsent") { _: Int =>
         var i = 0
         while (i < iters) {
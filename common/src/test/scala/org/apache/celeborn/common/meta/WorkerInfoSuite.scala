@@ -384,6 +384,41 @@ class WorkerInfoSuite extends CelebornFunSuite {
     ipAddress.toString
   }
 
+  test("update disks and user resource consumptions by delta") {
+    val disk1 = new DiskInfo("disk1", 100, 10, 10, 1)
+    val disk2 = new DiskInfo("disk2", 100, 10, 10, 2)
+    val user1 = UserIdentifier("tenant", "user1")
+    val user2 = UserIdentifier("tenant", "user2")
+    val worker = new WorkerInfo(
+      "h1",
+      10001,
+      10002,
+      10003,
+      1000,
+      10004,
+      new util.HashMap[String, DiskInfo](Map("disk1" -> disk1, "disk2" -> disk2).asJava),
+      new util.HashMap[UserIdentifier, ResourceConsumption](Map(
+        user1 -> ResourceConsumption(1, 1, 1, 1),
+        user2 -> ResourceConsumption(2, 2, 2, 2)).asJava))
+
+    val disk3 = new DiskInfo("disk3", 300, 30, 30, 3)
+    worker.updateDiskInfosDelta(
+      Map("disk1" -> new DiskInfo("disk1", 50, 5, 5, 4), "disk3" -> disk3).asJava,
+      Set("disk2").asJava)
+    assertEquals(Set("disk1", "disk3"), worker.diskInfos.keySet().asScala.toSet)
+    // the disk is updated in place
+    assert(worker.diskInfos.get("disk1") eq disk1)
+    assertEquals(50, disk1.actualUsableSpace)
+    assertEquals(4, disk1.activeSlots)
+    assert(worker.diskInfos.get("disk3") eq disk3)
+
+    worker.updateUserResourceConsumptionDelta(
+      Map(user1 -> ResourceConsumption(3, 3, 3, 3)).asJava,
+      Set(user2).asJava)
+    assertEquals(ResourceConsumption(3, 3, 3, 3), worker.userResourceConsumption.get(user1))
+    assertEquals(ResourceConsumption(0, 0, 0, 0), worker.userResourceConsumption.get(user2))
+  }
+
   test("Test WorkerInfo hashcode") {
     val host = generateRandomIPv4Address
     val rpcPort = Random.nextInt(65536)
@@ -32,4 +32,46 @@ class ResettableSlidingWindowReservoirSuite extends CelebornFunSuite {
     val snapshot3 = reservoir.getSnapshot
     assert(snapshot3.getValues.length == 5)
   }
+
+  test("test ConcurrentSlidingWindowReservoir") {
+    val reservoir = new ConcurrentSlidingWindowReservoir(8)
+    0 until 10 foreach (idx => reservoir.update(idx))
+    assert(reservoir.size() == 8)
+    assert(reservoir.getSnapshot.getValues.toSeq.sorted == (2 until 10))
+    reservoir.reset()
+    assert(reservoir.getSnapshot.getValues.length == 0)
+    0 until 3 foreach (_ => reservoir.update(1))
+    assert(reservoir.getSnapshot.getValues.toSeq == Seq(1, 1, 1))
+  }
+
+  test("test ConcurrentSlidingWindowReservoir keeps the last measurements of all threads") {
+    val reservoir = new ConcurrentSlidingWindowReservoir(8)
+    def updateInThread(values: Seq[Long]): Unit = {
+      val thread = new Thread(new Runnable {
+        override def run(): Unit = values.foreach(reservoir.update)
+      })
+      thread.start()
+      thread.join()
+    }
+    // a busy thread updates far more often than a quiet one
+    updateInThread(Seq.fill(1000)(1L))
+    updateInThread(Seq.fill(3)(2L))
+    0 until 2 foreach (_ => reservoir.update(3))
+    assert(reservoir.getSnapshot.getValues.toSeq.sorted == Seq(1, 1, 1, 2, 2, 2, 3, 3))
+    // the measurements of the quiet thread slide out of the window
+    updateInThread(Seq.fill(8)(4L))
+    assert(reservoir.getSnapshot.getValues.toSeq == Seq.fill(8)(4L))
+
+    // concurrent updates at skewed rates fill the window exactly
+    reservoir.reset()
+    val threads = (1 to 4).map { rate =>
+      new Thread(new Runnable {
+        override def run(): Unit = 0 until rate * 10000 foreach (_ => reservoir.update(rate))
+      })
+    }
+    threads.foreach(_.start())
+    threads.foreach(_.join())
+    assert(reservoir.size() == 8)
+    assert(reservoir.getSnapshot.getValues.forall(value => value >= 1 && value <= 4))
+  }
 }
@@ -90,4 +90,25 @@ class CelebornSourceSuite extends CelebornFunSuite {
     createAbstractSourceAndCheck(conf, extraLabels3)
 
   }
+
+  test("test startTiming and stopTiming") {
+    val mockSource = new AbstractSource(new CelebornConf(), "mock") {
+      override def sourceName: String = "mockSource"
+    }
+    mockSource.addTimer("Timer1")
+    val startTime = mockSource.startTiming()
+    Thread.sleep(10)
+    mockSource.stopTiming("Timer1", startTime)
+    mockSource.sampleTiming("Timer1") {
+      Thread.sleep(10)
+    }
+    // not sampled timings and timers not added are ignored
+    mockSource.stopTiming("Timer1", AbstractSource.NOT_SAMPLED)
+    mockSource.stopTiming("Timer2", mockSource.startTiming())
+
+    val timer = mockSource.timers().head.timer
+    assert(timer.getCount == 2)
+    assert(timer.getSnapshot.getMin >= 10 * 1000 * 1000)
+    assert(mockSource.getMetrics().contains("""metrics_Timer1_Count{role="mock"} 2"""))
+  }
 }
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.common.network
+
+import java.io.Closeable
+import java.nio.ByteBuffer
+import java.util.concurrent.{Semaphore, TimeUnit}
+
+import scala.collection.mutable.ArrayBuffer
+
+import org.apache.celeborn.benchmark.{Benchmark, BenchmarkBase}
+import org.apache.celeborn.common.CelebornConf
+import org.apache.celeborn.common.network.client.{RpcResponseCallback, TransportClient}
+import org.apache.celeborn.common.network.protocol.RequestMessage
+import org.apache.celeborn.common.network.server.BaseMessageHandler
+import org.apache.celeborn.common.network.util.{IOMode, NettyUtils, TransportConf}
+import org.apache.celeborn.common.util.{JavaUtils, Utils}
+
+/**
+ * Transport IO mode benchmark, pushing data to and fetching data from a server on the loopback
+ * interface with the NIO, EPOLL and IO_URING transports, with and without busy polling. Pushes
+ * are requests with a body and fetches are responses with a body, with a window of requests in
+ * flight. The io_uring transport of the test classpath needs Linux with io_uring support, where it
+ * is unavailable the IO_URING cases are skipped and the skip is written to the output.
+ * The rate column is the transferred MB/s of one connection.
+ * To run this benchmark:
+ * {{{
+ *   1. build/sbt "celeborn-common/test:runMain <this class>"
+ *   2. generate result:
+ *      CELEBORN_GENERATE_BENCHMARK_FILES=1 build/sbt "celeborn-common/test:runMain <this class>"
+ *      Results will be written to "benchmarks/TransportIOModeBenchmark-results.txt".
+ * }}}
+ */
+object TransportIOModeBenchmark extends BenchmarkBase {
+
+  private val module = "benchmark"
+  private val totalBytes = 256L * 1024 * 1024
+  private val maxInFlight = 64
+
+  private class Handler(bodySize: Int) extends BaseMessageHandler {
+    private val body = ByteBuffer.allocateDirect(bodySize)
+
+    override def receive(
+        client: TransportClient,
+        message: RequestMessage,
+        callback: RpcResponseCallback): Unit = {
+      // a request with a body is a push, a request without a body is a fetch
+      if (message.body().size() > 0) {
+        callback.onSuccess(ByteBuffer.allocate(0))
+      } else {
+        callback.onSuccess(body.duplicate())
+      }
+    }
+
+    override def checkRegistered(): Boolean = true
+  }
+
+  private def transfer(client: TransportClient, request: ByteBuffer, numRequests: Int): Unit = {
+    val inFlight = new Semaphore(maxInFlight)
+    val callback = new RpcResponseCallback {
+      override def onSuccess(response: ByteBuffer): Unit = inFlight.release()
+
+      override def onFailure(e: Throwable): Unit = {
+        inFlight.release()
+        throw e
+      }
+    }
+    (0 until numRequests).foreach { _ =>
+      inFlight.acquire()
+      client.sendRpc(request.duplicate(), callback)
+    }
+    assert(inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS))
+  }
+
+  def test(bodySize: Int): Unit = {
+    val numRequests = (totalBytes / bodySize).toInt
+    val modes = Seq(IOMode.NIO, IOMode.EPOLL, IOMode.IO_URING)
+      .map(mode => mode -> NettyUtils.resolveIOMode(mode))
+    Seq("push", "fetch").foreach { direction =>
+      val name = s"$direction ${Utils.bytesToString(bodySize)} bodies"
+      runBenchmark(name) {
+        val benchmark = new Benchmark(
+          name,
+          totalBytes,
+          output = output,
+          resultOutput = resultOutput)
+        val resources = new ArrayBuffer[Closeable]()
+        for ((mode, resolvedMode) <- modes; busyPoll <- Seq(false, true)) {
+          if (resolvedMode != mode) {
+            if (!busyPoll) {
+              benchmark.out.println(
+                s"$mode is unavailable, skipped instead of measuring $resolvedMode.")
+            }
+          } else if (!busyPoll || mode == IOMode.EPOLL) {
+            val conf = new CelebornConf()
+              .set(s"celeborn.$module.io.mode", mode.toString)
+              .set(s"celeborn.$module.io.busyPoll.enabled", busyPoll.toString)
+              .set(s"celeborn.$module.io.serverThreads", "1")
+              .set(s"celeborn.$module.io.clientThreads", "1")
+            val context =
+              new TransportContext(new TransportConf(module, conf), new Handler(bodySize))
+            val server = context.createServer()
+            val clientFactory = context.createClientFactory()
+            resources ++= Seq(clientFactory, server, context)
+            val client = clientFactory.createClient(JavaUtils.getLocalHost, server.getPort)
+            val request =
+              if (direction == "push") ByteBuffer.allocateDirect(bodySize)
+              else ByteBuffer.allocate(0)
+            val caseName = if (busyPoll) s"$mode with busy poll" else mode.toString
+            benchmark.addCase(caseName) { _ =>
+              transfer(client, request, numRequests)
+            }
+          }
+        }
+        benchmark.run()
+        resources.foreach(_.close())
+      }
+    }
+  }
+
+  override def runBenchmarkSuite(mainArgs: Array[String]): Unit = {
+    Seq(64 * 1024, 1024 * 1024).foreach(test)
+  }
+}
@@ -22,7 +22,7 @@ import java.util
 import org.apache.celeborn.CelebornFunSuite
 import org.apache.celeborn.common.CelebornConf
 import org.apache.celeborn.common.protocol.{PartitionLocation, TransportModuleConstants}
-import org.apache.celeborn.common.protocol.message.ControlMessages.{GetReducerFileGroupResponse, MapperEnd}
+import org.apache.celeborn.common.protocol.message.ControlMessages.{GetReducerFileGroup, GetReducerFileGroupResponse, MapperEnd}
 import org.apache.celeborn.common.protocol.message.StatusCode
 
 class UtilsSuite extends CelebornFunSuite {
@@ -169,6 +169,12 @@ class UtilsSuite extends CelebornFunSuite {
     assert(set.size == 0)
   }
 
+  test("GetReducerFileGroup class convert with pb") {
+    val request = GetReducerFileGroup(1, 100, 200)
+    val requestTrans = Utils.fromTransportMessage(Utils.toTransportMessage(request))
+    assert(request == requestTrans)
+  }
+
   test("validate number of client/server netty threads") {
     val celebornConf = new CelebornConf()
     celebornConf.set("celeborn.io.maxDefaultNettyThreads", "100")
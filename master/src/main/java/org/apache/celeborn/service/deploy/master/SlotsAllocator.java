@@ -50,8 +50,8 @@ public class SlotsAllocator {
 
   private static final Logger logger = LoggerFactory.getLogger(SlotsAllocator.class);
   private static final Random rand = new Random();
-  private static boolean initialized = false;
-  private static double[] taskAllocationRatio = null;
+  // slots are offered concurrently, so the ratio is published after it is computed
+  private static volatile double[] taskAllocationRatio = null;
 
   public static Map<WorkerInfo, Tuple2<List<PartitionLocation>, List<PartitionLocation>>>
       offerSlotsRoundRobin(
@@ -162,7 +162,7 @@ public class SlotsAllocator {
           workers, partitionIds, shouldReplicate, shouldRackAware, availableStorageTypes);
     }
 
-    if (!initialized) {
+    if (taskAllocationRatio == null) {
       initLoadAwareAlgorithm(diskGroupCount, diskGroupGradient);
     }
 
@@ -452,7 +452,7 @@ public class SlotsAllocator {
   }
 
   private static void initLoadAwareAlgorithm(int diskGroups, double diskGroupGradient) {
-    taskAllocationRatio = new double[diskGroups];
+    double[] taskAllocationRatio = new double[diskGroups];
     double totalAllocations = 0;
 
     for (int i = 0; i < diskGroups; i++) {
@@ -465,7 +465,7 @@ public class SlotsAllocator {
     logger.info(
         "load-aware offer slots algorithm init with taskAllocationRatio {}",
         StringUtils.join(taskAllocationRatio, ','));
-    initialized = true;
+    SlotsAllocator.taskAllocationRatio = taskAllocationRatio;
   }
 
   private static List<List<DiskInfo>> placeDisksToGroups(
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.master;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.celeborn.common.meta.DiskInfo;
+import org.apache.celeborn.common.meta.WorkerInfo;
+import org.apache.celeborn.common.util.JavaUtils;
+
+/**
+ * Snapshot of the workers and their disks that slots are offered on, so that slots of concurrent
+ * requests are offered without the lock of the workers. Every worker is copied into an entry, which
+ * is replaced with CAS only after a newer heartbeat of the worker or a change of the max slots of
+ * its disks, so the disks are not copied by every request. Slots offered on a disk are reserved on
+ * its copy by CAS against the available slots of the copy, until the next heartbeat of the worker
+ * reports them as active slots.
+ */
+public class WorkerDisksSnapshot {
+
+  // copy of a disk, whose available slots exclude the slots reserved on the copy
+  private static class DiskSnapshot extends DiskInfo {
+    final AtomicLong reservedSlots = new AtomicLong();
+
+    DiskSnapshot(DiskInfo disk) {
+      super(
+          disk.mountPoint(),
+          disk.actualUsableSpace(),
+          disk.avgFlushTime(),
+          disk.avgFetchTime(),
+          disk.activeSlots(),
+          disk.storageType());
+      totalSpace_$eq(disk.totalSpace());
+      maxSlots_$eq(disk.maxSlots());
+      setStatus(disk.status());
+    }
+
+    @Override
+    public long availableSlots() {
+      return Math.max(maxSlots() - activeSlots() - reservedSlots.get(), 0L);
+    }
+
+    boolean tryReserve(long numSlots) {
+      while (true) {
+        long reserved = reservedSlots.get();
+        if (numSlots > maxSlots() - activeSlots() - reserved) {
+          return false;
+        }
+        if (reservedSlots.compareAndSet(reserved, reserved + numSlots)) {
+          return true;
+        }
+      }
+    }
+  }
+
+  private static class Entry {
+    // the heartbeat of the worker that the entry is copied from
+    final long lastHeartbeat;
+    // the copy of the worker, which is never modified
+    final WorkerInfo worker;
+
+    Entry(long lastHeartbeat, WorkerInfo worker) {
+      this.lastHeartbeat = lastHeartbeat;
+      this.worker = worker;
+    }
+  }
+
+  private final ConcurrentHashMap<WorkerInfo, Entry> entries = JavaUtils.newConcurrentHashMap();
+
+  /** Returns the copies of the workers, the copies are equal to the workers. */
+  public List<WorkerInfo> getWorkers(List<WorkerInfo> workers) {
+    List<WorkerInfo> copies = new ArrayList<>(workers.size());
+    for (WorkerInfo worker : workers) {
+      copies.add(getEntry(worker).worker);
+    }
+    return copies;
+  }
+
+  private Entry getEntry(WorkerInfo worker) {
+    long lastHeartbeat = worker.lastHeartbeat();
+    while (true) {
+      Entry entry = entries.get(worker);
+      if (entry != null && entry.lastHeartbeat >= lastHeartbeat && sameMaxSlots(entry, worker)) {
+        return entry;
+      }
+      Entry newEntry = new Entry(lastHeartbeat, copy(worker));
+      if (entry == null
+          ? entries.putIfAbsent(worker, newEntry) == null
+          : entries.replace(worker, entry, newEntry)) {
+        return newEntry;
+      }
+    }
+  }
+
+  // the max slots of the disks are updated by the estimated partition size without a heartbeat
+  private static boolean sameMaxSlots(Entry entry, WorkerInfo worker) {
+    for (DiskInfo disk : worker.diskInfos().values()) {
+      DiskInfo copy = entry.worker.diskInfos().get(disk.mountPoint());
+      if (copy == null || copy.maxSlots() != disk.maxSlots()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reserves the offered slots on the disks of the workers, so that the following requests see less
+   * available slots before the next heartbeats of the workers. Reserves nothing and returns false if
+   * a disk does not have the available slots offered on it any more, because a concurrent request
+   * has reserved them since the slots were offered.
+   */
+  public boolean tryReserveSlots(Map<WorkerInfo, Map<String, Integer>> slotsPerDisk) {
+    List<DiskSnapshot> reservedDisks = new ArrayList<>();
+    List<Integer> reservedSlots = new ArrayList<>();
+    for (Map.Entry<WorkerInfo, Map<String, Integer>> workerSlots : slotsPerDisk.entrySet()) {
+      Entry entry = entries.get(workerSlots.getKey());
+      if (entry == null) {
+        continue;
+      }
+      for (Map.Entry<String, Integer> diskSlots : workerSlots.getValue().entrySet()) {
+        DiskSnapshot disk = (DiskSnapshot) entry.worker.diskInfos().get(diskSlots.getKey());
+        if (disk == null) {
+          continue;
+        }
+        if (!disk.tryReserve(diskSlots.getValue())) {
+          for (int i = 0; i < reservedDisks.size(); i++) {
+            reservedDisks.get(i).reservedSlots.addAndGet(-reservedSlots.get(i));
+          }
+          return false;
+        }
+        reservedDisks.add(disk);
+        reservedSlots.add(diskSlots.getValue());
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reserves the offered slots on the disks of the workers even if they exceed the available slots,
+   * for the slots offered beyond the available slots when all of them are used.
+   */
+  public void reserveSlots(Map<WorkerInfo, Map<String, Integer>> slotsPerDisk) {
+    slotsPerDisk.forEach(
+        (worker, slots) -> {
+          Entry entry = entries.get(worker);
+          if (entry != null) {
+            slots.forEach(
+                (mountPoint, numSlots) -> {
+                  DiskInfo disk = entry.worker.diskInfos().get(mountPoint);
+                  if (disk != null) {
+                    ((DiskSnapshot) disk).reservedSlots.addAndGet(numSlots);
+                  }
+                });
+          }
+        });
+  }
+
+  /** Removes the workers which are not in the given workers any more. */
+  public void retainWorkers(Collection<WorkerInfo> workers) {
+    entries.keySet().retainAll(workers);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private static WorkerInfo copy(WorkerInfo worker) {
+    Map<String, DiskInfo> disks = new HashMap<>();
+    // disks are updated under the lock of the worker by heartbeats
+    synchronized (worker) {
+      for (DiskInfo disk : worker.diskInfos().values()) {
+        disks.put(disk.mountPoint(), new DiskSnapshot(disk));
+      }
+    }
+    WorkerInfo copy =
+        new WorkerInfo(
+            worker.host(),
+            worker.rpcPort(),
+            worker.pushPort(),
+            worker.fetchPort(),
+            worker.replicatePort(),
+            worker.internalPort(),
+            disks,
+            null);
+    copy.networkLocation_$eq(worker.networkLocation());
+    copy.lastHeartbeat_$eq(worker.lastHeartbeat());
+    return copy;
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.master;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.celeborn.common.meta.WorkerInfo;
+import org.apache.celeborn.common.util.JavaUtils;
+
+/**
+ * Tracks the heartbeat version and the active shuffle keys of the workers sending delta heartbeats,
+ * which only hold the shuffle keys added and removed since the heartbeat of the base version. The
+ * tracked shuffle keys are updated in place by the deltas. If the base version of a delta is not
+ * the tracked version, e.g. the master is a new leader or the response of the last heartbeat is
+ * lost, the delta is still applied and the worker is required to send a full heartbeat. The tracked
+ * versions are local to the leader, so they are not in the Ratis log.
+ */
+public class WorkerHeartbeatTracker {
+
+  private static class Entry {
+    long version;
+    final Set<String> activeShuffleKeys;
+
+    Entry(long version, Set<String> activeShuffleKeys) {
+      this.version = version;
+      this.activeShuffleKeys = ConcurrentHashMap.newKeySet(activeShuffleKeys.size());
+      this.activeShuffleKeys.addAll(activeShuffleKeys);
+    }
+  }
+
+  private final ConcurrentHashMap<WorkerInfo, Entry> entries = JavaUtils.newConcurrentHashMap();
+
+  /**
+   * Updates the active shuffle keys of the worker by the heartbeat.
+   *
+   * @return whether the next heartbeat of the worker should be a full one
+   */
+  public boolean update(
+      WorkerInfo worker,
+      long version,
+      boolean delta,
+      long baseVersion,
+      Set<String> activeShuffleKeys,
+      Set<String> removedShuffleKeys) {
+    if (!delta) {
+      entries.put(worker, new Entry(version, activeShuffleKeys));
+      return false;
+    }
+    Entry entry = entries.get(worker);
+    if (entry == null) {
+      entries.put(worker, new Entry(version, activeShuffleKeys));
+      return true;
+    }
+    synchronized (entry) {
+      boolean requireFullHeartbeat = entry.version != baseVersion;
+      entry.activeShuffleKeys.removeAll(removedShuffleKeys);
+      entry.activeShuffleKeys.addAll(activeShuffleKeys);
+      entry.version = version;
+      return requireFullHeartbeat;
+    }
+  }
+
+  /** Returns the tracked active shuffle keys of the worker. */
+  public Set<String> getActiveShuffleKeys(WorkerInfo worker) {
+    Entry entry = entries.get(worker);
+    return entry == null ? Collections.emptySet() : entry.activeShuffleKeys;
+  }
+
+  public void remove(WorkerInfo worker) {
+    entries.remove(worker);
+  }
+
+  /** Removes the workers which are not in the given workers any more. */
+  public void retainWorkers(Collection<WorkerInfo> workers) {
+    entries.keySet().retainAll(workers);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+}
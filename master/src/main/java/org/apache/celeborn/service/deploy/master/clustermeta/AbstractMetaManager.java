@@ -22,6 +22,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -30,6 +31,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import scala.Option;
@@ -51,6 +53,7 @@ import org.apache.celeborn.common.meta.WorkerInfo;
 import org.apache.celeborn.common.meta.WorkerStatus;
 import org.apache.celeborn.common.network.CelebornRackResolver;
 import org.apache.celeborn.common.protocol.PbSnapshotMetaInfo;
+import org.apache.celeborn.common.protocol.PbWorkerInfo;
 import org.apache.celeborn.common.protocol.PbWorkerStatus;
 import org.apache.celeborn.common.quota.ResourceConsumption;
 import org.apache.celeborn.common.rpc.RpcEnv;
@@ -184,14 +187,92 @@ public abstract class AbstractMetaManager implements IMetadataHandler {
     WorkerInfo worker =
         new WorkerInfo(
             host, rpcPort, pushPort, fetchPort, replicatePort, -1, disks, userResourceConsumption);
-    AtomicLong availableSlots = new AtomicLong();
     LOG.debug("update worker {}:{} heartbeat {}", host, rpcPort, disks);
+    updateWorkerHeartbeatMeta(
+        worker,
+        info -> {
+          info.updateThenGetDiskInfos(disks, Option.apply(estimatedPartitionSize));
+          info.updateThenGetUserResourceConsumption(userResourceConsumption);
+          return disks;
+        },
+        disks,
+        estimatedAppDiskUsage,
+        time,
+        workerStatus,
+        highWorkload);
+  }
+
+  /**
+   * Updates the meta of the worker by a delta heartbeat, which only holds the disks and user
+   * resource consumptions changed since the last heartbeat. The disks and consumptions of the
+   * worker are updated in place, and the excluded check is done with all disks of the worker.
+   */
+  public void updateWorkerHeartbeatDeltaMeta(
+      String host,
+      int rpcPort,
+      int pushPort,
+      int fetchPort,
+      int replicatePort,
+      Map<String, DiskInfo> changedDisks,
+      Set<String> removedDisks,
+      Map<UserIdentifier, ResourceConsumption> changedUserResourceConsumption,
+      Set<UserIdentifier> removedUserIdentifiers,
+      Map<String, Long> estimatedAppDiskUsage,
+      long time,
+      WorkerStatus workerStatus,
+      boolean highWorkload) {
+    WorkerInfo worker =
+        new WorkerInfo(
+            host,
+            rpcPort,
+            pushPort,
+            fetchPort,
+            replicatePort,
+            -1,
+            changedDisks,
+            changedUserResourceConsumption);
+    LOG.debug(
+        "update worker {}:{} heartbeat delta {}, removed disks {}",
+        host,
+        rpcPort,
+        changedDisks,
+        removedDisks);
+    updateWorkerHeartbeatMeta(
+        worker,
+        info -> {
+          info.updateDiskInfosDelta(
+              changedDisks, removedDisks, Option.apply(estimatedPartitionSize));
+          info.updateUserResourceConsumptionDelta(
+              changedUserResourceConsumption, removedUserIdentifiers);
+          return info.diskInfos();
+        },
+        changedDisks,
+        estimatedAppDiskUsage,
+        time,
+        workerStatus,
+        highWorkload);
+  }
+
+  /**
+   * @param updateWorkerInfo updates the disks and consumptions of the registered worker and returns
+   *     all disks of the worker
+   * @param disks the disks to check whether to exclude the worker if it is not registered
+   */
+  private void updateWorkerHeartbeatMeta(
+      WorkerInfo worker,
+      Function<WorkerInfo, Map<String, DiskInfo>> updateWorkerInfo,
+      Map<String, DiskInfo> disks,
+      Map<String, Long> estimatedAppDiskUsage,
+      long time,
+      WorkerStatus workerStatus,
+      boolean highWorkload) {
+    AtomicLong availableSlots = new AtomicLong();
+    AtomicReference<Map<String, DiskInfo>> workerDisks = new AtomicReference<>(disks);
     synchronized (workers) {
       Optional<WorkerInfo> workerInfo = workers.stream().filter(w -> w.equals(worker)).findFirst();
       workerInfo.ifPresent(
           info -> {
-            info.updateThenGetDiskInfos(disks, Option.apply(estimatedPartitionSize));
-            info.updateThenGetUserResourceConsumption(userResourceConsumption);
+            workerDisks.set(updateWorkerInfo.apply(info));
             availableSlots.set(info.totalAvailableSlots());
             info.lastHeartbeat_$eq(time);
             info.setWorkerStatus(workerStatus);
@@ -210,9 +291,12 @@ public abstract class AbstractMetaManager implements IMetadataHandler {
     appDiskUsageMetric.update(estimatedAppDiskUsage);
     // If using HDFSONLY mode, workers with empty disks should not be put into excluded worker list.
     long healthyDiskNum =
-        disks.values().stream().filter(s -> s.status().equals(DiskStatus.HEALTHY)).count();
+        workerDisks.get().values().stream()
+            .filter(s -> s.status().equals(DiskStatus.HEALTHY))
+            .count();
     if (!excludedWorkers.contains(worker)
-        && (((disks.isEmpty() || healthyDiskNum <= 0) && !conf.hasHDFSStorage()) || highWorkload)) {
+        && (((workerDisks.get().isEmpty() || healthyDiskNum <= 0) && !conf.hasHDFSStorage())
+            || highWorkload)) {
       LOG.debug("Worker: {} num total slots is 0, add to excluded list", worker);
       excludedWorkers.add(worker);
     } else if ((availableSlots.get() > 0 || conf.hasHDFSStorage()) && !highWorkload) {
@@ -269,6 +353,10 @@ public abstract class AbstractMetaManager implements IMetadataHandler {
    * @throws IOException
    */
   public void writeMetaInfoToFile(File file) throws IOException, RuntimeException {
+    if (conf.haMasterRatisSnapshotSectionedEnabled()) {
+      writeSectionedMetaInfoToFile(file);
+      return;
+    }
     byte[] snapshotBytes =
         PbSerDeUtils.toPbSnapshotMetaInfo(
                 estimatedPartitionSize,
@@ -292,6 +380,69 @@ public abstract class AbstractMetaManager implements IMetadataHandler {
     Files.write(file.toPath(), snapshotBytes);
   }
 
+  private void writeSectionedMetaInfoToFile(File file) throws IOException {
+    try (SectionedSnapshotFile.Writer writer =
+        new SectionedSnapshotFile.Writer(file, conf.haMasterRatisSnapshotSectionMaxEntries())) {
+      PbSnapshotMetaInfo.Builder scalarSection =
+          PbSnapshotMetaInfo.newBuilder()
+              .setEstimatedPartitionSize(estimatedPartitionSize)
+              .setPartitionTotalWritten(partitionTotalWritten.sum())
+              .setPartitionTotalFileCount(partitionTotalFileCount.sum());
+      // appDiskUsageMetricSnapshots can have null values
+      for (AppDiskUsageSnapShot snapShot : appDiskUsageMetric.snapShots()) {
+        if (snapShot != null) {
+          scalarSection.addAppDiskUsageMetricSnapshots(
+              PbSerDeUtils.toPbAppDiskUsageSnapshot(snapShot));
+        }
+      }
+      AppDiskUsageSnapShot currentSnapShot = appDiskUsageMetric.currentSnapShot().get();
+      if (currentSnapShot != null) {
+        scalarSection.setCurrentAppDiskUsageMetricsSnapshot(
+            PbSerDeUtils.toPbAppDiskUsageSnapshot(currentSnapShot));
+      }
+      writer.writeSection(scalarSection.build());
+
+      writer.writeSections(registeredShuffle, PbSnapshotMetaInfo.Builder::addRegisteredShuffle);
+      writer.writeSections(hostnameSet, PbSnapshotMetaInfo.Builder::addHostnameSet);
+      writer.writeSections(
+          appHeartbeatTime.entrySet(),
+          (builder, entry) -> builder.putAppHeartbeatTime(entry.getKey(), entry.getValue()));
+      writer.writeSections(
+          workers, (builder, worker) -> builder.addWorkers(toPbWorkerInfo(worker)));
+      writer.writeSections(
+          excludedWorkers, (builder, worker) -> builder.addExcludedWorkers(toPbWorkerInfo(worker)));
+      writer.writeSections(
+          manuallyExcludedWorkers,
+          (builder, worker) -> builder.addManuallyExcludedWorkers(toPbWorkerInfo(worker)));
+      writer.writeSections(
+          workerLostEvents,
+          (builder, worker) -> builder.addWorkerLostEvents(toPbWorkerInfo(worker)));
+      writer.writeSections(
+          shutdownWorkers, (builder, worker) -> builder.addShutdownWorkers(toPbWorkerInfo(worker)));
+      writer.writeSections(
+          decommissionWorkers,
+          (builder, worker) -> builder.addDecommissionWorkers(toPbWorkerInfo(worker)));
+      writer.writeSections(
+          lostWorkers.entrySet(),
+          (builder, entry) ->
+              builder.putLostWorkers(entry.getKey().toUniqueId(), entry.getValue()));
+      writer.writeSections(
+          workerEventInfos.entrySet(),
+          (builder, entry) ->
+              builder.putWorkerEventInfos(
+                  entry.getKey().toUniqueId(), PbSerDeUtils.toPbWorkerEventInfo(entry.getValue())));
+      writer.writeSections(
+          applicationMetas.entrySet(),
+          (builder, entry) ->
+              builder.putApplicationMetas(
+                  entry.getKey(), PbSerDeUtils.toPbApplicationMeta(entry.getValue())));
+    }
+  }
+
+  private static PbWorkerInfo toPbWorkerInfo(WorkerInfo worker) {
+    return PbSerDeUtils.toPbWorkerInfo(worker, true, false);
+  }
+
   /**
    * Used for ratis state machine to load snapshot
    *
@@ -299,27 +450,35 @@ public abstract class AbstractMetaManager implements IMetadataHandler {
    * @throws IOException
    */
   public void restoreMetaFromFile(File file) throws IOException {
-    try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(file))) {
-      PbSnapshotMetaInfo snapshotMetaInfo = PbSnapshotMetaInfo.parseFrom(in);
+    try {
+      List<PbSnapshotMetaInfo> sections;
+      if (SectionedSnapshotFile.isSectioned(file)) {
+        sections =
+            SectionedSnapshotFile.readSections(file, Runtime.getRuntime().availableProcessors());
+      } else {
+        try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(file))) {
+          sections = Collections.singletonList(PbSnapshotMetaInfo.parseFrom(in));
+        }
+      }
       cleanUpState();
 
-      estimatedPartitionSize = snapshotMetaInfo.getEstimatedPartitionSize();
+      // the first section holds the scalar meta
+      PbSnapshotMetaInfo scalarSection = sections.get(0);
+      estimatedPartitionSize = scalarSection.getEstimatedPartitionSize();
+      partitionTotalWritten.add(scalarSection.getPartitionTotalWritten());
+      partitionTotalFileCount.add(scalarSection.getPartitionTotalFileCount());
+      appDiskUsageMetric.restoreFromSnapshot(
+          scalarSection.getAppDiskUsageMetricSnapshotsList().stream()
+              .map(PbSerDeUtils::fromPbAppDiskUsageSnapshot)
+              .toArray(AppDiskUsageSnapShot[]::new));
+      appDiskUsageMetric.currentSnapShot_$eq(
+          new AtomicReference<AppDiskUsageSnapShot>(
+              PbSerDeUtils.fromPbAppDiskUsageSnapshot(
+                  scalarSection.getCurrentAppDiskUsageMetricsSnapshot())));
 
-      registeredShuffle.addAll(snapshotMetaInfo.getRegisteredShuffleList());
-      hostnameSet.addAll(snapshotMetaInfo.getHostnameSetList());
-      excludedWorkers.addAll(
-          snapshotMetaInfo.getExcludedWorkersList().stream()
-              .map(PbSerDeUtils::fromPbWorkerInfo)
-              .collect(Collectors.toSet()));
-      manuallyExcludedWorkers.addAll(
-          snapshotMetaInfo.getManuallyExcludedWorkersList().stream()
-              .map(PbSerDeUtils::fromPbWorkerInfo)
-              .collect(Collectors.toSet()));
-      workerLostEvents.addAll(
-          snapshotMetaInfo.getWorkerLostEventsList().stream()
-              .map(PbSerDeUtils::fromPbWorkerInfo)
-              .collect(Collectors.toSet()));
-      appHeartbeatTime.putAll(snapshotMetaInfo.getAppHeartbeatTimeMap());
+      for (PbSnapshotMetaInfo section : sections) {
+        restoreMetaFromSnapshotSection(section);
+      }
 
       registeredShuffle.forEach(
           shuffleKey -> {
@@ -328,7 +487,38 @@ public abstract class AbstractMetaManager implements IMetadataHandler {
               appHeartbeatTime.put(appId, System.currentTimeMillis());
             }
           });
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+    LOG.info("Successfully restore meta info from snapshot {}", file.getAbsolutePath());
+    LOG.info(
+        "Worker size: {}, Registered shuffle size: {}. Worker excluded list size: {}. Manually Excluded list size: {}",
+        workers.size(),
+        registeredShuffle.size(),
+        excludedWorkers.size(),
+        manuallyExcludedWorkers.size());
+    workers.forEach(workerInfo -> LOG.info(workerInfo.toString()));
+    registeredShuffle.forEach(shuffle -> LOG.info("RegisteredShuffle {}", shuffle));
+  }
 
+  private void restoreMetaFromSnapshotSection(PbSnapshotMetaInfo snapshotMetaInfo) {
+    registeredShuffle.addAll(snapshotMetaInfo.getRegisteredShuffleList());
+    hostnameSet.addAll(snapshotMetaInfo.getHostnameSetList());
+    excludedWorkers.addAll(
+        snapshotMetaInfo.getExcludedWorkersList().stream()
+            .map(PbSerDeUtils::fromPbWorkerInfo)
+            .collect(Collectors.toSet()));
+    manuallyExcludedWorkers.addAll(
+        snapshotMetaInfo.getManuallyExcludedWorkersList().stream()
+            .map(PbSerDeUtils::fromPbWorkerInfo)
+            .collect(Collectors.toSet()));
+    workerLostEvents.addAll(
+        snapshotMetaInfo.getWorkerLostEventsList().stream()
+            .map(PbSerDeUtils::fromPbWorkerInfo)
+            .collect(Collectors.toSet()));
+    appHeartbeatTime.putAll(snapshotMetaInfo.getAppHeartbeatTimeMap());
+
+    if (snapshotMetaInfo.getWorkersCount() > 0) {
       Set<WorkerInfo> workerInfoSet =
           snapshotMetaInfo.getWorkersList().stream()
               .map(PbSerDeUtils::fromPbWorkerInfo)
@@ -351,57 +541,35 @@ public abstract class AbstractMetaManager implements IMetadataHandler {
                     }
                   })
               .collect(Collectors.toSet()));
-
-      snapshotMetaInfo
-          .getLostWorkersMap()
-          .forEach((key, value) -> lostWorkers.put(WorkerInfo.fromUniqueId(key), value));
-
-      snapshotMetaInfo
-          .getWorkerEventInfosMap()
-          .entrySet()
-          .forEach(
-              entry ->
-                  workerEventInfos.put(
-                      WorkerInfo.fromUniqueId(entry.getKey()),
-                      PbSerDeUtils.fromPbWorkerEventInfo(entry.getValue())));
-
-      shutdownWorkers.addAll(
-          snapshotMetaInfo.getShutdownWorkersList().stream()
-              .map(PbSerDeUtils::fromPbWorkerInfo)
-              .collect(Collectors.toSet()));
-
-      decommissionWorkers.addAll(
-          snapshotMetaInfo.getDecommissionWorkersList().stream()
-              .map(PbSerDeUtils::fromPbWorkerInfo)
-              .collect(Collectors.toSet()));
-
-      partitionTotalWritten.add(snapshotMetaInfo.getPartitionTotalWritten());
-      partitionTotalFileCount.add(snapshotMetaInfo.getPartitionTotalFileCount());
-      appDiskUsageMetric.restoreFromSnapshot(
-          snapshotMetaInfo.getAppDiskUsageMetricSnapshotsList().stream()
-              .map(PbSerDeUtils::fromPbAppDiskUsageSnapshot)
-              .toArray(AppDiskUsageSnapShot[]::new));
-      appDiskUsageMetric.currentSnapShot_$eq(
-          new AtomicReference<AppDiskUsageSnapShot>(
-              PbSerDeUtils.fromPbAppDiskUsageSnapshot(
-                  snapshotMetaInfo.getCurrentAppDiskUsageMetricsSnapshot())));
-
-      snapshotMetaInfo
-          .getApplicationMetasMap()
-          .forEach(
-              (key, value) -> applicationMetas.put(key, PbSerDeUtils.fromPbApplicationMeta(value)));
-    } catch (Exception e) {
-      throw new IOException(e);
     }
-    LOG.info("Successfully restore meta info from snapshot {}", file.getAbsolutePath());
-    LOG.info(
-        "Worker size: {}, Registered shuffle size: {}. Worker excluded list size: {}. Manually Excluded list size: {}",
-        workers.size(),
-        registeredShuffle.size(),
-        excludedWorkers.size(),
-        manuallyExcludedWorkers.size());
-    workers.forEach(workerInfo -> LOG.info(workerInfo.toString()));
-    registeredShuffle.forEach(shuffle -> LOG.info("RegisteredShuffle {}", shuffle));
+
+    snapshotMetaInfo
+        .getLostWorkersMap()
+        .forEach((key, value) -> lostWorkers.put(WorkerInfo.fromUniqueId(key), value));
+
+    snapshotMetaInfo
+        .getWorkerEventInfosMap()
+        .entrySet()
+        .forEach(
+            entry ->
+                workerEventInfos.put(
+                    WorkerInfo.fromUniqueId(entry.getKey()),
+                    PbSerDeUtils.fromPbWorkerEventInfo(entry.getValue())));
+
+    shutdownWorkers.addAll(
+        snapshotMetaInfo.getShutdownWorkersList().stream()
+            .map(PbSerDeUtils::fromPbWorkerInfo)
+            .collect(Collectors.toSet()));
+
+    decommissionWorkers.addAll(
+        snapshotMetaInfo.getDecommissionWorkersList().stream()
+            .map(PbSerDeUtils::fromPbWorkerInfo)
+            .collect(Collectors.toSet()));
+
+    snapshotMetaInfo
+        .getApplicationMetasMap()
+        .forEach(
+            (key, value) -> applicationMetas.put(key, PbSerDeUtils.fromPbApplicationMeta(value)));
   }
 
   private void cleanUpState() {
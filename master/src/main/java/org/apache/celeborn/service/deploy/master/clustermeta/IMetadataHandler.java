@@ -19,6 +19,7 @@ package org.apache.celeborn.service.deploy.master.clustermeta;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.celeborn.common.identity.UserIdentifier;
 import org.apache.celeborn.common.meta.ApplicationMeta;
@@ -66,6 +67,26 @@ public interface IMetadataHandler {
       WorkerStatus workerStatus,
       String requestId);
 
+  /**
+   * Handles the delta heartbeat of the worker, which only holds the disks and user resource
+   * consumptions changed since the last heartbeat of the worker.
+   */
+  void handleWorkerHeartbeatDelta(
+      String host,
+      int rpcPort,
+      int pushPort,
+      int fetchPort,
+      int replicatePort,
+      Map<String, DiskInfo> changedDisks,
+      Set<String> removedDisks,
+      Map<UserIdentifier, ResourceConsumption> changedUserResourceConsumption,
+      Set<UserIdentifier> removedUserIdentifiers,
+      Map<String, Long> estimatedAppDiskUsage,
+      long time,
+      boolean highWorkload,
+      WorkerStatus workerStatus,
+      String requestId);
+
   void handleRegisterWorker(
       String host,
       int rpcPort,
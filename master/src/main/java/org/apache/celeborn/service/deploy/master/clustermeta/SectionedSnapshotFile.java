@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.master.clustermeta;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+import org.apache.celeborn.common.protocol.PbSnapshotMetaInfo;
+import org.apache.celeborn.common.util.ThreadUtils;
+
+/**
+ * Snapshot file of the master meta, which is written as a stream of sections instead of one
+ * PbSnapshotMetaInfo. Every section is a PbSnapshotMetaInfo of at most maxEntries entries of one
+ * kind of meta, which is compressed and checked by its own CRC32, so that the snapshot is written
+ * without building all meta in one message, and the sections are decompressed and parsed in
+ * parallel when the snapshot is loaded. The first section holds the scalar meta.
+ *
+ * <p>The layout of the file is: magic, version, then every section as compressed length, raw
+ * length, CRC32 of the raw bytes and the compressed bytes, and -1 as the end.
+ */
+public class SectionedSnapshotFile {
+
+  // not a valid start of a PbSnapshotMetaInfo, so the files of both formats can be told apart
+  private static final byte[] MAGIC = "CELEBORN".getBytes(StandardCharsets.US_ASCII);
+  private static final int VERSION = 1;
+  private static final int END_OF_SECTIONS = -1;
+
+  public static boolean isSectioned(File file) throws IOException {
+    byte[] magic = new byte[MAGIC.length];
+    try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+      in.readFully(magic);
+    } catch (EOFException e) {
+      return false;
+    }
+    return Arrays.equals(MAGIC, magic);
+  }
+
+  public static class Writer implements Closeable {
+    private final DataOutputStream out;
+    private final int maxEntries;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    private final CRC32 crc = new CRC32();
+
+    public Writer(File file, int maxEntries) throws IOException {
+      this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+      this.maxEntries = maxEntries;
+      out.write(MAGIC);
+      out.writeInt(VERSION);
+    }
+
+    public void writeSection(PbSnapshotMetaInfo section) throws IOException {
+      byte[] raw = section.toByteArray();
+      crc.reset();
+      crc.update(raw, 0, raw.length);
+      compressed.reset();
+      deflater.reset();
+      try (DeflaterOutputStream deflaterOut = new DeflaterOutputStream(compressed, deflater)) {
+        deflaterOut.write(raw);
+      }
+      out.writeInt(compressed.size());
+      out.writeInt(raw.length);
+      out.writeLong(crc.getValue());
+      compressed.writeTo(out);
+    }
+
+    /** Writes the items into sections of at most maxEntries items. */
+    public <T> void writeSections(
+        Iterable<T> items, BiConsumer<PbSnapshotMetaInfo.Builder, T> addToSection)
+        throws IOException {
+      PbSnapshotMetaInfo.Builder builder = PbSnapshotMetaInfo.newBuilder();
+      int entries = 0;
+      for (T item : items) {
+        addToSection.accept(builder, item);
+        if (++entries == maxEntries) {
+          writeSection(builder.build());
+          builder = PbSnapshotMetaInfo.newBuilder();
+          entries = 0;
+        }
+      }
+      if (entries > 0) {
+        writeSection(builder.build());
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        out.writeInt(END_OF_SECTIONS);
+      } finally {
+        deflater.end();
+        out.close();
+      }
+    }
+  }
+
+  /**
+   * Reads the sections of the file in order, the sections are decompressed and parsed by at most
+   * parallelism threads.
+   */
+  public static List<PbSnapshotMetaInfo> readSections(File file, int parallelism)
+      throws IOException {
+    List<byte[]> compressedSections = new ArrayList<>();
+    List<Integer> rawLengths = new ArrayList<>();
+    List<Long> checksums = new ArrayList<>();
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      byte[] magic = new byte[MAGIC.length];
+      in.readFully(magic);
+      if (!Arrays.equals(MAGIC, magic)) {
+        throw new IOException("Snapshot file " + file + " is not sectioned.");
+      }
+      int version = in.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported version " + version + " of snapshot file " + file);
+      }
+      int compressedLength;
+      while ((compressedLength = in.readInt()) != END_OF_SECTIONS) {
+        rawLengths.add(in.readInt());
+        checksums.add(in.readLong());
+        byte[] compressed = new byte[compressedLength];
+        in.readFully(compressed);
+        compressedSections.add(compressed);
+      }
+    }
+
+    int numSections = compressedSections.size();
+    if (numSections <= 1 || parallelism <= 1) {
+      List<PbSnapshotMetaInfo> sections = new ArrayList<>(numSections);
+      for (int i = 0; i < numSections; i++) {
+        sections.add(parseSection(compressedSections.get(i), rawLengths.get(i), checksums.get(i)));
+      }
+      return sections;
+    }
+
+    ExecutorService executor =
+        ThreadUtils.newDaemonFixedThreadPool(
+            Math.min(parallelism, numSections), "master-snapshot-loader");
+    try {
+      List<Future<PbSnapshotMetaInfo>> futures = new ArrayList<>(numSections);
+      for (int i = 0; i < numSections; i++) {
+        byte[] compressed = compressedSections.get(i);
+        int rawLength = rawLengths.get(i);
+        long checksum = checksums.get(i);
+        futures.add(executor.submit(() -> parseSection(compressed, rawLength, checksum)));
+      }
+      List<PbSnapshotMetaInfo> sections = new ArrayList<>(numSections);
+      for (Future<PbSnapshotMetaInfo> future : futures) {
+        sections.add(future.get());
+      }
+      return sections;
+    } catch (ExecutionException e) {
+      throw new IOException("Failed to load snapshot file " + file, e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted when loading snapshot file " + file, e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static PbSnapshotMetaInfo parseSection(byte[] compressed, int rawLength, long checksum)
+      throws IOException {
+    byte[] raw = new byte[rawLength];
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(compressed);
+      int length = 0;
+      while (length < rawLength && !inflater.finished()) {
+        int inflated = inflater.inflate(raw, length, rawLength - length);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        length += inflated;
+      }
+      if (length != rawLength) {
+        throw new IOException(
+            "Snapshot section is truncated, expect " + rawLength + " bytes but got " + length);
+      }
+    } catch (DataFormatException e) {
+      throw new IOException("Snapshot section is corrupted.", e);
+    } finally {
+      inflater.end();
+    }
+    CRC32 crc = new CRC32();
+    crc.update(raw, 0, raw.length);
+    if (crc.getValue() != checksum) {
+      throw new IOException(
+          "Checksum mismatch of snapshot section, expect "
+              + checksum
+              + " but got "
+              + crc.getValue());
+    }
+    return PbSnapshotMetaInfo.parseFrom(raw);
+  }
+}
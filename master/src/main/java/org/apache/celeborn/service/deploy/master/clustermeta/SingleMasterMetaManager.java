@@ -19,6 +19,7 @@ package org.apache.celeborn.service.deploy.master.clustermeta;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -128,6 +129,38 @@ public class SingleMasterMetaManager extends AbstractMetaManager {
         highWorkload);
   }
 
+  @Override
+  public void handleWorkerHeartbeatDelta(
+      String host,
+      int rpcPort,
+      int pushPort,
+      int fetchPort,
+      int replicatePort,
+      Map<String, DiskInfo> changedDisks,
+      Set<String> removedDisks,
+      Map<UserIdentifier, ResourceConsumption> changedUserResourceConsumption,
+      Set<UserIdentifier> removedUserIdentifiers,
+      Map<String, Long> estimatedAppDiskUsage,
+      long time,
+      boolean highWorkload,
+      WorkerStatus workerStatus,
+      String requestId) {
+    updateWorkerHeartbeatDeltaMeta(
+        host,
+        rpcPort,
+        pushPort,
+        fetchPort,
+        replicatePort,
+        changedDisks,
+        removedDisks,
+        changedUserResourceConsumption,
+        removedUserIdentifiers,
+        estimatedAppDiskUsage,
+        time,
+        workerStatus,
+        highWorkload);
+  }
+
   @Override
   public void handleRegisterWorker(
       String host,
@@ -19,6 +19,7 @@ package org.apache.celeborn.service.deploy.master.clustermeta.ha;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -284,6 +285,55 @@ public class HAMasterMetaManager extends AbstractMetaManager {
     }
   }
 
+  @Override
+  public void handleWorkerHeartbeatDelta(
+      String host,
+      int rpcPort,
+      int pushPort,
+      int fetchPort,
+      int replicatePort,
+      Map<String, DiskInfo> changedDisks,
+      Set<String> removedDisks,
+      Map<UserIdentifier, ResourceConsumption> changedUserResourceConsumption,
+      Set<UserIdentifier> removedUserIdentifiers,
+      Map<String, Long> estimatedAppDiskUsage,
+      long time,
+      boolean highWorkload,
+      WorkerStatus workerStatus,
+      String requestId) {
+    try {
+      ratisServer.submitRequest(
+          ResourceRequest.newBuilder()
+              .setCmdType(Type.WorkerHeartbeat)
+              .setRequestId(requestId)
+              .setWorkerHeartbeatRequest(
+                  ResourceProtos.WorkerHeartbeatRequest.newBuilder()
+                      .setHost(host)
+                      .setRpcPort(rpcPort)
+                      .setPushPort(pushPort)
+                      .setFetchPort(fetchPort)
+                      .setReplicatePort(replicatePort)
+                      .putAllDisks(MetaUtil.toPbDiskInfos(changedDisks))
+                      .putAllUserResourceConsumption(
+                          MetaUtil.toPbUserResourceConsumption(changedUserResourceConsumption))
+                      .putAllEstimatedAppDiskUsage(estimatedAppDiskUsage)
+                      .setWorkerStatus(MetaUtil.toPbWorkerStatus(workerStatus))
+                      .setTime(time)
+                      .setHighWorkload(highWorkload)
+                      .setDelta(true)
+                      .addAllRemovedDisks(removedDisks)
+                      .addAllRemovedUserIdentifiers(
+                          removedUserIdentifiers.stream()
+                              .map(UserIdentifier::toString)
+                              .collect(Collectors.toList()))
+                      .build())
+              .build());
+    } catch (CelebornRuntimeException e) {
+      LOG.error("Handle worker heartbeat delta for {} failed!", host, e);
+      throw e;
+    }
+  }
+
   @Override
   public void handleRegisterWorker(
       String host,
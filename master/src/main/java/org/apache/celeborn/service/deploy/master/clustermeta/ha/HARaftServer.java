@@ -23,6 +23,8 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -96,6 +98,8 @@ public class HARaftServer {
 
   private final StateMachine masterStateMachine;
 
+  private final RaftProposalBatcher proposalBatcher;
+
   private final ScheduledExecutorService scheduledRoleChecker =
       ThreadUtils.newDaemonSingleThreadScheduledExecutor("master-ratis-role-checker");
   private long roleCheckIntervalMs;
@@ -148,6 +152,15 @@ public class HARaftServer {
             // RATIS-1677. Do not auto format RaftStorage in RECOVER.
             .setOption(StartupOption.valueOf(conf.haMasterRatisStorageStartupOption()))
             .build();
+    if (conf.haMasterRatisProposalBatchEnabled()) {
+      this.proposalBatcher =
+          new RaftProposalBatcher(
+              this::submitRequestAsync,
+              conf.haMasterRatisProposalBatchMaxSize(),
+              conf.haMasterRatisProposalBatchMaxDelay());
+    } else {
+      this.proposalBatcher = null;
+    }
 
     StringBuilder raftPeersStr = new StringBuilder();
     for (RaftPeer peer : raftPeers) {
@@ -225,14 +238,44 @@ public class HARaftServer {
 
   public ResourceResponse submitRequest(ResourceProtos.ResourceRequest request)
       throws CelebornRuntimeException {
-    String requestId = request.getRequestId();
-    Tuple2<String, Long> decoded = MasterClient.decodeRequestId(requestId);
-    if (decoded == null) {
-      throw new CelebornRuntimeException(
-          "RequestId:" + requestId + " invalid, should be: uuid#callId.");
+    CompletableFuture<ResourceResponse> responseFuture =
+        proposalBatcher != null && RaftProposalBatcher.isBatched(request)
+            ? proposalBatcher.propose(request)
+            : submitRequestAsync(request);
+    try {
+      return responseFuture.get();
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof CelebornRuntimeException) {
+        throw (CelebornRuntimeException) ex.getCause();
+      }
+      throw new CelebornRuntimeException(ex.getMessage(), ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new CelebornRuntimeException(ex.getMessage(), ex);
+    }
+  }
+
+  private CompletableFuture<ResourceResponse> submitRequestAsync(
+      ResourceProtos.ResourceRequest request) {
+    CompletableFuture<ResourceResponse> responseFuture = new CompletableFuture<>();
+    ClientId clientId;
+    long callId;
+    if (request.getCmdType() == ResourceProtos.Type.Batch) {
+      // a batch is proposed by this server on behalf of the clients of the batched requests
+      clientId = this.clientId;
+      callId = nextCallId();
+    } else {
+      String requestId = request.getRequestId();
+      Tuple2<String, Long> decoded = MasterClient.decodeRequestId(requestId);
+      if (decoded == null) {
+        responseFuture.completeExceptionally(
+            new CelebornRuntimeException(
+                "RequestId:" + requestId + " invalid, should be: uuid#callId."));
+        return responseFuture;
+      }
+      clientId = ClientId.valueOf(UUID.fromString(decoded._1));
+      callId = decoded._2;
     }
-    ClientId clientId = ClientId.valueOf(UUID.fromString(decoded._1));
-    long callId = decoded._2;
     RaftClientRequest raftClientRequest =
         new RaftClientRequest.Builder()
             .setClientId(clientId)
@@ -243,13 +286,30 @@ public class HARaftServer {
             .setMessage(Message.valueOf(HAHelper.convertRequestToByteString(request)))
             .build();
 
-    RaftClientReply raftClientReply;
     try {
-      raftClientReply = server.submitClientRequestAsync(raftClientRequest).get();
+      server
+          .submitClientRequestAsync(raftClientRequest)
+          .whenComplete(
+              (raftClientReply, throwable) -> {
+                if (throwable != null) {
+                  responseFuture.completeExceptionally(
+                      new CelebornRuntimeException(throwable.getMessage(), throwable));
+                  return;
+                }
+                try {
+                  responseFuture.complete(parseRaftClientReply(raftClientReply));
+                } catch (CelebornRuntimeException ex) {
+                  responseFuture.completeExceptionally(ex);
+                }
+              });
     } catch (Exception ex) {
-      throw new CelebornRuntimeException(ex.getMessage(), ex);
+      responseFuture.completeExceptionally(new CelebornRuntimeException(ex.getMessage(), ex));
     }
+    return responseFuture;
+  }
 
+  private ResourceResponse parseRaftClientReply(RaftClientReply raftClientReply)
+      throws CelebornRuntimeException {
     if (!raftClientReply.isSuccess()) {
       RaftException exception = raftClientReply.getException();
       throw new CelebornRuntimeException(
@@ -276,9 +336,15 @@ public class HARaftServer {
         server.getId(),
         ratisAddr.getPort());
     server.start();
+    if (proposalBatcher != null) {
+      proposalBatcher.start();
+    }
   }
 
   public void stop() {
+    if (proposalBatcher != null) {
+      proposalBatcher.stop();
+    }
     try {
       server.close();
     } catch (IOException e) {
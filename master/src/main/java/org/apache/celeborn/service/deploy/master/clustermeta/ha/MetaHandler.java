@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
 
 import org.apache.celeborn.common.CelebornConf;
 import org.apache.celeborn.common.identity.UserIdentifier;
+import org.apache.celeborn.common.identity.UserIdentifier$;
 import org.apache.celeborn.common.meta.ApplicationMeta;
 import org.apache.celeborn.common.meta.DiskInfo;
 import org.apache.celeborn.common.meta.WorkerInfo;
@@ -194,18 +195,42 @@ public class MetaHandler {
               replicatePort,
               diskInfos,
               userResourceConsumption);
-          metaSystem.updateWorkerHeartbeatMeta(
-              host,
-              rpcPort,
-              pushPort,
-              fetchPort,
-              replicatePort,
-              diskInfos,
-              userResourceConsumption,
-              estimatedAppDiskUsage,
-              request.getWorkerHeartbeatRequest().getTime(),
-              workerStatus,
-              highWorkload);
+          if (request.getWorkerHeartbeatRequest().getDelta()) {
+            Set<UserIdentifier> removedUserIdentifiers = new HashSet<>();
+            request
+                .getWorkerHeartbeatRequest()
+                .getRemovedUserIdentifiersList()
+                .forEach(
+                    userIdentifier ->
+                        removedUserIdentifiers.add(UserIdentifier$.MODULE$.apply(userIdentifier)));
+            metaSystem.updateWorkerHeartbeatDeltaMeta(
+                host,
+                rpcPort,
+                pushPort,
+                fetchPort,
+                replicatePort,
+                diskInfos,
+                new HashSet<>(request.getWorkerHeartbeatRequest().getRemovedDisksList()),
+                userResourceConsumption,
+                removedUserIdentifiers,
+                estimatedAppDiskUsage,
+                request.getWorkerHeartbeatRequest().getTime(),
+                workerStatus,
+                highWorkload);
+          } else {
+            metaSystem.updateWorkerHeartbeatMeta(
+                host,
+                rpcPort,
+                pushPort,
+                fetchPort,
+                replicatePort,
+                diskInfos,
+                userResourceConsumption,
+                estimatedAppDiskUsage,
+                request.getWorkerHeartbeatRequest().getTime(),
+                workerStatus,
+                highWorkload);
+          }
           break;
 
         case RegisterWorker:
@@ -285,6 +310,22 @@ public class MetaHandler {
           metaSystem.updateMetaByReportWorkerDecommission(decommissionWorkers);
           break;
 
+        case Batch:
+          // all requests of the batch are applied in this log entry by the single apply thread
+          ResourceProtos.BatchResponse.Builder batchResponseBuilder =
+              ResourceProtos.BatchResponse.newBuilder();
+          for (ResourceProtos.ResourceRequest batchedRequest :
+              request.getBatchRequest().getRequestsList()) {
+            ResourceResponse batchedResponse = handleWriteRequest(batchedRequest);
+            if (!batchedResponse.getSuccess()) {
+              responseBuilder.setSuccess(false);
+            }
+            batchResponseBuilder.addResponses(batchedResponse);
+          }
+          LOG.debug("Handle batch of {} requests", request.getBatchRequest().getRequestsCount());
+          responseBuilder.setBatchResponse(batchResponseBuilder.build());
+          break;
+
         default:
           throw new IOException("Can not parse this command!" + request);
       }
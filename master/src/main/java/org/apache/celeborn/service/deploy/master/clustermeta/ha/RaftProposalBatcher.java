@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.master.clustermeta.ha;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.celeborn.common.exception.CelebornRuntimeException;
+import org.apache.celeborn.service.deploy.master.clustermeta.ResourceProtos;
+import org.apache.celeborn.service.deploy.master.clustermeta.ResourceProtos.ResourceRequest;
+import org.apache.celeborn.service.deploy.master.clustermeta.ResourceProtos.ResourceResponse;
+import org.apache.celeborn.service.deploy.master.clustermeta.ResourceProtos.Type;
+
+/**
+ * Coalesces the pending requests into batched Ratis log entries of at most maxSize requests,
+ * waiting at most maxDelay for more requests. Batches are proposed without waiting for the previous
+ * ones to be applied, so the proposals are pipelined. Only requests which can be applied again
+ * without side effects are batched, because a batch is not in the retry cache of the requests, so
+ * requests like RequestSlots, which add to the used slots, and AppHeartbeat, which adds to the
+ * partition totals, are never batched. The heartbeats of the
+ * same worker in one batch are de-duplicated to the latest one at the position of the latest one,
+ * unless the latest one is a delta heartbeat, which can not replace the earlier heartbeats.
+ */
+class RaftProposalBatcher {
+  private static final Logger LOG = LoggerFactory.getLogger(RaftProposalBatcher.class);
+
+  private static final Set<Type> BATCHED_TYPES =
+      EnumSet.of(Type.WorkerHeartbeat, Type.UnRegisterShuffle);
+
+  private static class Proposal {
+    final ResourceRequest request;
+    final CompletableFuture<ResourceResponse> future = new CompletableFuture<>();
+
+    Proposal(ResourceRequest request) {
+      this.request = request;
+    }
+  }
+
+  private final Function<ResourceRequest, CompletableFuture<ResourceResponse>> proposer;
+  private final int maxSize;
+  private final long maxDelayNs;
+  private final LinkedBlockingQueue<Proposal> queue = new LinkedBlockingQueue<>();
+  private final Thread batchThread;
+  private volatile boolean stopped = false;
+
+  RaftProposalBatcher(
+      Function<ResourceRequest, CompletableFuture<ResourceResponse>> proposer,
+      int maxSize,
+      long maxDelayMs) {
+    this.proposer = proposer;
+    this.maxSize = maxSize;
+    this.maxDelayNs = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+    this.batchThread = new Thread(this::run, "master-ratis-proposal-batcher");
+    this.batchThread.setDaemon(true);
+  }
+
+  static boolean isBatched(ResourceRequest request) {
+    return BATCHED_TYPES.contains(request.getCmdType());
+  }
+
+  void start() {
+    batchThread.start();
+  }
+
+  void stop() {
+    stopped = true;
+    batchThread.interrupt();
+    try {
+      batchThread.join(TimeUnit.SECONDS.toMillis(5));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    failPendingProposals();
+  }
+
+  CompletableFuture<ResourceResponse> propose(ResourceRequest request) {
+    Proposal proposal = new Proposal(request);
+    queue.add(proposal);
+    if (stopped) {
+      failPendingProposals();
+    }
+    return proposal.future;
+  }
+
+  private void run() {
+    List<Proposal> proposals = new ArrayList<>();
+    while (!stopped) {
+      try {
+        proposals.add(queue.take());
+        long deadline = System.nanoTime() + maxDelayNs;
+        while (proposals.size() < maxSize) {
+          queue.drainTo(proposals, maxSize - proposals.size());
+          long remainingNs = deadline - System.nanoTime();
+          if (proposals.size() >= maxSize || remainingNs <= 0) {
+            break;
+          }
+          Proposal proposal = queue.poll(remainingNs, TimeUnit.NANOSECONDS);
+          if (proposal == null) {
+            break;
+          }
+          proposals.add(proposal);
+        }
+      } catch (InterruptedException e) {
+        break;
+      }
+      proposeBatch(proposals);
+      proposals = new ArrayList<>();
+    }
+    for (Proposal proposal : proposals) {
+      proposal.future.completeExceptionally(
+          new CelebornRuntimeException("Ratis proposal batcher is stopped."));
+    }
+  }
+
+  private void failPendingProposals() {
+    Proposal proposal;
+    while ((proposal = queue.poll()) != null) {
+      proposal.future.completeExceptionally(
+          new CelebornRuntimeException("Ratis proposal batcher is stopped."));
+    }
+  }
+
+  private void proposeBatch(List<Proposal> proposals) {
+    List<ResourceRequest> requests = new ArrayList<>(proposals.size());
+    List<List<CompletableFuture<ResourceResponse>>> futures = new ArrayList<>(proposals.size());
+    Map<String, Integer> workerHeartbeatIndexes = new HashMap<>();
+    for (Proposal proposal : proposals) {
+      ResourceRequest request = proposal.request;
+      if (request.getCmdType() == Type.WorkerHeartbeat) {
+        ResourceProtos.WorkerHeartbeatRequest heartbeat = request.getWorkerHeartbeatRequest();
+        String workerKey =
+            heartbeat.getHost()
+                + ":"
+                + heartbeat.getRpcPort()
+                + ":"
+                + heartbeat.getPushPort()
+                + ":"
+                + heartbeat.getFetchPort()
+                + ":"
+                + heartbeat.getReplicatePort();
+        Integer index = workerHeartbeatIndexes.get(workerKey);
+        if (index != null && !heartbeat.getDelta()) {
+          // the later heartbeat of the worker replaces the earlier one in the batch, it stays
+          // after the requests between them
+          requests.set(index, null);
+          List<CompletableFuture<ResourceResponse>> requestFutures = futures.set(index, null);
+          requestFutures.add(proposal.future);
+          workerHeartbeatIndexes.put(workerKey, requests.size());
+          requests.add(request);
+          futures.add(requestFutures);
+          continue;
+        }
+        workerHeartbeatIndexes.put(workerKey, requests.size());
+      }
+      requests.add(request);
+      List<CompletableFuture<ResourceResponse>> requestFutures = new ArrayList<>(1);
+      requestFutures.add(proposal.future);
+      futures.add(requestFutures);
+    }
+    requests.removeIf(Objects::isNull);
+    futures.removeIf(Objects::isNull);
+
+    if (requests.size() == 1) {
+      // the request is proposed as is, which keeps it in the retry cache
+      complete(proposeAsync(requests.get(0)), futures.get(0));
+      return;
+    }
+
+    ResourceRequest batchRequest =
+        ResourceRequest.newBuilder()
+            .setCmdType(Type.Batch)
+            .setBatchRequest(ResourceProtos.BatchRequest.newBuilder().addAllRequests(requests))
+            .build();
+    proposeAsync(batchRequest)
+        .whenComplete(
+            (response, throwable) -> {
+              Throwable error = throwable;
+              if (error == null
+                  && response.getBatchResponse().getResponsesCount() != futures.size()) {
+                error =
+                    new CelebornRuntimeException(
+                        "Unexpected response of batch request: " + response.getCmdType());
+              }
+              for (int i = 0; i < futures.size(); i++) {
+                for (CompletableFuture<ResourceResponse> future : futures.get(i)) {
+                  if (error != null) {
+                    future.completeExceptionally(error);
+                  } else {
+                    future.complete(response.getBatchResponse().getResponses(i));
+                  }
+                }
+              }
+            });
+    LOG.debug("Proposed batch of {} requests.", requests.size());
+  }
+
+  private CompletableFuture<ResourceResponse> proposeAsync(ResourceRequest request) {
+    try {
+      return proposer.apply(request);
+    } catch (Throwable t) {
+      CompletableFuture<ResourceResponse> future = new CompletableFuture<>();
+      future.completeExceptionally(t);
+      return future;
+    }
+  }
+
+  private static void complete(
+      CompletableFuture<ResourceResponse> responseFuture,
+      List<CompletableFuture<ResourceResponse>> futures) {
+    responseFuture.whenComplete(
+        (response, throwable) -> {
+          for (CompletableFuture<ResourceResponse> future : futures) {
+            if (throwable != null) {
+              future.completeExceptionally(throwable);
+            } else {
+              future.complete(response);
+            }
+          }
+        });
+  }
+}
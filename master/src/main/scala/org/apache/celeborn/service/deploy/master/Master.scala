@@ -210,6 +210,10 @@ private[celeborn] class Master(
     estimatedPartitionSizeForEstimationUpdateInterval,
     TimeUnit.MILLISECONDS)
   private val slotsAssignPolicy = conf.masterSlotAssignPolicy
+  // slots are offered on the snapshot of the workers without the lock of the workers
+  private val workerDisksSnapshot = new WorkerDisksSnapshot
+  private val offerSlotsMaxAttempts = 3
+  private val workerHeartbeatTracker = new WorkerHeartbeatTracker
 
   private var hadoopFs: FileSystem = _
   masterSource.addGauge(MasterSource.REGISTERED_SHUFFLE_COUNT) { () =>
@@ -491,8 +495,14 @@ private[celeborn] class Master(
           estimatedAppDiskUsage,
           highWorkload,
           workerStatus,
+          heartbeatVersion,
+          delta,
+          baseHeartbeatVersion,
+          removedDisks,
+          removedUserIdentifiers,
+          removedShuffleKeys,
           requestId) =>
-      logDebug(s"Received heartbeat from" +
+      logDebug(s"Received ${if (delta) "delta " else ""}heartbeat from" +
         s" worker $host:$rpcPort:$pushPort:$fetchPort:$replicatePort with $disks.")
       executeWithLeaderChecker(
         context,
@@ -509,6 +519,12 @@ private[celeborn] class Master(
           estimatedAppDiskUsage,
           highWorkload,
           workerStatus,
+          heartbeatVersion,
+          delta,
+          baseHeartbeatVersion,
+          removedDisks,
+          removedUserIdentifiers,
+          removedShuffleKeys,
           requestId))
 
     case ReportWorkerUnavailable(failedWorkers: util.List[WorkerInfo], requestId: String) =>
@@ -570,6 +586,8 @@ private[celeborn] class Master(
 
   private def timeoutDeadWorkers(): Unit = {
     val currentTime = System.currentTimeMillis()
+    workerDisksSnapshot.retainWorkers(statusSystem.workers)
+    workerHeartbeatTracker.retainWorkers(statusSystem.workers)
     // Need increase timeout deadline to avoid long time leader election period
     if (HAHelper.getWorkerTimeoutDeadline(statusSystem) > currentTime) {
       return
@@ -646,12 +664,36 @@ private[celeborn] class Master(
       estimatedAppDiskUsage: util.HashMap[String, java.lang.Long],
       highWorkload: Boolean,
       workerStatus: WorkerStatus,
+      heartbeatVersion: Long,
+      delta: Boolean,
+      baseHeartbeatVersion: Long,
+      removedDisks: util.Set[String],
+      removedUserIdentifiers: util.Set[UserIdentifier],
+      removedShuffleKeys: util.Set[String],
       requestId: String): Unit = {
     val targetWorker = new WorkerInfo(host, rpcPort, pushPort, fetchPort, replicatePort)
     val registered = statusSystem.workers.asScala.contains(targetWorker)
+    var requireFullHeartbeat = false
     if (!registered) {
       logWarning(s"Received heartbeat from unknown worker " +
         s"$host:$rpcPort:$pushPort:$fetchPort:$replicatePort.")
+      workerHeartbeatTracker.remove(targetWorker)
+    } else if (delta) {
+      statusSystem.handleWorkerHeartbeatDelta(
+        host,
+        rpcPort,
+        pushPort,
+        fetchPort,
+        replicatePort,
+        disks.map { disk => disk.mountPoint -> disk }.toMap.asJava,
+        removedDisks,
+        userResourceConsumption,
+        removedUserIdentifiers,
+        estimatedAppDiskUsage,
+        System.currentTimeMillis(),
+        highWorkload,
+        workerStatus,
+        requestId)
     } else {
       statusSystem.handleWorkerHeartbeat(
         host,
@@ -668,8 +710,27 @@ private[celeborn] class Master(
         requestId)
     }
 
+    // the shuffle keys of the workers sending delta heartbeats are tracked by version
+    val workerShuffleKeys =
+      if (registered && heartbeatVersion > 0) {
+        requireFullHeartbeat = workerHeartbeatTracker.update(
+          targetWorker,
+          heartbeatVersion,
+          delta,
+          baseHeartbeatVersion,
+          activeShuffleKeys,
+          removedShuffleKeys)
+        if (delta) workerHeartbeatTracker.getActiveShuffleKeys(targetWorker) else activeShuffleKeys
+      } else {
+        activeShuffleKeys
+      }
+    if (requireFullHeartbeat) {
+      logInfo(s"Base version $baseHeartbeatVersion of delta heartbeat from " +
+        s"${targetWorker.toUniqueId()} is not tracked, require full heartbeat.")
+    }
+
     val expiredShuffleKeys = new util.HashSet[String]
-    activeShuffleKeys.asScala.foreach { shuffleKey =>
+    workerShuffleKeys.asScala.foreach { shuffleKey =>
       if (!statusSystem.registeredShuffle.contains(shuffleKey)) {
         expiredShuffleKeys.add(shuffleKey)
       }
@@ -681,12 +742,14 @@ private[celeborn] class Master(
     if (workerEventInfo == null) {
       context.reply(HeartbeatFromWorkerResponse(
         expiredShuffleKeys,
-        registered))
+        registered,
+        requireFullHeartbeat = requireFullHeartbeat))
     } else {
       context.reply(HeartbeatFromWorkerResponse(
         expiredShuffleKeys,
         registered,
-        workerEventInfo.getEventType))
+        workerEventInfo.getEventType,
+        requireFullHeartbeat))
     }
   }
 
@@ -836,33 +899,51 @@ private[celeborn] class Master(
         startIndex + numWorkers - numAvailableWorkers))
     }
     // offer slots
-    val slots =
+    def offerSlots() =
       masterSource.sample(MasterSource.OFFER_SLOTS_TIME, s"offerSlots-${Random.nextInt()}") {
-        statusSystem.workers.synchronized {
-          if (slotsAssignPolicy == SlotsAssignPolicy.LOADAWARE) {
-            SlotsAllocator.offerSlotsLoadAware(
-              selectedWorkers,
-              requestSlots.partitionIdList,
-              requestSlots.shouldReplicate,
-              requestSlots.shouldRackAware,
-              diskReserveSize,
-              diskReserveRatio,
-              slotsAssignLoadAwareDiskGroupNum,
-              slotsAssignLoadAwareDiskGroupGradient,
-              loadAwareFlushTimeWeight,
-              loadAwareFetchTimeWeight,
-              requestSlots.availableStorageTypes)
-          } else {
-            SlotsAllocator.offerSlotsRoundRobin(
-              selectedWorkers,
-              requestSlots.partitionIdList,
-              requestSlots.shouldReplicate,
-              requestSlots.shouldRackAware,
-              requestSlots.availableStorageTypes)
-          }
+        val snapshotWorkers = workerDisksSnapshot.getWorkers(selectedWorkers)
+        if (slotsAssignPolicy == SlotsAssignPolicy.LOADAWARE) {
+          SlotsAllocator.offerSlotsLoadAware(
+            snapshotWorkers,
+            requestSlots.partitionIdList,
+            requestSlots.shouldReplicate,
+            requestSlots.shouldRackAware,
+            diskReserveSize,
+            diskReserveRatio,
+            slotsAssignLoadAwareDiskGroupNum,
+            slotsAssignLoadAwareDiskGroupGradient,
+            loadAwareFlushTimeWeight,
+            loadAwareFetchTimeWeight,
+            requestSlots.availableStorageTypes)
+        } else {
+          SlotsAllocator.offerSlotsRoundRobin(
+            snapshotWorkers,
+            requestSlots.partitionIdList,
+            requestSlots.shouldReplicate,
+            requestSlots.shouldRackAware,
+            requestSlots.availableStorageTypes)
         }
       }
 
+    // reserve the offered slots before replying, offer again if concurrent requests have
+    // reserved the available slots since they were offered
+    var slots = offerSlots()
+    var slotsPerDisk: util.Map[WorkerInfo, util.Map[String, Integer]] = null
+    var attempts = 1
+    while (slotsPerDisk == null && slots != null && !slots.isEmpty) {
+      val offeredSlotsPerDisk = Utils.getSlotsPerDisk(slots.asInstanceOf[WorkerResource])
+      if (workerDisksSnapshot.tryReserveSlots(offeredSlotsPerDisk)) {
+        slotsPerDisk = offeredSlotsPerDisk
+      } else if (attempts < offerSlotsMaxAttempts) {
+        attempts += 1
+        slots = offerSlots()
+      } else {
+        // the slots are offered beyond the available slots like when all of them are used
+        workerDisksSnapshot.reserveSlots(offeredSlotsPerDisk)
+        slotsPerDisk = offeredSlotsPerDisk
+      }
+    }
+
     if (log.isDebugEnabled()) {
       val distributions = SlotsAllocator.slotsToDiskAllocations(slots)
       logDebug(
@@ -884,8 +965,7 @@ private[celeborn] class Master(
     statusSystem.handleRequestSlots(
       shuffleKey,
       requestSlots.hostname,
-      Utils.getSlotsPerDisk(slots.asInstanceOf[WorkerResource])
-        .asScala.map { case (worker, slots) => worker.toUniqueId() -> slots }.asJava,
+      slotsPerDisk.asScala.map { case (worker, slots) => worker.toUniqueId() -> slots }.asJava,
       requestSlots.requestId)
 
     logInfo(s"Offer slots successfully for $numReducers reducers of $shuffleKey" +
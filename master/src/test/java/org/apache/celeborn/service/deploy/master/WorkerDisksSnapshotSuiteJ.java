@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.master;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.apache.celeborn.common.meta.DiskInfo;
+import org.apache.celeborn.common.meta.WorkerInfo;
+
+public class WorkerDisksSnapshotSuiteJ {
+
+  private WorkerInfo prepareWorker(long activeSlots) {
+    Map<String, DiskInfo> disks = new HashMap<>();
+    DiskInfo diskInfo = new DiskInfo("/mnt/disk1", 100 * 1024 * 1024 * 1024L, 10, 10, activeSlots);
+    diskInfo.maxSlots_$eq(1000);
+    disks.put("/mnt/disk1", diskInfo);
+    WorkerInfo worker = new WorkerInfo("host1", 9095, 9096, 9097, 9098, 9099, disks, null);
+    worker.networkLocation_$eq("/rack1");
+    worker.lastHeartbeat_$eq(1);
+    return worker;
+  }
+
+  private long availableSlots(WorkerInfo worker) {
+    return worker.diskInfos().get("/mnt/disk1").availableSlots();
+  }
+
+  @Test
+  public void testCopyWorkersUntilHeartbeat() {
+    WorkerDisksSnapshot snapshot = new WorkerDisksSnapshot();
+    WorkerInfo worker = prepareWorker(100);
+
+    WorkerInfo copy = snapshot.getWorkers(Collections.singletonList(worker)).get(0);
+    assertNotSame(worker, copy);
+    assertEquals(worker, copy);
+    assertEquals(worker.internalPort(), copy.internalPort());
+    assertEquals("/rack1", copy.networkLocation());
+    assertEquals(900, availableSlots(copy));
+    assertSame(copy, snapshot.getWorkers(Collections.singletonList(worker)).get(0));
+
+    // disks are copied again after a heartbeat
+    worker.diskInfos().get("/mnt/disk1").activeSlots_$eq(200);
+    worker.lastHeartbeat_$eq(2);
+    copy = snapshot.getWorkers(Collections.singletonList(worker)).get(0);
+    assertEquals(800, availableSlots(copy));
+  }
+
+  @Test
+  public void testReserveSlots() throws InterruptedException {
+    WorkerDisksSnapshot snapshot = new WorkerDisksSnapshot();
+    WorkerInfo worker = prepareWorker(0);
+    snapshot.getWorkers(Collections.singletonList(worker));
+
+    Map<WorkerInfo, Map<String, Integer>> slotsPerDisk = new HashMap<>();
+    slotsPerDisk.put(worker, Collections.singletonMap("/mnt/disk1", 1));
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 400; i++) {
+      executor.submit(() -> snapshot.reserveSlots(slotsPerDisk));
+    }
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+
+    WorkerInfo copy = snapshot.getWorkers(Collections.singletonList(worker)).get(0);
+    assertEquals(600, availableSlots(copy));
+    // the worker itself is not changed
+    assertEquals(1000, availableSlots(worker));
+
+    // the heartbeat reports the reserved slots as active slots
+    worker.diskInfos().get("/mnt/disk1").activeSlots_$eq(400);
+    worker.lastHeartbeat_$eq(2);
+    copy = snapshot.getWorkers(Collections.singletonList(worker)).get(0);
+    assertEquals(600, availableSlots(copy));
+  }
+
+  @Test
+  public void testCopyWorkersAfterMaxSlotsUpdate() {
+    WorkerDisksSnapshot snapshot = new WorkerDisksSnapshot();
+    WorkerInfo worker = prepareWorker(100);
+    WorkerInfo copy = snapshot.getWorkers(Collections.singletonList(worker)).get(0);
+    assertEquals(900, availableSlots(copy));
+
+    // the max slots are updated by the estimated partition size without a heartbeat
+    worker.diskInfos().get("/mnt/disk1").maxSlots_$eq(500);
+    copy = snapshot.getWorkers(Collections.singletonList(worker)).get(0);
+    assertEquals(400, availableSlots(copy));
+  }
+
+  @Test
+  public void testTryReserveSlots() throws InterruptedException {
+    WorkerDisksSnapshot snapshot = new WorkerDisksSnapshot();
+    WorkerInfo worker = prepareWorker(0);
+    snapshot.getWorkers(Collections.singletonList(worker));
+
+    Map<WorkerInfo, Map<String, Integer>> slotsPerDisk = new HashMap<>();
+    slotsPerDisk.put(worker, Collections.singletonMap("/mnt/disk1", 3));
+    AtomicInteger reserved = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 400; i++) {
+      executor.submit(
+          () -> {
+            if (snapshot.tryReserveSlots(slotsPerDisk)) {
+              reserved.incrementAndGet();
+            }
+          });
+    }
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+
+    // concurrent requests never reserve more than the available slots
+    assertEquals(333, reserved.get());
+    WorkerInfo copy = snapshot.getWorkers(Collections.singletonList(worker)).get(0);
+    assertEquals(1, availableSlots(copy));
+
+    // nothing is reserved if any disk does not have the slots
+    Map<String, DiskInfo> disks = new HashMap<>();
+    DiskInfo disk2 = new DiskInfo("/mnt/disk2", 100 * 1024 * 1024 * 1024L, 10, 10, 0);
+    disk2.maxSlots_$eq(1000);
+    disks.put("/mnt/disk1", worker.diskInfos().get("/mnt/disk1"));
+    disks.put("/mnt/disk2", disk2);
+    WorkerInfo worker2 = new WorkerInfo("host1", 9095, 9096, 9097, 9098, 9099, disks, null);
+    worker2.lastHeartbeat_$eq(2);
+    copy = snapshot.getWorkers(Collections.singletonList(worker2)).get(0);
+    Map<String, Integer> slots = new HashMap<>();
+    slots.put("/mnt/disk1", 1001);
+    slots.put("/mnt/disk2", 1);
+    assertFalse(snapshot.tryReserveSlots(Collections.singletonMap(worker2, slots)));
+    assertEquals(1000, copy.diskInfos().get("/mnt/disk2").availableSlots());
+    slots.put("/mnt/disk1", 1000);
+    assertTrue(snapshot.tryReserveSlots(Collections.singletonMap(worker2, slots)));
+    assertEquals(999, copy.diskInfos().get("/mnt/disk2").availableSlots());
+  }
+
+  @Test
+  public void testRetainWorkers() {
+    WorkerDisksSnapshot snapshot = new WorkerDisksSnapshot();
+    WorkerInfo worker = prepareWorker(0);
+    snapshot.getWorkers(Collections.singletonList(worker));
+    assertEquals(1, snapshot.size());
+
+    snapshot.retainWorkers(Collections.singletonList(worker));
+    assertEquals(1, snapshot.size());
+    snapshot.retainWorkers(Collections.emptyList());
+    assertEquals(0, snapshot.size());
+  }
+}
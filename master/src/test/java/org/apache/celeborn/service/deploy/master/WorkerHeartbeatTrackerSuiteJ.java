@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.master;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import org.apache.celeborn.common.meta.WorkerInfo;
+
+public class WorkerHeartbeatTrackerSuiteJ {
+
+  private final WorkerInfo worker = new WorkerInfo("host1", 9095, 9096, 9097, 9098);
+
+  private static Set<String> keys(String... keys) {
+    return new HashSet<>(Arrays.asList(keys));
+  }
+
+  @Test
+  public void testApplyDeltas() {
+    WorkerHeartbeatTracker tracker = new WorkerHeartbeatTracker();
+    assertFalse(tracker.update(worker, 1, false, 0, keys("app1-0", "app1-1"), keys()));
+    assertEquals(keys("app1-0", "app1-1"), tracker.getActiveShuffleKeys(worker));
+
+    assertFalse(tracker.update(worker, 2, true, 1, keys("app2-0"), keys("app1-0")));
+    assertEquals(keys("app1-1", "app2-0"), tracker.getActiveShuffleKeys(worker));
+
+    assertFalse(tracker.update(worker, 3, true, 2, keys(), keys("app1-1")));
+    assertEquals(keys("app2-0"), tracker.getActiveShuffleKeys(worker));
+
+    // a full heartbeat replaces the shuffle keys
+    assertFalse(tracker.update(worker, 4, false, 0, keys("app3-0"), keys()));
+    assertEquals(keys("app3-0"), tracker.getActiveShuffleKeys(worker));
+  }
+
+  @Test
+  public void testRequireFullHeartbeat() {
+    WorkerHeartbeatTracker tracker = new WorkerHeartbeatTracker();
+    // the worker is not tracked, e.g. the master is a new leader
+    assertTrue(tracker.update(worker, 5, true, 4, keys("app1-0"), keys()));
+    assertEquals(keys("app1-0"), tracker.getActiveShuffleKeys(worker));
+
+    // the response of heartbeat 6 is lost, so heartbeat 7 is based on heartbeat 5
+    assertFalse(tracker.update(worker, 6, true, 5, keys("app1-1"), keys()));
+    assertTrue(tracker.update(worker, 7, true, 5, keys("app1-2"), keys()));
+    assertEquals(keys("app1-0", "app1-1", "app1-2"), tracker.getActiveShuffleKeys(worker));
+
+    assertFalse(tracker.update(worker, 8, false, 0, keys("app1-2"), keys()));
+    assertFalse(tracker.update(worker, 9, true, 8, keys(), keys()));
+    assertEquals(keys("app1-2"), tracker.getActiveShuffleKeys(worker));
+  }
+
+  @Test
+  public void testRetainWorkers() {
+    WorkerHeartbeatTracker tracker = new WorkerHeartbeatTracker();
+    WorkerInfo worker2 = new WorkerInfo("host2", 9095, 9096, 9097, 9098);
+    tracker.update(worker, 1, false, 0, keys("app1-0"), keys());
+    tracker.update(worker2, 1, false, 0, keys("app1-0"), keys());
+    assertEquals(2, tracker.size());
+
+    tracker.retainWorkers(Collections.singletonList(worker2));
+    assertEquals(1, tracker.size());
+    assertTrue(tracker.getActiveShuffleKeys(worker).isEmpty());
+
+    tracker.remove(worker2);
+    assertEquals(0, tracker.size());
+  }
+}
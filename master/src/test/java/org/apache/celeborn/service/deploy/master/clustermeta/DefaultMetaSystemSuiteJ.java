@@ -36,6 +36,7 @@ import org.apache.celeborn.common.client.MasterClient;
 import org.apache.celeborn.common.identity.UserIdentifier;
 import org.apache.celeborn.common.meta.ApplicationMeta;
 import org.apache.celeborn.common.meta.DiskInfo;
+import org.apache.celeborn.common.meta.DiskStatus;
 import org.apache.celeborn.common.meta.WorkerInfo;
 import org.apache.celeborn.common.meta.WorkerStatus;
 import org.apache.celeborn.common.quota.ResourceConsumption;
@@ -666,6 +667,95 @@ public class DefaultMetaSystemSuiteJ {
     assertEquals(statusSystem.excludedWorkers.size(), 3);
   }
 
+  @Test
+  public void testHandleWorkerHeartbeatDelta() {
+    statusSystem.handleRegisterWorker(
+        HOSTNAME1,
+        RPCPORT1,
+        PUSHPORT1,
+        FETCHPORT1,
+        REPLICATEPORT1,
+        INTERNALPORT1,
+        NETWORK_LOCATION1,
+        disks1,
+        userResourceConsumption1,
+        getNewReqeustId());
+    WorkerInfo worker = statusSystem.workers.iterator().next();
+    UserIdentifier user1 = new UserIdentifier("tenant", "user1");
+    UserIdentifier user2 = new UserIdentifier("tenant", "user2");
+
+    Map<UserIdentifier, ResourceConsumption> consumptions = new HashMap<>();
+    consumptions.put(user1, new ResourceConsumption(1, 1, 1, 1, null));
+    consumptions.put(user2, new ResourceConsumption(2, 2, 2, 2, null));
+    statusSystem.handleWorkerHeartbeatDelta(
+        HOSTNAME1,
+        RPCPORT1,
+        PUSHPORT1,
+        FETCHPORT1,
+        REPLICATEPORT1,
+        Collections.singletonMap(
+            "disk1", new DiskInfo("disk1", 32 * 1024 * 1024 * 1024L, 100, 100, 10)),
+        new HashSet<>(Arrays.asList("disk2", "disk3")),
+        consumptions,
+        Collections.emptySet(),
+        new HashMap<>(),
+        1,
+        false,
+        workerStatus,
+        getNewReqeustId());
+
+    assertEquals(new HashSet<>(Arrays.asList("disk1", "disk4")), worker.diskInfos().keySet());
+    assertEquals(10, worker.diskInfos().get("disk1").activeSlots());
+    assertEquals(2, worker.userResourceConsumption().size());
+    assertEquals(1, worker.lastHeartbeat());
+    assertEquals(0, statusSystem.excludedWorkers.size());
+
+    // the unchanged disk4 is still healthy, so the worker is not excluded
+    DiskInfo unhealthyDisk = new DiskInfo("disk1", 0, 100, 100, 0);
+    unhealthyDisk.setStatus(DiskStatus.HIGH_DISK_USAGE);
+    statusSystem.handleWorkerHeartbeatDelta(
+        HOSTNAME1,
+        RPCPORT1,
+        PUSHPORT1,
+        FETCHPORT1,
+        REPLICATEPORT1,
+        Collections.singletonMap("disk1", unhealthyDisk),
+        Collections.emptySet(),
+        Collections.emptyMap(),
+        Collections.singleton(user2),
+        new HashMap<>(),
+        2,
+        false,
+        workerStatus,
+        getNewReqeustId());
+
+    assertEquals(2, worker.diskInfos().size());
+    assertEquals(
+        new ResourceConsumption(1, 1, 1, 1, null), worker.userResourceConsumption().get(user1));
+    assertEquals(
+        new ResourceConsumption(0, 0, 0, 0, null), worker.userResourceConsumption().get(user2));
+    assertEquals(0, statusSystem.excludedWorkers.size());
+
+    statusSystem.handleWorkerHeartbeatDelta(
+        HOSTNAME1,
+        RPCPORT1,
+        PUSHPORT1,
+        FETCHPORT1,
+        REPLICATEPORT1,
+        Collections.emptyMap(),
+        Collections.singleton("disk4"),
+        Collections.emptyMap(),
+        Collections.emptySet(),
+        new HashMap<>(),
+        3,
+        false,
+        workerStatus,
+        getNewReqeustId());
+
+    assertEquals(1, worker.diskInfos().size());
+    assertEquals(1, statusSystem.excludedWorkers.size());
+  }
+
   @Test
   public void testHandleReportWorkerFailure() {
     statusSystem.handleRegisterWorker(
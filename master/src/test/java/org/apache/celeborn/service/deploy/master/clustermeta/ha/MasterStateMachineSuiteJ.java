@@ -21,6 +21,7 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -39,6 +40,7 @@ import org.apache.celeborn.common.CelebornConf;
 import org.apache.celeborn.common.client.MasterClient;
 import org.apache.celeborn.common.identity.UserIdentifier;
 import org.apache.celeborn.common.meta.AppDiskUsageSnapShot;
+import org.apache.celeborn.common.meta.ApplicationMeta;
 import org.apache.celeborn.common.meta.DiskInfo;
 import org.apache.celeborn.common.meta.WorkerInfo;
 import org.apache.celeborn.common.quota.ResourceConsumption;
@@ -50,6 +52,7 @@ import org.apache.celeborn.service.deploy.master.clustermeta.ResourceProtos.Requ
 import org.apache.celeborn.service.deploy.master.clustermeta.ResourceProtos.ResourceRequest;
 import org.apache.celeborn.service.deploy.master.clustermeta.ResourceProtos.ResourceResponse;
 import org.apache.celeborn.service.deploy.master.clustermeta.ResourceProtos.Type;
+import org.apache.celeborn.service.deploy.master.clustermeta.SectionedSnapshotFile;
 
 public class MasterStateMachineSuiteJ extends RatisBaseSuiteJ {
 
@@ -92,6 +95,48 @@ public class MasterStateMachineSuiteJ extends RatisBaseSuiteJ {
     Assert.assertTrue(response.getSuccess());
   }
 
+  @Test
+  public void testRunBatchCommand() {
+    StateMachine stateMachine = ratisServer.getMasterStateMachine();
+
+    ResourceRequest appHeartbeat =
+        ResourceRequest.newBuilder()
+            .setCmdType(Type.AppHeartbeat)
+            .setAppHeartbeatRequest(
+                ResourceProtos.AppHeartbeatRequest.newBuilder()
+                    .setAppId("appId-1")
+                    .setTime(1)
+                    .setTotalWritten(10)
+                    .setFileCount(1)
+                    .build())
+            .build();
+    ResourceRequest unregisterShuffle =
+        ResourceRequest.newBuilder()
+            .setCmdType(Type.UnRegisterShuffle)
+            .setUnregisterShuffleRequest(
+                ResourceProtos.UnregisterShuffleRequest.newBuilder()
+                    .setShuffleKey("appId-1-1")
+                    .build())
+            .build();
+    ResourceRequest request =
+        ResourceRequest.newBuilder()
+            .setCmdType(Type.Batch)
+            .setBatchRequest(
+                ResourceProtos.BatchRequest.newBuilder()
+                    .addRequests(appHeartbeat)
+                    .addRequests(unregisterShuffle)
+                    .build())
+            .build();
+
+    ResourceResponse response = stateMachine.runCommand(request, -1);
+    Assert.assertTrue(response.getSuccess());
+    Assert.assertEquals(2, response.getBatchResponse().getResponsesCount());
+    Assert.assertEquals(
+        Type.AppHeartbeat, response.getBatchResponse().getResponses(0).getCmdType());
+    Assert.assertEquals(
+        Type.UnRegisterShuffle, response.getBatchResponse().getResponses(1).getCmdType());
+  }
+
   @Test
   public void testTakeSnapshot() {
     final StateMachine stateMachine = ratisServer.getMasterStateMachine();
@@ -263,6 +308,78 @@ public class MasterStateMachineSuiteJ extends RatisBaseSuiteJ {
     Assert.assertEquals(3, masterStatusSystem.workers.size());
   }
 
+  @Test
+  public void testSectionedObjSerde() throws IOException {
+    CelebornConf conf = new CelebornConf();
+    conf.set(CelebornConf.HA_MASTER_RATIS_SNAPSHOT_SECTIONED_ENABLED().key(), "true");
+    conf.set(CelebornConf.HA_MASTER_RATIS_SNAPSHOT_SECTION_MAX_ENTRIES().key(), "2");
+    HAMasterMetaManager masterStatusSystem = new HAMasterMetaManager(null, conf);
+    File tmpFile = File.createTempFile("tef", "test" + System.currentTimeMillis());
+
+    for (int i = 1; i <= 5; i++) {
+      WorkerInfo worker = new WorkerInfo("host" + i, 9095, 9094, 9093, 9092, 9091);
+      masterStatusSystem.workers.add(worker);
+      masterStatusSystem.hostnameSet.add("host" + i);
+      masterStatusSystem.registeredShuffle.add("appId" + i + "-1");
+      masterStatusSystem.appHeartbeatTime.put("appId" + i, (long) i);
+      masterStatusSystem.applicationMetas.put(
+          "appId" + i, new ApplicationMeta("appId" + i, "secret" + i));
+      if (i % 2 == 0) {
+        masterStatusSystem.excludedWorkers.add(worker);
+        masterStatusSystem.lostWorkers.put(worker, (long) i);
+      }
+    }
+    masterStatusSystem.estimatedPartitionSize = 1024;
+    masterStatusSystem.partitionTotalWritten.add(4096);
+    masterStatusSystem.partitionTotalFileCount.add(4);
+
+    masterStatusSystem.writeMetaInfoToFile(tmpFile);
+    Assert.assertTrue(SectionedSnapshotFile.isSectioned(tmpFile));
+    // sections of at most 2 entries of every kind of meta after the scalar section
+    Assert.assertEquals(18, SectionedSnapshotFile.readSections(tmpFile, 4).size());
+
+    HAMasterMetaManager restoredStatusSystem = new HAMasterMetaManager(null, conf);
+    restoredStatusSystem.restoreMetaFromFile(tmpFile);
+    Assert.assertEquals(masterStatusSystem.workers, restoredStatusSystem.workers);
+    Assert.assertEquals(masterStatusSystem.hostnameSet, restoredStatusSystem.hostnameSet);
+    Assert.assertEquals(
+        masterStatusSystem.registeredShuffle, restoredStatusSystem.registeredShuffle);
+    Assert.assertEquals(masterStatusSystem.appHeartbeatTime, restoredStatusSystem.appHeartbeatTime);
+    Assert.assertEquals(masterStatusSystem.excludedWorkers, restoredStatusSystem.excludedWorkers);
+    Assert.assertEquals(masterStatusSystem.lostWorkers, restoredStatusSystem.lostWorkers);
+    Assert.assertEquals(5, restoredStatusSystem.applicationMetas.size());
+    Assert.assertEquals("secret3", restoredStatusSystem.applicationMetas.get("appId3").secret());
+    Assert.assertEquals(1024, restoredStatusSystem.estimatedPartitionSize);
+    Assert.assertEquals(4096, restoredStatusSystem.partitionTotalWritten.sum());
+    Assert.assertEquals(4, restoredStatusSystem.partitionTotalFileCount.sum());
+
+    // snapshots of the previous format are still loaded
+    HAMasterMetaManager unsectionedStatusSystem =
+        new HAMasterMetaManager(
+            null,
+            new CelebornConf()
+                .set(CelebornConf.HA_MASTER_RATIS_SNAPSHOT_SECTIONED_ENABLED().key(), "false"));
+    unsectionedStatusSystem.workers.addAll(masterStatusSystem.workers);
+    unsectionedStatusSystem.writeMetaInfoToFile(tmpFile);
+    Assert.assertFalse(SectionedSnapshotFile.isSectioned(tmpFile));
+    restoredStatusSystem.restoreMetaFromFile(tmpFile);
+    Assert.assertEquals(masterStatusSystem.workers, restoredStatusSystem.workers);
+    Assert.assertTrue(restoredStatusSystem.hostnameSet.isEmpty());
+
+    // corrupted sections fail the checksum
+    masterStatusSystem.writeMetaInfoToFile(tmpFile);
+    byte[] bytes = Files.readAllBytes(tmpFile.toPath());
+    bytes[bytes.length - 8] ^= 0x1;
+    Files.write(tmpFile.toPath(), bytes);
+    try {
+      restoredStatusSystem.restoreMetaFromFile(tmpFile);
+      Assert.fail("Corrupted snapshot should not be restored");
+    } catch (IOException e) {
+      // expected
+    }
+    tmpFile.delete();
+  }
+
   private String getNewReqeustId() {
     return MasterClient.encodeRequestId(UUID.randomUUID().toString(), callerId.incrementAndGet());
   }
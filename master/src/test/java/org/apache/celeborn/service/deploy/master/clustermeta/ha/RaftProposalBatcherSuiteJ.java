@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.master.clustermeta.ha;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.celeborn.service.deploy.master.clustermeta.ResourceProtos;
+import org.apache.celeborn.service.deploy.master.clustermeta.ResourceProtos.ResourceRequest;
+import org.apache.celeborn.service.deploy.master.clustermeta.ResourceProtos.ResourceResponse;
+import org.apache.celeborn.service.deploy.master.clustermeta.ResourceProtos.Type;
+
+public class RaftProposalBatcherSuiteJ {
+
+  private final List<ResourceRequest> proposed = new ArrayList<>();
+
+  // applies the proposed requests by echoing their types
+  private CompletableFuture<ResourceResponse> propose(ResourceRequest request) {
+    synchronized (proposed) {
+      proposed.add(request);
+    }
+    ResourceResponse.Builder builder = MetaHandler.getMasterMetaResponseBuilder(request);
+    if (request.getCmdType() == Type.Batch) {
+      ResourceProtos.BatchResponse.Builder batchBuilder = ResourceProtos.BatchResponse.newBuilder();
+      for (ResourceRequest batched : request.getBatchRequest().getRequestsList()) {
+        batchBuilder.addResponses(
+            MetaHandler.getMasterMetaResponseBuilder(batched)
+                .setMessage(String.valueOf(getTime(batched))));
+      }
+      builder.setBatchResponse(batchBuilder);
+    }
+    return CompletableFuture.completedFuture(builder.build());
+  }
+
+  private static long getTime(ResourceRequest request) {
+    switch (request.getCmdType()) {
+      case WorkerHeartbeat:
+        return request.getWorkerHeartbeatRequest().getTime();
+      case AppHeartbeat:
+        return request.getAppHeartbeatRequest().getTime();
+      default:
+        return -1;
+    }
+  }
+
+  private static ResourceRequest workerHeartbeat(String host, long time) {
+    return ResourceRequest.newBuilder()
+        .setCmdType(Type.WorkerHeartbeat)
+        .setWorkerHeartbeatRequest(
+            ResourceProtos.WorkerHeartbeatRequest.newBuilder()
+                .setHost(host)
+                .setRpcPort(1)
+                .setPushPort(2)
+                .setFetchPort(3)
+                .setReplicatePort(4)
+                .setTime(time)
+                .setHighWorkload(false)
+                .build())
+        .build();
+  }
+
+  private static ResourceRequest appHeartbeat(String appId, long time) {
+    return ResourceRequest.newBuilder()
+        .setCmdType(Type.AppHeartbeat)
+        .setAppHeartbeatRequest(
+            ResourceProtos.AppHeartbeatRequest.newBuilder()
+                .setAppId(appId)
+                .setTime(time)
+                .setTotalWritten(0)
+                .setFileCount(0)
+                .build())
+        .build();
+  }
+
+  @Test
+  public void testBatchRequests() throws ExecutionException, InterruptedException {
+    // the batch is proposed once it is full
+    RaftProposalBatcher batcher = new RaftProposalBatcher(this::propose, 3, 60000);
+    batcher.start();
+    try {
+      List<CompletableFuture<ResourceResponse>> futures = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        futures.add(batcher.propose(appHeartbeat("app" + i, i)));
+      }
+      for (int i = 0; i < 3; i++) {
+        ResourceResponse response = futures.get(i).get();
+        Assert.assertEquals(Type.AppHeartbeat, response.getCmdType());
+        Assert.assertEquals(String.valueOf(i), response.getMessage());
+      }
+      Assert.assertEquals(1, proposed.size());
+      Assert.assertEquals(Type.Batch, proposed.get(0).getCmdType());
+      Assert.assertEquals(3, proposed.get(0).getBatchRequest().getRequestsCount());
+    } finally {
+      batcher.stop();
+    }
+  }
+
+  @Test
+  public void testDeduplicateWorkerHeartbeats() throws ExecutionException, InterruptedException {
+    RaftProposalBatcher batcher = new RaftProposalBatcher(this::propose, 4, 60000);
+    batcher.start();
+    try {
+      CompletableFuture<ResourceResponse> future1 = batcher.propose(workerHeartbeat("host1", 1));
+      CompletableFuture<ResourceResponse> future2 = batcher.propose(workerHeartbeat("host2", 2));
+      CompletableFuture<ResourceResponse> future3 = batcher.propose(workerHeartbeat("host1", 3));
+      CompletableFuture<ResourceResponse> future4 = batcher.propose(appHeartbeat("app1", 4));
+
+      // both heartbeats of host1 get the response of the later one
+      Assert.assertEquals("3", future1.get().getMessage());
+      Assert.assertEquals("2", future2.get().getMessage());
+      Assert.assertEquals("3", future3.get().getMessage());
+      Assert.assertEquals("4", future4.get().getMessage());
+
+      Assert.assertEquals(1, proposed.size());
+      List<ResourceRequest> requests = proposed.get(0).getBatchRequest().getRequestsList();
+      Assert.assertEquals(3, requests.size());
+      // the later heartbeat of host1 stays after the heartbeat of host2
+      Assert.assertEquals("host2", requests.get(0).getWorkerHeartbeatRequest().getHost());
+      Assert.assertEquals(3, requests.get(1).getWorkerHeartbeatRequest().getTime());
+      Assert.assertEquals(Type.AppHeartbeat, requests.get(2).getCmdType());
+    } finally {
+      batcher.stop();
+    }
+  }
+
+  @Test
+  public void testProposeSingleRequestAsIs() throws ExecutionException, InterruptedException {
+    // the batch is proposed after the max delay
+    RaftProposalBatcher batcher = new RaftProposalBatcher(this::propose, 100, 10);
+    batcher.start();
+    try {
+      ResourceResponse response = batcher.propose(appHeartbeat("app1", 1)).get();
+      Assert.assertEquals(Type.AppHeartbeat, response.getCmdType());
+      Assert.assertFalse(response.hasBatchResponse());
+      Assert.assertEquals(1, proposed.size());
+      Assert.assertEquals(Type.AppHeartbeat, proposed.get(0).getCmdType());
+    } finally {
+      batcher.stop();
+    }
+  }
+
+  @Test
+  public void testFailBatchedRequests() throws InterruptedException {
+    RaftProposalBatcher batcher =
+        new RaftProposalBatcher(
+            request -> {
+              CompletableFuture<ResourceResponse> future = new CompletableFuture<>();
+              future.completeExceptionally(new IllegalStateException("not leader"));
+              return future;
+            },
+            2,
+            60000);
+    batcher.start();
+    try {
+      CompletableFuture<ResourceResponse> future1 = batcher.propose(appHeartbeat("app1", 1));
+      CompletableFuture<ResourceResponse> future2 = batcher.propose(appHeartbeat("app2", 2));
+      for (CompletableFuture<ResourceResponse> future : Arrays.asList(future1, future2)) {
+        try {
+          future.get();
+          Assert.fail("batched request should fail");
+        } catch (ExecutionException e) {
+          Assert.assertEquals("not leader", e.getCause().getMessage());
+        }
+      }
+    } finally {
+      batcher.stop();
+    }
+    Assert.assertTrue(batcher.propose(appHeartbeat("app3", 3)).isCompletedExceptionally());
+  }
+
+  @Test
+  public void testBatchedTypes() {
+    Assert.assertTrue(RaftProposalBatcher.isBatched(workerHeartbeat("host1", 1)));
+    // applying the partition totals again is not idempotent
+    Assert.assertFalse(RaftProposalBatcher.isBatched(appHeartbeat("app1", 1)));
+    Assert.assertFalse(
+        RaftProposalBatcher.isBatched(
+            ResourceRequest.newBuilder()
+                .setCmdType(Type.AppLost)
+                .setAppLostRequest(
+                    ResourceProtos.AppLostRequest.newBuilder().setAppId("app1").build())
+                .build()));
+    // applying the used slots again is not idempotent
+    Assert.assertFalse(
+        RaftProposalBatcher.isBatched(
+            ResourceRequest.newBuilder()
+                .setCmdType(Type.RequestSlots)
+                .setRequestSlotsRequest(
+                    ResourceProtos.RequestSlotsRequest.newBuilder()
+                        .setShuffleKey("app1-0")
+                        .setHostName("host1")
+                        .build())
+                .build()));
+  }
+}
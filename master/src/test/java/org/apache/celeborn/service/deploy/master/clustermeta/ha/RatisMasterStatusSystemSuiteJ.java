@@ -852,6 +852,27 @@ public class RatisMasterStatusSystemSuiteJ {
     Assert.assertEquals(2, STATUSSYSTEM3.appHeartbeatTime.size());
   }
 
+  @Test
+  public void testRetryAppHeartbeat() throws InterruptedException {
+    AbstractMetaManager statusSystem = pickLeaderStatusSystem();
+    Assert.assertNotNull(statusSystem);
+    for (AbstractMetaManager system : Arrays.asList(STATUSSYSTEM1, STATUSSYSTEM2, STATUSSYSTEM3)) {
+      system.partitionTotalWritten.reset();
+      system.partitionTotalFileCount.reset();
+    }
+
+    // the retried heartbeat is replied from the retry cache instead of applied again
+    String requestId = getNewReqeustId();
+    statusSystem.handleAppHeartbeat(APPID1, 1000, 10, 1235L, requestId);
+    statusSystem.handleAppHeartbeat(APPID1, 1000, 10, 1235L, requestId);
+    Thread.sleep(3000L);
+
+    for (AbstractMetaManager system : Arrays.asList(STATUSSYSTEM1, STATUSSYSTEM2, STATUSSYSTEM3)) {
+      Assert.assertEquals(1000, system.partitionTotalWritten.sum());
+      Assert.assertEquals(10, system.partitionTotalFileCount.sum());
+    }
+  }
+
   @Test
   public void testHandleWorkerHeartbeat() throws InterruptedException {
     AbstractMetaManager statusSystem = pickLeaderStatusSystem();
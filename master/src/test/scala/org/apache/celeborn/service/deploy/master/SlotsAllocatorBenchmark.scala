@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.master
+
+import java.util
+import java.util.concurrent.{Callable, Executors, TimeUnit}
+
+import scala.collection.JavaConverters._
+import scala.util.Random
+
+import org.apache.celeborn.benchmark.{Benchmark, BenchmarkBase}
+import org.apache.celeborn.common.CelebornConf
+import org.apache.celeborn.common.meta.{DiskInfo, WorkerInfo}
+import org.apache.celeborn.common.protocol.{PartitionLocation, StorageInfo}
+import org.apache.celeborn.common.protocol.message.ControlMessages.WorkerResource
+import org.apache.celeborn.common.util.Utils
+
+/**
+ * Slots allocator benchmark, offering slots of concurrent requests on 1000 workers under the lock
+ * of the workers like before, or on the snapshot of the workers without the lock. 10% of the
+ * workers heartbeat in every iteration. Both cases count the offered slots per disk like the
+ * master does, which the snapshot reserves.
+ * The per row column is the time of one request.
+ * To run this benchmark:
+ * {{{
+ *   1. build/sbt "celeborn-master/test:runMain <this class>"
+ *   2. generate result:
+ *      CELEBORN_GENERATE_BENCHMARK_FILES=1 build/sbt "celeborn-master/test:runMain <this class>"
+ *      Results will be written to "benchmarks/SlotsAllocatorBenchmark-results.txt".
+ * }}}
+ */
+object SlotsAllocatorBenchmark extends BenchmarkBase {
+
+  private val numWorkers = 1000
+  private val numDisks = 4
+  private val numRequests = 500
+  private val numPartitions = 200
+  private val conf = new CelebornConf()
+
+  private def createWorkers(): util.List[WorkerInfo] = {
+    (0 until numWorkers).map { i =>
+      val disks = new util.HashMap[String, DiskInfo]()
+      (0 until numDisks).foreach { d =>
+        val disk = new DiskInfo(
+          s"/mnt/disk$d",
+          1024L * 1024 * 1024 * 1024,
+          Random.nextInt(1000),
+          Random.nextInt(1000),
+          0,
+          StorageInfo.Type.SSD)
+        disk.maxSlots = 1000000
+        disks.put(disk.mountPoint, disk)
+      }
+      val worker = new WorkerInfo(s"host$i", 1, 2, 3, 4, 5, disks, null)
+      worker.networkLocation = s"/rack${i % 20}"
+      worker.lastHeartbeat = 1
+      worker
+    }.asJava
+  }
+
+  private def offerSlots(
+      workers: util.List[WorkerInfo],
+      loadAware: Boolean)
+      : util.Map[WorkerInfo, (util.List[PartitionLocation], util.List[PartitionLocation])] = {
+    val partitionIds = (0 until numPartitions).map(Integer.valueOf).asJava
+    if (loadAware) {
+      SlotsAllocator.offerSlotsLoadAware(
+        workers,
+        partitionIds,
+        true,
+        false,
+        conf.workerDiskReserveSize,
+        conf.workerDiskReserveRatio,
+        conf.masterSlotAssignLoadAwareDiskGroupNum,
+        conf.masterSlotAssignLoadAwareDiskGroupGradient,
+        conf.masterSlotAssignLoadAwareFlushTimeWeight,
+        conf.masterSlotAssignLoadAwareFetchTimeWeight,
+        StorageInfo.ALL_TYPES_AVAILABLE_MASK)
+    } else {
+      SlotsAllocator.offerSlotsRoundRobin(
+        workers,
+        partitionIds,
+        true,
+        false,
+        StorageInfo.ALL_TYPES_AVAILABLE_MASK)
+    }
+  }
+
+  def test(loadAware: Boolean, numThreads: Int): Unit = {
+    val policy = if (loadAware) "load aware" else "round robin"
+    val name = s"$policy offer slots of $numRequests requests by $numThreads threads"
+    runBenchmark(name) {
+      val workers = createWorkers()
+      val pool = Executors.newFixedThreadPool(numThreads)
+      val benchmark = new Benchmark(name, numRequests, output = output, resultOutput = resultOutput)
+
+      def addCase(caseName: String)(offer: => Unit): Unit = {
+        benchmark.addTimerCase(caseName) { timer =>
+          workers.asScala.take(numWorkers / 10).foreach(w => w.lastHeartbeat += 1)
+          val requests = (0 until numRequests).map { _ =>
+            new Callable[Unit] {
+              override def call(): Unit = offer
+            }
+          }.asJava
+          timer.startTiming()
+          pool.invokeAll(requests).asScala.foreach(_.get())
+          timer.stopTiming()
+        }
+      }
+
+      addCase("workers lock") {
+        val slots = workers.synchronized {
+          offerSlots(workers, loadAware)
+        }
+        Utils.getSlotsPerDisk(slots.asInstanceOf[WorkerResource])
+      }
+      val snapshot = new WorkerDisksSnapshot
+      addCase("workers snapshot") {
+        val slots = offerSlots(snapshot.getWorkers(workers), loadAware)
+        snapshot.reserveSlots(Utils.getSlotsPerDisk(slots.asInstanceOf[WorkerResource]))
+      }
+      benchmark.run()
+
+      pool.shutdown()
+      pool.awaitTermination(1, TimeUnit.MINUTES)
+    }
+  }
+
+  override def runBenchmarkSuite(mainArgs: Array[String]): Unit = {
+    Seq(true, false).foreach { loadAware =>
+      Seq(1, 8, 64).foreach(test(loadAware, _))
+    }
+  }
+}
@@ -23,6 +23,8 @@ import scala.util.Properties
 import scala.xml._
 import scala.xml.transform._
 
+import pl.project13.scala.sbt.JmhPlugin
+import pl.project13.scala.sbt.JmhPlugin.JmhKeys._
 import sbtassembly.AssemblyPlugin.autoImport._
 import sbtprotoc.ProtocPlugin.autoImport._
 
@@ -47,6 +49,7 @@ object Dependencies {
   val findbugsVersion = "1.3.9"
   val guavaVersion = "33.1.0-jre"
   val hadoopVersion = "3.3.6"
+  val jmhVersion = "1.37"
   val junitInterfaceVersion = "0.13.3"
   // don't forget update `junitInterfaceVersion` when we upgrade junit
   val junitVersion = "4.13.2"
@@ -56,6 +59,7 @@ object Dependencies {
   val metricsVersion = "4.2.25"
   val mockitoVersion = "4.11.0"
   val nettyVersion = "4.1.109.Final"
+  val nettyIoUringVersion = "0.0.25.Final"
   val ratisVersion = "3.0.1"
   val roaringBitmapVersion = "1.0.6"
   val rocksdbJniVersion = "8.11.3"
@@ -112,6 +116,9 @@ object Dependencies {
   val ioDropwizardMetricsJvm = "io.dropwizard.metrics" % "metrics-jvm" % metricsVersion
   val ioNetty = "io.netty" % "netty-all" % nettyVersion excludeAll(
     ExclusionRule("io.netty", "netty-handler-ssl-ocsp"))
+  val nettyIoUring = ("io.netty.incubator" % "netty-incubator-transport-native-io_uring" % nettyIoUringVersion)
+    .classifier("linux-x86_64")
+    .classifier("linux-aarch_64") % "test"
   val leveldbJniGroup = if (System.getProperty("os.name").startsWith("Linux")
     && System.getProperty("os.arch").equals("aarch64")) {
     // use org.openlabtesting.leveldbjni on aarch64 platform except MacOS
@@ -331,7 +338,8 @@ object CelebornBuild extends sbt.internal.BuildDef {
       CelebornClient.client,
       CelebornService.service,
       CelebornWorker.worker,
-      CelebornMaster.master) ++ maybeSparkClientModules ++ maybeFlinkClientModules ++ maybeMRClientModules
+      CelebornMaster.master,
+      CelebornBenchmarks.benchmarks) ++ maybeSparkClientModules ++ maybeFlinkClientModules ++ maybeMRClientModules
   }
 
   // ThisBuild / parallelExecution := false
@@ -455,7 +463,9 @@ object CelebornCommon {
         Dependencies.log4j12Api % "test",
         // SSL support
         Dependencies.bouncycastleBcprovJdk18on,
-        Dependencies.bouncycastleBcpkixJdk18on
+        Dependencies.bouncycastleBcpkixJdk18on,
+        // io_uring transport
+        Dependencies.nettyIoUring
       ) ++ commonUnitTestDependencies,
 
       Compile / sourceGenerators += Def.task {
@@ -585,6 +595,25 @@ object CelebornWorker {
     )
 }
 
+object CelebornBenchmarks {
+  lazy val benchmarks = Project("celeborn-benchmarks", file("benchmarks"))
+    .enablePlugins(JmhPlugin)
+    .dependsOn(CelebornCommon.common)
+    .dependsOn(CelebornClient.client)
+    .dependsOn(CelebornMaster.master)
+    // the mini cluster of the worker tests
+    .dependsOn(CelebornWorker.worker % "compile->test;compile->compile")
+    .settings (
+      commonSettings,
+      Jmh / version := Dependencies.jmhVersion,
+      publish / skip := true,
+      libraryDependencies ++= Seq(
+        Dependencies.ioNetty,
+        Dependencies.log4jSlf4jImpl
+      )
+    )
+}
+
 ////////////////////////////////////////////////////////
 //                   Spark Client                     //
 ////////////////////////////////////////////////////////
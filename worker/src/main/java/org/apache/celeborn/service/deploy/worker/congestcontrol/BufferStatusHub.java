@@ -17,75 +17,117 @@
 
 package org.apache.celeborn.service.deploy.worker.congestcontrol;
 
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.LongAdder;
 
-import org.apache.commons.lang3.tuple.Pair;
+import com.google.common.annotations.VisibleForTesting;
 
-public class BufferStatusHub extends TimeSlidingHub<BufferStatusHub.BufferStatusNode> {
+/**
+ * Counts the bytes of the last timeWindowsInSecs seconds in a ring of per-second buckets.
+ *
+ * <p>A bucket holds the bytes of the second it is stamped with. A byte count of a second is added
+ * to its bucket without lock or allocation, and the first count of a second claims the bucket from
+ * the second a window earlier and resets it. Counts of seconds out of the window are ignored, so
+ * are the buckets stamped with them when the window is read.
+ */
+public class BufferStatusHub {
 
-  public static class BufferStatusNode implements TimeSlidingHub.TimeSlidingNode {
+  // 1 second.
+  protected static final int intervalPerBucketInMills = 1000;
 
-    private final LongAdder numBytes;
+  // the stamp of a bucket never used, and of a bucket being reset for a new second
+  private static final long EMPTY = Long.MIN_VALUE;
+  private static final long CLAIMED = -1L;
 
-    public BufferStatusNode(long numBytes) {
-      this.numBytes = new LongAdder();
-      if (numBytes != 0L) {
-        this.numBytes.add(numBytes);
-      }
-    }
+  private final int numBuckets;
+  private final AtomicLongArray bucketSeconds;
+  private final LongAdder[] bucketBytes;
 
-    public BufferStatusNode() {
-      this(0);
+  public BufferStatusHub(int timeWindowsInSecs) {
+    this.numBuckets = timeWindowsInSecs * 1000 / intervalPerBucketInMills;
+    this.bucketSeconds = new AtomicLongArray(numBuckets);
+    this.bucketBytes = new LongAdder[numBuckets];
+    for (int i = 0; i < numBuckets; i++) {
+      bucketSeconds.set(i, EMPTY);
+      bucketBytes[i] = new LongAdder();
     }
+  }
 
-    @Override
-    public void combineNode(TimeSlidingNode node) {
-      BufferStatusNode needToCombined = (BufferStatusNode) node;
-      long nodeNumBytes = needToCombined.numBytes();
-      if (nodeNumBytes != 0) {
-        numBytes.add(nodeNumBytes);
-      }
-    }
+  public void add(long numBytes) {
+    add(currentTimeMillis(), numBytes);
+  }
 
-    @Override
-    public void separateNode(TimeSlidingNode node) {
-      BufferStatusNode needToSeparate = (BufferStatusNode) node;
-      long nodeNumBytes = needToSeparate.numBytes();
-      if (nodeNumBytes != 0) {
-        numBytes.add(-nodeNumBytes);
+  public void add(long currentTimestamp, long numBytes) {
+    long second = currentTimestamp / intervalPerBucketInMills;
+    int index = (int) (second % numBuckets);
+    while (true) {
+      long bucketSecond = bucketSeconds.get(index);
+      if (bucketSecond == second) {
+        bucketBytes[index].add(numBytes);
+        return;
+      } else if (bucketSecond == CLAIMED) {
+        // another thread is resetting the bucket for a new second
+        Thread.yield();
+      } else if (bucketSecond > second) {
+        // Out of the time window, ignore this value
+        return;
+      } else if (bucketSeconds.compareAndSet(index, bucketSecond, CLAIMED)) {
+        bucketBytes[index].reset();
+        bucketBytes[index].add(numBytes);
+        bucketSeconds.set(index, second);
+        return;
       }
     }
+  }
 
-    @Override
-    public TimeSlidingNode clone() {
-      return new BufferStatusNode(numBytes());
+  /** The bytes of the time window. */
+  public long sum() {
+    long currentSecond = currentTimeMillis() / intervalPerBucketInMills;
+    long sum = 0L;
+    for (int i = 0; i < numBuckets; i++) {
+      if (inWindow(bucketSeconds.get(i), currentSecond)) {
+        sum += bucketBytes[i].sum();
+      }
     }
+    return sum;
+  }
 
-    public long numBytes() {
-      return numBytes.sum();
+  /**
+   * The average bytes per second of the time window, since the earliest second with bytes if the
+   * window is not filled yet.
+   */
+  public long avgBytesPerSec() {
+    long currentSecond = currentTimeMillis() / intervalPerBucketInMills;
+    long sum = 0L;
+    long earliestSecond = currentSecond;
+    for (int i = 0; i < numBuckets; i++) {
+      long bucketSecond = bucketSeconds.get(i);
+      if (inWindow(bucketSecond, currentSecond)) {
+        sum += bucketBytes[i].sum();
+        earliestSecond = Math.min(earliestSecond, bucketSecond);
+      }
     }
-
-    @Override
-    public String toString() {
-      return String.format("BufferStatusNode: {bytes: %s}", numBytes.sum());
+    if (sum > 0) {
+      return sum / (currentSecond - earliestSecond + 1);
     }
+    return 0L;
   }
 
-  public BufferStatusHub(int timeWindowsInSecs) {
-    super(timeWindowsInSecs);
+  private boolean inWindow(long bucketSecond, long currentSecond) {
+    return bucketSecond != CLAIMED
+        && bucketSecond <= currentSecond
+        && bucketSecond > currentSecond - numBuckets;
   }
 
-  @Override
-  protected BufferStatusNode newEmptyNode() {
-    return new BufferStatusNode();
+  public void clear() {
+    for (int i = 0; i < numBuckets; i++) {
+      bucketSeconds.set(i, EMPTY);
+      bucketBytes[i].reset();
+    }
   }
 
-  public long avgBytesPerSec() {
-    Pair<BufferStatusNode, Integer> sumInfo = sum();
-    long currentNumBytes = sumInfo.getKey().numBytes();
-    if (currentNumBytes > 0) {
-      return currentNumBytes * 1000 / ((long) sumInfo.getRight() * intervalPerBucketInMills);
-    }
-    return 0L;
+  @VisibleForTesting
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
   }
 }
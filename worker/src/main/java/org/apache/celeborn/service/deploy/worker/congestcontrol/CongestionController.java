@@ -121,26 +121,13 @@ public class CongestionController {
    *
    * <p>3. If the pending bytes doesn't exceed the high watermark, will allow all users to try to
    * get max throughout capacity.
+   *
+   * <p>The decision of a user is made by the checker thread every check interval, so this only
+   * reads it.
    */
   public boolean isUserCongested(UserIdentifier userIdentifier) {
-    if (userBufferStatuses.size() == 0) {
-      return false;
-    }
-    if (overHighWatermark.get()) {
-      // If the user produce speed is higher that the avg consume speed, will congest it
-      long userProduceSpeed = getUserProduceSpeed(userBufferStatuses.get(userIdentifier));
-      long avgConsumeSpeed = getPotentialConsumeSpeed();
-      if (logger.isDebugEnabled()) {
-        logger.debug(
-            "The user {}, produceSpeed is {}, while consumeSpeed is {}, need to congest it: {}",
-            userIdentifier,
-            userProduceSpeed,
-            avgConsumeSpeed,
-            userProduceSpeed > avgConsumeSpeed);
-      }
-      return userProduceSpeed > avgConsumeSpeed;
-    }
-    return false;
+    UserBufferInfo userBufferInfo = userBufferStatuses.get(userIdentifier);
+    return userBufferInfo != null && userBufferInfo.isCongested();
   }
 
   public UserBufferInfo getUserBuffer(UserIdentifier userIdentifier) {
@@ -159,9 +146,7 @@ public class CongestionController {
   }
 
   public void consumeBytes(int numBytes) {
-    long currentTimeMillis = System.currentTimeMillis();
-    BufferStatusHub.BufferStatusNode node = new BufferStatusHub.BufferStatusNode(numBytes);
-    consumedBufferStatusHub.add(currentTimeMillis, node);
+    consumedBufferStatusHub.add(System.currentTimeMillis(), numBytes);
   }
 
   public long getTotalPendingBytes() {
@@ -221,18 +206,41 @@ public class CongestionController {
         if (overHighWatermark.compareAndSet(true, false)) {
           logger.info("Pending consume is lower than low watermark, exit congestion control");
         }
-        return;
       } else if (pendingConsume > highWatermark && overHighWatermark.compareAndSet(false, true)) {
         logger.info("Pending consume is higher than high watermark, need congestion control");
       }
-      if (overHighWatermark.get()) {
+      boolean overHighWatermark = this.overHighWatermark.get();
+      if (overHighWatermark) {
         trimMemoryUsage();
       }
+      updateUserCongestion(overHighWatermark);
     } catch (Exception e) {
       logger.error("Congestion check error", e);
     }
   }
 
+  private void updateUserCongestion(boolean overHighWatermark) {
+    if (!overHighWatermark) {
+      userBufferStatuses.values().forEach(userBufferInfo -> userBufferInfo.setCongested(false));
+      return;
+    }
+    long avgConsumeSpeed = getPotentialConsumeSpeed();
+    userBufferStatuses.forEach(
+        (userIdentifier, userBufferInfo) -> {
+          // If the user produce speed is higher that the avg consume speed, will congest it
+          long userProduceSpeed = getUserProduceSpeed(userBufferInfo);
+          if (logger.isDebugEnabled()) {
+            logger.debug(
+                "The user {}, produceSpeed is {}, while consumeSpeed is {}, need to congest it: {}",
+                userIdentifier,
+                userProduceSpeed,
+                avgConsumeSpeed,
+                userProduceSpeed > avgConsumeSpeed);
+          }
+          userBufferInfo.setCongested(userProduceSpeed > avgConsumeSpeed);
+        });
+  }
+
   public void close() {
     logger.info("Closing {}", this.getClass().getSimpleName());
     this.removeUserExecutorService.shutdownNow();
@@ -18,17 +18,19 @@
 package org.apache.celeborn.service.deploy.worker.congestcontrol;
 
 public class UserBufferInfo {
-  long timestamp;
+  volatile long timestamp;
   final BufferStatusHub bufferStatusHub;
+  // decided by the checker thread of CongestionController and read by the push threads
+  private volatile boolean congested = false;
 
   public UserBufferInfo(long timestamp, BufferStatusHub bufferStatusHub) {
     this.timestamp = timestamp;
     this.bufferStatusHub = bufferStatusHub;
   }
 
-  public synchronized void updateInfo(long timestamp, BufferStatusHub.BufferStatusNode node) {
+  public void updateInfo(long timestamp, long numBytes) {
     this.timestamp = timestamp;
-    this.bufferStatusHub.add(timestamp, node);
+    this.bufferStatusHub.add(timestamp, numBytes);
   }
 
   public long getTimestamp() {
@@ -38,4 +40,12 @@ public class UserBufferInfo {
   public BufferStatusHub getBufferStatusHub() {
     return bufferStatusHub;
   }
+
+  public boolean isCongested() {
+    return congested;
+  }
+
+  void setCongested(boolean congested) {
+    this.congested = congested;
+  }
 }
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.worker.storage;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Admits chunk fetches while the chunks being transferred are fewer than the max. A chunk fetch
+ * over the max is pending until a chunk is sent, the applications with pending chunk fetches take
+ * turns to run one of them so that an application fetching many chunks does not hold up the others.
+ * A chunk fetch is rejected when too many chunk fetches are pending, and a pending chunk fetch
+ * cancelled, e.g. of a client gone, is dropped without taking a chunk to transfer.
+ */
+public class ChunkFetchAdmissionController {
+
+  public enum Admission {
+    // the chunk fetch runs now
+    ADMITTED,
+    // the chunk fetch is run later when a chunk is sent
+    DEFERRED,
+    REJECTED
+  }
+
+  private final long maxChunksBeingTransferred;
+  private final int maxPendingChunks;
+  private final LongAdder chunksBeingTransferred = new LongAdder();
+  private final AtomicInteger numPendingChunks = new AtomicInteger();
+  // AppId -> pending chunk fetches of the application, in the order the applications take turns
+  private final LinkedHashMap<String, ArrayDeque<PendingFetch>> pendingChunks =
+      new LinkedHashMap<>();
+
+  private static class PendingFetch {
+    private final Runnable fetch;
+    private final BooleanSupplier cancelled;
+
+    PendingFetch(Runnable fetch, BooleanSupplier cancelled) {
+      this.fetch = fetch;
+      this.cancelled = cancelled;
+    }
+  }
+
+  public ChunkFetchAdmissionController(long maxChunksBeingTransferred, int maxPendingChunks) {
+    this.maxChunksBeingTransferred = maxChunksBeingTransferred;
+    this.maxPendingChunks = maxPendingChunks;
+  }
+
+  /**
+   * Admits a chunk fetch of the application. The chunk fetch is counted as being transferred unless
+   * it is rejected, and {@link #chunkSent()} must be called when it is done.
+   *
+   * @param deferredFetch runs the chunk fetch if it is deferred
+   */
+  public Admission admit(String appId, Runnable deferredFetch) {
+    return admit(appId, deferredFetch, () -> false);
+  }
+
+  /**
+   * Admits a chunk fetch of the application, see {@link #admit(String, Runnable)}.
+   *
+   * @param cancelled whether the chunk fetch is no longer wanted, a cancelled pending chunk fetch is
+   *     dropped instead of run and is not counted as being transferred
+   */
+  public Admission admit(String appId, Runnable deferredFetch, BooleanSupplier cancelled) {
+    if (numPendingChunks.get() == 0 && chunksBeingTransferred.sum() < maxChunksBeingTransferred) {
+      chunksBeingTransferred.increment();
+      return Admission.ADMITTED;
+    }
+    synchronized (pendingChunks) {
+      if (numPendingChunks.get() >= maxPendingChunks) {
+        return Admission.REJECTED;
+      }
+      pendingChunks
+          .computeIfAbsent(appId, id -> new ArrayDeque<>())
+          .add(new PendingFetch(deferredFetch, cancelled));
+      numPendingChunks.incrementAndGet();
+    }
+    // the chunks being transferred could have been sent before the chunk fetch is pending
+    runPendingChunks();
+    return Admission.DEFERRED;
+  }
+
+  public void chunkSent() {
+    chunksBeingTransferred.decrement();
+    if (numPendingChunks.get() > 0) {
+      runPendingChunks();
+    }
+  }
+
+  private void runPendingChunks() {
+    while (true) {
+      PendingFetch pending;
+      synchronized (pendingChunks) {
+        if (chunksBeingTransferred.sum() >= maxChunksBeingTransferred) {
+          return;
+        }
+        pending = pollPendingChunk();
+        if (pending == null) {
+          return;
+        }
+        numPendingChunks.decrementAndGet();
+        if (pending.cancelled.getAsBoolean()) {
+          continue;
+        }
+        chunksBeingTransferred.increment();
+      }
+      pending.fetch.run();
+    }
+  }
+
+  private PendingFetch pollPendingChunk() {
+    Iterator<Map.Entry<String, ArrayDeque<PendingFetch>>> iterator =
+        pendingChunks.entrySet().iterator();
+    if (!iterator.hasNext()) {
+      return null;
+    }
+    Map.Entry<String, ArrayDeque<PendingFetch>> entry = iterator.next();
+    PendingFetch fetch = entry.getValue().poll();
+    iterator.remove();
+    // the application takes the next turn after the others
+    if (!entry.getValue().isEmpty()) {
+      pendingChunks.put(entry.getKey(), entry.getValue());
+    }
+    return fetch;
+  }
+
+  public long chunksBeingTransferred() {
+    return chunksBeingTransferred.sum();
+  }
+
+  @VisibleForTesting
+  public int numPendingChunks() {
+    return numPendingChunks.get();
+  }
+}
@@ -20,6 +20,8 @@ package org.apache.celeborn.service.deploy.worker.storage;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import scala.Tuple2;
@@ -32,6 +34,7 @@ import org.apache.celeborn.common.meta.TimeWindow;
 import org.apache.celeborn.common.network.buffer.ChunkBuffers;
 import org.apache.celeborn.common.network.buffer.ManagedBuffer;
 import org.apache.celeborn.common.util.JavaUtils;
+import org.apache.celeborn.common.util.Utils;
 
 /**
  * StreamManager which allows registration of an Iterator&lt;ManagedBuffer&gt;, which are
@@ -45,6 +48,9 @@ public class ChunkStreamManager {
   protected final ConcurrentHashMap<Long, StreamState> streams;
   // ShuffleKey -> StreamId
   protected final ConcurrentHashMap<String, Set<Long>> shuffleStreamIds;
+  // Number of chunks to read ahead of the chunk being fetched of a stream
+  private final int readAheadChunks;
+  private final Executor readAheadExecutor;
 
   /** State of a single stream. */
   public static class StreamState {
@@ -52,8 +58,10 @@ public class ChunkStreamManager {
     public final String shuffleKey;
     public final String fileName;
     public final TimeWindow fetchTimeMetric;
-    // Used to keep track of the number of chunks being transferred and not finished yet.
-    volatile long chunksBeingTransferred = 0L;
+    // The chunks before this index have been scheduled to read ahead
+    private final AtomicInteger readAheadUntil = new AtomicInteger(0);
+    // The application of the shuffle key, cached not to split the shuffle key on every chunk fetch
+    private volatile String appId;
 
     StreamState(
         String shuffleKey, ChunkBuffers buffers, String fileName, TimeWindow fetchTimeMetric) {
@@ -62,14 +70,53 @@ public class ChunkStreamManager {
       this.fileName = fileName;
       this.fetchTimeMetric = fetchTimeMetric;
     }
+
+    public String appId() {
+      if (appId == null) {
+        appId = Utils.splitShuffleKey(shuffleKey)._1();
+      }
+      return appId;
+    }
+
+    /** Reads ahead the chunks after chunkIndex not read ahead yet, up to numChunks of them. */
+    void readAhead(int chunkIndex, int numChunks, Executor executor) {
+      int toChunk = Math.min(chunkIndex + numChunks + 1, buffers.numChunks());
+      while (true) {
+        int until = readAheadUntil.get();
+        if (toChunk <= until) {
+          return;
+        }
+        if (readAheadUntil.compareAndSet(until, toChunk)) {
+          int fromChunk = Math.max(chunkIndex + 1, until);
+          if (fromChunk < toChunk) {
+            executor.execute(() -> buffers.readAhead(fromChunk, toChunk));
+          }
+          return;
+        }
+      }
+    }
+
+    /** Releases the resources held by the stream, the stream could still be reused after. */
+    void close() {
+      if (buffers != null) {
+        buffers.close();
+      }
+      readAheadUntil.set(0);
+    }
   }
 
   public ChunkStreamManager() {
+    this(0, null);
+  }
+
+  public ChunkStreamManager(int readAheadChunks, Executor readAheadExecutor) {
     // For debugging purposes, start with a random stream id to help identifying different streams.
     // This does not need to be globally unique, only unique to this class.
     nextStreamId = new AtomicLong((long) new Random().nextInt(Integer.MAX_VALUE) * 1000);
     streams = JavaUtils.newConcurrentHashMap();
     shuffleStreamIds = JavaUtils.newConcurrentHashMap();
+    this.readAheadChunks = readAheadChunks;
+    this.readAheadExecutor = readAheadExecutor;
   }
 
   public ManagedBuffer getChunk(long streamId, int chunkIndex, int offset, int len) {
@@ -84,7 +131,11 @@ public class ChunkStreamManager {
     }
 
     ChunkBuffers buffers = state.buffers;
-    return buffers.chunk(chunkIndex, offset, len);
+    ManagedBuffer buffer = buffers.chunk(chunkIndex, offset, len);
+    if (readAheadChunks > 0) {
+      state.readAhead(chunkIndex, readAheadChunks, readAheadExecutor);
+    }
+    return buffer;
   }
 
   public TimeWindow getFetchTimeMetric(long streamId) {
@@ -96,28 +147,6 @@ public class ChunkStreamManager {
     }
   }
 
-  public void chunkBeingSent(long streamId) {
-    StreamState streamState = streams.get(streamId);
-    if (streamState != null) {
-      streamState.chunksBeingTransferred++;
-    }
-  }
-
-  public void chunkSent(long streamId) {
-    StreamState streamState = streams.get(streamId);
-    if (streamState != null) {
-      streamState.chunksBeingTransferred--;
-    }
-  }
-
-  public long chunksBeingTransferred() {
-    long sum = 0L;
-    for (StreamState streamState : streams.values()) {
-      sum += streamState.chunksBeingTransferred;
-    }
-    return sum;
-  }
-
   /**
    * Registers a stream with shuffle key and disk file when reading local or dfs shuffle, which is
    * served to obtain disk file via registered stream id to close stream.
@@ -168,6 +197,26 @@ public class ChunkStreamManager {
     return streamId;
   }
 
+  /** Releases the resources held by the streams not fetched for idleTimeMs. */
+  public void closeIdleStreams(long idleTimeMs) {
+    for (StreamState state : streams.values()) {
+      if (state.buffers != null) {
+        state.buffers.closeIfIdle(idleTimeMs);
+      }
+    }
+  }
+
+  /**
+   * Releases the resources held by the stream when it is ended by the client. The stream is kept
+   * registered, as it could be reused when other channel of the client is reconnected.
+   */
+  public void endStream(long streamId) {
+    StreamState state = streams.get(streamId);
+    if (state != null) {
+      state.close();
+    }
+  }
+
   public long nextStreamId() {
     return nextStreamId.getAndIncrement();
   }
@@ -181,7 +230,12 @@ public class ChunkStreamManager {
 
       // normally expiredStreamIds set will be empty as streamId will be removed when be fully read
       if (expiredStreamIds != null && !expiredStreamIds.isEmpty()) {
-        expiredStreamIds.forEach(streams::remove);
+        for (Long streamId : expiredStreamIds) {
+          StreamState state = streams.remove(streamId);
+          if (state != null) {
+            state.close();
+          }
+        }
       }
     }
     logger.info(
@@ -20,10 +20,13 @@ package org.apache.celeborn.service.deploy.worker.storage;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import scala.Tuple4;
 
@@ -42,6 +45,7 @@ import org.apache.celeborn.common.exception.CelebornIOException;
 import org.apache.celeborn.common.meta.DiskFileInfo;
 import org.apache.celeborn.common.meta.DiskStatus;
 import org.apache.celeborn.common.meta.FileInfo;
+import org.apache.celeborn.common.meta.MapRangeIndex;
 import org.apache.celeborn.common.meta.MemoryFileInfo;
 import org.apache.celeborn.common.metrics.source.AbstractSource;
 import org.apache.celeborn.common.protocol.PartitionSplitMode;
@@ -49,7 +53,6 @@ import org.apache.celeborn.common.protocol.StorageInfo;
 import org.apache.celeborn.common.unsafe.Platform;
 import org.apache.celeborn.common.util.FileChannelUtils;
 import org.apache.celeborn.service.deploy.worker.WorkerSource;
-import org.apache.celeborn.service.deploy.worker.congestcontrol.BufferStatusHub;
 import org.apache.celeborn.service.deploy.worker.congestcontrol.CongestionController;
 import org.apache.celeborn.service.deploy.worker.congestcontrol.UserBufferInfo;
 import org.apache.celeborn.service.deploy.worker.memory.MemoryManager;
@@ -61,18 +64,22 @@ import org.apache.celeborn.service.deploy.worker.memory.MemoryManager;
 public abstract class PartitionDataWriter implements DeviceObserver {
   private static final Logger logger = LoggerFactory.getLogger(PartitionDataWriter.class);
   private static final long WAIT_INTERVAL_MS = 5;
+  private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
 
   // After commit file, there will be only 1 fileinfo left.
   protected DiskFileInfo diskFileInfo = null;
   protected MemoryFileInfo memoryFileInfo = null;
   private FileChannel channel;
   private volatile boolean closed;
+  // the final flush is submitted by prepareClose ahead of close
+  private volatile boolean closePrepared;
   private volatile boolean destroyed;
 
   protected final AtomicInteger numPendingWrites = new AtomicInteger();
 
   public Flusher flusher;
   private int flushWorkerIndex;
+  private final FlushSequence flushSequence = new FlushSequence();
 
   protected CompositeByteBuf flushBuffer;
 
@@ -89,6 +96,8 @@ public abstract class PartitionDataWriter implements DeviceObserver {
   private final boolean rangeReadFilter;
   protected boolean deleted = false;
   private RoaringBitmap mapIdBitMap = null;
+  // batches of a map mostly come one after another
+  private int lastMapId = -1;
   protected final FlushNotifier notifier = new FlushNotifier();
   // It's only needed when graceful shutdown is enabled
   private final String shuffleKey;
@@ -106,6 +115,16 @@ public abstract class PartitionDataWriter implements DeviceObserver {
   private long chunkSize;
 
   private UserBufferInfo userBufferInfo = null;
+  // index of the batches of every map, only built by reduce partition writers if enabled
+  protected MapRangeIndex mapRangeIndex = null;
+  // batches waiting to be appended by the thread which holds the append role, if enabled
+  private final ConcurrentLinkedQueue<PendingAppend> pendingAppends;
+  private final AtomicBoolean appending = new AtomicBoolean();
+  // set under flushLock once the final flush has taken the queued batches
+  private boolean appendsFinished;
+  // bytes of the combined appends not accounted to the memory manager yet, they are accounted
+  // once per flush handoff instead of on every write
+  private int unaccountedBytes;
 
   public PartitionDataWriter(
       StorageManager storageManager,
@@ -130,6 +149,8 @@ public abstract class PartitionDataWriter implements DeviceObserver {
     this.hdfsFlusherBufferSize = conf.workerHdfsFlusherBufferSize();
     this.metricsCollectCriticalEnabled = conf.metricsCollectCriticalEnabled();
     this.chunkSize = conf.shuffleChunkSize();
+    this.pendingAppends =
+        conf.workerWriterCombineAppendsEnabled() ? new ConcurrentLinkedQueue<>() : null;
 
     Tuple4<MemoryFileInfo, Flusher, DiskFileInfo, File> createFileResult =
         storageManager.createFile(writerContext, supportInMemory);
@@ -196,6 +217,11 @@ public abstract class PartitionDataWriter implements DeviceObserver {
     return diskFileInfo.getFile();
   }
 
+  @VisibleForTesting
+  public Object getFlushLock() {
+    return flushLock;
+  }
+
   public void incrementPendingWrites() {
     numPendingWrites.incrementAndGet();
   }
@@ -208,6 +234,7 @@ public abstract class PartitionDataWriter implements DeviceObserver {
   public void flush(boolean finalFlush, boolean fromEvict) throws IOException {
     // flushBuffer == null here means this writer is already closed
     if (flushBuffer != null) {
+      accountAppends();
       int numBytes = flushBuffer.readableBytes();
       if (numBytes != 0) {
         notifier.checkException();
@@ -288,60 +315,151 @@ public abstract class PartitionDataWriter implements DeviceObserver {
       return;
     }
 
-    int mapId = 0;
-    if (rangeReadFilter) {
-      byte[] header = new byte[4];
-      data.markReaderIndex();
-      data.readBytes(header);
-      data.resetReaderIndex();
-      mapId = Platform.getInt(header, Platform.BYTE_ARRAY_OFFSET);
+    if (pendingAppends != null) {
+      // the batch is appended by whichever thread holds the append role, and the write returns
+      // only once its own batch is appended, so the push is not acked before its data is
+      data.retain();
+      PendingAppend pending = new PendingAppend(data);
+      pendingAppends.add(pending);
+      appendPending();
+      while (!pending.isDone()) {
+        LockSupport.park(this);
+        appendPending();
+      }
+      if (pending.exception != null) {
+        throw pending.exception;
+      }
+    } else {
+      final int numBytes = data.readableBytes();
+      if (isMemoryShuffleFile.get()) {
+        MemoryManager.instance().increaseMemoryFileStorage(numBytes);
+      } else {
+        MemoryManager.instance().incrementDiskBuffer(numBytes);
+        if (userBufferInfo != null) {
+          userBufferInfo.updateInfo(System.currentTimeMillis(), numBytes);
+        }
+      }
+
+      synchronized (flushLock) {
+        if (closed) {
+          String msg = getFileAlreadyClosedMsg();
+          logger.warn(msg);
+          throw new AlreadyClosedException(msg);
+        }
+        append(data);
+      }
     }
 
-    final int numBytes = data.readableBytes();
+    numPendingWrites.decrementAndGet();
+  }
+
+  /**
+   * Appends the queued batches of all writing threads, one thread at a time. A thread which fails
+   * to take the append role leaves its batch to the holder, which checks the queue again after
+   * giving the role up, so no batch is left behind while a write is pending. Each batch is
+   * completed for its own writing thread, with the failure of appending it if any, and a batch
+   * queued after the final flush fails as the writer is closed.
+   */
+  private void appendPending() {
+    while (!pendingAppends.isEmpty() && appending.compareAndSet(false, true)) {
+      try {
+        synchronized (flushLock) {
+          appendPendingLocked();
+        }
+      } finally {
+        appending.set(false);
+      }
+    }
+  }
+
+  private void appendPendingLocked() {
+    if (pendingAppends == null) {
+      return;
+    }
+    PendingAppend pending;
+    while ((pending = pendingAppends.poll()) != null) {
+      IOException exception = null;
+      if (appendsFinished) {
+        exception = new AlreadyClosedException(getFileAlreadyClosedMsg());
+      } else {
+        try {
+          append(pending.data);
+        } catch (IOException e) {
+          exception = e;
+        } catch (RuntimeException e) {
+          exception = new CelebornIOException(e);
+        }
+      }
+      pending.data.release();
+      pending.complete(exception);
+    }
+    if (isMemoryShuffleFile.get()) {
+      // a memory file has no flush to hand the data off to
+      accountAppends();
+    }
+  }
+
+  /** Accounts the bytes of the combined appends since the last time, under flushLock. */
+  private void accountAppends() {
+    if (unaccountedBytes == 0) {
+      return;
+    }
     if (isMemoryShuffleFile.get()) {
-      MemoryManager.instance().increaseMemoryFileStorage(numBytes);
+      MemoryManager.instance().increaseMemoryFileStorage(unaccountedBytes);
     } else {
-      MemoryManager.instance().incrementDiskBuffer(numBytes);
+      MemoryManager.instance().incrementDiskBuffer(unaccountedBytes);
       if (userBufferInfo != null) {
-        userBufferInfo.updateInfo(
-            System.currentTimeMillis(), new BufferStatusHub.BufferStatusNode(numBytes));
+        userBufferInfo.updateInfo(System.currentTimeMillis(), unaccountedBytes);
       }
     }
+    unaccountedBytes = 0;
+  }
 
-    synchronized (flushLock) {
-      if (closed) {
-        String msg = getFileAlreadyClosedMsg();
-        logger.warn(msg);
-        throw new AlreadyClosedException(msg);
-      }
-      if (rangeReadFilter) {
-        mapIdBitMap.add(mapId);
+  private void append(ByteBuf data) throws IOException {
+    int numBytes = data.readableBytes();
+    int mapId = 0;
+    if (rangeReadFilter || mapRangeIndex != null) {
+      // data header layout (mapId, attemptId, nextBatchId, length), written in native order
+      int header = data.getInt(data.readerIndex());
+      mapId = LITTLE_ENDIAN ? Integer.reverseBytes(header) : header;
+    }
+    if (rangeReadFilter && mapId != lastMapId) {
+      mapIdBitMap.add(mapId);
+      lastMapId = mapId;
+    }
+    int flushBufferReadableBytes = flushBuffer.readableBytes();
+    if (!isMemoryShuffleFile.get()) {
+      if (flushBufferReadableBytes != 0
+          && flushBufferReadableBytes + numBytes >= flusherBufferSize) {
+        flush(false, false);
       }
-      int flushBufferReadableBytes = flushBuffer.readableBytes();
-      if (!isMemoryShuffleFile.get()) {
-        if (flushBufferReadableBytes != 0
-            && flushBufferReadableBytes + numBytes >= flusherBufferSize) {
-          flush(false, false);
-        }
-      } else {
-        if (flushBufferReadableBytes > memoryFileStorageMaxFileSize
-            && storageManager.localOrHdfsStorageAvailable()) {
-          logger.debug(
-              "{} Evict, memory buffer is  {}",
-              writerContext.getPartitionLocation().getFileName(),
-              flushBufferReadableBytes);
-          evict(false);
-        }
+    } else {
+      if (flushBufferReadableBytes > memoryFileStorageMaxFileSize
+          && storageManager.localOrHdfsStorageAvailable()) {
+        logger.debug(
+            "{} Evict, memory buffer is  {}",
+            writerContext.getPartitionLocation().getFileName(),
+            flushBufferReadableBytes);
+        accountAppends();
+        evict(false);
       }
+    }
 
-      data.retain();
-      flushBuffer.addComponent(true, data);
-      if (isMemoryShuffleFile.get()) {
-        memoryFileInfo.updateBytesFlushed(numBytes);
+    if (mapRangeIndex != null && !mapRangeIndex.addBatch(mapId, numBytes)) {
+      // too many runs, range reads of this file are served by the sorter
+      mapRangeIndex = null;
+      if (diskFileInfo != null) {
+        diskFileInfo.getReduceFileMeta().setMapRangeIndex(null);
       }
     }
-
-    numPendingWrites.decrementAndGet();
+    data.retain();
+    flushBuffer.addComponent(true, data);
+    if (pendingAppends != null) {
+      unaccountedBytes += numBytes;
+    }
+    if (isMemoryShuffleFile.get()) {
+      memoryFileInfo.updateBytesFlushed(numBytes);
+    }
   }
 
   public void evictInternal() throws IOException {
@@ -356,6 +474,9 @@ public abstract class PartitionDataWriter implements DeviceObserver {
       this.flushWorkerIndex = this.flusher.getWorkerIndex();
 
       isMemoryShuffleFile.set(false);
+      if (mapRangeIndex != null) {
+        diskFileInfo.getReduceFileMeta().setMapRangeIndex(mapRangeIndex);
+      }
       initFileChannelsForDiskFile();
       flush(closed, true);
 
@@ -402,28 +523,55 @@ public abstract class PartitionDataWriter implements DeviceObserver {
     return closed;
   }
 
+  /**
+   * Stops accepting data and submits the final flush without waiting for it, so that the final
+   * flushes of the writers committed together are queued to the flusher at once. {@link #close()}
+   * must be called afterwards, even if this throws, to wait for the flushes and release the file.
+   */
+  public synchronized void prepareClose() throws IOException {
+    if (closed) {
+      String msg = getFileAlreadyClosedMsg();
+      logger.error(msg);
+      throw new AlreadyClosedException(msg);
+    }
+    closePrepared = true;
+    submitFinalFlush();
+  }
+
+  private void submitFinalFlush() throws IOException {
+    waitOnNoPending(numPendingWrites);
+    closed = true;
+
+    synchronized (flushLock) {
+      // batches left in the queue by an append which failed
+      appendPendingLocked();
+      appendsFinished = true;
+      if (!isMemoryShuffleFile.get()) {
+        // memory shuffle file doesn't need final flush
+        if (flushBuffer != null && flushBuffer.readableBytes() > 0) {
+          flush(true, false);
+        }
+      }
+    }
+  }
+
   protected synchronized long close(
       RunnableWithIOException tryClose,
       RunnableWithIOException streamClose,
       RunnableWithIOException finalClose)
       throws IOException {
-    if (closed) {
+    if (closed && !closePrepared) {
       String msg = getFileAlreadyClosedMsg();
       logger.error(msg);
       throw new AlreadyClosedException(msg);
     }
 
     try {
-      waitOnNoPending(numPendingWrites);
-      closed = true;
-
-      synchronized (flushLock) {
-        if (!isMemoryShuffleFile.get()) {
-          // memory shuffle file doesn't need final flush
-          if (flushBuffer != null && flushBuffer.readableBytes() > 0) {
-            flush(true, false);
-          }
-        }
+      if (closePrepared) {
+        // the final flush is submitted, so the next close is rejected
+        closePrepared = false;
+      } else {
+        submitFinalFlush();
       }
 
       tryClose.run();
@@ -434,6 +582,7 @@ public abstract class PartitionDataWriter implements DeviceObserver {
         if (channel != null) {
           channel.close();
         }
+        closeHdfsStream();
         streamClose.run();
       } catch (IOException e) {
         logger.warn("close file writer {} failed", this, e);
@@ -459,6 +608,12 @@ public abstract class PartitionDataWriter implements DeviceObserver {
     }
   }
 
+  private void closeHdfsStream() throws IOException {
+    if (flusher instanceof HdfsFlusher) {
+      ((HdfsFlusher) flusher).closeStream(diskFileInfo.getHdfsPath());
+    }
+  }
+
   private String getFileAlreadyClosedMsg() {
     String msg = "PartitionDataWriter has already closed! ";
     if (isMemoryShuffleFile.get()) {
@@ -498,6 +653,16 @@ public abstract class PartitionDataWriter implements DeviceObserver {
         notifier.setException(ioException);
       }
       returnBuffer(true);
+      if (pendingAppends != null) {
+        PendingAppend pending;
+        while ((pending = pendingAppends.poll()) != null) {
+          pending.data.release();
+          pending.complete(ioException);
+        }
+      }
+      if (flusher instanceof HdfsFlusher) {
+        ((HdfsFlusher) flusher).discardStream(diskFileInfo.getHdfsPath());
+      }
       try {
         if (channel != null) {
           channel.close();
@@ -585,7 +750,7 @@ public abstract class PartitionDataWriter implements DeviceObserver {
   }
 
   protected void addTask(FlushTask task) throws IOException {
-    if (!flusher.addTask(task, writerCloseTimeoutMs, flushWorkerIndex)) {
+    if (!flusher.addTask(task, writerCloseTimeoutMs, flushWorkerIndex, flushSequence)) {
       IOException e = new IOException("Add flush task timeout.");
       notifier.setException(e);
       throw e;
@@ -595,6 +760,8 @@ public abstract class PartitionDataWriter implements DeviceObserver {
   protected void returnBuffer(boolean destroy) {
     synchronized (flushLock) {
       if (flushBuffer != null) {
+        // the flusher releases the buffered bytes from the memory manager
+        accountAppends();
         if (flusher != null) {
           flusher.returnBuffer(flushBuffer, true);
           flushBuffer = null;
@@ -668,4 +835,27 @@ public abstract class PartitionDataWriter implements DeviceObserver {
   public MemoryFileInfo getMemoryFileInfo() {
     return memoryFileInfo;
   }
+
+  /** A queued batch, completed for its writing thread by the thread which takes it. */
+  private static final class PendingAppend {
+    final ByteBuf data;
+    private final Thread writer = Thread.currentThread();
+    // set before done
+    IOException exception;
+    private volatile boolean done;
+
+    PendingAppend(ByteBuf data) {
+      this.data = data;
+    }
+
+    void complete(IOException exception) {
+      this.exception = exception;
+      done = true;
+      LockSupport.unpark(writer);
+    }
+
+    boolean isDone() {
+      return done;
+    }
+  }
 }
@@ -31,6 +31,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
@@ -40,6 +41,7 @@ import java.util.concurrent.locks.ReentrantLock;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
 import org.apache.commons.io.IOUtils;
@@ -89,6 +91,8 @@ public class PartitionFilesSorter extends ShuffleRecoverHelper {
   protected final double compactionFactor;
   protected final boolean prefetchEnabled;
   protected final long reservedMemoryPerPartition;
+  protected final int sortParallelism;
+  protected final long parallelSortMinFileSize;
   private final long partitionSorterShutdownAwaitTime;
   private DB sortedFilesDb;
 
@@ -104,6 +108,8 @@ public class PartitionFilesSorter extends ShuffleRecoverHelper {
     this.compactionFactor = conf.workerPartitionSorterShuffleBlockCompactionFactor();
     this.prefetchEnabled = conf.workerPartitionSorterPrefetchEnabled();
     this.reservedMemoryPerPartition = conf.workerPartitionSorterReservedMemoryPerPartition();
+    this.sortParallelism = conf.workerPartitionSorterParallelism();
+    this.parallelSortMinFileSize = conf.workerPartitionSorterParallelMinFileSize();
     this.partitionSorterShutdownAwaitTime =
         conf.workerGracefulShutdownPartitionSorterCloseAwaitTimeMs();
     long indexCacheMaxWeight = conf.workerPartitionSorterIndexCacheMaxWeight();
@@ -560,6 +566,83 @@ public class PartitionFilesSorter extends ShuffleRecoverHelper {
     return length;
   }
 
+  // Runs the tasks on the file sorter executors and waits for their results. A task which is not
+  // picked up by a sorter thread yet runs in the current thread, so that a parallel sort never
+  // waits for sorter threads occupied by other sorts. If a task fails, the tasks not started yet
+  // are skipped and the started ones are waited for, so that no task uses the files of the sort
+  // after they are closed.
+  @VisibleForTesting
+  public <T> List<T> runInParallel(List<Callable<T>> tasks) throws Exception {
+    List<SortTask<T>> sortTasks = new ArrayList<>(tasks.size());
+    for (Callable<T> task : tasks) {
+      sortTasks.add(new SortTask<>(task));
+    }
+    try {
+      for (SortTask<T> sortTask : sortTasks) {
+        fileSorterExecutors.execute(sortTask);
+      }
+      List<T> results = new ArrayList<>(sortTasks.size());
+      for (SortTask<T> sortTask : sortTasks) {
+        sortTask.run();
+        results.add(sortTask.get());
+      }
+      return results;
+    } finally {
+      for (SortTask<T> sortTask : sortTasks) {
+        sortTask.skip();
+      }
+      for (SortTask<T> sortTask : sortTasks) {
+        Uninterruptibles.awaitUninterruptibly(sortTask.finished);
+      }
+    }
+  }
+
+  // A task of a parallel sort, run once by whichever thread claims it first.
+  private static class SortTask<T> implements Runnable {
+    private final Callable<T> task;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private T result;
+    private Throwable failure;
+
+    SortTask(Callable<T> task) {
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      if (claimed.compareAndSet(false, true)) {
+        try {
+          result = task.call();
+        } catch (Throwable t) {
+          failure = t;
+        } finally {
+          finished.countDown();
+        }
+      }
+    }
+
+    // keeps the task from running if it is not started yet
+    void skip() {
+      if (claimed.compareAndSet(false, true)) {
+        failure = new CancellationException();
+        finished.countDown();
+      }
+    }
+
+    T get() throws Exception {
+      finished.await();
+      if (failure instanceof Exception) {
+        throw (Exception) failure;
+      } else if (failure instanceof Error) {
+        throw (Error) failure;
+      } else if (failure != null) {
+        throw new ExecutionException(failure);
+      }
+      return result;
+    }
+  }
+
   private long transferChannelFully(
       FileChannel originChannel, FileChannel targetChannel, long offset, long length)
       throws IOException {
@@ -647,6 +730,9 @@ public class PartitionFilesSorter extends ShuffleRecoverHelper {
     private final boolean isHdfs;
     private final boolean isPrefetch;
     private final FileInfo originFileInfo;
+    // [start, end) offsets of the segments which are indexed in parallel, empty if the file is
+    // sorted sequentially
+    private final List<long[]> segments;
 
     private FSDataInputStream hdfsOriginInput = null;
     private FSDataOutputStream hdfsSortedOutput = null;
@@ -658,8 +744,10 @@ public class PartitionFilesSorter extends ShuffleRecoverHelper {
       this.originFilePath = fileInfo.getFilePath();
       this.sortedFilePath = Utils.getSortedFilePath(originFilePath);
       this.isHdfs = fileInfo.isHdfs();
-      this.isPrefetch = !isHdfs && prefetchEnabled;
       this.originFileLen = fileInfo.getFileLength();
+      this.segments = splitSegments(fileInfo);
+      // prefetching reads the whole file sequentially, which is what a parallel sort avoids
+      this.isPrefetch = !isHdfs && prefetchEnabled && segments.isEmpty();
       this.fileId = fileId;
       this.shuffleKey = shuffleKey;
       this.indexFilePath = Utils.getIndexFilePath(originFilePath);
@@ -690,34 +778,52 @@ public class PartitionFilesSorter extends ShuffleRecoverHelper {
 
         Map<Integer, List<ShuffleBlockInfo>> originShuffleBlockInfos = new TreeMap<>();
         Map<Integer, List<ShuffleBlockInfo>> sortedBlockInfoMap = new HashMap<>();
+        boolean parallel = !segments.isEmpty();
 
         int batchHeaderLen = 16;
         ByteBuffer headerBuf = ByteBuffer.allocate(batchHeaderLen);
         ByteBuffer paddingBuf =
             isPrefetch ? ByteBuffer.allocateDirect((int) reservedMemoryPerPartition) : null;
 
-        long index = 0;
-        while (index != originFileLen) {
-          long blockStartIndex = index;
-          readBufferFully(headerBuf);
-          byte[] batchHeader = headerBuf.array();
-          headerBuf.rewind();
-
-          int mapId = Platform.getInt(batchHeader, Platform.BYTE_ARRAY_OFFSET);
-          final int compressedSize = Platform.getInt(batchHeader, Platform.BYTE_ARRAY_OFFSET + 12);
-
-          List<ShuffleBlockInfo> singleMapIdShuffleBlockList =
-              originShuffleBlockInfos.computeIfAbsent(mapId, v -> new ArrayList<>());
-          ShuffleBlockInfo blockInfo = new ShuffleBlockInfo();
-          blockInfo.offset = blockStartIndex;
-          blockInfo.length = compressedSize + 16L;
-          singleMapIdShuffleBlockList.add(blockInfo);
-
-          index += batchHeaderLen + compressedSize;
-          readBufferBySize(paddingBuf, compressedSize);
+        if (parallel) {
+          List<Callable<Map<Integer, List<ShuffleBlockInfo>>>> indexTasks = new ArrayList<>();
+          for (long[] segment : segments) {
+            indexTasks.add(() -> indexSegment(segment[0], segment[1]));
+          }
+          // segments are merged in file order, so the blocks of a map stay in file order
+          for (Map<Integer, List<ShuffleBlockInfo>> segmentBlockInfos : runInParallel(indexTasks)) {
+            for (Map.Entry<Integer, List<ShuffleBlockInfo>> entry : segmentBlockInfos.entrySet()) {
+              originShuffleBlockInfos
+                  .computeIfAbsent(entry.getKey(), v -> new ArrayList<>())
+                  .addAll(entry.getValue());
+            }
+          }
+        } else {
+          long index = 0;
+          while (index != originFileLen) {
+            long blockStartIndex = index;
+            readBufferFully(headerBuf);
+            byte[] batchHeader = headerBuf.array();
+            headerBuf.rewind();
+
+            int mapId = Platform.getInt(batchHeader, Platform.BYTE_ARRAY_OFFSET);
+            final int compressedSize =
+                Platform.getInt(batchHeader, Platform.BYTE_ARRAY_OFFSET + 12);
+
+            List<ShuffleBlockInfo> singleMapIdShuffleBlockList =
+                originShuffleBlockInfos.computeIfAbsent(mapId, v -> new ArrayList<>());
+            ShuffleBlockInfo blockInfo = new ShuffleBlockInfo();
+            blockInfo.offset = blockStartIndex;
+            blockInfo.length = compressedSize + 16L;
+            singleMapIdShuffleBlockList.add(blockInfo);
+
+            index += batchHeaderLen + compressedSize;
+            readBufferBySize(paddingBuf, compressedSize);
+          }
         }
 
         long fileIndex = 0;
+        List<BlockTransfer> transfers = parallel ? new ArrayList<>() : null;
         for (Map.Entry<Integer, List<ShuffleBlockInfo>> originBlockInfoEntry :
             originShuffleBlockInfos.entrySet()) {
           int mapId = originBlockInfoEntry.getKey();
@@ -743,10 +849,18 @@ public class PartitionFilesSorter extends ShuffleRecoverHelper {
               sortedBlock.length = length;
               sortedShuffleBlocks.add(sortedBlock);
             }
-            fileIndex += transferBlock(offset, length);
+            if (parallel) {
+              addTransfer(transfers, offset, fileIndex, length);
+              fileIndex += length;
+            } else {
+              fileIndex += transferBlock(offset, length);
+            }
           }
           sortedBlockInfoMap.put(mapId, sortedShuffleBlocks);
         }
+        if (parallel) {
+          transferBlocks(transfers, fileIndex);
+        }
 
         writeIndex(sortedBlockInfoMap, indexFilePath, isHdfs);
         updateSortedShuffleFiles(shuffleKey, fileId, originFileLen);
@@ -781,7 +895,10 @@ public class PartitionFilesSorter extends ShuffleRecoverHelper {
             StorageManager.hadoopFs().create(new Path(sortedFilePath), true, 256 * 1024);
       } else {
         originFileChannel = FileChannelUtils.openReadableFileChannel(originFilePath);
-        sortedFileChannel = FileChannelUtils.createWritableFileChannel(sortedFilePath);
+        // a parallel sort writes the sorted file by the channels of its transfer groups
+        if (segments.isEmpty()) {
+          sortedFileChannel = FileChannelUtils.createWritableFileChannel(sortedFilePath);
+        }
       }
     }
 
@@ -800,6 +917,123 @@ public class PartitionFilesSorter extends ShuffleRecoverHelper {
       }
     }
 
+    private List<long[]> splitSegments(DiskFileInfo fileInfo) {
+      List<long[]> segments = new ArrayList<>();
+      if (sortParallelism <= 1 || originFileLen < parallelSortMinFileSize) {
+        return segments;
+      }
+      // Chunk offsets are flush positions, which are always batch boundaries, so a segment
+      // starting at a chunk offset starts with a batch header.
+      List<Long> chunkOffsets = new ArrayList<>(fileInfo.getReduceFileMeta().getChunkOffsets());
+      if (chunkOffsets.size() < 3
+          || chunkOffsets.get(0) != 0
+          || chunkOffsets.get(chunkOffsets.size() - 1) != originFileLen) {
+        return segments;
+      }
+      long segmentSize = originFileLen / sortParallelism;
+      long start = 0;
+      for (long offset : chunkOffsets) {
+        if (offset - start >= segmentSize || (offset == originFileLen && offset > start)) {
+          segments.add(new long[] {start, offset});
+          start = offset;
+        }
+      }
+      if (segments.size() < 2) {
+        segments.clear();
+      }
+      return segments;
+    }
+
+    private Map<Integer, List<ShuffleBlockInfo>> indexSegment(long start, long end)
+        throws IOException {
+      Map<Integer, List<ShuffleBlockInfo>> blockInfos = new HashMap<>();
+      byte[] batchHeader = new byte[16];
+      ByteBuffer headerBuf = ByteBuffer.wrap(batchHeader);
+      long index = start;
+      while (index < end) {
+        headerBuf.clear();
+        if (isHdfs) {
+          hdfsOriginInput.readFully(index, batchHeader);
+        } else {
+          readChannelFullyAt(originFileChannel, headerBuf, index);
+        }
+        int mapId = Platform.getInt(batchHeader, Platform.BYTE_ARRAY_OFFSET);
+        int compressedSize = Platform.getInt(batchHeader, Platform.BYTE_ARRAY_OFFSET + 12);
+        ShuffleBlockInfo blockInfo = new ShuffleBlockInfo();
+        blockInfo.offset = index;
+        blockInfo.length = compressedSize + 16L;
+        blockInfos.computeIfAbsent(mapId, v -> new ArrayList<>()).add(blockInfo);
+        index += blockInfo.length;
+      }
+      if (index != end) {
+        throw new IOException(
+            "Segment [" + start + ", " + end + ") of " + originFilePath + " ends at " + index);
+      }
+      return blockInfos;
+    }
+
+    private void readChannelFullyAt(FileChannel channel, ByteBuffer buffer, long position)
+        throws IOException {
+      while (buffer.hasRemaining()) {
+        int read = channel.read(buffer, position);
+        if (-1 == read) {
+          throw new IOException(
+              "Unexpected EOF, file name : " + originFilePath + " position :" + position);
+        }
+        position += read;
+      }
+    }
+
+    private void addTransfer(
+        List<BlockTransfer> transfers, long originOffset, long sortedOffset, long length) {
+      if (!isHdfs && !transfers.isEmpty()) {
+        // merge blocks which are adjacent in both files into one transfer
+        BlockTransfer last = transfers.get(transfers.size() - 1);
+        if (last.originOffset + last.length == originOffset) {
+          last.length += length;
+          return;
+        }
+      }
+      transfers.add(new BlockTransfer(originOffset, sortedOffset, length));
+    }
+
+    // Transfers are ordered by their sorted offsets. Local files are split into groups of
+    // contiguous sorted ranges, and each group is transferred by its own sorted file channel.
+    private void transferBlocks(List<BlockTransfer> transfers, long sortedFileLen)
+        throws Exception {
+      if (isHdfs) {
+        for (BlockTransfer transfer : transfers) {
+          transferBlock(transfer.originOffset, transfer.length);
+        }
+        return;
+      }
+      long groupSize = sortedFileLen / sortParallelism + 1;
+      List<Callable<Void>> groups = new ArrayList<>();
+      int groupStart = 0;
+      long groupLength = 0;
+      for (int i = 0; i < transfers.size(); i++) {
+        groupLength += transfers.get(i).length;
+        if (groupLength >= groupSize || i == transfers.size() - 1) {
+          List<BlockTransfer> group = transfers.subList(groupStart, i + 1);
+          groups.add(() -> transferGroup(group));
+          groupStart = i + 1;
+          groupLength = 0;
+        }
+      }
+      runInParallel(groups);
+    }
+
+    private Void transferGroup(List<BlockTransfer> group) throws IOException {
+      try (FileChannel targetChannel = FileChannelUtils.createWritableFileChannel(sortedFilePath)) {
+        targetChannel.position(group.get(0).sortedOffset);
+        for (BlockTransfer transfer : group) {
+          transferChannelFully(
+              originFileChannel, targetChannel, transfer.originOffset, transfer.length);
+        }
+      }
+      return null;
+    }
+
     private long transferBlock(long offset, long length) throws IOException {
       if (isHdfs) {
         return transferStreamFully(hdfsOriginInput, hdfsSortedOutput, offset, length);
@@ -870,6 +1104,18 @@ public class PartitionFilesSorter extends ShuffleRecoverHelper {
   }
 }
 
+class BlockTransfer {
+  final long originOffset;
+  final long sortedOffset;
+  long length;
+
+  BlockTransfer(long originOffset, long sortedOffset, long length) {
+    this.originOffset = originOffset;
+    this.sortedOffset = sortedOffset;
+    this.length = length;
+  }
+}
+
 class PartitionFilesCleaner {
   private static final Logger logger = LoggerFactory.getLogger(PartitionFilesCleaner.class);
 
@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 
 import org.apache.celeborn.common.CelebornConf;
 import org.apache.celeborn.common.meta.FileInfo;
+import org.apache.celeborn.common.meta.MapRangeIndex;
 import org.apache.celeborn.common.metrics.source.AbstractSource;
 
 /*
@@ -41,6 +42,14 @@ public final class ReducePartitionDataWriter extends PartitionDataWriter {
       PartitionDataWriterContext writerContext)
       throws IOException {
     super(storageManager, workerSource, conf, deviceMonitor, writerContext, true);
+    if (conf.workerPartitionSorterMapRangeIndexEnabled()) {
+      mapRangeIndex =
+          new MapRangeIndex(
+              conf.shuffleChunkSize(), conf.workerPartitionSorterMapRangeIndexMaxRuns());
+      if (diskFileInfo != null) {
+        diskFileInfo.getReduceFileMeta().setMapRangeIndex(mapRangeIndex);
+      }
+    }
   }
 
   private void updateLastChunkOffset() {
@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.worker
+
+import java.io.IOException
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
+import java.util.concurrent.{CompletableFuture, ConcurrentHashMap, ConcurrentLinkedQueue, Executor}
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.BiConsumer
+
+import scala.collection.JavaConverters._
+import scala.util.control.NonFatal
+
+import org.apache.celeborn.common.internal.Logging
+import org.apache.celeborn.common.util.JavaUtils
+import org.apache.celeborn.service.deploy.worker.storage.{HdfsFlusher, LocalFlusher, PartitionDataWriter}
+
+/**
+ * Commits the files of a CommitFiles request by disk. The files are grouped by the mount point of
+ * their disk and split into batches of at most batchSize files. The final flushes of all files of
+ * a batch are submitted before waiting for any of them, so the flusher of the disk writes them
+ * back to back instead of one file at a time, though each file is still flushed by its own task.
+ * At most maxConcurrentCommitsPerDisk batches of a disk are committed at a time, and a commit
+ * thread commits one batch before it is handed to the next disk, so a disk with many files does
+ * not hold the commit threads of the other disks.
+ *
+ * With durableCommit, the files of a local disk are forced to the disk after all batches of the
+ * disk in the request are closed, instead of each file being synced as soon as it is closed, so
+ * the kernel writes back the files while the others are still closing. A file fails to commit if
+ * forcing it fails.
+ */
+private[worker] class CommitScheduler(
+    commitThreadPool: Executor,
+    maxConcurrentCommitsPerDisk: Int,
+    batchSize: Int,
+    durableCommit: Boolean,
+    syncFile: PartitionDataWriter => Unit = CommitScheduler.forceFile) extends Logging {
+
+  private class DiskCommitQueue {
+    val batches = new ConcurrentLinkedQueue[Runnable]()
+    val running = new AtomicInteger()
+  }
+
+  private val diskQueues: ConcurrentHashMap[String, DiskCommitQueue] =
+    JavaUtils.newConcurrentHashMap[String, DiskCommitQueue]()
+
+  /**
+   * Commits the writers, keyed by the unique ids of their partitions.
+   *
+   * @param beforeClose called on a writer before its final flush is submitted
+   * @param onCommitted called with the file length of each writer closed
+   * @param onFailed called with the exception of each writer failed to close or sync
+   */
+  def commit(
+      writers: Seq[(String, PartitionDataWriter)],
+      beforeClose: PartitionDataWriter => Unit,
+      onCommitted: (String, PartitionDataWriter, Long) => Unit,
+      onFailed: (String, IOException) => Unit): CompletableFuture[Void] = {
+    val futures = writers.groupBy { case (_, writer) => CommitScheduler.diskOf(writer) }
+      .map { case (mountPoint, diskWriters) =>
+        val queue = diskQueues.computeIfAbsent(mountPoint, (_: String) => new DiskCommitQueue)
+        val durable = durableCommit && CommitScheduler.isLocalDisk(mountPoint)
+        // the files closed by all batches of a durable disk, committed after the disk is synced
+        val closedFiles = new ConcurrentLinkedQueue[(String, PartitionDataWriter, Long)]()
+        val batchFutures = diskWriters.grouped(batchSize).map { batch =>
+          val future = new CompletableFuture[Void]()
+          queue.batches.add(new Runnable {
+            override def run(): Unit = {
+              try {
+                val closed = closeBatch(batch, beforeClose, onFailed)
+                if (durable) {
+                  closed.foreach(closedFiles.add)
+                } else {
+                  closed.foreach { case (uniqueId, writer, bytes) =>
+                    onCommitted(uniqueId, writer, bytes)
+                  }
+                }
+                future.complete(null)
+              } catch {
+                case t: Throwable =>
+                  future.completeExceptionally(t)
+              }
+            }
+          })
+          trySchedule(queue)
+          future
+        }.toList
+        val diskFuture = CompletableFuture.allOf(batchFutures: _*)
+        if (durable) {
+          val syncFuture = new CompletableFuture[Void]()
+          diskFuture.whenComplete(new BiConsumer[Void, Throwable] {
+            override def accept(result: Void, throwable: Throwable): Unit = {
+              try {
+                syncAndCommit(mountPoint, closedFiles.asScala.toSeq, onCommitted, onFailed)
+                if (throwable != null) {
+                  syncFuture.completeExceptionally(throwable)
+                } else {
+                  syncFuture.complete(null)
+                }
+              } catch {
+                case t: Throwable =>
+                  syncFuture.completeExceptionally(t)
+              }
+            }
+          })
+          syncFuture
+        } else {
+          diskFuture
+        }
+      }
+    CompletableFuture.allOf(futures.toSeq: _*)
+  }
+
+  private def trySchedule(queue: DiskCommitQueue): Unit = {
+    var scheduling = true
+    while (scheduling) {
+      val running = queue.running.get()
+      if (running >= maxConcurrentCommitsPerDisk || queue.batches.isEmpty) {
+        scheduling = false
+      } else if (queue.running.compareAndSet(running, running + 1)) {
+        commitThreadPool.execute(new Runnable {
+          override def run(): Unit = {
+            try {
+              val batch = queue.batches.poll()
+              if (batch != null) {
+                batch.run()
+              }
+            } finally {
+              // a batch added while all commits of the disk were running is scheduled here
+              queue.running.decrementAndGet()
+              trySchedule(queue)
+            }
+          }
+        })
+      }
+    }
+  }
+
+  // closes the files of the batch, returns the files closed with their lengths
+  private def closeBatch(
+      batch: Seq[(String, PartitionDataWriter)],
+      beforeClose: PartitionDataWriter => Unit,
+      onFailed: (String, IOException) => Unit): Seq[(String, PartitionDataWriter, Long)] = {
+    batch.foreach { case (uniqueId, writer) =>
+      try {
+        beforeClose(writer)
+        writer.prepareClose()
+      } catch {
+        case e: IOException =>
+          // close fails with the exception of the flush, or rejects the writer already closed
+          logDebug(s"Prepare to close $uniqueId failed.", e)
+      }
+    }
+    batch.flatMap { case (uniqueId, writer) =>
+      try {
+        Some((uniqueId, writer, writer.close()))
+      } catch {
+        case e: IOException =>
+          onFailed(uniqueId, e)
+          None
+      }
+    }
+  }
+
+  private def syncAndCommit(
+      mountPoint: String,
+      closed: Seq[(String, PartitionDataWriter, Long)],
+      onCommitted: (String, PartitionDataWriter, Long) => Unit,
+      onFailed: (String, IOException) => Unit): Unit = {
+    closed.foreach { case (uniqueId, writer, bytes) =>
+      try {
+        syncFile(writer)
+        onCommitted(uniqueId, writer, bytes)
+      } catch {
+        case NonFatal(e) =>
+          logError(s"Sync file of $uniqueId on disk $mountPoint failed.", e)
+          val exception = e match {
+            case ioe: IOException => ioe
+            case _ => new IOException(s"Sync file of $uniqueId failed.", e)
+          }
+          onFailed(uniqueId, exception)
+      }
+    }
+  }
+}
+
+private[worker] object CommitScheduler {
+  // the disks of the files on HDFS and in memory, which are not mount points
+  val HDFS_DISK = "HDFS"
+  val MEMORY_DISK = ""
+
+  def diskOf(writer: PartitionDataWriter): String = writer.flusher match {
+    case localFlusher: LocalFlusher => localFlusher.mountPoint
+    case _: HdfsFlusher => HDFS_DISK
+    case _ => MEMORY_DISK
+  }
+
+  def isLocalDisk(disk: String): Boolean = disk != HDFS_DISK && disk != MEMORY_DISK
+
+  /** Forces the data of the file closed by the writer to the disk. */
+  def forceFile(writer: PartitionDataWriter): Unit = {
+    val channel = FileChannel.open(writer.getFile.toPath, StandardOpenOption.WRITE)
+    try {
+      channel.force(false)
+    } finally {
+      channel.close()
+    }
+  }
+}
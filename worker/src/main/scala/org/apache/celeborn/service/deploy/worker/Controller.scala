@@ -57,6 +57,7 @@ private[deploy] class Controller(
   var partitionLocationInfo: WorkerPartitionLocationInfo = _
   var timer: HashedWheelTimer = _
   var commitThreadPool: ThreadPoolExecutor = _
+  var commitScheduler: CommitScheduler = _
   var waitThreadPool: ThreadPoolExecutor = _
   var asyncReplyPool: ScheduledExecutorService = _
   val minPartitionSizeToEstimate = conf.minPartitionSizeToEstimate
@@ -73,6 +74,13 @@ private[deploy] class Controller(
     partitionLocationInfo = worker.partitionLocationInfo
     timer = worker.timer
     commitThreadPool = worker.commitThreadPool
+    if (conf.workerCommitFilesSchedulerEnabled) {
+      commitScheduler = new CommitScheduler(
+        commitThreadPool,
+        conf.workerCommitFilesSchedulerMaxConcurrentCommitsPerDisk,
+        conf.workerCommitFilesSchedulerBatchSize,
+        conf.workerCommitFilesDurableEnabled)
+    }
     waitThreadPool = worker.waitThreadPool
     asyncReplyPool = worker.asyncReplyPool
     shutdown = worker.shutdown
@@ -284,51 +292,76 @@ private[deploy] class Controller(
       committedMapIdBitMap: ConcurrentHashMap[String, RoaringBitmap],
       partitionSizeList: LinkedBlockingQueue[Long],
       isPrimary: Boolean = true): CompletableFuture[Void] = {
-    var future: CompletableFuture[Void] = null
+    def getFileWriter(uniqueId: String): PartitionDataWriter = {
+      val location =
+        if (isPrimary) {
+          partitionLocationInfo.getPrimaryLocation(shuffleKey, uniqueId)
+        } else {
+          partitionLocationInfo.getReplicaLocation(shuffleKey, uniqueId)
+        }
+
+      if (location == null) {
+        logError(
+          s"Get Partition Location for $shuffleKey $uniqueId but didn't exist, treat as failed.")
+        failedIds.add(uniqueId)
+        null
+      } else {
+        location.asInstanceOf[WorkingPartition].getFileWriter
+      }
+    }
 
-    if (uniqueIds != null) {
+    def onCommitted(uniqueId: String, fileWriter: PartitionDataWriter, bytes: Long): Unit = {
+      if (bytes > 0L) {
+        if (fileWriter.getStorageInfo == null) {
+          // Only HDFS can be null, means that this partition location is deleted.
+          logDebug(s"Location $uniqueId is deleted.")
+        } else {
+          committedStorageInfos.put(uniqueId, fileWriter.getStorageInfo)
+          if (fileWriter.getMapIdBitMap != null) {
+            committedMapIdBitMap.put(uniqueId, fileWriter.getMapIdBitMap)
+          }
+          if (bytes >= minPartitionSizeToEstimate) {
+            partitionSizeList.add(bytes)
+          }
+          committedIds.add(uniqueId)
+        }
+      } else {
+        emptyFileIds.add(uniqueId)
+      }
+    }
+
+    def onFailed(uniqueId: String, e: IOException): Unit = {
+      logError(s"Commit file for $shuffleKey $uniqueId failed.", e)
+      failedIds.add(uniqueId)
+    }
+
+    if (uniqueIds == null) {
+      null
+    } else if (commitScheduler != null) {
+      val fileWriters = uniqueIds.asScala.flatMap { uniqueId =>
+        Option(getFileWriter(uniqueId)).map(uniqueId -> _)
+      }
+      commitScheduler.commit(
+        fileWriters,
+        waitMapPartitionRegionFinished(_, conf.workerShuffleCommitTimeout),
+        onCommitted,
+        onFailed)
+    } else {
+      var future: CompletableFuture[Void] = null
       uniqueIds.asScala.foreach { uniqueId =>
         val task = CompletableFuture.runAsync(
           new Runnable {
             override def run(): Unit = {
               try {
-                val location =
-                  if (isPrimary) {
-                    partitionLocationInfo.getPrimaryLocation(shuffleKey, uniqueId)
-                  } else {
-                    partitionLocationInfo.getReplicaLocation(shuffleKey, uniqueId)
-                  }
-
-                if (location == null) {
-                  logError(s"Get Partition Location for $shuffleKey $uniqueId but didn't exist, treat as failed.")
-                  failedIds.add(uniqueId)
+                val fileWriter = getFileWriter(uniqueId)
+                if (fileWriter == null) {
                   return
                 }
-
-                val fileWriter = location.asInstanceOf[WorkingPartition].getFileWriter
                 waitMapPartitionRegionFinished(fileWriter, conf.workerShuffleCommitTimeout)
-                val bytes = fileWriter.close()
-                if (bytes > 0L) {
-                  if (fileWriter.getStorageInfo == null) {
-                    // Only HDFS can be null, means that this partition location is deleted.
-                    logDebug(s"Location $uniqueId is deleted.")
-                  } else {
-                    committedStorageInfos.put(uniqueId, fileWriter.getStorageInfo)
-                    if (fileWriter.getMapIdBitMap != null) {
-                      committedMapIdBitMap.put(uniqueId, fileWriter.getMapIdBitMap)
-                    }
-                    if (bytes >= minPartitionSizeToEstimate) {
-                      partitionSizeList.add(bytes)
-                    }
-                    committedIds.add(uniqueId)
-                  }
-                } else {
-                  emptyFileIds.add(uniqueId)
-                }
+                onCommitted(uniqueId, fileWriter, fileWriter.close())
               } catch {
                 case e: IOException =>
-                  logError(s"Commit file for $shuffleKey $uniqueId failed.", e)
-                  failedIds.add(uniqueId)
+                  onFailed(uniqueId, e)
               }
             }
           },
@@ -340,9 +373,8 @@ private[deploy] class Controller(
           future = CompletableFuture.allOf(future, task)
         }
       }
+      future
     }
-
-    future
   }
 
   private def waitMapPartitionRegionFinished(
@@ -443,7 +475,8 @@ private[deploy] class Controller(
       } else {
         logInfo(s"Start commitFiles for $shuffleKey")
         commitInfo.status = CommitInfo.COMMIT_INPROCESS
-        workerSource.startTimer(WorkerSource.COMMIT_FILES_TIME, shuffleKey)
+        // the requests of a shuffle can be pipelined, so they are timed by epoch
+        workerSource.startTimer(WorkerSource.COMMIT_FILES_TIME, s"$shuffleKey-$epoch")
       }
     }
 
@@ -577,7 +610,7 @@ private[deploy] class Controller(
       }
       context.reply(response)
 
-      workerSource.stopTimer(WorkerSource.COMMIT_FILES_TIME, shuffleKey)
+      workerSource.stopTimer(WorkerSource.COMMIT_FILES_TIME, s"$shuffleKey-$epoch")
     }
 
     if (future != null) {
@@ -20,9 +20,9 @@ package org.apache.celeborn.service.deploy.worker
 import java.io.{FileNotFoundException, IOException}
 import java.nio.charset.StandardCharsets
 import java.util
-import java.util.concurrent.{Future => JFuture}
+import java.util.concurrent.{Future => JFuture, RejectedExecutionException}
 import java.util.concurrent.atomic.AtomicBoolean
-import java.util.function.Consumer
+import java.util.function.{BooleanSupplier, Consumer}
 
 import scala.collection.JavaConverters._
 
@@ -31,19 +31,20 @@ import com.google.protobuf.GeneratedMessageV3
 import io.netty.util.concurrent.{Future, GenericFutureListener}
 
 import org.apache.celeborn.common.CelebornConf
-import org.apache.celeborn.common.CelebornConf.MAX_CHUNKS_BEING_TRANSFERRED
+import org.apache.celeborn.common.CelebornConf.{MAX_CHUNKS_BEING_TRANSFERRED, WORKER_FETCH_MAX_PENDING_CHUNKS}
 import org.apache.celeborn.common.exception.CelebornIOException
 import org.apache.celeborn.common.internal.Logging
-import org.apache.celeborn.common.meta.{DiskFileInfo, FileInfo, MapFileMeta, MemoryFileInfo, ReduceFileMeta}
-import org.apache.celeborn.common.network.buffer.{FileChunkBuffers, MemoryChunkBuffers, NioManagedBuffer}
+import org.apache.celeborn.common.meta.{DiskFileInfo, FileInfo, MapFileMeta, MapRangeIndex, MemoryFileInfo, ReduceFileMeta}
+import org.apache.celeborn.common.network.buffer.{FileChunkBuffers, MemoryChunkBuffers, NioManagedBuffer, SparseFileChunkBuffers}
 import org.apache.celeborn.common.network.client.{RpcResponseCallback, TransportClient}
 import org.apache.celeborn.common.network.protocol._
 import org.apache.celeborn.common.network.server.BaseMessageHandler
 import org.apache.celeborn.common.network.util.{NettyUtils, TransportConf}
 import org.apache.celeborn.common.protocol.{MessageType, PbBufferStreamEnd, PbChunkFetchRequest, PbOpenStream, PbOpenStreamList, PbOpenStreamListResponse, PbReadAddCredit, PbStreamHandler, PbStreamHandlerOpt, StreamType}
 import org.apache.celeborn.common.protocol.message.StatusCode
-import org.apache.celeborn.common.util.{ExceptionUtils, Utils}
-import org.apache.celeborn.service.deploy.worker.storage.{ChunkStreamManager, CreditStreamManager, PartitionFilesSorter, StorageManager}
+import org.apache.celeborn.common.util.{ExceptionUtils, ThreadUtils, Utils}
+import org.apache.celeborn.service.deploy.worker.storage.{ChunkFetchAdmissionController, ChunkStreamManager, CreditStreamManager, PartitionFilesSorter, StorageManager}
+import org.apache.celeborn.service.deploy.worker.storage.ChunkFetchAdmissionController.Admission
 
 class FetchHandler(
     val conf: CelebornConf,
@@ -51,8 +52,20 @@ class FetchHandler(
     val workerSource: WorkerSource)
   extends BaseMessageHandler with Logging {
 
-  val chunkStreamManager = new ChunkStreamManager()
+  private val readAheadChunks = conf.workerFetchReadAheadChunks
+  private val readAheadPool =
+    if (readAheadChunks > 0) {
+      ThreadUtils.newDaemonFixedThreadPool(
+        conf.workerFetchReadAheadThreads,
+        "worker-fetch-read-ahead")
+    } else {
+      null
+    }
+  val chunkStreamManager = new ChunkStreamManager(readAheadChunks, readAheadPool)
   val maxChunkBeingTransferred: Option[Long] = conf.shuffleIoMaxChunksBeingTransferred
+  val chunkFetchAdmissionController = new ChunkFetchAdmissionController(
+    maxChunkBeingTransferred.getOrElse(Long.MaxValue),
+    conf.workerFetchMaxPendingChunks)
 
   val creditStreamManager = new CreditStreamManager(
     conf.partitionReadBuffersMin,
@@ -139,6 +152,7 @@ class FetchHandler(
           rpcRequest.requestId,
           isLegacy = false,
           openStream.getReadLocalShuffle,
+          openStream.getRequireChunkOffsets,
           callback)
       case openStreamList: PbOpenStreamList =>
         val shuffleKey = openStreamList.getShuffleKey()
@@ -146,6 +160,8 @@ class FetchHandler(
         val startIndices = openStreamList.getStartIndexList
         val endIndices = openStreamList.getEndIndexList
         val readLocalFlags = openStreamList.getReadLocalShuffleList
+        // older clients do not send the flags
+        val requireChunkOffsetsFlags = openStreamList.getRequireChunkOffsetsList
         val pbOpenStreamListResponse = PbOpenStreamListResponse.newBuilder()
         checkAuth(client, Utils.splitShuffleKey(shuffleKey)._1)
         0 until files.size() foreach { idx =>
@@ -155,7 +171,8 @@ class FetchHandler(
             files.get(idx),
             startIndices.get(idx),
             endIndices.get(idx),
-            readLocalFlags.get(idx))
+            readLocalFlags.get(idx),
+            idx < requireChunkOffsetsFlags.size() && requireChunkOffsetsFlags.get(idx))
           if (pbStreamHandlerOpt.getStatus != StatusCode.SUCCESS.getValue) {
             workerSource.incCounter(WorkerSource.OPEN_STREAM_FAIL_COUNT)
           }
@@ -204,6 +221,7 @@ class FetchHandler(
             isLegacy = true,
             // legacy [[OpenStream]] doesn't support read local shuffle
             readLocalShuffle = false,
+            requireChunkOffsets = false,
             callback)
         case Message.Type.OPEN_STREAM_WITH_CREDIT =>
           val openStreamWithCredit = message.asInstanceOf[OpenStreamWithCredit]
@@ -217,6 +235,7 @@ class FetchHandler(
             rpcRequestId = rpcRequest.requestId,
             isLegacy = true,
             readLocalShuffle = false,
+            requireChunkOffsets = false,
             callback)
         case _ =>
           logError(s"Received an unknown message type id: ${message.`type`.id}")
@@ -234,7 +253,8 @@ class FetchHandler(
       fileName: String,
       startIndex: Int,
       endIndex: Int,
-      readLocalShuffle: Boolean = false): PbStreamHandlerOpt = {
+      readLocalShuffle: Boolean = false,
+      requireChunkOffsets: Boolean = false): PbStreamHandlerOpt = {
     try {
       logDebug(s"Received open stream request $shuffleKey $fileName $startIndex " +
         s"$endIndex get file name $fileName from client channel " +
@@ -242,12 +262,20 @@ class FetchHandler(
 
       var fileInfo = getRawFileInfo(shuffleKey, fileName)
       val streamId = chunkStreamManager.nextStreamId()
+      // a range openStream request is served from the unsorted file by its map range index,
+      // as long as the unsorted file has not been deleted by a sort
+      val mapRangeIndex = getMapRangeIndex(fileInfo, endIndex, readLocalShuffle)
+      val readByIndex = mapRangeIndex != null && fileInfo.addStream(streamId)
+      if (mapRangeIndex != null && !readByIndex) {
+        // the unsorted file is gone, so its index is no longer of use
+        fileInfo.getReduceFileMeta.setMapRangeIndex(null)
+      }
       // we must get sorted fileInfo for the following cases.
       // 1. when the current request is a non-range openStream, but the original unsorted file
       //    has been deleted by another range's openStream request.
-      // 2. when the current request is a range openStream request.
-      if ((endIndex != Int.MaxValue) || (endIndex == Int.MaxValue
-          && !fileInfo.addStream(streamId))) {
+      // 2. when the current request is a range openStream request which is not read by index.
+      if (!readByIndex && ((endIndex != Int.MaxValue) || (endIndex == Int.MaxValue
+          && !fileInfo.addStream(streamId)))) {
         fileInfo = partitionsSorter.getSortedFileInfo(
           shuffleKey,
           fileName,
@@ -276,6 +304,11 @@ class FetchHandler(
             makeStreamHandler(streamId, numChunks = 0)
           case _ =>
             val managedBuffer = fileInfo match {
+              case df: DiskFileInfo if readByIndex =>
+                new SparseFileChunkBuffers(
+                  df.getFile,
+                  mapRangeIndex.select(startIndex, endIndex),
+                  transportConf)
               case df: DiskFileInfo =>
                 new FileChunkBuffers(df, transportConf)
               case mf: MemoryFileInfo =>
@@ -294,17 +327,23 @@ class FetchHandler(
               managedBuffer,
               fileName,
               fetchTimeMetric)
-            if (meta.getNumChunks == 0)
+            if (managedBuffer.numChunks == 0)
               logDebug(s"StreamId $streamId, fileName $fileName, mapRange " +
                 s"[$startIndex-$endIndex] is empty. Received from client channel " +
                 s"${NettyUtils.getRemoteAddress(client.getChannel)}")
             else logDebug(
-              s"StreamId $streamId, fileName $fileName, numChunks ${meta.getNumChunks}, " +
+              s"StreamId $streamId, fileName $fileName, numChunks ${managedBuffer.numChunks}, " +
                 s"mapRange [$startIndex-$endIndex]. Received from client channel " +
                 s"${NettyUtils.getRemoteAddress(client.getChannel)}")
-            makeStreamHandler(
-              streamId,
-              meta.getNumChunks)
+            // chunk offsets let the client size the chunks it prefetches
+            if (requireChunkOffsets) {
+              makeStreamHandler(
+                streamId,
+                managedBuffer.numChunks,
+                managedBuffer.chunkOffsets)
+            } else {
+              makeStreamHandler(streamId, managedBuffer.numChunks)
+            }
         }
       workerSource.incCounter(WorkerSource.OPEN_STREAM_SUCCESS_COUNT)
       PbStreamHandlerOpt.newBuilder().setStreamHandler(streamHandler)
@@ -322,6 +361,18 @@ class FetchHandler(
     }
   }
 
+  private def getMapRangeIndex(
+      fileInfo: FileInfo,
+      endIndex: Int,
+      readLocalShuffle: Boolean): MapRangeIndex = {
+    fileInfo match {
+      case info: DiskFileInfo if endIndex != Int.MaxValue && !readLocalShuffle && !info.isHdfs =>
+        val index = info.getReduceFileMeta.getMapRangeIndex
+        if (index != null && !index.isDropped) index else null
+      case _ => null
+    }
+  }
+
   private def handleOpenStreamInternal(
       client: TransportClient,
       shuffleKey: String,
@@ -332,6 +383,7 @@ class FetchHandler(
       rpcRequestId: Long,
       isLegacy: Boolean,
       readLocalShuffle: Boolean = false,
+      requireChunkOffsets: Boolean = false,
       callback: RpcResponseCallback): Unit = {
     checkAuth(client, Utils.splitShuffleKey(shuffleKey)._1)
     workerSource.recordAppActiveConnection(client, shuffleKey)
@@ -347,7 +399,8 @@ class FetchHandler(
               fileName,
               startIndex,
               endIndex,
-              readLocalShuffle)
+              readLocalShuffle,
+              requireChunkOffsets)
 
           if (pbStreamHandlerOpt.getStatus != StatusCode.SUCCESS.getValue) {
             throw new CelebornIOException(pbStreamHandlerOpt.getErrorMsg)
@@ -458,6 +511,7 @@ class FetchHandler(
         val (shuffleKey, fileName) = (streamState.shuffleKey, streamState.fileName)
         workerSource.recordAppActiveConnection(client, shuffleKey)
         getRawFileInfo(shuffleKey, fileName).closeStream(streamId)
+        chunkStreamManager.endStream(streamId)
       case StreamType.CreditStream =>
         val shuffleKey = creditStreamManager.getStreamShuffleKey(streamId)
         if (shuffleKey != null) {
@@ -488,25 +542,46 @@ class FetchHandler(
     logDebug(s"Received req from ${NettyUtils.getRemoteAddress(client.getChannel)}" +
       s" to fetch block $streamChunkSlice")
 
-    workerSource.recordAppActiveConnection(
-      client,
-      chunkStreamManager.getShuffleKeyAndFileName(streamChunkSlice.streamId)._1)
-
-    maxChunkBeingTransferred.foreach { threshold =>
-      val chunksBeingTransferred = chunkStreamManager.chunksBeingTransferred // take high cpu usage
-      if (chunksBeingTransferred > threshold) {
-        val message = "Worker is too busy. The number of chunks being transferred " +
-          s"$chunksBeingTransferred exceeds ${MAX_CHUNKS_BEING_TRANSFERRED.key} " +
-          s"${Utils.bytesToString(threshold)}."
+    val appId = chunkStreamManager.getStreamState(streamChunkSlice.streamId).appId()
+    workerSource.recordActiveConnectionOfApp(client, appId)
+
+    val deferredFetch = new Runnable {
+      override def run(): Unit = {
+        try {
+          client.getChannel.eventLoop().execute(new Runnable {
+            override def run(): Unit = fetchChunk(client, streamChunkSlice)
+          })
+        } catch {
+          case e: RejectedExecutionException =>
+            logWarning(s"Failed to run the pending fetch of chunk $streamChunkSlice", e)
+            workerSource.incCounter(WorkerSource.FETCH_CHUNK_FAIL_COUNT)
+            chunkFetchAdmissionController.chunkSent()
+        }
+      }
+    }
+    // the pending fetch is dropped once the client is gone, without taking a chunk to transfer
+    val fetchCancelled = new BooleanSupplier {
+      override def getAsBoolean: Boolean = !client.getChannel.isActive
+    }
+    chunkFetchAdmissionController.admit(appId, deferredFetch, fetchCancelled) match {
+      case Admission.ADMITTED =>
+        fetchChunk(client, streamChunkSlice)
+      case Admission.DEFERRED =>
+        logDebug(s"Chunks being transferred exceed ${MAX_CHUNKS_BEING_TRANSFERRED.key}, " +
+          s"fetch of chunk $streamChunkSlice is pending.")
+      case Admission.REJECTED =>
+        val message = "Worker is too busy. The number of chunks being transferred exceeds " +
+          s"${MAX_CHUNKS_BEING_TRANSFERRED.key} ${maxChunkBeingTransferred.get} and the " +
+          s"number of pending chunk fetches exceeds ${WORKER_FETCH_MAX_PENDING_CHUNKS.key} " +
+          s"${conf.workerFetchMaxPendingChunks}."
         logError(message)
         workerSource.incCounter(WorkerSource.FETCH_CHUNK_FAIL_COUNT)
         client.getChannel.writeAndFlush(new ChunkFetchFailure(streamChunkSlice, message))
-        return
-      }
     }
+  }
 
-    val reqStr = req.toString
-    workerSource.startTimer(WorkerSource.FETCH_CHUNK_TIME, reqStr)
+  private def fetchChunk(client: TransportClient, streamChunkSlice: StreamChunkSlice): Unit = {
+    val fetchStartTime = workerSource.startTiming()
     val fetchTimeMetric = chunkStreamManager.getFetchTimeMetric(streamChunkSlice.streamId)
     val fetchBeginTime = System.nanoTime()
     try {
@@ -515,7 +590,6 @@ class FetchHandler(
         streamChunkSlice.chunkIndex,
         streamChunkSlice.offset,
         streamChunkSlice.len)
-      chunkStreamManager.chunkBeingSent(streamChunkSlice.streamId)
       client.getChannel.writeAndFlush(new ChunkFetchSuccess(streamChunkSlice, buf))
         .addListener(new GenericFutureListener[Future[_ >: Void]] {
           override def operationComplete(future: Future[_ >: Void]): Unit = {
@@ -530,11 +604,11 @@ class FetchHandler(
                 future.cause())
             }
             workerSource.incCounter(WorkerSource.FETCH_CHUNK_SUCCESS_COUNT)
-            chunkStreamManager.chunkSent(streamChunkSlice.streamId)
+            chunkFetchAdmissionController.chunkSent()
             if (fetchTimeMetric != null) {
               fetchTimeMetric.update(System.nanoTime() - fetchBeginTime)
             }
-            workerSource.stopTimer(WorkerSource.FETCH_CHUNK_TIME, reqStr)
+            workerSource.stopTiming(WorkerSource.FETCH_CHUNK_TIME, fetchStartTime)
           }
         })
     } catch {
@@ -544,10 +618,11 @@ class FetchHandler(
             NettyUtils.getRemoteAddress(client.getChannel),
           e)
         workerSource.incCounter(WorkerSource.FETCH_CHUNK_FAIL_COUNT)
+        chunkFetchAdmissionController.chunkSent()
         client.getChannel.writeAndFlush(new ChunkFetchFailure(
           streamChunkSlice,
           Throwables.getStackTraceAsString(e)))
-        workerSource.stopTimer(WorkerSource.FETCH_CHUNK_TIME, reqStr)
+        workerSource.stopTiming(WorkerSource.FETCH_CHUNK_TIME, fetchStartTime)
     }
   }
 
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.worker
+
+import java.util
+
+import scala.collection.JavaConverters._
+
+import org.apache.celeborn.common.identity.UserIdentifier
+import org.apache.celeborn.common.meta.{DiskInfo, WorkerStatus}
+import org.apache.celeborn.common.protocol.PbDiskInfo
+import org.apache.celeborn.common.protocol.message.ControlMessages.HeartbeatFromWorker
+import org.apache.celeborn.common.quota.ResourceConsumption
+import org.apache.celeborn.common.util.PbSerDeUtils
+
+/**
+ * Builds the heartbeats of the worker as deltas of the last heartbeat acknowledged by master,
+ * which only hold the disks, user resource consumptions and shuffle keys changed since then. A
+ * full heartbeat is built for the first heartbeat, every fullSyncIntervalMs, after the worker
+ * registers again and when master requires one, e.g. master does not know the base version after
+ * a heartbeat failed without response. Heartbeats must be built and acknowledged by one thread.
+ */
+private[worker] class HeartbeatDeltaTracker(fullSyncIntervalMs: Long) {
+
+  private case class HeartbeatState(
+      version: Long,
+      disks: Map[String, PbDiskInfo],
+      userResourceConsumption: Map[UserIdentifier, ResourceConsumption],
+      shuffleKeys: util.Set[String])
+
+  private var version = 0L
+  private var acked: HeartbeatState = _
+  private var pending: HeartbeatState = _
+  private var lastFullHeartbeatTime = 0L
+  private var requireFullHeartbeat = true
+
+  def buildHeartbeat(
+      host: String,
+      rpcPort: Int,
+      pushPort: Int,
+      fetchPort: Int,
+      replicatePort: Int,
+      disks: Seq[DiskInfo],
+      userResourceConsumption: util.Map[UserIdentifier, ResourceConsumption],
+      activeShuffleKeys: util.HashSet[String],
+      estimatedAppDiskUsage: util.HashMap[String, java.lang.Long],
+      highWorkload: Boolean,
+      workerStatus: WorkerStatus,
+      currentTime: Long): HeartbeatFromWorker = {
+    version += 1
+    // PbDiskInfo is immutable, while the DiskInfo is updated in place by the next heartbeat
+    val pbDisks = disks.map(disk => disk.mountPoint -> PbSerDeUtils.toPbDiskInfo(disk)).toMap
+    val consumptions = userResourceConsumption.asScala.toMap
+    pending = HeartbeatState(version, pbDisks, consumptions, activeShuffleKeys)
+    if (acked == null || requireFullHeartbeat ||
+      currentTime - lastFullHeartbeatTime >= fullSyncIntervalMs) {
+      lastFullHeartbeatTime = currentTime
+      return HeartbeatFromWorker(
+        host,
+        rpcPort,
+        pushPort,
+        fetchPort,
+        replicatePort,
+        disks,
+        userResourceConsumption,
+        activeShuffleKeys,
+        estimatedAppDiskUsage,
+        highWorkload,
+        workerStatus,
+        version)
+    }
+
+    val changedDisks = disks.filter { disk =>
+      !acked.disks.get(disk.mountPoint).contains(pbDisks(disk.mountPoint))
+    }
+    val removedDisks = new util.HashSet[String]()
+    acked.disks.keys.filterNot(pbDisks.contains).foreach(removedDisks.add)
+    val changedConsumptions = new util.HashMap[UserIdentifier, ResourceConsumption]()
+    consumptions.foreach { case (userIdentifier, consumption) =>
+      if (!acked.userResourceConsumption.get(userIdentifier).contains(consumption)) {
+        changedConsumptions.put(userIdentifier, consumption)
+      }
+    }
+    val removedUserIdentifiers = new util.HashSet[UserIdentifier]()
+    acked.userResourceConsumption.keys.filterNot(consumptions.contains)
+      .foreach(removedUserIdentifiers.add)
+    val addedShuffleKeys = new util.HashSet[String]()
+    activeShuffleKeys.asScala.foreach { shuffleKey =>
+      if (!acked.shuffleKeys.contains(shuffleKey)) {
+        addedShuffleKeys.add(shuffleKey)
+      }
+    }
+    val removedShuffleKeys = new util.HashSet[String]()
+    acked.shuffleKeys.asScala.foreach { shuffleKey =>
+      if (!activeShuffleKeys.contains(shuffleKey)) {
+        removedShuffleKeys.add(shuffleKey)
+      }
+    }
+    HeartbeatFromWorker(
+      host,
+      rpcPort,
+      pushPort,
+      fetchPort,
+      replicatePort,
+      changedDisks,
+      changedConsumptions,
+      addedShuffleKeys,
+      estimatedAppDiskUsage,
+      highWorkload,
+      workerStatus,
+      version,
+      delta = true,
+      baseHeartbeatVersion = acked.version,
+      removedDisks = removedDisks,
+      removedUserIdentifiers = removedUserIdentifiers,
+      removedShuffleKeys = removedShuffleKeys)
+  }
+
+  /** Acknowledges the last built heartbeat with the response of master. */
+  def ack(requireFullHeartbeat: Boolean): Unit = {
+    acked = pending
+    pending = null
+    this.requireFullHeartbeat = requireFullHeartbeat
+  }
+
+  /** Requires the next heartbeat to be a full one. */
+  def reset(): Unit = {
+    pending = null
+    requireFullHeartbeat = true
+  }
+}
@@ -18,8 +18,8 @@
 package org.apache.celeborn.service.deploy.worker
 
 import java.nio.ByteBuffer
-import java.util.concurrent.{ConcurrentHashMap, ThreadPoolExecutor}
-import java.util.concurrent.atomic.{AtomicBoolean, AtomicIntegerArray}
+import java.util.concurrent.{ConcurrentHashMap, ThreadLocalRandom, ThreadPoolExecutor}
+import java.util.concurrent.atomic.{AtomicBoolean, AtomicIntegerArray, AtomicReferenceArray}
 
 import scala.collection.JavaConverters._
 import scala.concurrent.{Await, Promise}
@@ -43,7 +43,7 @@ import org.apache.celeborn.common.protocol.{PartitionLocation, PartitionSplitMod
 import org.apache.celeborn.common.protocol.PbPartitionLocation.Mode
 import org.apache.celeborn.common.protocol.message.StatusCode
 import org.apache.celeborn.common.unsafe.Platform
-import org.apache.celeborn.common.util.{DiskUtils, ExceptionUtils, Utils}
+import org.apache.celeborn.common.util.{DiskUtils, ExceptionUtils, JavaUtils, ThreadUtils, Utils}
 import org.apache.celeborn.service.deploy.worker.congestcontrol.CongestionController
 import org.apache.celeborn.service.deploy.worker.storage.{HdfsFlusher, LocalFlusher, MapPartitionDataWriter, PartitionDataWriter, StorageManager}
 
@@ -56,6 +56,9 @@ class PushDataHandler(val workerSource: WorkerSource) extends BaseMessageHandler
   private var replicateThreadPool: ThreadPoolExecutor = _
   private var unavailablePeers: ConcurrentHashMap[WorkerInfo, Long] = _
   private var replicateClientFactory: TransportClientFactory = _
+  private var numReplicateConnectionsPerPeer: Int = _
+  // peer host and ports -> the peer and its cached replicate clients
+  private val replicatePeers = JavaUtils.newConcurrentHashMap[String, ReplicatePeer]()
   private var registered: Option[AtomicBoolean] = None
   private var workerInfo: WorkerInfo = _
   private var diskReserveSize: Long = _
@@ -76,9 +79,12 @@ class PushDataHandler(val workerSource: WorkerSource) extends BaseMessageHandler
     shufflePartitionType = worker.shufflePartitionType
     shufflePushDataTimeout = worker.shufflePushDataTimeout
     shuffleMapperAttempts = worker.shuffleMapperAttempts
-    replicateThreadPool = worker.replicateThreadPool
-    unavailablePeers = worker.unavailablePeers
-    replicateClientFactory = worker.replicateClientFactory
+    initReplicate(
+      worker.replicateThreadPool,
+      worker.unavailablePeers,
+      worker.replicateClientFactory,
+      worker.replicateClientFactory.getContext.getConf.numConnectionsPerPeer(),
+      worker.conf.workerReplicateRandomConnectionEnabled)
     registered = Some(worker.registered)
     workerInfo = worker.workerInfo
     diskReserveSize = worker.conf.workerDiskReserveSize
@@ -91,7 +97,6 @@ class PushDataHandler(val workerSource: WorkerSource) extends BaseMessageHandler
     storageManager = worker.storageManager
     shutdown = worker.shutdown
     workerPartitionSplitEnabled = worker.conf.workerPartitionSplitEnabled
-    workerReplicateRandomConnectionEnabled = worker.conf.workerReplicateRandomConnectionEnabled
 
     testPushPrimaryDataTimeout = worker.conf.testPushPrimaryDataTimeout
     testPushReplicaDataTimeout = worker.conf.testPushReplicaDataTimeout
@@ -100,6 +105,19 @@ class PushDataHandler(val workerSource: WorkerSource) extends BaseMessageHandler
       s"diskReserveSize ${Utils.bytesToString(diskReserveSize)}, diskReserveRatio ${diskReserveRatio.orNull}")
   }
 
+  private[worker] def initReplicate(
+      replicateThreadPool: ThreadPoolExecutor,
+      unavailablePeers: ConcurrentHashMap[WorkerInfo, Long],
+      replicateClientFactory: TransportClientFactory,
+      numReplicateConnectionsPerPeer: Int,
+      workerReplicateRandomConnectionEnabled: Boolean): Unit = {
+    this.replicateThreadPool = replicateThreadPool
+    this.unavailablePeers = unavailablePeers
+    this.replicateClientFactory = replicateClientFactory
+    this.numReplicateConnectionsPerPeer = numReplicateConnectionsPerPeer
+    this.workerReplicateRandomConnectionEnabled = workerReplicateRandomConnectionEnabled
+  }
+
   override def receive(
       client: TransportClient,
       msg: RequestMessage,
@@ -169,19 +187,16 @@ class PushDataHandler(val workerSource: WorkerSource) extends BaseMessageHandler
       return
     }
 
-    val key = s"${pushData.requestId}"
     val callbackWithTimer =
       if (isPrimary) {
         new RpcResponseCallbackWithTimer(
           workerSource,
           WorkerSource.PRIMARY_PUSH_DATA_TIME,
-          key,
           callback)
       } else {
         new RpcResponseCallbackWithTimer(
           workerSource,
           WorkerSource.REPLICA_PUSH_DATA_TIME,
-          key,
           callback)
       }
 
@@ -275,106 +290,43 @@ class PushDataHandler(val workerSource: WorkerSource) extends BaseMessageHandler
     // for primary, send data to replica
     if (doReplicate) {
       pushData.body().retain()
-      replicateThreadPool.submit(new Runnable {
-        override def run(): Unit = {
-          val peer = location.getPeer
-          val peerWorker = new WorkerInfo(
-            peer.getHost,
-            peer.getRpcPort,
-            peer.getPushPort,
-            peer.getFetchPort,
-            peer.getReplicatePort)
-          if (unavailablePeers.containsKey(peerWorker)) {
-            pushData.body().release()
-            workerSource.incCounter(WorkerSource.REPLICATE_DATA_CREATE_CONNECTION_FAIL_COUNT)
-            logError(
-              s"PushData replication failed caused by unavailable peer for partitionLocation: $location")
-            callbackWithTimer.onFailure(
-              new CelebornIOException(StatusCode.PUSH_DATA_CREATE_CONNECTION_FAIL_REPLICA))
-            return
-          }
-
-          // Handle the response from replica
-          val wrappedCallback = new RpcResponseCallback() {
-            override def onSuccess(response: ByteBuffer): Unit = {
-              Try(Await.result(writePromise.future, Duration.Inf)) match {
-                case Success(_) =>
-                  if (response.remaining() > 0) {
-                    val resp = ByteBuffer.allocate(response.remaining())
-                    resp.put(response)
-                    resp.flip()
-                    callbackWithTimer.onSuccess(resp)
-                  } else if (softSplit.get()) {
-                    // TODO Currently if the worker is in soft split status, given the guess that the client
-                    // will fast stop pushing data to the worker, we won't return congest status. But
-                    // in the long term, especially if this issue could frequently happen, we may need to return
-                    // congest&softSplit status together
-                    callbackWithTimer.onSuccess(
-                      ByteBuffer.wrap(Array[Byte](StatusCode.SOFT_SPLIT.getValue)))
-                  } else {
-                    Option(CongestionController.instance()) match {
-                      case Some(congestionController) =>
-                        if (congestionController.isUserCongested(
-                            fileWriter.getDiskFileInfo.getUserIdentifier)) {
-                          // Check whether primary congest the data though the replicas doesn't congest
-                          // it(the response is empty)
-                          callbackWithTimer.onSuccess(
-                            ByteBuffer.wrap(
-                              Array[Byte](StatusCode.PUSH_DATA_SUCCESS_PRIMARY_CONGESTED.getValue)))
-                        } else {
-                          callbackWithTimer.onSuccess(ByteBuffer.wrap(Array[Byte]()))
-                        }
-                      case None =>
-                        callbackWithTimer.onSuccess(ByteBuffer.wrap(Array[Byte]()))
-                    }
-                  }
-                case Failure(e) => callbackWithTimer.onFailure(e)
-              }
-            }
-
-            override def onFailure(e: Throwable): Unit = {
-              logError(s"PushData replication failed for partitionLocation: $location", e)
-              // 1. Throw PUSH_DATA_WRITE_FAIL_REPLICA by replica peer worker
-              // 2. Throw PUSH_DATA_TIMEOUT_REPLICA by TransportResponseHandler
-              // 3. Throw IOException by channel, convert to PUSH_DATA_CONNECTION_EXCEPTION_REPLICA
-              if (e.getMessage.startsWith(StatusCode.PUSH_DATA_WRITE_FAIL_REPLICA.name())) {
-                workerSource.incCounter(WorkerSource.REPLICATE_DATA_WRITE_FAIL_COUNT)
-                callbackWithTimer.onFailure(e)
-              } else if (e.getMessage.startsWith(StatusCode.PUSH_DATA_TIMEOUT_REPLICA.name())) {
-                workerSource.incCounter(WorkerSource.REPLICATE_DATA_TIMEOUT_COUNT)
-                callbackWithTimer.onFailure(e)
-              } else if (ExceptionUtils.connectFail(e.getMessage)) {
-                workerSource.incCounter(WorkerSource.REPLICATE_DATA_CONNECTION_EXCEPTION_COUNT)
-                callbackWithTimer.onFailure(
-                  new CelebornIOException(StatusCode.PUSH_DATA_CONNECTION_EXCEPTION_REPLICA))
-              } else {
-                workerSource.incCounter(WorkerSource.REPLICATE_DATA_FAIL_NON_CRITICAL_CAUSE_COUNT)
-                callbackWithTimer.onFailure(
-                  new CelebornIOException(StatusCode.PUSH_DATA_FAIL_NON_CRITICAL_CAUSE_REPLICA))
-              }
+      // Handle the response from replica
+      val wrappedCallback =
+        replicaResponseCallback(location, "PushData", writePromise, callbackWithTimer) { () =>
+          if (softSplit.get()) {
+            // TODO Currently if the worker is in soft split status, given the guess that the
+            // client will fast stop pushing data to the worker, we won't return congest status.
+            // But in the long term, especially if this issue could frequently happen, we may need
+            // to return congest&softSplit status together
+            callbackWithTimer.onSuccess(
+              ByteBuffer.wrap(Array[Byte](StatusCode.SOFT_SPLIT.getValue)))
+          } else {
+            Option(CongestionController.instance()) match {
+              case Some(congestionController) =>
+                if (congestionController.isUserCongested(
+                    fileWriter.getDiskFileInfo.getUserIdentifier)) {
+                  // Check whether primary congest the data though the replicas doesn't congest
+                  // it(the response is empty)
+                  callbackWithTimer.onSuccess(
+                    ByteBuffer.wrap(
+                      Array[Byte](StatusCode.PUSH_DATA_SUCCESS_PRIMARY_CONGESTED.getValue)))
+                } else {
+                  callbackWithTimer.onSuccess(ByteBuffer.wrap(Array[Byte]()))
+                }
+              case None =>
+                callbackWithTimer.onSuccess(ByteBuffer.wrap(Array[Byte]()))
             }
           }
-          try {
-            val client = getReplicateClient(peer.getHost, peer.getReplicatePort, location.getId)
-            val newPushData = new PushData(
-              PartitionLocation.Mode.REPLICA.mode(),
-              shuffleKey,
-              pushData.partitionUniqueId,
-              pushData.body)
-            client.pushData(newPushData, shufflePushDataTimeout.get(shuffleKey), wrappedCallback)
-          } catch {
-            case e: Exception =>
-              pushData.body().release()
-              unavailablePeers.put(peerWorker, System.currentTimeMillis())
-              workerSource.incCounter(WorkerSource.REPLICATE_DATA_CREATE_CONNECTION_FAIL_COUNT)
-              logError(
-                s"PushData replication failed during connecting peer for partitionLocation: $location",
-                e)
-              callbackWithTimer.onFailure(
-                new CelebornIOException(StatusCode.PUSH_DATA_CREATE_CONNECTION_FAIL_REPLICA))
-          }
         }
-      })
+      val newPushData = new PushData(
+        PartitionLocation.Mode.REPLICA.mode(),
+        shuffleKey,
+        pushData.partitionUniqueId,
+        pushData.body)
+      replicate(location, "PushData", callbackWithTimer, () => pushData.body().release()) {
+        client =>
+          client.pushData(newPushData, shufflePushDataTimeout.get(shuffleKey), wrappedCallback)
+      }
       writeLocalData(Seq(fileWriter), body, shuffleKey, isPrimary, None, writePromise)
     } else {
       // The codes here could be executed if
@@ -425,19 +377,16 @@ class PushDataHandler(val workerSource: WorkerSource) extends BaseMessageHandler
     val body = pushMergedData.body.asInstanceOf[NettyManagedBuffer].getBuf
     val isPrimary = mode == PartitionLocation.Mode.PRIMARY
 
-    val key = s"${pushMergedData.requestId}"
     val callbackWithTimer =
       if (isPrimary) {
         new RpcResponseCallbackWithTimer(
           workerSource,
           WorkerSource.PRIMARY_PUSH_DATA_TIME,
-          key,
           callback)
       } else {
         new RpcResponseCallbackWithTimer(
           workerSource,
           WorkerSource.REPLICA_PUSH_DATA_TIME,
-          key,
           callback)
       }
 
@@ -546,106 +495,43 @@ class PushDataHandler(val workerSource: WorkerSource) extends BaseMessageHandler
     // for primary, send data to replica
     if (doReplicate) {
       pushMergedData.body().retain()
-      replicateThreadPool.submit(new Runnable {
-        override def run(): Unit = {
-          val location = partitionIdToLocations.head._2
-          val peer = location.getPeer
-          val peerWorker = new WorkerInfo(
-            peer.getHost,
-            peer.getRpcPort,
-            peer.getPushPort,
-            peer.getFetchPort,
-            peer.getReplicatePort)
-          if (unavailablePeers.containsKey(peerWorker)) {
-            pushMergedData.body().release()
-            workerSource.incCounter(WorkerSource.REPLICATE_DATA_CREATE_CONNECTION_FAIL_COUNT)
-            logError(
-              s"PushMergedData replication failed caused by unavailable peer for partitionLocation: $location")
-            callbackWithTimer.onFailure(
-              new CelebornIOException(StatusCode.PUSH_DATA_CREATE_CONNECTION_FAIL_REPLICA))
-            return
-          }
-
-          // Handle the response from replica
-          val wrappedCallback = new RpcResponseCallback() {
-            override def onSuccess(response: ByteBuffer): Unit = {
-              Try(Await.result(writePromise.future, Duration.Inf)) match {
-                case Success(_) =>
-                  // Only primary data enable replication will push data to replica
-                  if (response.remaining() > 0) {
-                    val resp = ByteBuffer.allocate(response.remaining())
-                    resp.put(response)
-                    resp.flip()
-                    callbackWithTimer.onSuccess(resp)
-                  } else {
-                    Option(CongestionController.instance()) match {
-                      case Some(congestionController) if fileWriters.nonEmpty =>
-                        if (congestionController.isUserCongested(
-                            fileWriters.head.getDiskFileInfo.getUserIdentifier)) {
-                          // Check whether primary congest the data though the replicas doesn't congest
-                          // it(the response is empty)
-                          callbackWithTimer.onSuccess(
-                            ByteBuffer.wrap(
-                              Array[Byte](StatusCode.PUSH_DATA_SUCCESS_PRIMARY_CONGESTED.getValue)))
-                        } else {
-                          callbackWithTimer.onSuccess(ByteBuffer.wrap(Array[Byte]()))
-                        }
-                      case None =>
-                        callbackWithTimer.onSuccess(ByteBuffer.wrap(Array[Byte]()))
-                    }
-                  }
-                case Failure(e) => callbackWithTimer.onFailure(e)
-              }
-            }
-
-            override def onFailure(e: Throwable): Unit = {
-              logError(s"PushMergedData replicate failed for partitionLocation: $location", e)
-              // 1. Throw PUSH_DATA_WRITE_FAIL_REPLICA by replica peer worker
-              // 2. Throw PUSH_DATA_TIMEOUT_REPLICA by TransportResponseHandler
-              // 3. Throw IOException by channel, convert to PUSH_DATA_CONNECTION_EXCEPTION_REPLICA
-              if (e.getMessage.startsWith(StatusCode.PUSH_DATA_WRITE_FAIL_REPLICA.name())) {
-                workerSource.incCounter(WorkerSource.REPLICATE_DATA_WRITE_FAIL_COUNT)
-                callbackWithTimer.onFailure(e)
-              } else if (e.getMessage.startsWith(StatusCode.PUSH_DATA_TIMEOUT_REPLICA.name())) {
-                workerSource.incCounter(WorkerSource.REPLICATE_DATA_TIMEOUT_COUNT)
-                callbackWithTimer.onFailure(e)
-              } else if (ExceptionUtils.connectFail(e.getMessage)) {
-                workerSource.incCounter(WorkerSource.REPLICATE_DATA_CONNECTION_EXCEPTION_COUNT)
-                callbackWithTimer.onFailure(
-                  new CelebornIOException(StatusCode.PUSH_DATA_CONNECTION_EXCEPTION_REPLICA))
-              } else {
-                workerSource.incCounter(WorkerSource.REPLICATE_DATA_FAIL_NON_CRITICAL_CAUSE_COUNT)
-                callbackWithTimer.onFailure(
-                  new CelebornIOException(StatusCode.PUSH_DATA_FAIL_NON_CRITICAL_CAUSE_REPLICA))
-              }
+      val location = partitionIdToLocations.head._2
+      // Handle the response from replica
+      val wrappedCallback =
+        replicaResponseCallback(location, "PushMergedData", writePromise, callbackWithTimer) {
+          () =>
+            Option(CongestionController.instance()) match {
+              case Some(congestionController) if fileWriters.nonEmpty =>
+                if (congestionController.isUserCongested(
+                    fileWriters.head.getDiskFileInfo.getUserIdentifier)) {
+                  // Check whether primary congest the data though the replicas doesn't congest
+                  // it(the response is empty)
+                  callbackWithTimer.onSuccess(
+                    ByteBuffer.wrap(
+                      Array[Byte](StatusCode.PUSH_DATA_SUCCESS_PRIMARY_CONGESTED.getValue)))
+                } else {
+                  callbackWithTimer.onSuccess(ByteBuffer.wrap(Array[Byte]()))
+                }
+              case None =>
+                callbackWithTimer.onSuccess(ByteBuffer.wrap(Array[Byte]()))
             }
-          }
-
-          try {
-            val client = getReplicateClient(peer.getHost, peer.getReplicatePort, location.getId)
-            val newPushMergedData = new PushMergedData(
-              PartitionLocation.Mode.REPLICA.mode(),
-              shuffleKey,
-              pushMergedData.partitionUniqueIds,
-              batchOffsets,
-              pushMergedData.body)
-            client.pushMergedData(
-              newPushMergedData,
-              shufflePushDataTimeout.get(shuffleKey),
-              wrappedCallback)
-          } catch {
-            case e: Exception =>
-              pushMergedData.body().release()
-              unavailablePeers.put(peerWorker, System.currentTimeMillis())
-              workerSource.incCounter(WorkerSource.REPLICATE_DATA_CREATE_CONNECTION_FAIL_COUNT)
-              logError(
-                s"PushMergedData replication failed during connecting peer for partitionLocation: $location",
-                e)
-              callbackWithTimer.onFailure(
-                new CelebornIOException(StatusCode.PUSH_DATA_CREATE_CONNECTION_FAIL_REPLICA))
-          }
         }
-      })
+      val newPushMergedData = new PushMergedData(
+        PartitionLocation.Mode.REPLICA.mode(),
+        shuffleKey,
+        pushMergedData.partitionUniqueIds,
+        batchOffsets,
+        pushMergedData.body)
+      replicate(
+        location,
+        "PushMergedData",
+        callbackWithTimer,
+        () => pushMergedData.body().release()) { client =>
+        client.pushMergedData(
+          newPushMergedData,
+          shufflePushDataTimeout.get(shuffleKey),
+          wrappedCallback)
+      }
       writeLocalData(fileWriters, body, shuffleKey, isPrimary, Some(batchOffsets), writePromise)
     } else {
       // The codes here could be executed if
@@ -714,19 +600,18 @@ class PushDataHandler(val workerSource: WorkerSource) extends BaseMessageHandler
   class RpcResponseCallbackWithTimer(
       source: Source,
       metricName: String,
-      key: String,
       callback: RpcResponseCallback)
     extends RpcResponseCallback {
-    source.startTimer(metricName, key)
+    private val startTime = source.startTiming()
 
     override def onSuccess(response: ByteBuffer): Unit = {
       callback.onSuccess(response)
-      source.stopTimer(metricName, key)
+      source.stopTiming(metricName, startTime)
     }
 
     override def onFailure(e: Throwable): Unit = {
       callback.onFailure(e)
-      source.stopTimer(metricName, key)
+      source.stopTiming(metricName, startTime)
     }
   }
 
@@ -769,13 +654,6 @@ class PushDataHandler(val workerSource: WorkerSource) extends BaseMessageHandler
     val body = pushData.body.asInstanceOf[NettyManagedBuffer].getBuf
     val isPrimary = mode == PartitionLocation.Mode.PRIMARY
 
-    val key = s"${pushData.requestId}"
-    if (isPrimary) {
-      workerSource.startTimer(WorkerSource.PRIMARY_PUSH_DATA_TIME, key)
-    } else {
-      workerSource.startTimer(WorkerSource.REPLICA_PUSH_DATA_TIME, key)
-    }
-
     // find FileWriter responsible for the data
     val location =
       if (isPrimary) {
@@ -788,7 +666,6 @@ class PushDataHandler(val workerSource: WorkerSource) extends BaseMessageHandler
       new WrappedRpcResponseCallback(
         pushData.`type`(),
         isPrimary,
-        pushData.requestId,
         null,
         location,
         if (isPrimary) WorkerSource.PRIMARY_PUSH_DATA_TIME else WorkerSource.REPLICA_PUSH_DATA_TIME,
@@ -975,14 +852,10 @@ class PushDataHandler(val workerSource: WorkerSource) extends BaseMessageHandler
       } else {
         partitionLocationInfo.getReplicaLocation(shuffleKey, partitionUniqueId)
       }
-    workerSource.startTimer(
-      if (isPrimary) workerSourcePrimary else workerSourceReplica,
-      s"$requestId")
     val wrappedCallback =
       new WrappedRpcResponseCallback(
         messageType,
         isPrimary,
-        requestId,
         null,
         location,
         if (isPrimary) workerSourcePrimary else workerSourceReplica,
@@ -1068,14 +941,15 @@ class PushDataHandler(val workerSource: WorkerSource) extends BaseMessageHandler
   class WrappedRpcResponseCallback(
       messageType: Message.Type,
       isPrimary: Boolean,
-      requestId: Long,
       softSplit: AtomicBoolean,
       location: PartitionLocation,
       workerSourceTime: String,
       callback: RpcResponseCallback)
     extends RpcResponseCallback {
+    private val startTime = workerSource.startTiming()
+
     override def onSuccess(response: ByteBuffer): Unit = {
-      workerSource.stopTimer(workerSourceTime, s"$requestId")
+      workerSource.stopTiming(workerSourceTime, startTime)
       if (isPrimary) {
         if (response.remaining() > 0) {
           val resp = ByteBuffer.allocate(response.remaining())
@@ -1093,7 +967,7 @@ class PushDataHandler(val workerSource: WorkerSource) extends BaseMessageHandler
     }
 
     override def onFailure(e: Throwable): Unit = {
-      workerSource.stopTimer(workerSourceTime, s"$requestId")
+      workerSource.stopTiming(workerSourceTime, startTime)
       if (location != null) {
         logError(s"[handle$messageType.onFailure] partitionLocation: $location")
       }
@@ -1239,11 +1113,147 @@ class PushDataHandler(val workerSource: WorkerSource) extends BaseMessageHandler
     false
   }
 
-  private def getReplicateClient(host: String, port: Int, partitionId: Int): TransportClient = {
-    if (workerReplicateRandomConnectionEnabled) {
-      replicateClientFactory.createClient(host, port)
+  private class ReplicatePeer(val key: String, peer: PartitionLocation, numConnections: Int) {
+    val workerInfo = new WorkerInfo(
+      peer.getHost,
+      peer.getRpcPort,
+      peer.getPushPort,
+      peer.getFetchPort,
+      peer.getReplicatePort)
+    val clients = new AtomicReferenceArray[TransportClient](numConnections)
+  }
+
+  /**
+   * Returns the callback of the replication of the data written by writePromise. The response of
+   * the replica is replied only after the local write is done, replyEmpty replies an empty
+   * response.
+   */
+  private[worker] def replicaResponseCallback(
+      location: PartitionLocation,
+      messageName: String,
+      writePromise: Promise[Unit],
+      callback: RpcResponseCallback)(replyEmpty: () => Unit): RpcResponseCallback = {
+    new RpcResponseCallback() {
+      override def onSuccess(response: ByteBuffer): Unit = {
+        // the response is copied as it is released once this returns, the local write may not
+        // be done yet
+        val resp =
+          if (response.remaining() > 0) {
+            val resp = ByteBuffer.allocate(response.remaining())
+            resp.put(response)
+            resp.flip()
+            Some(resp)
+          } else {
+            None
+          }
+        writePromise.future.onComplete {
+          case Success(_) =>
+            if (resp.isDefined) {
+              callback.onSuccess(resp.get)
+            } else {
+              replyEmpty()
+            }
+          case Failure(e) => callback.onFailure(e)
+        }(ThreadUtils.sameThread)
+      }
+
+      override def onFailure(e: Throwable): Unit = {
+        logError(s"$messageName replication failed for partitionLocation: $location", e)
+        onReplicateFailure(e, callback)
+      }
+    }
+  }
+
+  // the cached clients of an unavailable peer are dropped, the peer is connected again once it is
+  // available
+  private def markUnavailable(replicatePeer: ReplicatePeer): Unit = {
+    unavailablePeers.put(replicatePeer.workerInfo, System.currentTimeMillis())
+    replicatePeers.remove(replicatePeer.key, replicatePeer)
+  }
+
+  private[worker] def numReplicatePeers: Int = replicatePeers.size()
+
+  /**
+   * Forwards the data of a location to its peer. The data is sent from the calling thread if the
+   * connection to the peer is established, so only connecting to the peer takes a replicate
+   * thread, and the replicate threads don't limit the replication throughput.
+   */
+  private[worker] def replicate(
+      location: PartitionLocation,
+      messageName: String,
+      callback: RpcResponseCallback,
+      releaseBody: () => Unit)(send: TransportClient => Unit): Unit = {
+    val peer = location.getPeer
+    val replicatePeer = replicatePeers.computeIfAbsent(
+      peer.hostAndPorts(),
+      (key: String) => new ReplicatePeer(key, peer, numReplicateConnectionsPerPeer))
+    if (unavailablePeers.containsKey(replicatePeer.workerInfo)) {
+      replicatePeers.remove(replicatePeer.key, replicatePeer)
+      releaseBody()
+      workerSource.incCounter(WorkerSource.REPLICATE_DATA_CREATE_CONNECTION_FAIL_COUNT)
+      logError(
+        s"$messageName replication failed caused by unavailable peer for partitionLocation: $location")
+      callback.onFailure(
+        new CelebornIOException(StatusCode.PUSH_DATA_CREATE_CONNECTION_FAIL_REPLICA))
+      return
+    }
+
+    def sendOrFail(client: => TransportClient): Unit = {
+      try {
+        send(client)
+      } catch {
+        case e: Exception =>
+          releaseBody()
+          markUnavailable(replicatePeer)
+          workerSource.incCounter(WorkerSource.REPLICATE_DATA_CREATE_CONNECTION_FAIL_COUNT)
+          logError(
+            s"$messageName replication failed during connecting peer for partitionLocation: $location",
+            e)
+          callback.onFailure(
+            new CelebornIOException(StatusCode.PUSH_DATA_CREATE_CONNECTION_FAIL_REPLICA))
+      }
+    }
+
+    val clientIndex =
+      if (workerReplicateRandomConnectionEnabled) {
+        ThreadLocalRandom.current().nextInt(numReplicateConnectionsPerPeer)
+      } else {
+        location.getId % numReplicateConnectionsPerPeer
+      }
+    val client = replicatePeer.clients.get(clientIndex)
+    if (client != null && client.isActive) {
+      sendOrFail(client)
+    } else {
+      replicateThreadPool.submit(new Runnable {
+        override def run(): Unit = sendOrFail {
+          // the factory keeps one client for each index of a peer, same as the cached clients
+          val client =
+            replicateClientFactory.createClient(peer.getHost, peer.getReplicatePort, clientIndex)
+          replicatePeer.clients.set(clientIndex, client)
+          client
+        }
+      })
+    }
+  }
+
+  private def onReplicateFailure(e: Throwable, callback: RpcResponseCallback): Unit = {
+    // 1. Throw PUSH_DATA_WRITE_FAIL_REPLICA by replica peer worker
+    // 2. Throw PUSH_DATA_TIMEOUT_REPLICA by TransportResponseHandler
+    // 3. Throw IOException by channel, convert to PUSH_DATA_CONNECTION_EXCEPTION_REPLICA
+    if (e.getMessage.startsWith(StatusCode.PUSH_DATA_WRITE_FAIL_REPLICA.name())) {
+      workerSource.incCounter(WorkerSource.REPLICATE_DATA_WRITE_FAIL_COUNT)
+      callback.onFailure(e)
+    } else if (e.getMessage.startsWith(StatusCode.PUSH_DATA_TIMEOUT_REPLICA.name())) {
+      workerSource.incCounter(WorkerSource.REPLICATE_DATA_TIMEOUT_COUNT)
+      callback.onFailure(e)
+    } else if (ExceptionUtils.connectFail(e.getMessage)) {
+      workerSource.incCounter(WorkerSource.REPLICATE_DATA_CONNECTION_EXCEPTION_COUNT)
+      callback.onFailure(
+        new CelebornIOException(StatusCode.PUSH_DATA_CONNECTION_EXCEPTION_REPLICA))
     } else {
-      replicateClientFactory.createClient(host, port, partitionId)
+      workerSource.incCounter(WorkerSource.REPLICATE_DATA_FAIL_NON_CRITICAL_CAUSE_COUNT)
+      callback.onFailure(
+        new CelebornIOException(StatusCode.PUSH_DATA_FAIL_NON_CRITICAL_CAUSE_REPLICA))
     }
   }
 
@@ -320,6 +320,7 @@ private[celeborn] class Worker(
     ThreadUtils.newDaemonSingleThreadScheduledExecutor("worker-forward-message-scheduler")
   private var sendHeartbeatTask: ScheduledFuture[_] = _
   private var checkFastFailTask: ScheduledFuture[_] = _
+  private var closeIdleStreamsTask: ScheduledFuture[_] = _
 
   val replicateThreadPool: ThreadPoolExecutor =
     ThreadUtils.newDaemonCachedThreadPool("worker-data-replicator", conf.workerReplicateThreads)
@@ -337,6 +338,12 @@ private[celeborn] class Worker(
 
   // Configs
   private val heartbeatInterval = conf.workerHeartbeatTimeout / 4
+  private val heartbeatDeltaTracker =
+    if (conf.workerHeartbeatDeltaEnabled) {
+      new HeartbeatDeltaTracker(conf.workerHeartbeatDeltaFullSyncInterval)
+    } else {
+      null
+    }
   private val replicaFastFailDuration = conf.workerReplicateFastFailDuration
 
   private val cleanTaskQueue = new LinkedBlockingQueue[JHashSet[String]]
@@ -458,20 +465,41 @@ private[celeborn] class Worker(
         disk.mountPoint -> disk
       }.toMap.asJava).values().asScala.toSeq ++ storageManager.hdfsDiskInfo
     workerStatusManager.checkIfNeedTransitionStatus()
+    val heartbeat =
+      if (heartbeatDeltaTracker != null) {
+        heartbeatDeltaTracker.buildHeartbeat(
+          host,
+          rpcPort,
+          pushPort,
+          fetchPort,
+          replicatePort,
+          diskInfos,
+          handleResourceConsumption(),
+          activeShuffleKeys,
+          estimatedAppDiskUsage,
+          highWorkload,
+          workerStatusManager.currentWorkerStatus,
+          System.currentTimeMillis())
+      } else {
+        HeartbeatFromWorker(
+          host,
+          rpcPort,
+          pushPort,
+          fetchPort,
+          replicatePort,
+          diskInfos,
+          handleResourceConsumption(),
+          activeShuffleKeys,
+          estimatedAppDiskUsage,
+          highWorkload,
+          workerStatusManager.currentWorkerStatus)
+      }
     val response = masterClient.askSync[HeartbeatFromWorkerResponse](
-      HeartbeatFromWorker(
-        host,
-        rpcPort,
-        pushPort,
-        fetchPort,
-        replicatePort,
-        diskInfos,
-        handleResourceConsumption(),
-        activeShuffleKeys,
-        estimatedAppDiskUsage,
-        highWorkload,
-        workerStatusManager.currentWorkerStatus),
+      heartbeat,
       classOf[HeartbeatFromWorkerResponse])
+    if (heartbeatDeltaTracker != null) {
+      heartbeatDeltaTracker.ack(response.requireFullHeartbeat)
+    }
     response.expiredShuffleKeys.asScala.foreach(shuffleKey => workerInfo.releaseSlots(shuffleKey))
     cleanTaskQueue.put(response.expiredShuffleKeys)
 
@@ -519,6 +547,19 @@ private[celeborn] class Worker(
       replicaFastFailDuration,
       TimeUnit.MILLISECONDS)
 
+    val fetchFileIdleTimeout = conf.workerFetchFileIdleTimeout
+    if (fetchFileIdleTimeout > 0) {
+      closeIdleStreamsTask = forwardMessageScheduler.scheduleWithFixedDelay(
+        new Runnable {
+          override def run(): Unit = Utils.tryLogNonFatalError {
+            fetchHandler.chunkStreamManager.closeIdleStreams(fetchFileIdleTimeout)
+          }
+        },
+        fetchFileIdleTimeout,
+        fetchFileIdleTimeout,
+        TimeUnit.MILLISECONDS)
+    }
+
     cleaner.submit(new Runnable {
       override def run(): Unit = {
         while (true) {
@@ -572,6 +613,14 @@ private[celeborn] class Worker(
         }
         checkFastFailTask = null
       }
+      if (closeIdleStreamsTask != null) {
+        if (exitKind == CelebornExitKind.WORKER_GRACEFUL_SHUTDOWN) {
+          closeIdleStreamsTask.cancel(false)
+        } else {
+          closeIdleStreamsTask.cancel(true)
+        }
+        closeIdleStreamsTask = null
+      }
       if (exitKind == CelebornExitKind.WORKER_GRACEFUL_SHUTDOWN) {
         forwardMessageScheduler.shutdown()
         replicateThreadPool.shutdown()
@@ -642,6 +691,9 @@ private[celeborn] class Worker(
       // Register successfully
       if (null != resp && resp.getSuccess) {
         registered.set(true)
+        if (heartbeatDeltaTracker != null) {
+          heartbeatDeltaTracker.reset()
+        }
         logInfo("Register worker successfully.")
         return
       }
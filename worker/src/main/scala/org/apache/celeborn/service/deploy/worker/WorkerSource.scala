@@ -100,8 +100,11 @@ class WorkerSource(conf: CelebornConf) extends AbstractSource(conf, MetricsSyste
   }
 
   def recordAppActiveConnection(client: TransportClient, shuffleKey: String): Unit = {
+    recordActiveConnectionOfApp(client, Utils.splitShuffleKey(shuffleKey)._1)
+  }
+
+  def recordActiveConnectionOfApp(client: TransportClient, applicationId: String): Unit = {
     val applicationIds = appActiveConnections.get(client.getChannel.id().asLongText())
-    val applicationId = Utils.splitShuffleKey(shuffleKey)._1
     if (applicationIds != null && !applicationIds.contains(applicationId)) {
       addCounter(ACTIVE_CONNECTION_COUNT, Map(applicationLabel -> applicationId))
       incCounter(ACTIVE_CONNECTION_COUNT, 1, Map(applicationLabel -> applicationId))
@@ -17,9 +17,10 @@
 
 package org.apache.celeborn.service.deploy.worker.storage
 
+import java.nio.ByteBuffer
 import java.nio.channels.FileChannel
 
-import io.netty.buffer.{ByteBufUtil, CompositeByteBuf}
+import io.netty.buffer.CompositeByteBuf
 import org.apache.hadoop.fs.Path
 
 abstract private[worker] class FlushTask(
@@ -31,7 +32,7 @@ abstract private[worker] class FlushTask(
 
 private[worker] class LocalFlushTask(
     buffer: CompositeByteBuf,
-    fileChannel: FileChannel,
+    val fileChannel: FileChannel,
     notifier: FlushNotifier,
     keepBuffer: Boolean) extends FlushTask(buffer, notifier, keepBuffer) {
   override def flush(): Unit = {
@@ -44,6 +45,31 @@ private[worker] class LocalFlushTask(
   }
 }
 
+private[worker] object LocalFlushTask {
+  // Linux rejects a single writev with more than IOV_MAX iovecs.
+  val MAX_GATHER_BUFFERS = 1024
+
+  /**
+   * Writes the buffers of all tasks, which must share the same file channel, with gathering
+   * writes. Returns the number of write calls issued.
+   */
+  def gatherFlush(tasks: Seq[LocalFlushTask]): Int = {
+    val fileChannel = tasks.head.fileChannel
+    val buffers = tasks.flatMap(_.buffer.nioBuffers()).toArray[ByteBuffer]
+    var remaining = buffers.map(_.remaining().toLong).sum
+    var offset = 0
+    var writes = 0
+    while (remaining > 0) {
+      while (!buffers(offset).hasRemaining) {
+        offset += 1
+      }
+      remaining -= fileChannel.write(buffers, offset, buffers.length - offset)
+      writes += 1
+    }
+    writes
+  }
+}
+
 private[worker] class HdfsFlushTask(
     buffer: CompositeByteBuf,
     val path: Path,
@@ -51,7 +77,7 @@ private[worker] class HdfsFlushTask(
     keepBuffer: Boolean) extends FlushTask(buffer, notifier, keepBuffer) {
   override def flush(): Unit = {
     val hdfsStream = StorageManager.hadoopFs.append(path, 256 * 1024)
-    hdfsStream.write(ByteBufUtil.getBytes(buffer))
+    buffer.getBytes(buffer.readerIndex(), hdfsStream, buffer.readableBytes())
     hdfsStream.close()
   }
 }
@@ -19,13 +19,15 @@ package org.apache.celeborn.service.deploy.worker.storage
 
 import java.io.IOException
 import java.nio.channels.ClosedByInterruptException
-import java.util.concurrent.{ExecutorService, LinkedBlockingQueue, TimeUnit}
-import java.util.concurrent.atomic.{AtomicBoolean, AtomicLongArray}
+import java.util.Queue
+import java.util.concurrent.{ConcurrentLinkedQueue, ExecutorService, LinkedBlockingQueue, Semaphore, TimeUnit}
+import java.util.concurrent.atomic.{AtomicBoolean, AtomicInteger, AtomicLongArray}
 
 import scala.collection.JavaConverters._
-import scala.util.Random
+import scala.collection.mutable.ArrayBuffer
 
 import io.netty.buffer.{CompositeByteBuf, PooledByteBufAllocator, Unpooled}
+import org.apache.hadoop.fs.Path
 
 import org.apache.celeborn.common.internal.Logging
 import org.apache.celeborn.common.meta.{DiskStatus, TimeWindow}
@@ -41,13 +43,22 @@ abstract private[worker] class Flusher(
     val threadCount: Int,
     val allocator: PooledByteBufAllocator,
     val maxComponents: Int,
-    flushTimeMetric: TimeWindow) extends Logging {
+    flushTimeMetric: TimeWindow,
+    workStealingEnabled: Boolean = false) extends Logging {
   protected lazy val flusherId: Int = System.identityHashCode(this)
   protected val workingQueues = new Array[LinkedBlockingQueue[FlushTask]](threadCount)
   protected val bufferQueue = new LinkedBlockingQueue[CompositeByteBuf]()
   protected val workers = new Array[ExecutorService](threadCount)
   protected var nextWorkerIndex: Int = 0
 
+  // With work stealing, a thread takes the sequences of writers ready to be flushed from its own
+  // queue first and from the queues of the other threads when its own is empty. A sequence is
+  // flushed by one thread at a time, which keeps the order of the tasks of a file.
+  private val readyQueues = new Array[ConcurrentLinkedQueue[FlushSequence]](threadCount)
+  // one permit for each sequence in the ready queues
+  private val readySequences = new Semaphore(0)
+  private val nextReadyQueue = new AtomicInteger()
+
   val lastBeginFlushTime: AtomicLongArray = new AtomicLongArray(threadCount)
   val stopFlag = new AtomicBoolean(false)
 
@@ -59,38 +70,24 @@ abstract private[worker] class Flusher(
     }
     for (index <- 0 until threadCount) {
       workingQueues(index) = new LinkedBlockingQueue[FlushTask]()
+      readyQueues(index) = new ConcurrentLinkedQueue[FlushSequence]()
+    }
+    for (index <- 0 until threadCount) {
       workers(index) = ThreadUtils.newDaemonSingleThreadExecutor(s"$this-$index")
       workers(index).submit(new Runnable {
         override def run(): Unit = {
           while (!stopFlag.get()) {
-            val task = workingQueues(index).take()
-            val key = s"Flusher-$this-${Random.nextInt()}"
-            workerSource.sample(WorkerSource.FLUSH_DATA_TIME, key) {
-              if (!task.notifier.hasException) {
-                try {
-                  val flushBeginTime = System.nanoTime()
-                  lastBeginFlushTime.set(index, flushBeginTime)
-                  task.flush()
-                  if (flushTimeMetric != null) {
-                    val delta = System.nanoTime() - flushBeginTime
-                    flushTimeMetric.update(delta)
-                  }
-                } catch {
-                  case t: Throwable =>
-                    t match {
-                      case exception: IOException =>
-                        task.notifier.setException(exception)
-                        processIOException(
-                          exception,
-                          DiskStatus.READ_OR_WRITE_FAILURE)
-                      case _ =>
-                    }
-                    logWarning(s"Flusher-$this-thread-$index encounter exception.", t)
-                }
-                lastBeginFlushTime.set(index, -1)
+            if (workStealingEnabled) {
+              readySequences.acquire()
+              val sequence = takeReadySequence(index)
+              flushTasks(index, coalesceTasks(sequence.tasks.poll(), sequence.tasks))
+              sequence.scheduled.set(false)
+              if (!sequence.tasks.isEmpty) {
+                schedule(sequence)
               }
-              Utils.tryLogNonFatalError(returnBuffer(task.buffer, task.keepBuffer))
-              task.notifier.numPendingFlushes.decrementAndGet()
+            } else {
+              val task = workingQueues(index).take()
+              flushTasks(index, coalesceTasks(task, workingQueues(index)))
             }
           }
         }
@@ -99,6 +96,58 @@ abstract private[worker] class Flusher(
     ThreadPoolSource.registerSource(s"$this", workers)
   }
 
+  private def flushTasks(index: Int, tasks: Seq[FlushTask]): Unit = {
+    workerSource.sampleTiming(WorkerSource.FLUSH_DATA_TIME) {
+      val pendingTasks = tasks.filter(!_.notifier.hasException)
+      if (pendingTasks.nonEmpty) {
+        try {
+          val flushBeginTime = System.nanoTime()
+          lastBeginFlushTime.set(index, flushBeginTime)
+          flush(pendingTasks)
+          if (flushTimeMetric != null) {
+            val delta = System.nanoTime() - flushBeginTime
+            flushTimeMetric.update(delta)
+          }
+        } catch {
+          case t: Throwable =>
+            t match {
+              case exception: IOException =>
+                pendingTasks.foreach(_.notifier.setException(exception))
+                processIOException(
+                  exception,
+                  DiskStatus.READ_OR_WRITE_FAILURE)
+              case _ =>
+            }
+            logWarning(s"Flusher-$this-thread-$index encounter exception.", t)
+        }
+        lastBeginFlushTime.set(index, -1)
+      }
+      tasks.foreach { task =>
+        Utils.tryLogNonFatalError(returnBuffer(task.buffer, task.keepBuffer))
+        task.notifier.numPendingFlushes.decrementAndGet()
+      }
+    }
+  }
+
+  // the caller holds a permit of readySequences, so a sequence is in one of the queues
+  private def takeReadySequence(index: Int): FlushSequence = {
+    var sequence = readyQueues(index).poll()
+    var i = 1
+    while (sequence == null) {
+      sequence = readyQueues((index + i) % threadCount).poll()
+      i += 1
+    }
+    sequence
+  }
+
+  private def schedule(sequence: FlushSequence): Unit = {
+    if (sequence.scheduled.compareAndSet(false, true)) {
+      val index = (nextReadyQueue.getAndIncrement() & Int.MaxValue) % threadCount
+      readyQueues(index).add(sequence)
+      readySequences.release()
+    }
+  }
+
   def getWorkerIndex: Int = synchronized {
     nextWorkerIndex = (nextWorkerIndex + 1) % threadCount
     nextWorkerIndex
@@ -131,6 +180,34 @@ abstract private[worker] class Flusher(
     workingQueues(workerIndex).offer(task, timeoutMs, TimeUnit.MILLISECONDS)
   }
 
+  /**
+   * Adds the task of the writer owning the sequence. With work stealing, the task is flushed by
+   * any thread after the previous tasks of the sequence, otherwise by the thread of workerIndex.
+   */
+  def addTask(
+      task: FlushTask,
+      timeoutMs: Long,
+      workerIndex: Int,
+      sequence: FlushSequence): Boolean = {
+    if (workStealingEnabled) {
+      sequence.tasks.add(task)
+      schedule(sequence)
+      true
+    } else {
+      addTask(task, timeoutMs, workerIndex)
+    }
+  }
+
+  /**
+   * Returns the tasks to be flushed in one submission, starting with the task taken from the
+   * queue. Only the flusher thread owning the queue or the sequence takes from it, so subclasses
+   * may poll following tasks from the head of the queue.
+   */
+  protected def coalesceTasks(task: FlushTask, queue: Queue[FlushTask]): Seq[FlushTask] =
+    Seq(task)
+
+  protected def flush(tasks: Seq[FlushTask]): Unit = tasks.foreach(_.flush())
+
   def processIOException(e: IOException, deviceErrorType: DiskStatus): Unit
 }
 
@@ -142,16 +219,57 @@ private[worker] class LocalFlusher(
     maxComponents: Int,
     val mountPoint: String,
     val diskType: StorageInfo.Type,
-    timeWindow: TimeWindow) extends Flusher(
+    timeWindow: TimeWindow,
+    gatherWriteEnabled: Boolean,
+    workStealingEnabled: Boolean) extends Flusher(
     workerSource,
     threadCount,
     allocator,
     maxComponents,
-    timeWindow)
+    timeWindow,
+    workStealingEnabled)
   with DeviceObserver with Logging {
 
   deviceMonitor.registerFlusher(this)
 
+  override protected def coalesceTasks(
+      task: FlushTask,
+      queue: Queue[FlushTask]): Seq[FlushTask] = {
+    if (!gatherWriteEnabled || !task.isInstanceOf[LocalFlushTask]) {
+      return Seq(task)
+    }
+    // Tasks of one writer always go to the same queue or sequence in order, so draining the
+    // consecutive tasks of the same file from the head of the queue keeps the per-file order.
+    val fileChannel = task.asInstanceOf[LocalFlushTask].fileChannel
+    val tasks = new ArrayBuffer[FlushTask]()
+    tasks += task
+    var numBuffers = task.buffer.nioBufferCount()
+    var coalescing = true
+    while (coalescing) {
+      queue.peek() match {
+        case next: LocalFlushTask if next.fileChannel eq fileChannel =>
+          val nextNumBuffers = next.buffer.nioBufferCount()
+          if (numBuffers + nextNumBuffers <= LocalFlushTask.MAX_GATHER_BUFFERS) {
+            tasks += queue.poll()
+            numBuffers += nextNumBuffers
+          } else {
+            coalescing = false
+          }
+        case _ =>
+          coalescing = false
+      }
+    }
+    tasks
+  }
+
+  override protected def flush(tasks: Seq[FlushTask]): Unit = {
+    if (gatherWriteEnabled) {
+      LocalFlushTask.gatherFlush(tasks.map(_.asInstanceOf[LocalFlushTask]))
+    } else {
+      super.flush(tasks)
+    }
+  }
+
   override def processIOException(e: IOException, deviceErrorType: DiskStatus): Unit = {
     logError(s"$this write failed, report to DeviceMonitor, exception: $e")
     deviceMonitor.reportNonCriticalError(mountPoint, e, deviceErrorType)
@@ -177,16 +295,50 @@ final private[worker] class HdfsFlusher(
     workerSource: AbstractSource,
     hdfsFlusherThreads: Int,
     allocator: PooledByteBufAllocator,
-    maxComponents: Int) extends Flusher(
+    maxComponents: Int,
+    persistentStreamEnabled: Boolean,
+    persistentStreamMaxOpen: Int) extends Flusher(
     workerSource,
     hdfsFlusherThreads,
     allocator,
     maxComponents,
     null) with Logging {
 
+  private val streamPool =
+    if (persistentStreamEnabled) Some(new HdfsStreamPool(persistentStreamMaxOpen)) else None
+
+  override protected def flush(tasks: Seq[FlushTask]): Unit = {
+    streamPool match {
+      case Some(pool) =>
+        tasks.foreach(task => pool.write(task.asInstanceOf[HdfsFlushTask].path, task.buffer))
+      case None =>
+        super.flush(tasks)
+    }
+  }
+
+  /**
+   * Closes the persistent output stream of the file on commit, which makes the flushed data
+   * durable and visible to readers.
+   */
+  @throws[IOException]
+  def closeStream(path: Path): Unit = {
+    streamPool.foreach(_.close(path))
+  }
+
+  def discardStream(path: Path): Unit = {
+    streamPool.foreach(_.discard(path))
+  }
+
   override def processIOException(e: IOException, deviceErrorType: DiskStatus): Unit = {
     logError(s"$this write failed, reason $deviceErrorType ,exception: $e")
   }
 
   override def toString: String = s"HdfsFlusher@$flusherId"
 }
+
+/** Flush tasks of one writer, in the order they are added. */
+private[worker] class FlushSequence {
+  val tasks = new ConcurrentLinkedQueue[FlushTask]()
+  // whether the sequence is in a ready queue or being flushed
+  val scheduled = new AtomicBoolean(false)
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.worker.storage
+
+import java.io.IOException
+import java.util
+import java.util.concurrent.ConcurrentHashMap
+
+import scala.collection.mutable.ArrayBuffer
+
+import io.netty.buffer.ByteBuf
+import org.apache.hadoop.fs.{FSDataOutputStream, Path}
+
+import org.apache.celeborn.common.internal.Logging
+
+/**
+ * Keeps the HDFS output stream of a partition file open across flushes, so that a flush does
+ * not pay for an append pipeline setup and a close. Every open stream owns a DataStreamer
+ * thread, so at most `maxOpenStreams` streams are kept and the least recently written one is
+ * closed when the cap is exceeded. An evicted file is appended again by its next flush.
+ */
+private[worker] class HdfsStreamPool(maxOpenStreams: Int) extends Logging {
+
+  private class StreamHolder(val path: Path) {
+    var stream: FSDataOutputStream = _
+    var closed = false
+
+    def close(): Unit = synchronized {
+      closed = true
+      if (stream != null) {
+        val toClose = stream
+        stream = null
+        toClose.close()
+      }
+    }
+  }
+
+  // access ordered, the eldest entry is the least recently written stream
+  private val holders = new util.LinkedHashMap[Path, StreamHolder](16, 0.75f, true)
+
+  // failures of closing evicted streams, reported to the next write or close of the file
+  private val evictionFailures = new ConcurrentHashMap[Path, IOException]()
+
+  def numOpenStreams: Int = holders.synchronized(holders.size())
+
+  /**
+   * Writes the readable bytes of the buffer to the file without changing the reader index.
+   * Flushes of one file are issued by one flusher thread, so they never interleave.
+   */
+  def write(path: Path, buffer: ByteBuf): Unit = {
+    checkEvictionFailure(path)
+    var written = false
+    while (!written) {
+      val holder = acquire(path)
+      holder.synchronized {
+        // the holder may be evicted between acquiring and locking it
+        if (!holder.closed) {
+          if (holder.stream == null) {
+            holder.stream = StorageManager.hadoopFs.append(path, 256 * 1024)
+          }
+          buffer.getBytes(buffer.readerIndex(), holder.stream, buffer.readableBytes())
+          written = true
+        }
+      }
+    }
+  }
+
+  /**
+   * Closes the stream of the file, which persists all written data. Called on commit, after
+   * all flushes of the file are done.
+   */
+  def close(path: Path): Unit = {
+    val holder = holders.synchronized(holders.remove(path))
+    if (holder != null) {
+      holder.close()
+    }
+    checkEvictionFailure(path)
+  }
+
+  /** Closes the stream of a file which is going to be deleted, ignoring failures. */
+  def discard(path: Path): Unit = {
+    val holder = holders.synchronized(holders.remove(path))
+    if (holder != null) {
+      try {
+        holder.close()
+      } catch {
+        case e: IOException =>
+          logWarning(s"Close HDFS output stream of $path failed.", e)
+      }
+    }
+    evictionFailures.remove(path)
+  }
+
+  private def acquire(path: Path): StreamHolder = {
+    val evicted = new ArrayBuffer[StreamHolder]()
+    val holder = holders.synchronized {
+      var holder = holders.get(path)
+      if (holder == null) {
+        holder = new StreamHolder(path)
+        holders.put(path, holder)
+        val iterator = holders.values().iterator()
+        while (holders.size() > maxOpenStreams && iterator.hasNext) {
+          val eldest = iterator.next()
+          if (eldest ne holder) {
+            iterator.remove()
+            evicted += eldest
+          }
+        }
+      }
+      holder
+    }
+    evicted.foreach { holder =>
+      try {
+        holder.close()
+      } catch {
+        case e: IOException =>
+          logWarning(s"Close evicted HDFS output stream of ${holder.path} failed.", e)
+          evictionFailures.put(holder.path, e)
+      }
+    }
+    holder
+  }
+
+  private def checkEvictionFailure(path: Path): Unit = {
+    val failure = evictionFailures.remove(path)
+    if (failure != null) {
+      throw failure
+    }
+  }
+}
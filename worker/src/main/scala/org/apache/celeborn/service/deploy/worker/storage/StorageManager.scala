@@ -137,7 +137,9 @@ final private[worker] class StorageManager(conf: CelebornConf, workerSource: Abs
           conf.workerPushMaxComponents,
           diskInfo.mountPoint,
           diskInfo.storageType,
-          diskInfo.flushTimeMetrics)
+          diskInfo.flushTimeMetrics,
+          conf.workerLocalFlusherGatherWriteEnabled,
+          conf.workerFlusherWorkStealingEnabled)
         flushers.put(diskInfo.mountPoint, flusher)
         totalThread = totalThread + diskInfo.threadCount
       }
@@ -164,7 +166,9 @@ final private[worker] class StorageManager(conf: CelebornConf, workerSource: Abs
           workerSource,
           conf.workerHdfsFlusherThreads,
           storageBufferAllocator,
-          conf.workerPushMaxComponents)),
+          conf.workerPushMaxComponents,
+          conf.workerHdfsFlusherPersistentStreamEnabled,
+          conf.workerHdfsFlusherPersistentStreamMaxOpen)),
         conf.workerHdfsFlusherThreads)
     } else {
       (None, 0)
@@ -46,6 +46,7 @@ import org.apache.celeborn.common.CelebornConf;
 import org.apache.celeborn.common.identity.UserIdentifier;
 import org.apache.celeborn.common.meta.DiskFileInfo;
 import org.apache.celeborn.common.meta.FileInfo;
+import org.apache.celeborn.common.meta.MapRangeIndex;
 import org.apache.celeborn.common.network.buffer.NioManagedBuffer;
 import org.apache.celeborn.common.network.client.RpcResponseCallback;
 import org.apache.celeborn.common.network.client.TransportClient;
@@ -88,6 +89,10 @@ public class FetchHandlerSuiteJ {
   private static final int DATA_SIZE_PER_BATCH = 256 * 1024 - 16; // 256k - 16byte
 
   public FileInfo prepare(int batchCountPerMap) throws IOException {
+    return prepare(batchCountPerMap, null);
+  }
+
+  public FileInfo prepare(int batchCountPerMap, MapRangeIndex mapRangeIndex) throws IOException {
     byte[] batchHeader = new byte[16];
     File shuffleFile = File.createTempFile("celeborn", UUID.randomUUID().toString());
 
@@ -124,6 +129,12 @@ public class FetchHandlerSuiteJ {
       while (buf2.hasRemaining()) {
         channel.write(buf2);
       }
+      if (mapRangeIndex != null) {
+        mapRangeIndex.addBatch(mapId, batchHeader.length + DATA_SIZE_PER_BATCH);
+      }
+    }
+    if (mapRangeIndex != null && !mapRangeIndex.isDropped()) {
+      fileInfo.getReduceFileMeta().setMapRangeIndex(mapRangeIndex);
     }
     long originFileLen = channel.size();
     // update original fileInfo chunk offsets
@@ -197,6 +208,23 @@ public class FetchHandlerSuiteJ {
     }
   }
 
+  @Test
+  public void testChunkOffsetsOnlyWhenRequired() throws IOException {
+    FileInfo fileInfo = null;
+    try {
+      // total write size: 32 * 50 * 256k = 400m
+      fileInfo = prepare(32);
+      EmbeddedChannel channel = new EmbeddedChannel();
+      TransportClient client = new TransportClient(channel, mock(TransportResponseHandler.class));
+      FetchHandler fetchHandler = mockFetchHandler(fileInfo);
+
+      openStreamAndCheck(client, channel, fetchHandler, 0, Integer.MAX_VALUE, false, true);
+      openStreamAndCheck(client, channel, fetchHandler, 5, 10, false, true);
+    } finally {
+      cleanup(fileInfo);
+    }
+  }
+
   @Test
   public void testLegacyOpenStream() throws IOException {
     FileInfo fileInfo = null;
@@ -302,6 +330,51 @@ public class FetchHandlerSuiteJ {
     }
   }
 
+  @Test
+  public void testFetchByMapRangeIndex() throws IOException {
+    FileInfo fileInfo = null;
+    try {
+      // total write size: 32 * 50 * 256k = 400m
+      fileInfo = prepare(32, new MapRangeIndex(conf.shuffleChunkSize(), Integer.MAX_VALUE));
+      EmbeddedChannel channel = new EmbeddedChannel();
+      TransportClient client = new TransportClient(channel, mock(TransportResponseHandler.class));
+      FetchHandler fetchHandler = mockFetchHandler(fileInfo);
+
+      PbStreamHandler streamHandler = openStreamAndCheck(client, channel, fetchHandler, 5, 10);
+      fetchChunkAndCheck(client, channel, fetchHandler, streamHandler, 5, 10);
+
+      // served from the origin file, which is not sorted
+      File file = ((DiskFileInfo) fileInfo).getFile();
+      assertTrue(file.exists());
+      assertFalse(new File(file.getPath() + ".sorted").exists());
+      assertFalse(fileInfo.isStreamsEmpty());
+      bufferStreamEnd(client, fetchHandler, streamHandler.getStreamId());
+      assertTrue(fileInfo.isStreamsEmpty());
+    } finally {
+      cleanup(fileInfo);
+    }
+  }
+
+  @Test
+  public void testFetchSortFileOnceMapRangeIndexDropped() throws IOException {
+    FileInfo fileInfo = null;
+    try {
+      // the runs of the 1600 batches do not fit in the index
+      MapRangeIndex mapRangeIndex = new MapRangeIndex(conf.shuffleChunkSize(), 100);
+      fileInfo = prepare(32, mapRangeIndex);
+      assertTrue(mapRangeIndex.isDropped());
+      EmbeddedChannel channel = new EmbeddedChannel();
+      TransportClient client = new TransportClient(channel, mock(TransportResponseHandler.class));
+      FetchHandler fetchHandler = mockFetchHandler(fileInfo);
+
+      PbStreamHandler streamHandler = openStreamAndCheck(client, channel, fetchHandler, 5, 10);
+      checkOriginFileBeDeleted(fileInfo);
+      fetchChunkAndCheck(client, channel, fetchHandler, streamHandler, 5, 10);
+    } finally {
+      cleanup(fileInfo);
+    }
+  }
+
   private FetchHandler mockFetchHandler(FileInfo fileInfo) {
     WorkerSource workerSource = mock(WorkerSource.class);
     TransportConf transportConf =
@@ -366,6 +439,19 @@ public class FetchHandlerSuiteJ {
       int endIndex,
       Boolean readLocalShuffle)
       throws IOException {
+    return openStreamAndCheck(
+        client, channel, fetchHandler, startIndex, endIndex, readLocalShuffle, false);
+  }
+
+  private PbStreamHandler openStreamAndCheck(
+      TransportClient client,
+      EmbeddedChannel channel,
+      FetchHandler fetchHandler,
+      int startIndex,
+      int endIndex,
+      Boolean readLocalShuffle,
+      boolean requireChunkOffsets)
+      throws IOException {
     ByteBuffer openStreamByteBuffer =
         new TransportMessage(
                 MessageType.OPEN_STREAM,
@@ -375,6 +461,7 @@ public class FetchHandlerSuiteJ {
                     .setStartIndex(startIndex)
                     .setEndIndex(endIndex)
                     .setReadLocalShuffle(readLocalShuffle)
+                    .setRequireChunkOffsets(requireChunkOffsets)
                     .build()
                     .toByteArray())
             .toByteBuffer();
@@ -390,6 +477,12 @@ public class FetchHandlerSuiteJ {
     } else {
       assertEquals(endIndex - startIndex, streamHandler.getNumChunks());
     }
+    if (requireChunkOffsets) {
+      assertEquals(streamHandler.getNumChunks() + 1, streamHandler.getChunkOffsetsCount());
+      assertEquals(0, streamHandler.getChunkOffsets(0));
+    } else if (!readLocalShuffle) {
+      assertEquals(0, streamHandler.getChunkOffsetsCount());
+    }
     return streamHandler;
   }
 
@@ -397,7 +490,19 @@ public class FetchHandlerSuiteJ {
       TransportClient client,
       EmbeddedChannel channel,
       FetchHandler fetchHandler,
-      PbStreamHandler streamHandler) {
+      PbStreamHandler streamHandler)
+      throws IOException {
+    fetchChunkAndCheck(client, channel, fetchHandler, streamHandler, 0, Integer.MAX_VALUE);
+  }
+
+  private void fetchChunkAndCheck(
+      TransportClient client,
+      EmbeddedChannel channel,
+      FetchHandler fetchHandler,
+      PbStreamHandler streamHandler,
+      int startIndex,
+      int endIndex)
+      throws IOException {
     for (int chunkIndex = 0; chunkIndex < streamHandler.getNumChunks(); chunkIndex++) {
       fetchHandler.receive(
           client,
@@ -421,10 +526,26 @@ public class FetchHandlerSuiteJ {
       chunkFetchSuccess.body().retain();
       // chunk size 8m
       assertEquals(chunkFetchSuccess.body().size(), 8 * 1024 * 1024);
+      if (endIndex != Integer.MAX_VALUE) {
+        checkMapIds(chunkFetchSuccess.body().nioByteBuffer(), startIndex, endIndex);
+      }
       chunkFetchSuccess.body().release();
     }
   }
 
+  // every batch of the chunk belongs to a map in [startIndex, endIndex)
+  private void checkMapIds(ByteBuffer chunk, int startIndex, int endIndex) {
+    byte[] bytes = new byte[chunk.remaining()];
+    chunk.get(bytes);
+    int position = 0;
+    while (position < bytes.length) {
+      int mapId = Platform.getInt(bytes, Platform.BYTE_ARRAY_OFFSET + position);
+      int size = Platform.getInt(bytes, Platform.BYTE_ARRAY_OFFSET + position + 12);
+      assertTrue(mapId >= startIndex && mapId < endIndex);
+      position += 16 + size;
+    }
+  }
+
   private void bufferStreamEnd(TransportClient client, FetchHandler fetchHandler, long streamId) {
     TransportMessage bufferStreamEnd =
         new TransportMessage(
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.worker.congestcontrol;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestBufferStatusHub {
+
+  private static class DummyBufferStatusHub extends BufferStatusHub {
+
+    private volatile long dummyTimestamp = 0L;
+
+    public DummyBufferStatusHub(int timeWindowsInSecs) {
+      super(timeWindowsInSecs);
+    }
+
+    @Override
+    protected long currentTimeMillis() {
+      return dummyTimestamp;
+    }
+
+    public void setDummyTimestamp(long timestamp) {
+      this.dummyTimestamp = timestamp;
+    }
+  }
+
+  @Test
+  public void testContinuousTime() {
+    DummyBufferStatusHub hub = new DummyBufferStatusHub(3);
+
+    hub.setDummyTimestamp(0L);
+    hub.add(1);
+    Assert.assertEquals(1, hub.sum());
+
+    hub.setDummyTimestamp(1000L);
+    hub.add(2);
+    Assert.assertEquals(3, hub.sum());
+
+    hub.setDummyTimestamp(2200L);
+    hub.add(3);
+    Assert.assertEquals(6, hub.sum());
+
+    hub.setDummyTimestamp(2400L);
+    hub.add(4);
+    Assert.assertEquals(10, hub.sum());
+
+    // Should remove the value 1
+    hub.setDummyTimestamp(3000L);
+    hub.add(5);
+    Assert.assertEquals(14, hub.sum());
+
+    // Should remove the value 2
+    hub.setDummyTimestamp(4000L);
+    hub.add(6);
+    Assert.assertEquals(18, hub.sum());
+
+    // Should remove the value 3 and 4
+    hub.setDummyTimestamp(5000L);
+    hub.add(7);
+    Assert.assertEquals(18, hub.sum());
+  }
+
+  @Test
+  public void testTimeExceedTimeWindow() {
+    DummyBufferStatusHub hub = new DummyBufferStatusHub(3);
+
+    hub.setDummyTimestamp(0L);
+    hub.add(1);
+    Assert.assertEquals(1, hub.sum());
+
+    hub.setDummyTimestamp(10000L);
+    hub.add(2);
+    Assert.assertEquals(2, hub.sum());
+
+    // Values of seconds out of the window are ignored
+    hub.add(0L, 4);
+    Assert.assertEquals(2, hub.sum());
+
+    // The window slides without new values
+    hub.setDummyTimestamp(13000L);
+    Assert.assertEquals(0, hub.sum());
+  }
+
+  @Test
+  public void testAvgBytesPerSec() {
+    DummyBufferStatusHub hub = new DummyBufferStatusHub(3);
+
+    hub.setDummyTimestamp(1500L);
+    Assert.assertEquals(0, hub.avgBytesPerSec());
+    hub.add(300);
+    Assert.assertEquals(300, hub.avgBytesPerSec());
+
+    // The average is since the earliest second with bytes until the window is filled
+    hub.setDummyTimestamp(2500L);
+    hub.add(100);
+    Assert.assertEquals(200, hub.avgBytesPerSec());
+
+    hub.setDummyTimestamp(4500L);
+    hub.add(200);
+    Assert.assertEquals(100, hub.avgBytesPerSec());
+  }
+
+  @Test
+  public void testConcurrentAdd() throws InterruptedException {
+    DummyBufferStatusHub hub = new DummyBufferStatusHub(3);
+    int numThreads = 16;
+    int numAdds = 10000;
+    hub.setDummyTimestamp(100000L);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < numThreads; i++) {
+      // Half of the threads claim the buckets of the new seconds at the same time
+      long second = i % 2;
+      threads.add(
+          new Thread(
+              () -> {
+                for (int j = 0; j < numAdds; j++) {
+                  hub.add(99000L + second * 1000L, 1);
+                }
+              }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    Assert.assertEquals((long) numThreads * numAdds, hub.sum());
+  }
+}
@@ -125,8 +125,6 @@ public class TestCongestionController {
   }
 
   private void produceBytes(UserIdentifier userIdentifier, long numBytes) {
-    controller
-        .getUserBuffer(userIdentifier)
-        .updateInfo(System.currentTimeMillis(), new BufferStatusHub.BufferStatusNode(numBytes));
+    controller.getUserBuffer(userIdentifier).updateInfo(System.currentTimeMillis(), numBytes);
   }
 }
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.worker.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.celeborn.service.deploy.worker.storage.ChunkFetchAdmissionController.Admission;
+
+public class ChunkFetchAdmissionControllerSuiteJ {
+
+  @Test
+  public void testAdmitAndDefer() {
+    ChunkFetchAdmissionController controller = new ChunkFetchAdmissionController(2, 10);
+    List<String> fetched = new ArrayList<>();
+
+    Assert.assertEquals(Admission.ADMITTED, controller.admit("app1", () -> fetched.add("a")));
+    Assert.assertEquals(Admission.ADMITTED, controller.admit("app1", () -> fetched.add("b")));
+    Assert.assertEquals(Admission.DEFERRED, controller.admit("app1", () -> fetched.add("c")));
+    Assert.assertEquals(2, controller.chunksBeingTransferred());
+    Assert.assertEquals(1, controller.numPendingChunks());
+    Assert.assertTrue(fetched.isEmpty());
+
+    // the pending chunk fetch runs when a chunk is sent
+    controller.chunkSent();
+    Assert.assertEquals(Arrays.asList("c"), fetched);
+    Assert.assertEquals(2, controller.chunksBeingTransferred());
+    Assert.assertEquals(0, controller.numPendingChunks());
+
+    controller.chunkSent();
+    controller.chunkSent();
+    Assert.assertEquals(0, controller.chunksBeingTransferred());
+    Assert.assertEquals(Admission.ADMITTED, controller.admit("app1", () -> fetched.add("d")));
+  }
+
+  @Test
+  public void testAppsTakeTurns() {
+    ChunkFetchAdmissionController controller = new ChunkFetchAdmissionController(1, 10);
+    List<String> fetched = new ArrayList<>();
+
+    Assert.assertEquals(Admission.ADMITTED, controller.admit("app1", () -> fetched.add("a1")));
+    controller.admit("app1", () -> fetched.add("a2"));
+    controller.admit("app1", () -> fetched.add("a3"));
+    controller.admit("app1", () -> fetched.add("a4"));
+    controller.admit("app2", () -> fetched.add("b1"));
+    controller.admit("app2", () -> fetched.add("b2"));
+    controller.admit("app3", () -> fetched.add("c1"));
+    Assert.assertEquals(6, controller.numPendingChunks());
+
+    for (int i = 0; i < 7; i++) {
+      controller.chunkSent();
+    }
+    Assert.assertEquals(Arrays.asList("a2", "b1", "c1", "a3", "b2", "a4"), fetched);
+    Assert.assertEquals(0, controller.chunksBeingTransferred());
+  }
+
+  @Test
+  public void testReject() {
+    ChunkFetchAdmissionController controller = new ChunkFetchAdmissionController(1, 1);
+    Assert.assertEquals(Admission.ADMITTED, controller.admit("app1", () -> {}));
+    Assert.assertEquals(Admission.DEFERRED, controller.admit("app1", () -> {}));
+    Assert.assertEquals(Admission.REJECTED, controller.admit("app2", () -> {}));
+    Assert.assertEquals(1, controller.chunksBeingTransferred());
+
+    // fails the chunk fetches over the max instead of deferring them
+    ChunkFetchAdmissionController failFast = new ChunkFetchAdmissionController(1, 0);
+    Assert.assertEquals(Admission.ADMITTED, failFast.admit("app1", () -> {}));
+    Assert.assertEquals(Admission.REJECTED, failFast.admit("app1", () -> {}));
+  }
+
+  @Test
+  public void testDropCancelledPendingFetch() {
+    ChunkFetchAdmissionController controller = new ChunkFetchAdmissionController(1, 10);
+    List<String> fetched = new ArrayList<>();
+    AtomicBoolean inactive = new AtomicBoolean();
+
+    Assert.assertEquals(Admission.ADMITTED, controller.admit("app1", () -> fetched.add("a")));
+    controller.admit("app1", () -> fetched.add("b1"), inactive::get);
+    controller.admit("app1", () -> fetched.add("b2"), inactive::get);
+    controller.admit("app2", () -> fetched.add("c"));
+    Assert.assertEquals(3, controller.numPendingChunks());
+
+    // the client of b1 and b2 is gone, b1 is dropped without taking the chunk sent
+    inactive.set(true);
+    controller.chunkSent();
+    Assert.assertEquals(Arrays.asList("c"), fetched);
+    Assert.assertEquals(1, controller.numPendingChunks());
+    Assert.assertEquals(1, controller.chunksBeingTransferred());
+
+    controller.chunkSent();
+    Assert.assertEquals(Arrays.asList("c"), fetched);
+    Assert.assertEquals(0, controller.numPendingChunks());
+    Assert.assertEquals(0, controller.chunksBeingTransferred());
+    Assert.assertEquals(Admission.ADMITTED, controller.admit("app1", () -> fetched.add("d")));
+  }
+}
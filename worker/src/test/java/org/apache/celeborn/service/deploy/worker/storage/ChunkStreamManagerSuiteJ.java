@@ -62,4 +62,70 @@ public class ChunkStreamManagerSuiteJ {
     manager.cleanupExpiredShuffleKey(new HashSet<>(Arrays.asList("shuffleKey3")));
     Assert.assertEquals(manager.getStreamsCount(), manager.numShuffleSteams());
   }
+
+  @Test
+  public void testEndStreamAndCleanupCloseBuffers() {
+    ChunkStreamManager manager = new ChunkStreamManager();
+    FileChunkBuffers buffers = Mockito.mock(FileChunkBuffers.class);
+    FileChunkBuffers buffers2 = Mockito.mock(FileChunkBuffers.class);
+    long stream = manager.registerStream("shuffleKey1", buffers, "shuffleFile1", null);
+    manager.registerStream("shuffleKey1", buffers2, "shuffleFile2", null);
+
+    // the stream ended is kept registered to be reused
+    manager.endStream(stream);
+    Mockito.verify(buffers).close();
+    Mockito.verify(buffers2, Mockito.never()).close();
+    Assert.assertEquals(2, manager.getStreamsCount());
+
+    manager.cleanupExpiredShuffleKey(new HashSet<>(Arrays.asList("shuffleKey1")));
+    Mockito.verify(buffers, Mockito.times(2)).close();
+    Mockito.verify(buffers2).close();
+  }
+
+  @Test
+  public void testReadAhead() {
+    ChunkStreamManager manager = new ChunkStreamManager(2, Runnable::run);
+    FileChunkBuffers buffers = Mockito.mock(FileChunkBuffers.class);
+    Mockito.when(buffers.numChunks()).thenReturn(5);
+    long stream = manager.registerStream("shuffleKey1", buffers, "shuffleFile1", null);
+
+    manager.getChunk(stream, 0, 0, Integer.MAX_VALUE);
+    Mockito.verify(buffers).readAhead(1, 3);
+    // only the chunks not read ahead yet
+    manager.getChunk(stream, 1, 0, Integer.MAX_VALUE);
+    Mockito.verify(buffers).readAhead(3, 4);
+    manager.getChunk(stream, 1, 0, Integer.MAX_VALUE);
+    manager.getChunk(stream, 3, 0, Integer.MAX_VALUE);
+    Mockito.verify(buffers).readAhead(4, 5);
+    manager.getChunk(stream, 4, 0, Integer.MAX_VALUE);
+    Mockito.verify(buffers, Mockito.times(3)).readAhead(Mockito.anyInt(), Mockito.anyInt());
+
+    // a stream reused after it is ended reads ahead again
+    manager.endStream(stream);
+    manager.getChunk(stream, 0, 0, Integer.MAX_VALUE);
+    Mockito.verify(buffers, Mockito.times(2)).readAhead(1, 3);
+  }
+
+  @Test
+  public void testCloseIdleStreams() {
+    ChunkStreamManager manager = new ChunkStreamManager();
+    FileChunkBuffers buffers = Mockito.mock(FileChunkBuffers.class);
+    FileChunkBuffers buffers2 = Mockito.mock(FileChunkBuffers.class);
+    manager.registerStream("shuffleKey1", buffers, "shuffleFile1", null);
+    manager.registerStream("shuffleKey2", buffers2, "shuffleFile2", null);
+    manager.registerStream(manager.nextStreamId(), "shuffleKey3", "shuffleFile3");
+
+    manager.closeIdleStreams(1000);
+    Mockito.verify(buffers).closeIfIdle(1000);
+    Mockito.verify(buffers2).closeIfIdle(1000);
+    // the streams are kept registered
+    Assert.assertEquals(3, manager.getStreamsCount());
+  }
+
+  @Test
+  public void testStreamAppId() {
+    ChunkStreamManager manager = new ChunkStreamManager();
+    long stream = manager.registerStream(manager.nextStreamId(), "app-1-0", "shuffleFile1");
+    Assert.assertEquals("app-1", manager.getStreamState(stream).appId());
+  }
 }
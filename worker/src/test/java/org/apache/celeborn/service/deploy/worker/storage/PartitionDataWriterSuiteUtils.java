@@ -129,7 +129,9 @@ public class PartitionDataWriterSuiteUtils {
             256,
             "disk1",
             StorageInfo.Type.HDD,
-            null);
+            null,
+            false,
+            false);
     Mockito.doAnswer(
             invocation -> {
               if (callCounter.getAndIncrement() == 0) {
@@ -24,9 +24,15 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -41,6 +47,7 @@ import org.apache.celeborn.common.meta.FileInfo;
 import org.apache.celeborn.common.meta.ReduceFileMeta;
 import org.apache.celeborn.common.unsafe.Platform;
 import org.apache.celeborn.common.util.CelebornExitKind;
+import org.apache.celeborn.common.util.FileChannelUtils;
 import org.apache.celeborn.common.util.JavaUtils;
 import org.apache.celeborn.common.util.Utils;
 import org.apache.celeborn.service.deploy.worker.WorkerSource;
@@ -63,6 +70,10 @@ public class DiskPartitionFilesSorterSuiteJ {
   private static final int MAX_MAP_ID = 50;
 
   public long[] prepare(int mapCount) throws IOException {
+    return prepare(mapCount, false);
+  }
+
+  public long[] prepare(int mapCount, boolean chunkPerBatch) throws IOException {
     long[] partitionSize = new long[MAX_MAP_ID];
     byte[] batchHeader = new byte[16];
     shuffleFile = File.createTempFile("Celeborn", "sort-suite");
@@ -104,6 +115,9 @@ public class DiskPartitionFilesSorterSuiteJ {
         channel.write(buf2);
       }
       partitionSize[mapId] = partitionSize[mapId] + batchHeader.length + mockedData.length;
+      if (chunkPerBatch && i < mapCount - 1) {
+        fileInfo.getReduceFileMeta().getChunkOffsets().add(channel.size());
+      }
     }
     long originFileLen = channel.size();
     fileInfo.getReduceFileMeta().getChunkOffsets().add(originFileLen);
@@ -138,10 +152,17 @@ public class DiskPartitionFilesSorterSuiteJ {
   }
 
   private void check(int mapCount, int startMapIndex, int endMapIndex) throws IOException {
+    check(mapCount, startMapIndex, endMapIndex, 1);
+  }
+
+  private void check(int mapCount, int startMapIndex, int endMapIndex, int parallelism)
+      throws IOException {
     try {
-      long[] partitionSize = prepare(mapCount);
+      long[] partitionSize = prepare(mapCount, parallelism > 1);
       CelebornConf conf = new CelebornConf();
       conf.set(CelebornConf.SHUFFLE_CHUNK_SIZE().key(), "8m");
+      conf.set(CelebornConf.WORKER_PARTITION_SORTER_PARALLELISM().key(), "" + parallelism);
+      conf.set(CelebornConf.WORKER_PARTITION_SORTER_PARALLEL_MIN_FILE_SIZE().key(), "0");
       PartitionFilesSorter partitionFilesSorter =
           new PartitionFilesSorter(MemoryManager.instance(), conf, new WorkerSource(conf));
       FileInfo info =
@@ -163,11 +184,37 @@ public class DiskPartitionFilesSorterSuiteJ {
           ((ReduceFileMeta) info.getFileMeta()).getLastChunkOffset()
               - ((ReduceFileMeta) info.getFileMeta()).getChunkOffsets().get(0);
       Assert.assertEquals(totalSizeToFetch, actualTotalChunkSize);
+      checkSortedFile(partitionSize);
     } finally {
       clean();
     }
   }
 
+  // checks that the sorted file consists of the batches of every map in mapId order
+  private void checkSortedFile(long[] partitionSize) throws IOException {
+    long[] sortedSize = new long[MAX_MAP_ID];
+    ByteBuffer headerBuf = ByteBuffer.allocate(16);
+    try (FileChannel channel =
+        FileChannelUtils.openReadableFileChannel(shuffleFile.getPath() + ".sorted")) {
+      Assert.assertEquals(fileInfo.getFileLength(), channel.size());
+      long position = 0;
+      int lastMapId = -1;
+      while (position < channel.size()) {
+        headerBuf.clear();
+        while (headerBuf.hasRemaining()) {
+          channel.read(headerBuf, position + headerBuf.position());
+        }
+        int mapId = Platform.getInt(headerBuf.array(), Platform.BYTE_ARRAY_OFFSET);
+        int dataSize = Platform.getInt(headerBuf.array(), Platform.BYTE_ARRAY_OFFSET + 12);
+        Assert.assertTrue(mapId >= lastMapId);
+        lastMapId = mapId;
+        sortedSize[mapId] += 16 + dataSize;
+        position += 16 + dataSize;
+      }
+    }
+    Assert.assertArrayEquals(partitionSize, sortedSize);
+  }
+
   @Test
   public void testSmallFile() throws IOException {
     int startMapIndex = random.nextInt(5);
@@ -182,6 +229,38 @@ public class DiskPartitionFilesSorterSuiteJ {
     check(15000, startMapIndex, endMapIndex);
   }
 
+  @Test
+  public void testParallelSort() throws IOException {
+    int startMapIndex = random.nextInt(5);
+    int endMapIndex = startMapIndex + random.nextInt(5) + 5;
+    check(1000, startMapIndex, endMapIndex, 4);
+  }
+
+  @Test
+  public void testParallelTasksFinishedBeforeFailure() {
+    CelebornConf conf = new CelebornConf();
+    PartitionFilesSorter partitionFilesSorter =
+        new PartitionFilesSorter(MemoryManager.instance(), conf, new WorkerSource(conf));
+    CountDownLatch slowTaskStarted = new CountDownLatch(1);
+    AtomicBoolean slowTaskFinished = new AtomicBoolean();
+    List<Callable<Void>> tasks =
+        Arrays.asList(
+            () -> {
+              slowTaskStarted.await(10, TimeUnit.SECONDS);
+              throw new IOException("index failed");
+            },
+            () -> {
+              slowTaskStarted.countDown();
+              Thread.sleep(200);
+              slowTaskFinished.set(true);
+              return null;
+            });
+    Assert.assertThrows(IOException.class, () -> partitionFilesSorter.runInParallel(tasks));
+    // the sort closes its files after the failure, when no task uses them any more
+    Assert.assertTrue(slowTaskFinished.get());
+    partitionFilesSorter.close(CelebornExitKind.EXIT_IMMEDIATELY());
+  }
+
   @Test
   public void testLevelDB() {
     if (Utils.isMacOnAppleSilicon()) {
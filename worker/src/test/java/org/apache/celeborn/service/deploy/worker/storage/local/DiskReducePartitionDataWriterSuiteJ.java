@@ -17,8 +17,10 @@
 
 package org.apache.celeborn.service.deploy.worker.storage.local;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
@@ -27,7 +29,9 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -50,6 +54,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.apache.celeborn.common.CelebornConf;
+import org.apache.celeborn.common.exception.AlreadyClosedException;
 import org.apache.celeborn.common.identity.UserIdentifier;
 import org.apache.celeborn.common.meta.DiskFileInfo;
 import org.apache.celeborn.common.meta.FileInfo;
@@ -117,7 +122,9 @@ public class DiskReducePartitionDataWriterSuiteJ {
             256,
             "disk1",
             StorageInfo.Type.HDD,
-            null);
+            null,
+            false,
+            false);
 
     CelebornConf conf = new CelebornConf();
     conf.set(CelebornConf.WORKER_DIRECT_MEMORY_RATIO_PAUSE_RECEIVE().key(), "0.8");
@@ -312,6 +319,206 @@ public class DiskReducePartitionDataWriterSuiteJ {
     assertEquals(partitionDataWriter.getFile().length(), bytesWritten);
   }
 
+  @Test
+  public void testMultiThreadWriteWithCombinedAppends()
+      throws IOException, ExecutionException, InterruptedException {
+    final int threadsNum = 16;
+    final int batchesPerThread = 200;
+    final int batchSize = 1024;
+    CelebornConf conf = CONF.clone();
+    conf.set(CelebornConf.WORKER_WRITER_COMBINE_APPENDS_ENABLED().key(), "true");
+
+    PartitionDataWriter partitionDataWriter =
+        new ReducePartitionDataWriter(
+            PartitionDataWriterSuiteUtils.prepareDiskFileTestEnvironment(
+                tempDir, userIdentifier, localFlusher, true, conf),
+            source,
+            conf,
+            DeviceMonitor$.MODULE$.EmptyMonitor(),
+            new PartitionDataWriterContext(
+                SPLIT_THRESHOLD,
+                splitMode,
+                false,
+                new PartitionLocation(
+                    1, 0, "host", 1111, 1112, 1113, 1114, PartitionLocation.Mode.PRIMARY, null),
+                "app1-1",
+                1,
+                userIdentifier,
+                PartitionType.REDUCE,
+                false));
+
+    List<Future<?>> futures = new ArrayList<>();
+    ExecutorService es = ThreadUtils.newDaemonFixedThreadPool(threadsNum, "FileWriter-UT-3");
+    for (int i = 0; i < threadsNum; ++i) {
+      final int threadId = i;
+      futures.add(
+          es.submit(
+              () -> {
+                for (int seq = 0; seq < batchesPerThread; seq++) {
+                  ByteBuf buf = Unpooled.buffer(batchSize);
+                  buf.writeInt(threadId);
+                  buf.writeInt(seq);
+                  buf.writerIndex(batchSize);
+                  try {
+                    partitionDataWriter.incrementPendingWrites();
+                    partitionDataWriter.write(buf);
+                  } catch (IOException e) {
+                    LOG.error("Failed to write buffer.", e);
+                  } finally {
+                    buf.release();
+                  }
+                }
+              }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    es.shutdown();
+
+    long bytesWritten = partitionDataWriter.close();
+    assertEquals((long) threadsNum * batchesPerThread * batchSize, bytesWritten);
+
+    // batches of every thread are appended in the order they are written
+    ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(partitionDataWriter.getFile().toPath()));
+    int[] nextSeq = new int[threadsNum];
+    while (file.hasRemaining()) {
+      int threadId = file.getInt(file.position());
+      assertEquals(nextSeq[threadId]++, file.getInt(file.position() + 4));
+      file.position(file.position() + batchSize);
+    }
+    for (int seq : nextSeq) {
+      assertEquals(batchesPerThread, seq);
+    }
+  }
+
+  @Test
+  public void testCombinedAppendsRaceWithClose()
+      throws IOException, ExecutionException, InterruptedException {
+    final int threadsNum = 8;
+    final int maxBatchesPerThread = 100000;
+    final int batchSize = 1024;
+    CelebornConf conf = CONF.clone();
+    conf.set(CelebornConf.WORKER_WRITER_COMBINE_APPENDS_ENABLED().key(), "true");
+
+    PartitionDataWriter partitionDataWriter =
+        new ReducePartitionDataWriter(
+            PartitionDataWriterSuiteUtils.prepareDiskFileTestEnvironment(
+                tempDir, userIdentifier, localFlusher, true, conf),
+            source,
+            conf,
+            DeviceMonitor$.MODULE$.EmptyMonitor(),
+            new PartitionDataWriterContext(
+                SPLIT_THRESHOLD,
+                splitMode,
+                false,
+                new PartitionLocation(
+                    1, 0, "host", 1111, 1112, 1113, 1114, PartitionLocation.Mode.PRIMARY, null),
+                "app1-1",
+                1,
+                userIdentifier,
+                PartitionType.REDUCE,
+                false));
+
+    List<Future<?>> futures = new ArrayList<>();
+    ExecutorService es = ThreadUtils.newDaemonFixedThreadPool(threadsNum + 1, "FileWriter-UT-4");
+    CountDownLatch started = new CountDownLatch(threadsNum);
+    AtomicLong length = new AtomicLong(0);
+    for (int i = 0; i < threadsNum; ++i) {
+      futures.add(
+          es.submit(
+              () -> {
+                started.countDown();
+                for (int n = 0; n < maxBatchesPerThread; n++) {
+                  ByteBuf buf = Unpooled.buffer(batchSize);
+                  buf.writerIndex(batchSize);
+                  try {
+                    partitionDataWriter.write(buf);
+                    // a write returned normally must be in the file
+                    length.addAndGet(batchSize);
+                  } catch (AlreadyClosedException e) {
+                    return null;
+                  } finally {
+                    buf.release();
+                  }
+                }
+                return null;
+              }));
+    }
+    started.await();
+    Future<Long> closed = es.submit(partitionDataWriter::close);
+    long bytesWritten = closed.get();
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    es.shutdown();
+
+    assertEquals(length.get(), bytesWritten);
+    assertEquals(partitionDataWriter.getFile().length(), bytesWritten);
+  }
+
+  @Test
+  public void testCombinedAppendsCompletedForTheirWriters()
+      throws IOException, InterruptedException {
+    CelebornConf conf = CONF.clone();
+    conf.set(CelebornConf.WORKER_WRITER_COMBINE_APPENDS_ENABLED().key(), "true");
+
+    PartitionDataWriter partitionDataWriter =
+        new ReducePartitionDataWriter(
+            PartitionDataWriterSuiteUtils.prepareDiskFileTestEnvironment(
+                tempDir, userIdentifier, localFlusher, true, conf),
+            source,
+            conf,
+            DeviceMonitor$.MODULE$.EmptyMonitor(),
+            new PartitionDataWriterContext(
+                SPLIT_THRESHOLD,
+                splitMode,
+                false,
+                new PartitionLocation(
+                    1, 0, "host", 1111, 1112, 1113, 1114, PartitionLocation.Mode.PRIMARY, null),
+                "app1-1",
+                1,
+                userIdentifier,
+                PartitionType.REDUCE,
+                false));
+
+    ExecutorService es = ThreadUtils.newDaemonFixedThreadPool(2, "FileWriter-UT-5");
+    List<Future<?>> futures = new ArrayList<>();
+    synchronized (partitionDataWriter.getFlushLock()) {
+      // one write holds the append role waiting for the flush lock, the other one is queued
+      for (int i = 0; i < 2; i++) {
+        futures.add(
+            es.submit(
+                () -> {
+                  ByteBuf buf = Unpooled.buffer(1024);
+                  buf.writerIndex(1024);
+                  try {
+                    partitionDataWriter.write(buf);
+                  } finally {
+                    buf.release();
+                  }
+                  return null;
+                }));
+      }
+      Thread.sleep(500);
+      // neither write returns before its batch is appended
+      for (Future<?> future : futures) {
+        assertTrue(!future.isDone());
+      }
+      partitionDataWriter.destroy(new IOException("destroyed"));
+    }
+
+    // the batches failed by destroy are failed for their own writers
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+        fail("the write of a destroyed writer should fail");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof IOException);
+      }
+    }
+    es.shutdown();
+  }
+
   @Test
   public void testMultiThreadWriteDuringClose()
       throws IOException, ExecutionException, InterruptedException {
@@ -364,6 +571,48 @@ public class DiskReducePartitionDataWriterSuiteJ {
     assertEquals(partitionDataWriter.getDiskFileInfo().getFileLength(), bytesWritten.get());
   }
 
+  @Test
+  public void testPrepareCloseBeforeClose() throws IOException {
+    PartitionDataWriter partitionDataWriter =
+        new ReducePartitionDataWriter(
+            PartitionDataWriterSuiteUtils.prepareDiskFileTestEnvironment(
+                tempDir, userIdentifier, localFlusher, true, CONF),
+            source,
+            CONF,
+            DeviceMonitor$.MODULE$.EmptyMonitor(),
+            new PartitionDataWriterContext(
+                SPLIT_THRESHOLD,
+                splitMode,
+                false,
+                new PartitionLocation(
+                    1, 0, "host", 1111, 1112, 1113, 1114, PartitionLocation.Mode.PRIMARY, null),
+                "app1-1",
+                1,
+                userIdentifier,
+                PartitionType.REDUCE,
+                false));
+
+    byte[] bytes = generateData();
+    partitionDataWriter.write(Unpooled.wrappedBuffer(bytes));
+    partitionDataWriter.prepareClose();
+    assertTrue(partitionDataWriter.isClosed());
+    try {
+      partitionDataWriter.write(Unpooled.wrappedBuffer(bytes));
+      fail("Write after prepareClose should fail.");
+    } catch (AlreadyClosedException e) {
+      // expected
+    }
+
+    assertEquals(bytes.length, partitionDataWriter.close());
+    assertEquals(bytes.length, partitionDataWriter.getFile().length());
+    try {
+      partitionDataWriter.close();
+      fail("Close twice should fail.");
+    } catch (AlreadyClosedException e) {
+      // expected
+    }
+  }
+
   @Test
   public void testAfterStressfulWriteWillReadCorrect()
       throws IOException, ExecutionException, InterruptedException {
@@ -414,6 +663,73 @@ public class DiskReducePartitionDataWriterSuiteJ {
     assertEquals(length.get(), bytesWritten);
   }
 
+  @Test
+  public void testWriteWithGatherWriteFlusher() throws IOException {
+    LocalFlusher gatherWriteFlusher =
+        new LocalFlusher(
+            source,
+            DeviceMonitor$.MODULE$.EmptyMonitor(),
+            1,
+            NettyUtils.getPooledByteBufAllocator(new TransportConf("test", CONF), null, true),
+            256,
+            "disk3",
+            StorageInfo.Type.SSD,
+            null,
+            true,
+            false);
+    checkWriteInOrder(gatherWriteFlusher);
+  }
+
+  @Test
+  public void testWriteWithWorkStealingFlusher() throws IOException {
+    LocalFlusher workStealingFlusher =
+        new LocalFlusher(
+            source,
+            DeviceMonitor$.MODULE$.EmptyMonitor(),
+            4,
+            NettyUtils.getPooledByteBufAllocator(new TransportConf("test", CONF), null, true),
+            256,
+            "disk4",
+            StorageInfo.Type.SSD,
+            null,
+            false,
+            true);
+    checkWriteInOrder(workStealingFlusher);
+  }
+
+  private void checkWriteInOrder(LocalFlusher flusher) throws IOException {
+    PartitionDataWriter partitionDataWriter =
+        new ReducePartitionDataWriter(
+            PartitionDataWriterSuiteUtils.prepareDiskFileTestEnvironment(
+                tempDir, userIdentifier, flusher, true, CONF),
+            source,
+            CONF,
+            DeviceMonitor$.MODULE$.EmptyMonitor(),
+            new PartitionDataWriterContext(
+                SPLIT_THRESHOLD,
+                splitMode,
+                false,
+                new PartitionLocation(
+                    1, 0, "host", 1111, 1112, 1113, 1114, PartitionLocation.Mode.PRIMARY, null),
+                "app1-1",
+                1,
+                userIdentifier,
+                PartitionType.REDUCE,
+                false));
+
+    ByteBuffer expected = ByteBuffer.allocate(400 * 4096);
+    for (int i = 0; i < 400; i++) {
+      byte[] bytes = new byte[4096];
+      Arrays.fill(bytes, (byte) i);
+      expected.put(bytes);
+      partitionDataWriter.write(Unpooled.wrappedBuffer(bytes));
+    }
+
+    long bytesWritten = partitionDataWriter.close();
+    assertEquals(expected.capacity(), bytesWritten);
+    assertArrayEquals(expected.array(), Files.readAllBytes(partitionDataWriter.getFile().toPath()));
+  }
+
   @Test
   public void testHugeBufferQueueSize() throws IOException {
     File file = getTemporaryFile();
@@ -428,7 +744,9 @@ public class DiskReducePartitionDataWriterSuiteJ {
             256,
             "disk2",
             StorageInfo.Type.HDD,
-            null);
+            null,
+            false,
+            false);
   }
 
   @Test
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy
+
+import java.util.concurrent.{Executors, TimeUnit}
+
+import scala.util.Random
+
+import org.apache.celeborn.benchmark.{Benchmark, BenchmarkBase}
+import org.apache.celeborn.client.{LifecycleManager, ShuffleClientImpl}
+import org.apache.celeborn.common.CelebornConf
+import org.apache.celeborn.common.identity.UserIdentifier
+import org.apache.celeborn.common.protocol.CompressionCodec
+import org.apache.celeborn.common.util.Utils
+
+/**
+ * Replicated push benchmark on an in-process mini cluster of two workers, with different numbers
+ * of replicate threads of the workers. The mappers push concurrently, so the primary workers
+ * replicate many pushes at a time.
+ * Every case pushes the same data of all mappers, the rate column is the MB/s of that data.
+ * To run this benchmark:
+ * {{{
+ *   1. build/sbt "celeborn-worker/test:runMain <this class>"
+ *   2. generate result:
+ *      CELEBORN_GENERATE_BENCHMARK_FILES=1 build/sbt "celeborn-worker/test:runMain <this class>"
+ *      Results will be written to "benchmarks/ReplicatePushBenchmark-results.txt".
+ * }}}
+ */
+object ReplicatePushBenchmark extends BenchmarkBase with MiniClusterFeature {
+
+  private val app = "benchmark-app"
+  private val numMappers = 8
+  private val numPartitions = 16
+  private val bytesPerMapper = 16 * 1024 * 1024
+  private val pushSize = 64 * 1024
+
+  private var shuffleId = 0
+
+  // pushes the data of every mapper from its own thread, returns the shuffle id
+  private def push(client: ShuffleClientImpl, data: Array[Byte], merged: Boolean): Int = {
+    shuffleId += 1
+    val pool = Executors.newFixedThreadPool(numMappers)
+    try {
+      val futures = (0 until numMappers).map { mapId =>
+        pool.submit(new Runnable {
+          override def run(): Unit = {
+            (0 until bytesPerMapper / pushSize).foreach { i =>
+              val partitionId = (i * 31 + mapId) % numPartitions
+              if (merged) {
+                client.mergeData(
+                  shuffleId,
+                  mapId,
+                  0,
+                  partitionId,
+                  data,
+                  0,
+                  pushSize,
+                  numMappers,
+                  numPartitions)
+              } else {
+                client.pushData(
+                  shuffleId,
+                  mapId,
+                  0,
+                  partitionId,
+                  data,
+                  0,
+                  pushSize,
+                  numMappers,
+                  numPartitions)
+              }
+            }
+            if (merged) {
+              client.pushMergedData(shuffleId, mapId, 0)
+            }
+            client.mapperEnd(shuffleId, mapId, 0, numMappers)
+          }
+        })
+      }
+      futures.foreach(_.get(10, TimeUnit.MINUTES))
+    } finally {
+      pool.shutdownNow()
+    }
+    shuffleId
+  }
+
+  def test(replicateThreads: Int): Unit = {
+    val name = s"$replicateThreads replicate threads"
+    runBenchmark(name) {
+      val (master, _) = setupMiniClusterWithRandomPorts(
+        workerConf = Map(CelebornConf.WORKER_REPLICATE_THREADS.key -> replicateThreads.toString),
+        workerNum = 2)
+      val conf = new CelebornConf()
+        .set(CelebornConf.MASTER_ENDPOINTS.key, s"localhost:${master.conf.masterPort}")
+        .set(CelebornConf.SHUFFLE_COMPRESSION_CODEC.key, CompressionCodec.NONE.name)
+        .set(CelebornConf.CLIENT_PUSH_REPLICATE_ENABLED.key, "true")
+        .set(CelebornConf.CLIENT_PUSH_BUFFER_MAX_SIZE.key, pushSize.toString)
+      val lifecycleManager = new LifecycleManager(app, conf)
+      val client = new ShuffleClientImpl(app, conf, UserIdentifier("benchmark", "benchmark"))
+      client.setupLifecycleManagerRef(lifecycleManager.self)
+      val data = new Array[Byte](pushSize)
+      Random.nextBytes(data)
+
+      val benchmark = new Benchmark(
+        name,
+        numMappers.toLong * bytesPerMapper,
+        output = output,
+        resultOutput = resultOutput)
+      Seq(false, true).foreach { merged =>
+        benchmark.addCase(if (merged) "push merged data" else "push data") { _ =>
+          val shuffleId = push(client, data, merged)
+          lifecycleManager.unregisterShuffle(shuffleId)
+          client.cleanupShuffle(shuffleId)
+        }
+      }
+      benchmark.run()
+
+      client.shutdown()
+      lifecycleManager.stop()
+      shutdownMiniCluster()
+    }
+  }
+
+  override def runBenchmarkSuite(mainArgs: Array[String]): Unit = {
+    Seq(1, 4, 64).foreach(test)
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.cluster
+
+import java.nio.charset.StandardCharsets
+
+import scala.collection.JavaConverters._
+
+import org.junit.Assert
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.funsuite.AnyFunSuite
+
+import org.apache.celeborn.client.{LifecycleManager, ShuffleClientImpl}
+import org.apache.celeborn.client.read.MetricsCallback
+import org.apache.celeborn.common.CelebornConf
+import org.apache.celeborn.common.identity.UserIdentifier
+import org.apache.celeborn.common.internal.Logging
+import org.apache.celeborn.service.deploy.MiniClusterFeature
+
+class ReducerFileGroupShardSuite extends AnyFunSuite
+  with Logging with MiniClusterFeature with BeforeAndAfterAll {
+
+  var masterPort = 0
+
+  override def beforeAll(): Unit = {
+    val (m, _) = setupMiniClusterWithRandomPorts()
+    masterPort = m.conf.masterPort
+  }
+
+  override def afterAll(): Unit = {
+    shutdownMiniCluster()
+  }
+
+  test("get reducer file groups by shards") {
+    val APP = "app-1"
+    val numPartitions = 10
+    val clientConf = new CelebornConf()
+      .set(CelebornConf.MASTER_ENDPOINTS.key, s"localhost:$masterPort")
+      .set(CelebornConf.CLIENT_RPC_GET_REDUCER_FILE_GROUP_SHARD_SIZE.key, "3")
+    val lifecycleManager = new LifecycleManager(APP, clientConf)
+    val shuffleClient = new ShuffleClientImpl(APP, clientConf, UserIdentifier("mock", "mock"))
+    shuffleClient.setupLifecycleManagerRef(lifecycleManager.self)
+
+    (0 until numPartitions).foreach { partitionId =>
+      val data = s"partition-$partitionId".getBytes(StandardCharsets.UTF_8)
+      shuffleClient.pushData(1, 0, 0, partitionId, data, 0, data.length, 1, numPartitions)
+    }
+    shuffleClient.mapperEnd(1, 0, 0, 1)
+
+    // only the shard of the partition is got
+    val shardFileGroups = shuffleClient.updateFileGroup(1, 4)
+    Assert.assertEquals(
+      Set(3, 4, 5),
+      shardFileGroups.partitionGroups.keySet().asScala.map(_.intValue()).toSet)
+    Assert.assertArrayEquals(Array(0), shardFileGroups.mapAttempts)
+
+    // shards covering the partition range are merged
+    val rangeFileGroups = shuffleClient.updateFileGroup(1, 2, 7)
+    Assert.assertEquals(
+      (0 until 9).toSet,
+      rangeFileGroups.partitionGroups.keySet().asScala.map(_.intValue()).toSet)
+    Assert.assertEquals(
+      Set(9),
+      shuffleClient.updateFileGroup(1, 9, 10).partitionGroups.keySet().asScala.map(_.intValue())
+        .toSet)
+
+    val metricsCallback = new MetricsCallback {
+      override def incBytesRead(bytesWritten: Long): Unit = {}
+      override def incReadTime(time: Long): Unit = {}
+    }
+    (0 until numPartitions).foreach { partitionId =>
+      val inputStream = shuffleClient.readPartition(
+        1,
+        partitionId,
+        0,
+        0,
+        Integer.MAX_VALUE,
+        metricsCallback)
+      val readBytes = new Array[Byte](64)
+      val length = inputStream.read(readBytes)
+      Assert.assertEquals(
+        s"partition-$partitionId",
+        new String(readBytes, 0, length, StandardCharsets.UTF_8))
+      inputStream.close()
+    }
+
+    shuffleClient.shutdown()
+    lifecycleManager.rpcEnv.shutdown()
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.worker
+
+import java.io.IOException
+import java.util.concurrent.{ConcurrentHashMap, Executors, TimeUnit}
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.collection.JavaConverters._
+
+import org.mockito.Mockito.inOrder
+import org.mockito.MockitoSugar._
+import org.mockito.invocation.InvocationOnMock
+import org.scalatest.funsuite.AnyFunSuite
+
+import org.apache.celeborn.service.deploy.worker.storage.{HdfsFlusher, LocalFlusher, PartitionDataWriter}
+
+class CommitSchedulerSuite extends AnyFunSuite {
+
+  private val localFlushers =
+    Map("disk1" -> mockLocalFlusher("disk1"), "disk2" -> mockLocalFlusher("disk2"))
+
+  private def mockLocalFlusher(mountPoint: String): LocalFlusher = {
+    val flusher = mock[LocalFlusher]
+    when(flusher.mountPoint).thenReturn(mountPoint)
+    flusher
+  }
+
+  private def mockWriter(disk: String, close: => Long): PartitionDataWriter = {
+    val writer = mock[PartitionDataWriter]
+    writer.flusher = localFlushers.getOrElse(disk, if (disk == "HDFS") mock[HdfsFlusher] else null)
+    when(writer.close()).thenAnswer((_: InvocationOnMock) => close)
+    writer
+  }
+
+  private class Results {
+    val committed = new ConcurrentHashMap[String, java.lang.Long]()
+    val failed = new ConcurrentHashMap[String, IOException]()
+
+    def onCommitted(uniqueId: String, writer: PartitionDataWriter, bytes: Long): Unit =
+      committed.put(uniqueId, bytes)
+
+    def onFailed(uniqueId: String, e: IOException): Unit = failed.put(uniqueId, e)
+  }
+
+  test("commit the writers of a disk in batches with capped concurrency") {
+    val pool = Executors.newFixedThreadPool(8)
+    try {
+      val scheduler = new CommitScheduler(pool, 1, 2, false)
+      val running = Map("disk1" -> new AtomicInteger(), "disk2" -> new AtomicInteger())
+      val maxRunning = Map("disk1" -> new AtomicInteger(), "disk2" -> new AtomicInteger())
+      def close(disk: String): Long = {
+        val current = running(disk).incrementAndGet()
+        maxRunning(disk).accumulateAndGet(current, Math.max)
+        Thread.sleep(5)
+        running(disk).decrementAndGet()
+        10L
+      }
+      val writers = (0 until 6).map(i => s"$i-0" -> mockWriter("disk1", close("disk1"))) ++
+        (6 until 8).map(i => s"$i-0" -> mockWriter("disk2", close("disk2")))
+      val results = new Results
+      scheduler.commit(writers, _ => {}, results.onCommitted, results.onFailed)
+        .get(10, TimeUnit.SECONDS)
+
+      assert(results.committed.keySet().asScala == writers.map(_._1).toSet)
+      assert(results.failed.isEmpty)
+      assert(maxRunning("disk1").get() == 1)
+      assert(maxRunning("disk2").get() == 1)
+
+      // the final flushes of a batch are submitted before any writer of the batch is closed
+      val (writer0, writer1) = (writers(0)._2, writers(1)._2)
+      val order = inOrder(writer0, writer1)
+      order.verify(writer0).prepareClose()
+      order.verify(writer1).prepareClose()
+      order.verify(writer0).close()
+      order.verify(writer1).close()
+    } finally {
+      pool.shutdownNow()
+    }
+  }
+
+  test("sync the files of local disks after all of them are closed in durable mode") {
+    val pool = Executors.newFixedThreadPool(4)
+    try {
+      val closed = new AtomicInteger()
+      val synced = new ConcurrentHashMap[String, AtomicInteger]()
+      val writers = Seq(
+        "0-0" -> mockWriter("disk1", 10L),
+        "1-0" -> mockWriter("disk1", 10L),
+        "2-0" -> mockWriter("disk1", throw new IOException("close failed")),
+        "3-0" -> mockWriter("disk1", 10L),
+        "4-0" -> mockWriter("disk1", 10L),
+        "5-0" -> mockWriter("disk2", 10L),
+        "6-0" -> mockWriter("disk2", throw new IOException("close failed")),
+        "7-0" -> mockWriter("HDFS", 10L),
+        "8-0" -> mockWriter("memory", 0L))
+      val scheduler = new CommitScheduler(
+        pool,
+        2,
+        2,
+        true,
+        writer => {
+          val disk = CommitScheduler.diskOf(writer)
+          // the three batches of disk1 are all closed before its files are synced
+          if (disk == "disk1") {
+            assert(closed.get() >= 5)
+          }
+          synced.computeIfAbsent(disk, (_: String) => new AtomicInteger()).incrementAndGet()
+          if (writer eq writers(4)._2) {
+            throw new IOException("sync failed")
+          }
+        })
+      writers.foreach { case (_, writer) =>
+        doAnswer((_: InvocationOnMock) => {
+          if (CommitScheduler.diskOf(writer) == "disk1") {
+            closed.incrementAndGet()
+          }
+        }).when(writer).prepareClose()
+      }
+      val results = new Results
+      scheduler.commit(writers, _ => {}, results.onCommitted, results.onFailed)
+        .get(10, TimeUnit.SECONDS)
+
+      // only the files of the local disks closed are synced
+      assert(synced.asScala.map { case (disk, count) => disk -> count.get() } ==
+        Map("disk1" -> 4, "disk2" -> 1))
+      assert(results.committed.asScala.toMap == Map[String, java.lang.Long](
+        "0-0" -> 10L,
+        "1-0" -> 10L,
+        "3-0" -> 10L,
+        "5-0" -> 10L,
+        "7-0" -> 10L,
+        "8-0" -> 0L))
+      assert(results.failed.keySet().asScala == Set("2-0", "4-0", "6-0"))
+      assert(results.failed.get("2-0").getMessage == "close failed")
+      assert(results.failed.get("4-0").getMessage == "sync failed")
+    } finally {
+      pool.shutdownNow()
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.worker
+
+import java.util
+
+import scala.collection.JavaConverters._
+
+import org.scalatest.funsuite.AnyFunSuite
+
+import org.apache.celeborn.common.identity.UserIdentifier
+import org.apache.celeborn.common.meta.{DiskInfo, WorkerStatus}
+import org.apache.celeborn.common.protocol.message.ControlMessages.HeartbeatFromWorker
+import org.apache.celeborn.common.quota.ResourceConsumption
+
+class HeartbeatDeltaTrackerSuite extends AnyFunSuite {
+
+  private val user1 = UserIdentifier("tenant", "user1")
+  private val user2 = UserIdentifier("tenant", "user2")
+
+  private def heartbeat(
+      tracker: HeartbeatDeltaTracker,
+      disks: Seq[DiskInfo],
+      consumptions: Map[UserIdentifier, ResourceConsumption],
+      shuffleKeys: Set[String],
+      time: Long): HeartbeatFromWorker = {
+    tracker.buildHeartbeat(
+      "host1",
+      9095,
+      9096,
+      9097,
+      9098,
+      disks,
+      new util.HashMap[UserIdentifier, ResourceConsumption](consumptions.asJava),
+      new util.HashSet[String](shuffleKeys.asJava),
+      new util.HashMap[String, java.lang.Long](),
+      highWorkload = false,
+      WorkerStatus.normalWorkerStatus(),
+      time)
+  }
+
+  test("build delta heartbeats since the acked heartbeat") {
+    val tracker = new HeartbeatDeltaTracker(60000)
+    val disk1 = new DiskInfo("disk1", 100, 10, 10, 1)
+    val disk2 = new DiskInfo("disk2", 100, 10, 10, 2)
+    val full = heartbeat(
+      tracker,
+      Seq(disk1, disk2),
+      Map(user1 -> ResourceConsumption(1, 1, 1, 1), user2 -> ResourceConsumption(2, 2, 2, 2)),
+      Set("app1-0", "app1-1"),
+      0)
+    assert(!full.delta)
+    assert(full.heartbeatVersion == 1)
+    assert(full.disks.size == 2)
+    tracker.ack(false)
+
+    disk1.activeSlots = 5
+    val delta = heartbeat(
+      tracker,
+      Seq(disk1),
+      Map(user1 -> ResourceConsumption(3, 3, 3, 3), user2 -> ResourceConsumption(2, 2, 2, 2)),
+      Set("app1-1", "app2-0"),
+      1000)
+    assert(delta.delta)
+    assert(delta.heartbeatVersion == 2)
+    assert(delta.baseHeartbeatVersion == 1)
+    assert(delta.disks.map(_.mountPoint) == Seq("disk1"))
+    assert(delta.removedDisks.asScala == Set("disk2"))
+    assert(delta.userResourceConsumption.asScala == Map(user1 -> ResourceConsumption(3, 3, 3, 3)))
+    assert(delta.removedUserIdentifiers.isEmpty)
+    assert(delta.activeShuffleKeys.asScala == Set("app2-0"))
+    assert(delta.removedShuffleKeys.asScala == Set("app1-0"))
+
+    // the heartbeat is not acked, so the next delta is still based on the first heartbeat
+    val retry =
+      heartbeat(tracker, Seq(disk1), Map(user1 -> ResourceConsumption(3, 3, 3, 3)), Set(), 2000)
+    assert(retry.baseHeartbeatVersion == 1)
+    assert(retry.removedUserIdentifiers.asScala == Set(user2))
+    assert(retry.removedShuffleKeys.asScala == Set("app1-0", "app1-1"))
+    tracker.ack(false)
+
+    val unchanged =
+      heartbeat(tracker, Seq(disk1), Map(user1 -> ResourceConsumption(3, 3, 3, 3)), Set(), 3000)
+    assert(unchanged.delta)
+    assert(unchanged.baseHeartbeatVersion == 3)
+    assert(unchanged.disks.isEmpty)
+    assert(unchanged.userResourceConsumption.isEmpty)
+    assert(unchanged.activeShuffleKeys.isEmpty)
+    assert(unchanged.removedShuffleKeys.isEmpty)
+  }
+
+  test("build full heartbeats to resync") {
+    val tracker = new HeartbeatDeltaTracker(60000)
+    val disks = Seq(new DiskInfo("disk1", 100, 10, 10, 1))
+    assert(!heartbeat(tracker, disks, Map(), Set("app1-0"), 0).delta)
+    tracker.ack(false)
+    assert(heartbeat(tracker, disks, Map(), Set("app1-0"), 1000).delta)
+    // master requires a full heartbeat
+    tracker.ack(true)
+    assert(!heartbeat(tracker, disks, Map(), Set("app1-0"), 2000).delta)
+    tracker.ack(false)
+    assert(heartbeat(tracker, disks, Map(), Set("app1-0"), 3000).delta)
+    tracker.ack(false)
+    // the worker registers again
+    tracker.reset()
+    assert(!heartbeat(tracker, disks, Map(), Set("app1-0"), 4000).delta)
+    tracker.ack(false)
+    // full sync interval
+    assert(heartbeat(tracker, disks, Map(), Set("app1-0"), 63999).delta)
+    tracker.ack(false)
+    assert(!heartbeat(tracker, disks, Map(), Set("app1-0"), 64000).delta)
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.worker
+
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.{ConcurrentHashMap, LinkedBlockingQueue, ThreadPoolExecutor, TimeUnit}
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.concurrent.{Await, Promise}
+import scala.concurrent.duration.Duration
+
+import org.mockito.ArgumentMatchers.{anyInt, anyString}
+import org.mockito.Mockito.{times, verify}
+import org.mockito.MockitoSugar._
+import org.scalatest.BeforeAndAfterEach
+import org.scalatest.funsuite.AnyFunSuite
+
+import org.apache.celeborn.common.CelebornConf
+import org.apache.celeborn.common.meta.WorkerInfo
+import org.apache.celeborn.common.network.client.{RpcResponseCallback, TransportClient, TransportClientFactory}
+import org.apache.celeborn.common.protocol.PartitionLocation
+import org.apache.celeborn.common.protocol.message.StatusCode
+
+class PushDataHandlerSuite extends AnyFunSuite with BeforeAndAfterEach {
+
+  private var replicateThreadPool: ThreadPoolExecutor = _
+  private var unavailablePeers: ConcurrentHashMap[WorkerInfo, Long] = _
+  private var clientFactory: TransportClientFactory = _
+  private var handler: PushDataHandler = _
+
+  private val location = {
+    val location =
+      new PartitionLocation(0, 0, "host1", 1, 2, 3, 4, PartitionLocation.Mode.PRIMARY)
+    location.setPeer(
+      new PartitionLocation(0, 0, "host2", 5, 6, 7, 8, PartitionLocation.Mode.REPLICA))
+    location
+  }
+
+  private class Callback extends RpcResponseCallback {
+    val result = Promise[ByteBuffer]()
+
+    override def onSuccess(response: ByteBuffer): Unit = result.success(response)
+
+    override def onFailure(e: Throwable): Unit = result.failure(e)
+  }
+
+  override def beforeEach(): Unit = {
+    replicateThreadPool =
+      new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue[Runnable]())
+    unavailablePeers = new ConcurrentHashMap[WorkerInfo, Long]()
+    clientFactory = mock[TransportClientFactory]
+    handler = new PushDataHandler(new WorkerSource(new CelebornConf()))
+    handler.initReplicate(replicateThreadPool, unavailablePeers, clientFactory, 1, false)
+  }
+
+  override def afterEach(): Unit = {
+    replicateThreadPool.shutdownNow()
+  }
+
+  private def mockClient(): TransportClient = {
+    val client = mock[TransportClient]
+    when(client.isActive).thenReturn(true)
+    client
+  }
+
+  // replicates to the peer, returns the client that the data is sent with
+  private def replicate(callback: Callback, released: AtomicInteger): Promise[TransportClient] = {
+    val sent = Promise[TransportClient]()
+    handler.replicate(location, "PushData", callback, () => released.incrementAndGet()) {
+      client => sent.success(client)
+    }
+    sent
+  }
+
+  test("reuse the cached client of the peer") {
+    val client = mockClient()
+    when(clientFactory.createClient("host2", 8, 0)).thenReturn(client)
+    val released = new AtomicInteger()
+
+    val sent = replicate(new Callback, released)
+    assert(Await.result(sent.future, Duration(10, TimeUnit.SECONDS)) eq client)
+    // sent from the calling thread with the cached client
+    val sentAgain = replicate(new Callback, released)
+    assert(sentAgain.isCompleted)
+    assert(sentAgain.future.value.get.get eq client)
+
+    verify(clientFactory, times(1)).createClient(anyString(), anyInt(), anyInt())
+    assert(released.get() == 0)
+    assert(handler.numReplicatePeers == 1)
+  }
+
+  test("reconnect the peer after the cached client is inactive") {
+    val client = mockClient()
+    val newClient = mockClient()
+    when(clientFactory.createClient("host2", 8, 0)).thenReturn(client, newClient)
+    val released = new AtomicInteger()
+
+    val sent = replicate(new Callback, released)
+    assert(Await.result(sent.future, Duration(10, TimeUnit.SECONDS)) eq client)
+    when(client.isActive).thenReturn(false)
+    val sentAgain = replicate(new Callback, released)
+    assert(Await.result(sentAgain.future, Duration(10, TimeUnit.SECONDS)) eq newClient)
+
+    verify(clientFactory, times(2)).createClient(anyString(), anyInt(), anyInt())
+    assert(released.get() == 0)
+  }
+
+  test("release the body if the peer is unavailable") {
+    when(clientFactory.createClient("host2", 8, 0)).thenThrow(new IOException("connect failed"))
+    val released = new AtomicInteger()
+
+    val callback = new Callback
+    replicate(callback, released)
+    val e = intercept[IOException] {
+      Await.result(callback.result.future, Duration(10, TimeUnit.SECONDS))
+    }
+    assert(e.getMessage == StatusCode.PUSH_DATA_CREATE_CONNECTION_FAIL_REPLICA.name())
+    assert(released.get() == 1)
+    assert(unavailablePeers.containsKey(new WorkerInfo("host2", 5, 6, 7, 8)))
+    // the peer marked unavailable is evicted with its cached clients
+    assert(handler.numReplicatePeers == 0)
+
+    // fails fast without connecting the unavailable peer
+    val callbackAgain = new Callback
+    val sent = replicate(callbackAgain, released)
+    assert(callbackAgain.result.isCompleted)
+    assert(callbackAgain.result.future.value.get.isFailure)
+    assert(!sent.isCompleted)
+    assert(released.get() == 2)
+    verify(clientFactory, times(1)).createClient(anyString(), anyInt(), anyInt())
+    assert(handler.numReplicatePeers == 0)
+  }
+
+  test("reply the response of the replica after the local write") {
+    val writePromise = Promise[Unit]()
+    val callback = new Callback
+    val replicaCallback =
+      handler.replicaResponseCallback(location, "PushData", writePromise, callback) { () =>
+        callback.onSuccess(ByteBuffer.wrap(Array[Byte]()))
+      }
+    val response = ByteBuffer.wrap("congested".getBytes(StandardCharsets.UTF_8))
+    replicaCallback.onSuccess(response)
+    // the response of the replica is released once onSuccess returns
+    response.put(0, 0.toByte)
+    assert(!callback.result.isCompleted)
+
+    writePromise.success(())
+    val reply = Await.result(callback.result.future, Duration(10, TimeUnit.SECONDS))
+    assert(StandardCharsets.UTF_8.decode(reply).toString == "congested")
+
+    // the empty response is replied by the handler after the local write
+    val emptyWritePromise = Promise[Unit]()
+    val emptyCallback = new Callback
+    val replied = new AtomicInteger()
+    handler.replicaResponseCallback(location, "PushData", emptyWritePromise, emptyCallback) {
+      () => replied.incrementAndGet()
+    }.onSuccess(ByteBuffer.allocate(0))
+    assert(replied.get() == 0)
+    emptyWritePromise.success(())
+    assert(replied.get() == 1)
+
+    // the failure of the local write is replied even if the replica succeeded
+    val failedWritePromise = Promise[Unit]()
+    val failedCallback = new Callback
+    handler.replicaResponseCallback(location, "PushData", failedWritePromise, failedCallback) {
+      () => replied.incrementAndGet()
+    }.onSuccess(ByteBuffer.allocate(0))
+    failedWritePromise.failure(new IOException("write failed"))
+    assert(failedCallback.result.future.value.get.failed.get.getMessage == "write failed")
+    assert(replied.get() == 1)
+  }
+}
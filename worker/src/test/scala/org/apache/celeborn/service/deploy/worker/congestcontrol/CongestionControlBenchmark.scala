@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.worker.congestcontrol
+
+import java.util.concurrent.{CountDownLatch, Executors, TimeUnit}
+
+import org.apache.celeborn.benchmark.{Benchmark, BenchmarkBase}
+
+/**
+ * Congestion control benchmark, recording the pushed bytes of users from 64 push threads
+ * concurrently, like PartitionDataWriter does for every push.
+ * The rate column is the recorded pushes per second of all threads.
+ * To run this benchmark:
+ * {{{
+ *   1. build/sbt "celeborn-worker/test:runMain <this class>"
+ *   2. generate result:
+ *      CELEBORN_GENERATE_BENCHMARK_FILES=1 build/sbt "celeborn-worker/test:runMain <this class>"
+ *      Results will be written to "benchmarks/CongestionControlBenchmark-results.txt".
+ * }}}
+ */
+object CongestionControlBenchmark extends BenchmarkBase {
+
+  private val numThreads = 64
+  private val pushesPerThread = 100000
+  private val sampleTimeWindowSeconds = 10
+
+  private def recordPushes(numUsers: Int): Unit = {
+    val users = (0 until numUsers).map { _ =>
+      new UserBufferInfo(
+        System.currentTimeMillis(),
+        new BufferStatusHub(sampleTimeWindowSeconds))
+    }
+    val pool = Executors.newFixedThreadPool(numThreads)
+    try {
+      val start = new CountDownLatch(1)
+      val done = new CountDownLatch(numThreads)
+      (0 until numThreads).foreach { i =>
+        val user = users(i % numUsers)
+        pool.execute(new Runnable {
+          override def run(): Unit = {
+            start.await()
+            var n = 0
+            while (n < pushesPerThread) {
+              user.updateInfo(System.currentTimeMillis(), 64 * 1024)
+              n += 1
+            }
+            done.countDown()
+          }
+        })
+      }
+      start.countDown()
+      assert(done.await(10, TimeUnit.MINUTES))
+    } finally {
+      pool.shutdownNow()
+    }
+  }
+
+  override def runBenchmarkSuite(mainArgs: Array[String]): Unit = {
+    val name = s"record pushes from $numThreads threads"
+    runBenchmark(name) {
+      val benchmark = new Benchmark(
+        name,
+        numThreads.toLong * pushesPerThread,
+        output = output,
+        resultOutput = resultOutput)
+      Seq(1, 8, 64).foreach { numUsers =>
+        benchmark.addCase(s"$numUsers users") { _ =>
+          recordPushes(numUsers)
+        }
+      }
+      benchmark.run()
+    }
+  }
+}
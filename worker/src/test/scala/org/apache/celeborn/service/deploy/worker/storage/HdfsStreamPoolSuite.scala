@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.celeborn.service.deploy.worker.storage
+
+import java.io.File
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+
+import io.netty.buffer.Unpooled
+import org.apache.hadoop.conf.Configuration
+import org.apache.hadoop.fs.{FileSystem, Path, RawLocalFileSystem}
+
+import org.apache.celeborn.CelebornFunSuite
+import org.apache.celeborn.common.util.{JavaUtils, Utils}
+
+class HdfsStreamPoolSuite extends CelebornFunSuite {
+
+  private var tempDir: File = _
+  private var originalFs: FileSystem = _
+
+  override def beforeAll(): Unit = {
+    super.beforeAll()
+    tempDir = Utils.createTempDir()
+    originalFs = StorageManager.hadoopFs
+    val fs = new RawLocalFileSystem()
+    fs.initialize(tempDir.toURI, new Configuration())
+    StorageManager.hadoopFs = fs
+  }
+
+  override def afterAll(): Unit = {
+    StorageManager.hadoopFs = originalFs
+    JavaUtils.deleteRecursively(tempDir)
+    super.afterAll()
+  }
+
+  private def createFile(name: String): Path = {
+    val path = new Path(new File(tempDir, name).toURI)
+    StorageManager.hadoopFs.create(path, true).close()
+    path
+  }
+
+  private def write(pool: HdfsStreamPool, path: Path, data: String): Unit = {
+    val buffer = Unpooled.wrappedBuffer(data.getBytes(StandardCharsets.UTF_8))
+    pool.write(path, buffer)
+    // the reader index is untouched so that the flusher can return the buffer as it is
+    assert(buffer.readerIndex() == 0)
+  }
+
+  private def content(path: Path): String = {
+    new String(Files.readAllBytes(new File(path.toUri).toPath), StandardCharsets.UTF_8)
+  }
+
+  test("keep streams open across flushes and close them on commit") {
+    val pool = new HdfsStreamPool(4)
+    val path = createFile("keep-open")
+    write(pool, path, "a")
+    write(pool, path, "b")
+    assert(pool.numOpenStreams == 1)
+    pool.close(path)
+    assert(pool.numOpenStreams == 0)
+    assert(content(path) == "ab")
+  }
+
+  test("evict least recently written streams beyond the cap") {
+    val pool = new HdfsStreamPool(2)
+    val paths = (0 until 3).map(i => createFile(s"evict-$i"))
+    write(pool, paths(0), "0")
+    write(pool, paths(1), "1")
+    write(pool, paths(0), "0")
+    write(pool, paths(2), "2")
+    assert(pool.numOpenStreams == 2)
+    // paths(1) was evicted and is appended again by its next write
+    write(pool, paths(1), "1")
+    assert(pool.numOpenStreams == 2)
+    paths.foreach(pool.close)
+    assert(content(paths(0)) == "00")
+    assert(content(paths(1)) == "11")
+    assert(content(paths(2)) == "2")
+  }
+
+  test("discard stream of a destroyed file") {
+    val pool = new HdfsStreamPool(2)
+    val path = createFile("discard")
+    write(pool, path, "a")
+    pool.discard(path)
+    assert(pool.numOpenStreams == 0)
+    // closing the discarded file again is a no-op
+    pool.close(path)
+  }
+}